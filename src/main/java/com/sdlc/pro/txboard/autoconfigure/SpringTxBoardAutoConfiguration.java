@@ -6,6 +6,7 @@ import com.sdlc.pro.txboard.listener.SqlExecutionLogListener;
 import com.sdlc.pro.txboard.listener.TransactionLogListener;
 import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
 import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -26,10 +27,16 @@ import java.util.List;
 @ConditionalOnProperty(prefix = "sdlc.pro.spring.tx.board", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class SpringTxBoardAutoConfiguration {
 
+    @Bean("sdlcProQueryDictionary")
+    public QueryDictionary queryDictionary(TxBoardProperties txBoardProperties) {
+        return new QueryDictionary(txBoardProperties.getSql().getDictionaryCapacity());
+    }
+
     @Bean("sdlcProTxPhaseListener")
     public TransactionPhaseListener transactionPhaseListener(TxBoardProperties txBoardProperties,
+                                                             QueryDictionary queryDictionary,
                                                              List<TransactionLogListener> transactionLogListeners,
                                                              List<SqlExecutionLogListener> sqlExecutionLogListeners) {
-        return new TransactionPhaseListenerImpl(txBoardProperties,transactionLogListeners, sqlExecutionLogListeners);
+        return new TransactionPhaseListenerImpl(txBoardProperties, queryDictionary, transactionLogListeners, sqlExecutionLogListeners);
     }
 }
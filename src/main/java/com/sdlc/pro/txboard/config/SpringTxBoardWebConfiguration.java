@@ -2,6 +2,8 @@ package com.sdlc.pro.txboard.config;
 
 import com.google.gson.*;
 import com.sdlc.pro.txboard.controller.SpringTxBoardController;
+import com.sdlc.pro.txboard.controller.SpringTxBoardExportController;
+import com.sdlc.pro.txboard.controller.SpringTxBoardReactiveExportController;
 import com.sdlc.pro.txboard.listener.SqlExecutionLogListener;
 import com.sdlc.pro.txboard.listener.SqlExecutionLogPersistenceListener;
 import com.sdlc.pro.txboard.listener.TransactionLogListener;
@@ -10,6 +12,7 @@ import com.sdlc.pro.txboard.redis.JedisJsonOperation;
 import com.sdlc.pro.txboard.redis.LettuceJsonOperation;
 import com.sdlc.pro.txboard.redis.RedisJsonOperation;
 import com.sdlc.pro.txboard.repository.*;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -56,8 +59,9 @@ public class SpringTxBoardWebConfiguration implements ApplicationContextAware {
         log.info("Spring Tx Board is configured to use {} storage for transaction logs.", storageType);
 
         return switch (storageType) {
-            case IN_MEMORY -> new InMemoryTransactionLogRepository(txBoardProperties);
+            case IN_MEMORY -> new InMemoryTransactionLogRepository(txBoardProperties, this.resolveQueryDictionary());
             case REDIS -> new RedisTransactionLogRepository(this.resolveRedisJsonOperation(), txBoardProperties);
+            case FILE -> new FileTransactionLogRepository(txBoardProperties, this.resolveQueryDictionary());
         };
     }
 
@@ -68,11 +72,16 @@ public class SpringTxBoardWebConfiguration implements ApplicationContextAware {
         log.info("Spring Tx Board is configured to use {} storage for sql execution logs.", storageType);
 
         return switch (storageType) {
-            case IN_MEMORY -> new InMemorySqlExecutionLogRepository();
+            case IN_MEMORY -> new InMemorySqlExecutionLogRepository(txBoardProperties);
             case REDIS -> new RedisSqlExecutionLogRepository(this.resolveRedisJsonOperation(), txBoardProperties);
+            case FILE -> new FileSqlExecutionLogRepository(txBoardProperties, this.resolveQueryDictionary());
         };
     }
 
+    private QueryDictionary resolveQueryDictionary() {
+        return this.applicationContext.getBeanProvider(QueryDictionary.class).getIfAvailable();
+    }
+
     private RedisJsonOperation resolveRedisJsonOperation() {
         return this.applicationContext.getBean("sdlcProRedisJsonOperation", RedisJsonOperation.class);
     }
@@ -114,6 +123,7 @@ public class SpringTxBoardWebConfiguration implements ApplicationContextAware {
 
     @Configuration
     @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @Import(SpringTxBoardExportController.class)
     public static class WebMvcConfig implements WebMvcConfigurer {
         @Override
         public void addResourceHandlers(ResourceHandlerRegistry registry) {
@@ -130,6 +140,7 @@ public class SpringTxBoardWebConfiguration implements ApplicationContextAware {
 
     @Configuration
     @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @Import(SpringTxBoardReactiveExportController.class)
     public static class WebFluxConfig implements WebFluxConfigurer {
         @Override
         public void addResourceHandlers(org.springframework.web.reactive.config.ResourceHandlerRegistry registry) {
@@ -1,6 +1,7 @@
 package com.sdlc.pro.txboard.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.util.Collections;
@@ -15,6 +16,11 @@ public class TxBoardProperties {
     private List<Integer> durationBuckets = List.of(100, 500, 1000, 2000, 5000);
     private LogType logType = LogType.SIMPLE;
     private final Redis redis = new Redis();
+    private final InMemory inMemory = new InMemory();
+    private final File file = new File();
+    private final Dispatcher dispatcher = new Dispatcher();
+    private final Sampling sampling = new Sampling();
+    private final Sql sql = new Sql();
 
     public boolean isEnabled() {
         return enabled;
@@ -53,8 +59,8 @@ public class TxBoardProperties {
     }
 
     public void setDurationBuckets(List<Integer> durationBuckets) {
-        if (durationBuckets == null || durationBuckets.isEmpty() || durationBuckets.stream().distinct().count() > 5) {
-            throw new IllegalArgumentException("The duration bucket size must be between 1-5");
+        if (durationBuckets == null || durationBuckets.isEmpty()) {
+            throw new IllegalArgumentException("The duration buckets must not be empty");
         }
 
         if (durationBuckets.stream().anyMatch(d -> d <= 0)) {
@@ -77,14 +83,42 @@ public class TxBoardProperties {
         return redis;
     }
 
+    public InMemory getInMemory() {
+        return inMemory;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public Sql getSql() {
+        return sql;
+    }
+
     public enum StorageType {
-        IN_MEMORY, REDIS
+        IN_MEMORY, REDIS, FILE
+    }
+
+    public enum InMemoryLayout {
+        OBJECT, COLUMNAR
     }
 
     public enum LogType {
         SIMPLE, DETAILS
     }
 
+    public enum OverflowPolicy {
+        BLOCK, DROP_NEWEST, DROP_HEALTHY_FIRST
+    }
+
     public static class AlarmingThreshold {
         private long transaction = 1000L;
         private long connection = 1000L;
@@ -120,4 +154,281 @@ public class TxBoardProperties {
             this.entityTtl = entityTtl;
         }
     }
+
+    public static class InMemory {
+        private int transactionLogCapacity = 10_000;
+        private int sqlExecutionLogCapacity = 10_000;
+        private InMemoryLayout layout = InMemoryLayout.OBJECT;
+        private final OffHeap offHeap = new OffHeap();
+
+        public int getTransactionLogCapacity() {
+            return transactionLogCapacity;
+        }
+
+        public void setTransactionLogCapacity(int transactionLogCapacity) {
+            if (transactionLogCapacity < 1) {
+                throw new IllegalArgumentException("The in-memory transaction log capacity must be positive integer");
+            }
+            this.transactionLogCapacity = transactionLogCapacity;
+        }
+
+        public int getSqlExecutionLogCapacity() {
+            return sqlExecutionLogCapacity;
+        }
+
+        public void setSqlExecutionLogCapacity(int sqlExecutionLogCapacity) {
+            if (sqlExecutionLogCapacity < 1) {
+                throw new IllegalArgumentException("The in-memory sql execution log capacity must be positive integer");
+            }
+            this.sqlExecutionLogCapacity = sqlExecutionLogCapacity;
+        }
+
+        public InMemoryLayout getLayout() {
+            return layout;
+        }
+
+        public void setLayout(InMemoryLayout layout) {
+            this.layout = layout == null ? InMemoryLayout.OBJECT : layout;
+        }
+
+        public OffHeap getOffHeap() {
+            return offHeap;
+        }
+    }
+
+    public static class OffHeap {
+        private boolean enabled = false;
+        private DataSize budget = DataSize.ofMegabytes(256);
+        private DataSize chunkSize = DataSize.ofMegabytes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getBudget() {
+            return budget;
+        }
+
+        public void setBudget(DataSize budget) {
+            if (budget.toBytes() < 1) {
+                throw new IllegalArgumentException("The off-heap budget must be positive value");
+            }
+            this.budget = budget;
+        }
+
+        public DataSize getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(DataSize chunkSize) {
+            if (chunkSize.toBytes() < 1 || chunkSize.toBytes() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The off-heap chunk size must be between 1B-2GB");
+            }
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class File {
+        private String directory = "tx-board-data";
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private Duration rollInterval = Duration.ofHours(1);
+        private DataSize retentionSize = DataSize.ofGigabytes(10);
+        private Duration retentionPeriod = Duration.ofDays(7);
+        private Duration checkpointInterval = Duration.ofMinutes(1);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            if (directory == null || directory.isBlank()) {
+                throw new IllegalArgumentException("The file storage directory must not be blank");
+            }
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            if (segmentSize.toBytes() < 1024 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The file storage segment size must be between 1KB-2GB");
+            }
+            this.segmentSize = segmentSize;
+        }
+
+        public Duration getRollInterval() {
+            return rollInterval;
+        }
+
+        public void setRollInterval(Duration rollInterval) {
+            if (rollInterval.isNegative() || rollInterval.isZero()) {
+                throw new IllegalArgumentException("The file storage roll interval must be positive value");
+            }
+            this.rollInterval = rollInterval;
+        }
+
+        public DataSize getRetentionSize() {
+            return retentionSize;
+        }
+
+        public void setRetentionSize(DataSize retentionSize) {
+            if (retentionSize.toBytes() < 1) {
+                throw new IllegalArgumentException("The file storage retention size must be positive value");
+            }
+            this.retentionSize = retentionSize;
+        }
+
+        public Duration getRetentionPeriod() {
+            return retentionPeriod;
+        }
+
+        public void setRetentionPeriod(Duration retentionPeriod) {
+            if (retentionPeriod.isNegative() || retentionPeriod.isZero()) {
+                throw new IllegalArgumentException("The file storage retention period must be positive value");
+            }
+            this.retentionPeriod = retentionPeriod;
+        }
+
+        public Duration getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(Duration checkpointInterval) {
+            if (checkpointInterval.isNegative() || checkpointInterval.isZero()) {
+                throw new IllegalArgumentException("The file storage checkpoint interval must be positive value");
+            }
+            this.checkpointInterval = checkpointInterval;
+        }
+    }
+
+    public static class Dispatcher {
+        private boolean async = false;
+        private int queueCapacity = 10_000;
+        private int batchSize = 256;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_HEALTHY_FIRST;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("The dispatcher queue capacity must be positive integer");
+            }
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("The dispatcher batch size must be positive integer");
+            }
+            this.batchSize = batchSize;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP_HEALTHY_FIRST : overflowPolicy;
+        }
+    }
+
+    public static class Sampling {
+        private double headRate = 1.0;
+        private double healthyRatio = 1.0;
+
+        public double getHeadRate() {
+            return headRate;
+        }
+
+        public void setHeadRate(double headRate) {
+            if (headRate < 0.0 || headRate > 1.0) {
+                throw new IllegalArgumentException("The sampling head rate must be between 0.0-1.0");
+            }
+            this.headRate = headRate;
+        }
+
+        public double getHealthyRatio() {
+            return healthyRatio;
+        }
+
+        public void setHealthyRatio(double healthyRatio) {
+            if (healthyRatio < 0.0 || healthyRatio > 1.0) {
+                throw new IllegalArgumentException("The sampling healthy ratio must be between 0.0-1.0");
+            }
+            this.healthyRatio = healthyRatio;
+        }
+    }
+
+    public static class Sql {
+        private int dictionaryCapacity = 10_000;
+        private boolean captureParameters = true;
+        private List<Integer> batchSizeBuckets = List.of(1, 10, 25, 50, 100, 500, 1000);
+        private int nPlusOneThreshold = 5;
+
+        public int getDictionaryCapacity() {
+            return dictionaryCapacity;
+        }
+
+        public void setDictionaryCapacity(int dictionaryCapacity) {
+            if (dictionaryCapacity < 1) {
+                throw new IllegalArgumentException("The sql dictionary capacity must be positive integer");
+            }
+            this.dictionaryCapacity = dictionaryCapacity;
+        }
+
+        public boolean isCaptureParameters() {
+            return captureParameters;
+        }
+
+        public void setCaptureParameters(boolean captureParameters) {
+            this.captureParameters = captureParameters;
+        }
+
+        public List<Integer> getBatchSizeBuckets() {
+            return batchSizeBuckets;
+        }
+
+        public void setBatchSizeBuckets(List<Integer> batchSizeBuckets) {
+            if (batchSizeBuckets == null || batchSizeBuckets.isEmpty() || batchSizeBuckets.stream().distinct().count() > 10) {
+                throw new IllegalArgumentException("The batch size bucket size must be between 1-10");
+            }
+
+            if (batchSizeBuckets.stream().anyMatch(d -> d <= 0)) {
+                throw new IllegalArgumentException("The batch size bucket values must positive integer");
+            }
+
+            this.batchSizeBuckets = batchSizeBuckets.stream().distinct().sorted().toList();
+        }
+
+        public int getNPlusOneThreshold() {
+            return nPlusOneThreshold;
+        }
+
+        public void setNPlusOneThreshold(int nPlusOneThreshold) {
+            if (nPlusOneThreshold < 1) {
+                throw new IllegalArgumentException("The N+1 threshold must be positive integer");
+            }
+            this.nPlusOneThreshold = nPlusOneThreshold;
+        }
+    }
 }
@@ -2,22 +2,38 @@ package com.sdlc.pro.txboard.controller;
 
 import com.sdlc.pro.txboard.config.TxBoardProperties;
 import com.sdlc.pro.txboard.domain.*;
+import com.sdlc.pro.txboard.dto.TimeSeries;
 import com.sdlc.pro.txboard.dto.TransactionChart;
+import com.sdlc.pro.txboard.dto.TxBoardStatistics;
 import com.sdlc.pro.txboard.enums.IsolationLevel;
 import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.RollupWindow;
+import com.sdlc.pro.txboard.enums.TimeSeriesMetric;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.listener.AsyncLogDispatcher;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
 import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.MethodSummary;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
 import com.sdlc.pro.txboard.model.TransactionLog;
 import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
 import com.sdlc.pro.txboard.repository.SqlExecutionLogRepository;
 import com.sdlc.pro.txboard.repository.TransactionLogRepository;
+import com.sdlc.pro.txboard.storage.OffHeapBlobStore;
+import com.sdlc.pro.txboard.util.SortUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -29,13 +45,16 @@ public class SpringTxBoardController {
     private final TxBoardProperties txBoardProperties;
     private final TransactionLogRepository transactionLogRepository;
     private final SqlExecutionLogRepository sqlExecutionLogRepository;
+    private final ObjectProvider<TransactionPhaseListener> transactionPhaseListener;
 
     public SpringTxBoardController(TxBoardProperties txBoardProperties,
                                    TransactionLogRepository transactionLogRepository,
-                                   SqlExecutionLogRepository sqlExecutionLogRepository) {
+                                   SqlExecutionLogRepository sqlExecutionLogRepository,
+                                   ObjectProvider<TransactionPhaseListener> transactionPhaseListener) {
         this.txBoardProperties = txBoardProperties;
         this.transactionLogRepository = transactionLogRepository;
         this.sqlExecutionLogRepository = sqlExecutionLogRepository;
+        this.transactionPhaseListener = transactionPhaseListener;
     }
 
     @GetMapping(value = "/config/alarming-threshold", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -45,13 +64,98 @@ public class SpringTxBoardController {
 
     @GetMapping(value = "/tx-summary", produces = MediaType.APPLICATION_JSON_VALUE)
     public TransactionSummary getTransactionSummary() {
-        return this.transactionLogRepository.getTransactionSummary();
+        return this.transactionLogRepository.getTransactionSummary()
+                .withSqlConnectionTimePercentiles(this.sqlExecutionLogRepository.getConnectionTimePercentiles());
     }
 
+    /**
+     * Returns the statistics of the asynchronous log dispatcher and of the off-heap storage, each one only when it is
+     * enabled.
+     */
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TxBoardStatistics getStatistics() {
+        AsyncLogDispatcher.DispatchStatistics dispatchStatistics =
+                this.transactionPhaseListener.getIfAvailable() instanceof TransactionPhaseListenerImpl listener
+                        ? listener.getDispatchStatistics().orElse(null) : null;
+        OffHeapBlobStore.OffHeapStatistics offHeapStatistics =
+                this.transactionLogRepository instanceof InMemoryTransactionLogRepository repository
+                        ? repository.getOffHeapStatistics().orElse(null) : null;
+        return new TxBoardStatistics(dispatchStatistics, offHeapStatistics);
+    }
+
+    /**
+     * Returns the duration and batch size distributions, the durations bucketed by the configured upper bounds unless
+     * others are given, e.g. {@code buckets=10,50,100,250}.
+     */
     @GetMapping(value = "/tx-charts", produces = MediaType.APPLICATION_JSON_VALUE)
-    public TransactionChart getTransactionChart() {
-        List<DurationDistribution> durationDistributions = transactionLogRepository.getDurationDistributions();
-        return new TransactionChart(durationDistributions);
+    public TransactionChart getTransactionChart(@RequestParam(value = "buckets", required = false) String buckets) {
+        List<DurationDistribution> durationDistributions = buckets == null
+                ? transactionLogRepository.getDurationDistributions()
+                : transactionLogRepository.getDurationDistributions(parseDurationBuckets(buckets));
+        List<BatchSizeDistribution> batchSizeDistributions = transactionLogRepository.getBatchSizeDistributions();
+        return new TransactionChart(durationDistributions, batchSizeDistributions);
+    }
+
+    static List<Integer> parseDurationBuckets(String buckets) {
+        try {
+            List<Integer> bounds = Arrays.stream(buckets.split(","))
+                    .map(String::trim)
+                    .map(Integer::parseInt)
+                    .distinct()
+                    .sorted()
+                    .toList();
+            if (!bounds.isEmpty() && bounds.get(0) > 0) {
+                return bounds;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("The value of 'buckets' must be comma separated positive integers");
+    }
+
+    /**
+     * Returns a metric of the transactions completed in the retained windows of the given size, the last one is the
+     * ongoing window.
+     */
+    @GetMapping(value = "/timeseries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TimeSeries getTimeSeries(
+            @RequestParam(value = "metric", defaultValue = "tps") String metric,
+            @RequestParam(value = "window", defaultValue = "1m") String window) {
+
+        TimeSeriesMetric timeSeriesMetric = TimeSeriesMetric.from(metric);
+        RollupWindow rollupWindow = RollupWindow.from(window);
+        double windowSeconds = rollupWindow.duration().toMillis() / 1_000.0;
+        List<TimeSeries.Point> points = this.transactionLogRepository.getRollups(rollupWindow)
+                .stream()
+                .map(rollup -> new TimeSeries.Point(rollup.start(), switch (timeSeriesMetric) {
+                    case TPS -> rollup.transactionCount() / windowSeconds;
+                    case ERROR_RATE -> rollup.transactionCount() == 0 ? 0.0
+                            : (double) rollup.failedCount() / rollup.transactionCount();
+                    case P95 -> rollup.p95();
+                    case CONNECTION_HOLD_TIME -> rollup.connectionHoldTime();
+                }))
+                .toList();
+        return new TimeSeries(timeSeriesMetric.value(), rollupWindow.value(), points);
+    }
+
+    /**
+     * Lists the statistics of the transactional methods, the slowest in total first unless sorted by another metric.
+     */
+    @GetMapping(value = "/methods", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<MethodSummary> getMethodSummaries(
+            @RequestParam(value = "sort", defaultValue = "totalDuration,desc") String sort,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        Sort methodSort = parseSort(sort);
+        if (Arrays.stream(MethodSummary.class.getRecordComponents())
+                .noneMatch(component -> component.getName().equals(methodSort.getProperty()))) {
+            throw new IllegalArgumentException("The value of 'sort' must be one of " + Arrays.toString(
+                    Arrays.stream(MethodSummary.class.getRecordComponents()).map(RecordComponent::getName).toArray()));
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("The value of 'limit' must be positive integer");
+        }
+        List<MethodSummary> summaries = this.transactionLogRepository.getMethodSummaries();
+        return SortUtils.sortPage(summaries, methodSort, 0, limit != null ? limit : summaries.size());
     }
 
     @GetMapping(value = "/tx-logs", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -60,10 +164,13 @@ public class SpringTxBoardController {
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", required = false) String sort,
             @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "propagation", required = false) String propagation,
             @RequestParam(value = "isolation", required = false) String isolation,
-            @RequestParam(value = "connectionOriented", required = false) Boolean connectionOriented) {
+            @RequestParam(value = "connectionOriented", required = false) Boolean connectionOriented,
+            @RequestParam(value = "nPlusOne", required = false) Boolean nPlusOne,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         if (page < 0) {
             throw new IllegalArgumentException("The value of 'page' must be positive integer");
@@ -73,17 +180,26 @@ public class SpringTxBoardController {
             throw new IllegalArgumentException("The value of 'size' must be between 1 to 1000");
         }
 
-        FilterNode filter = buildFilter(search, status, propagation, isolation, connectionOriented);
-        return transactionLogRepository.findAll(
-                PageRequest.of(page, size, parseSort(sort), filter)
-        );
+        FilterNode filter = buildFilter(search, sqlContains, status, propagation, isolation, connectionOriented, nPlusOne);
+        return transactionLogRepository.findAll(pageRequest(page, size, parseSort(sort), filter, cursor));
     }
 
-    private Sort parseSort(String sort) {
+    static Sort parseSort(String sort) {
         return sort != null ? Sort.from(sort) : Sort.UNSORTED;
     }
 
-    private static FilterNode buildFilter(String search, String status, String propagation, String isolation, Boolean connectionOriented) {
+    /**
+     * Builds a keyset page request when a cursor is given, an empty one starts the walk, an offset one otherwise.
+     */
+    private static PageRequest pageRequest(int page, int size, Sort sort, FilterNode filter, String cursor) {
+        if (cursor == null) {
+            return PageRequest.of(page, size, sort, filter);
+        }
+        return PageRequest.after(cursor.isBlank() ? null : Cursor.decode(cursor), size, sort, filter);
+    }
+
+    static FilterNode buildFilter(String search, String sqlContains, String status, String propagation,
+                                  String isolation, Boolean connectionOriented, Boolean nPlusOne) {
         List<FilterNode> filters = new ArrayList<>();
         if (search != null && !search.isBlank()) {
             filters.add(FilterGroup.of(
@@ -95,6 +211,10 @@ public class SpringTxBoardController {
             ));
         }
 
+        if (sqlContains != null && !sqlContains.isBlank()) {
+            filters.add(Filter.of("executedQuires", sqlContains, Filter.Operator.CONTAINS));
+        }
+
         if (status != null && !status.isBlank()) {
             try {
                 filters.add(Filter.of("status", TransactionPhaseStatus.valueOf(status), Filter.Operator.EQUALS));
@@ -123,6 +243,10 @@ public class SpringTxBoardController {
             filters.add(Filter.of("connectionOriented", connectionOriented, Filter.Operator.EQUALS));
         }
 
+        if (nPlusOne != null) {
+            filters.add(Filter.of("nPlusOne", nPlusOne, Filter.Operator.EQUALS));
+        }
+
         return filters.isEmpty() ? FilterNode.UNFILTERED : FilterGroup.of(filters, FilterGroup.Logic.AND);
     }
 
@@ -131,7 +255,9 @@ public class SpringTxBoardController {
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", required = false) String sort,
-            @RequestParam(value = "search", required = false) String search) {
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         if (page < 0) {
             throw new IllegalArgumentException("The value of 'page' must be positive integer");
@@ -141,12 +267,57 @@ public class SpringTxBoardController {
             throw new IllegalArgumentException("The value of 'size' must be between 1 to 1000");
         }
 
-        FilterNode filter = search != null && !search.isBlank() ? FilterGroup.of(
-                List.of(Filter.of("thread", search, Filter.Operator.CONTAINS)),
-                FilterGroup.Logic.OR
-        ) : FilterNode.UNFILTERED;
+        FilterNode filter = buildSqlLogFilter(search, sqlContains);
+        return this.sqlExecutionLogRepository.findAll(pageRequest(page, size, parseSort(sort), filter, cursor));
+    }
+
+    static FilterNode buildSqlLogFilter(String search, String sqlContains) {
+        List<FilterNode> filters = new ArrayList<>();
+        if (search != null && !search.isBlank()) {
+            filters.add(FilterGroup.of(
+                    List.of(Filter.of("thread", search, Filter.Operator.CONTAINS)),
+                    FilterGroup.Logic.OR
+            ));
+        }
+
+        if (sqlContains != null && !sqlContains.isBlank()) {
+            filters.add(Filter.of("executedQuires", sqlContains, Filter.Operator.CONTAINS));
+        }
 
-        return this.sqlExecutionLogRepository.findAll(
-                PageRequest.of(page, size, parseSort(sort), filter));
+        return switch (filters.size()) {
+            case 0 -> FilterNode.UNFILTERED;
+            case 1 -> filters.get(0);
+            default -> FilterGroup.of(filters, FilterGroup.Logic.AND);
+        };
+    }
+
+    /**
+     * Restricts the filter to the logs whose time property is within the given ISO-8601 instants, both optional.
+     */
+    static FilterNode withTimeRange(FilterNode filter, String property, String from, String to) {
+        List<FilterNode> filters = new ArrayList<>();
+        if (filter != FilterNode.UNFILTERED) {
+            filters.add(filter);
+        }
+        if (from != null && !from.isBlank()) {
+            filters.add(Filter.of(property, parseInstant("from", from), Filter.Operator.GREATER_THAN_OR_EQUALS));
+        }
+        if (to != null && !to.isBlank()) {
+            filters.add(Filter.of(property, parseInstant("to", to), Filter.Operator.LESS_THAN));
+        }
+
+        return switch (filters.size()) {
+            case 0 -> FilterNode.UNFILTERED;
+            case 1 -> filters.get(0);
+            default -> FilterGroup.of(filters, FilterGroup.Logic.AND);
+        };
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("The value of '" + name + "' must be an ISO-8601 instant");
+        }
     }
 }
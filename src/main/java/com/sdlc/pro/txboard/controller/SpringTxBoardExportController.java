@@ -0,0 +1,95 @@
+package com.sdlc.pro.txboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.export.ExportFormat;
+import com.sdlc.pro.txboard.export.LogExport;
+import com.sdlc.pro.txboard.repository.SqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.TransactionLogRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.buildFilter;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.buildSqlLogFilter;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.parseSort;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.withTimeRange;
+
+/**
+ * Streams all logs matching the filters of the log endpoints as NDJSON or CSV to the servlet response, one page of
+ * logs at a time.
+ */
+@RestController
+@RequestMapping("/api/tx-board")
+public class SpringTxBoardExportController {
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final SqlExecutionLogRepository sqlExecutionLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public SpringTxBoardExportController(TransactionLogRepository transactionLogRepository,
+                                         SqlExecutionLogRepository sqlExecutionLogRepository,
+                                         ObjectProvider<ObjectMapper> objectMapper) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.sqlExecutionLogRepository = sqlExecutionLogRepository;
+        this.objectMapper = objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules());
+    }
+
+    @GetMapping("/tx-logs/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionLogs(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "propagation", required = false) String propagation,
+            @RequestParam(value = "isolation", required = false) String isolation,
+            @RequestParam(value = "connectionOriented", required = false) Boolean connectionOriented,
+            @RequestParam(value = "nPlusOne", required = false) Boolean nPlusOne,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        FilterNode filter = withTimeRange(
+                buildFilter(search, sqlContains, status, propagation, isolation, connectionOriented, nPlusOne),
+                "startTime", from, to);
+        return stream(LogExport.transactionLogs(this.transactionLogRepository, parseSort(sort), filter, exportFormat,
+                this.objectMapper), exportFormat, "tx-logs");
+    }
+
+    @GetMapping("/sql-logs/export")
+    public ResponseEntity<StreamingResponseBody> exportSqlExecutionLogs(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        FilterNode filter = withTimeRange(buildSqlLogFilter(search, sqlContains), "conAcquiredTime", from, to);
+        return stream(LogExport.sqlExecutionLogs(this.sqlExecutionLogRepository, parseSort(sort), filter, exportFormat,
+                this.objectMapper), exportFormat, "sql-logs");
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(LogExport<?> export, ExportFormat format, String name) {
+        // the first chunk is read before the response is committed, so an invalid request still gets an error status
+        byte[] first = export.next();
+        StreamingResponseBody body = outputStream -> {
+            outputStream.write(first);
+            while (export.hasNext()) {
+                outputStream.write(export.next());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition(name))
+                .body(body);
+    }
+}
@@ -0,0 +1,103 @@
+package com.sdlc.pro.txboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.export.ExportFormat;
+import com.sdlc.pro.txboard.export.LogExport;
+import com.sdlc.pro.txboard.repository.SqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.TransactionLogRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.buildFilter;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.buildSqlLogFilter;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.parseSort;
+import static com.sdlc.pro.txboard.controller.SpringTxBoardController.withTimeRange;
+
+/**
+ * Streams all logs matching the filters of the log endpoints as NDJSON or CSV to the reactive response. A page of logs
+ * is read only when the previous one was requested by the client connection, off the event loop as the repositories
+ * block.
+ */
+@RestController
+@RequestMapping("/api/tx-board")
+public class SpringTxBoardReactiveExportController {
+    private static final DataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
+
+    private final TransactionLogRepository transactionLogRepository;
+    private final SqlExecutionLogRepository sqlExecutionLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public SpringTxBoardReactiveExportController(TransactionLogRepository transactionLogRepository,
+                                                 SqlExecutionLogRepository sqlExecutionLogRepository,
+                                                 ObjectProvider<ObjectMapper> objectMapper) {
+        this.transactionLogRepository = transactionLogRepository;
+        this.sqlExecutionLogRepository = sqlExecutionLogRepository;
+        this.objectMapper = objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules());
+    }
+
+    @GetMapping("/tx-logs/export")
+    public ResponseEntity<Flux<DataBuffer>> exportTransactionLogs(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "propagation", required = false) String propagation,
+            @RequestParam(value = "isolation", required = false) String isolation,
+            @RequestParam(value = "connectionOriented", required = false) Boolean connectionOriented,
+            @RequestParam(value = "nPlusOne", required = false) Boolean nPlusOne,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        FilterNode filter = withTimeRange(
+                buildFilter(search, sqlContains, status, propagation, isolation, connectionOriented, nPlusOne),
+                "startTime", from, to);
+        return stream(() -> LogExport.transactionLogs(this.transactionLogRepository, parseSort(sort), filter,
+                exportFormat, this.objectMapper), exportFormat, "tx-logs");
+    }
+
+    @GetMapping("/sql-logs/export")
+    public ResponseEntity<Flux<DataBuffer>> exportSqlExecutionLogs(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "sqlContains", required = false) String sqlContains,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        FilterNode filter = withTimeRange(buildSqlLogFilter(search, sqlContains), "conAcquiredTime", from, to);
+        return stream(() -> LogExport.sqlExecutionLogs(this.sqlExecutionLogRepository, parseSort(sort), filter,
+                exportFormat, this.objectMapper), exportFormat, "sql-logs");
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> stream(Supplier<Iterator<byte[]>> export, ExportFormat format,
+                                                           String name) {
+        // a new export per subscription, its next chunk is read only once the previous one was requested
+        Iterable<byte[]> chunks = export::get;
+        Flux<DataBuffer> body = Flux.fromIterable(chunks)
+                .limitRate(1)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(BUFFER_FACTORY::wrap);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, format.contentDisposition(name))
+                .body(body);
+    }
+}
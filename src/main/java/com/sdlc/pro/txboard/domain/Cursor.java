@@ -0,0 +1,96 @@
+package com.sdlc.pro.txboard.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position of the last row of a page in a keyset walk: the sort it was issued for, the sort key of the row and a
+ * position which orders the rows with equal keys (the append sequence or the record address of the storage, the
+ * count of the rows with the same key already returned for Redis). Without a sort the key is the position itself.
+ * The next page starts right after the row, so it costs the same at any depth and neither skips nor repeats rows
+ * when logs are appended or evicted meanwhile. Clients only pass the {@link #encode() encoded} form back.
+ */
+public final class Cursor {
+    private static final String VERSION = "1";
+    private static final char SEPARATOR = '|';
+
+    private final String sortProperty;
+    private final Sort.Direction sortDirection;
+    private final long key;
+    private final long position;
+
+    private Cursor(String sortProperty, Sort.Direction sortDirection, long key, long position) {
+        this.sortProperty = sortProperty;
+        this.sortDirection = sortDirection;
+        this.key = key;
+        this.position = position;
+    }
+
+    public static Cursor of(Sort sort, long key, long position) {
+        boolean sorted = sort != null && sort.isSortable();
+        return new Cursor(sorted ? sort.getProperty() : null, sorted ? sort.getDirection() : null, key, position);
+    }
+
+    /**
+     * Decodes a cursor previously returned as the next cursor of a page.
+     */
+    public static Cursor decode(String value) {
+        Objects.requireNonNull(value);
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int positionStart = decoded.lastIndexOf(SEPARATOR);
+            int keyStart = decoded.lastIndexOf(SEPARATOR, positionStart - 1);
+            int sortStart = decoded.indexOf(SEPARATOR);
+            if (sortStart < 0 || keyStart <= sortStart || !decoded.substring(0, sortStart).equals(VERSION)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+
+            String sort = decoded.substring(sortStart + 1, keyStart);
+            long key = Long.parseLong(decoded.substring(keyStart + 1, positionStart));
+            long position = Long.parseLong(decoded.substring(positionStart + 1));
+            if (sort.isEmpty()) {
+                return new Cursor(null, null, key, position);
+            }
+            Sort parsed = Sort.from(sort);
+            return new Cursor(parsed.getProperty(), parsed.getDirection(), key, position);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The value of 'cursor' is not a valid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String sort = this.sortProperty == null ? "" : this.sortProperty + "," + this.sortDirection;
+        String value = VERSION + SEPARATOR + sort + SEPARATOR + this.key + SEPARATOR + this.position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns whether the cursor was issued for the given sort.
+     */
+    public boolean belongsTo(Sort sort) {
+        if (sort == null || !sort.isSortable()) {
+            return this.sortProperty == null;
+        }
+        return sort.getProperty().equals(this.sortProperty) && sort.getDirection() == this.sortDirection;
+    }
+
+    /**
+     * Returns whether the row with the given sort key and position comes after the cursor, the keys are walked in the
+     * direction of the sort and equal keys in ascending position order.
+     */
+    public boolean isFollowedBy(long key, long position) {
+        if (key != this.key) {
+            return this.sortDirection == Sort.Direction.DESC ? key < this.key : key > this.key;
+        }
+        return position > this.position;
+    }
+
+    public long getKey() {
+        return this.key;
+    }
+
+    public long getPosition() {
+        return this.position;
+    }
+}
@@ -5,19 +5,51 @@ public class PageRequest {
     private final int pageSize;
     private final Sort sort;
     private final FilterNode filter;
+    private final boolean cursorPaged;
+    private final Cursor cursor;
+    private final boolean totalCounted;
 
-    private PageRequest(int pageNumber, int pageSize, Sort sort, FilterNode filter) {
+    private PageRequest(int pageNumber, int pageSize, Sort sort, FilterNode filter, boolean cursorPaged, Cursor cursor) {
+        this(pageNumber, pageSize, sort, filter, cursorPaged, cursor, true);
+    }
+
+    private PageRequest(int pageNumber, int pageSize, Sort sort, FilterNode filter, boolean cursorPaged, Cursor cursor,
+                        boolean totalCounted) {
         if (pageNumber < 0 || pageSize < 1 || filter == null) {
             throw new IllegalArgumentException("Found invalid argument (pageNumber or pageSize or filter)  to initialize TransactionLogPageRequest");
         }
+        if (cursor != null && !cursor.belongsTo(sort)) {
+            throw new IllegalArgumentException("The cursor was issued for another sort than the requested one");
+        }
         this.pageNumber = pageNumber;
         this.pageSize = pageSize;
         this.sort = sort;
         this.filter = filter;
+        this.cursorPaged = cursorPaged;
+        this.cursor = cursor;
+        this.totalCounted = totalCounted;
     }
 
     public static PageRequest of(int pageNumber, int pageSize, Sort sort, FilterNode filter) {
-        return new PageRequest(pageNumber, pageSize, sort, filter);
+        return new PageRequest(pageNumber, pageSize, sort, filter, false, null);
+    }
+
+    /**
+     * Requests the page following the given cursor, the first page of a keyset walk when the cursor is {@code null}.
+     * The response carries the cursor of the next page.
+     */
+    public static PageRequest after(Cursor cursor, int pageSize, Sort sort, FilterNode filter) {
+        return new PageRequest(0, pageSize, sort, filter, true, cursor);
+    }
+
+    /**
+     * Returns the same request without counting the total, for a walk which only follows the next cursors like an
+     * export. A repository which has to scan the logs to count them may then leave the total out, the total of the
+     * response is the size of its content.
+     */
+    public PageRequest withoutTotal() {
+        return new PageRequest(this.pageNumber, this.pageSize, this.sort, this.filter, this.cursorPaged, this.cursor,
+                false);
     }
 
     public static PageRequest of(int pageNumber, int pageSize, Sort sort) {
@@ -43,4 +75,22 @@ public class PageRequest {
     public FilterNode getFilter() {
         return filter;
     }
+
+    public boolean isCursorPaged() {
+        return cursorPaged;
+    }
+
+    /**
+     * Returns the cursor the page follows, {@code null} for the first page of a keyset walk or an offset page.
+     */
+    public Cursor getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns whether the response counts all the matching logs, see {@link #withoutTotal()}.
+     */
+    public boolean isTotalCounted() {
+        return totalCounted;
+    }
 }
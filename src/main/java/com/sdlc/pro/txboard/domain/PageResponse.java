@@ -1,15 +1,27 @@
 package com.sdlc.pro.txboard.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.io.Serializable;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 public class PageResponse<T> implements Serializable {
     private final List<T> content;
     private final PageRequest pageRequest;
     private final long totalElements;
+    private final Cursor nextCursor;
 
     public PageResponse(List<T> content, PageRequest pageRequest, long totalElements) {
+        this(content, pageRequest, totalElements, null);
+    }
+
+    /**
+     * @param nextCursor the cursor of the next page of a keyset walk, {@code null} on its last page or for an offset
+     *                   page
+     */
+    public PageResponse(List<T> content, PageRequest pageRequest, long totalElements, Cursor nextCursor) {
         Objects.requireNonNull(content, "Content must not be null");
         Objects.requireNonNull(pageRequest, "PageRequest must not be null");
 
@@ -20,9 +32,18 @@ public class PageResponse<T> implements Serializable {
         this.content = content;
         this.pageRequest = pageRequest;
         this.totalElements = totalElements;
+        this.nextCursor = nextCursor;
     }
 
 
+    /**
+     * Returns the page of the same request, total and next cursor with the mapped content.
+     */
+    public <R> PageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new PageResponse<>(mapped, pageRequest, totalElements, nextCursor);
+    }
+
     public List<T> getContent() {
         return content;
     }
@@ -31,6 +52,14 @@ public class PageResponse<T> implements Serializable {
         return totalElements;
     }
 
+    /**
+     * Returns the encoded cursor to request the next page of a keyset walk with.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNextCursor() {
+        return nextCursor == null ? null : nextCursor.encode();
+    }
+
     public int getPage() {
         return pageRequest.getPageNumber();
     }
@@ -48,6 +77,9 @@ public class PageResponse<T> implements Serializable {
     }
 
     public boolean hasNext() {
+        if (pageRequest.isCursorPaged()) {
+            return nextCursor != null;
+        }
         return getPage() + 1 < getTotalPages();
     }
 
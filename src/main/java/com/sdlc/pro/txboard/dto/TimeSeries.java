@@ -0,0 +1,10 @@
+package com.sdlc.pro.txboard.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record TimeSeries(String metric, String window, List<Point> points) {
+
+    public record Point(Instant time, double value) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.sdlc.pro.txboard.dto;
 
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
 import com.sdlc.pro.txboard.model.DurationDistribution;
 
 import java.util.List;
 
-public record TransactionChart(List<DurationDistribution> durationDistribution) {
+public record TransactionChart(List<DurationDistribution> durationDistribution,
+                               List<BatchSizeDistribution> batchSizeDistribution) {
 }
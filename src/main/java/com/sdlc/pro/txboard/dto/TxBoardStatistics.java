@@ -0,0 +1,12 @@
+package com.sdlc.pro.txboard.dto;
+
+import com.sdlc.pro.txboard.listener.AsyncLogDispatcher;
+import com.sdlc.pro.txboard.storage.OffHeapBlobStore;
+
+/**
+ * @param dispatch the queue of the asynchronous log dispatcher, null unless it is enabled
+ * @param offHeap  the arena of the off-heap in-memory storage, null unless it is enabled
+ */
+public record TxBoardStatistics(AsyncLogDispatcher.DispatchStatistics dispatch,
+                                OffHeapBlobStore.OffHeapStatistics offHeap) {
+}
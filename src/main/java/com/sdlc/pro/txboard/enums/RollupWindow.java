@@ -0,0 +1,44 @@
+package com.sdlc.pro.txboard.enums;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The windows the transactions are rolled up in, each one kept for a limited number of windows: 2 minutes by the
+ * second, 2 hours by the minute and 3 days by the hour.
+ */
+public enum RollupWindow {
+    SECOND("1s", Duration.ofSeconds(1), 120),
+    MINUTE("1m", Duration.ofMinutes(1), 120),
+    HOUR("1h", Duration.ofHours(1), 72);
+
+    private final String value;
+    private final Duration duration;
+    private final int retainedWindows;
+
+    RollupWindow(String value, Duration duration, int retainedWindows) {
+        this.value = value;
+        this.duration = duration;
+        this.retainedWindows = retainedWindows;
+    }
+
+    public static RollupWindow from(String value) {
+        return Arrays.stream(values())
+                .filter(window -> window.value.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The value of 'window' must be "
+                        + Arrays.stream(values()).map(RollupWindow::value).toList()));
+    }
+
+    public String value() {
+        return this.value;
+    }
+
+    public Duration duration() {
+        return this.duration;
+    }
+
+    public int retainedWindows() {
+        return this.retainedWindows;
+    }
+}
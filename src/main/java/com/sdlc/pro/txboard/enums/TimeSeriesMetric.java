@@ -0,0 +1,28 @@
+package com.sdlc.pro.txboard.enums;
+
+import java.util.Arrays;
+
+public enum TimeSeriesMetric {
+    TPS("tps"),
+    ERROR_RATE("errorRate"),
+    P95("p95"),
+    CONNECTION_HOLD_TIME("connectionHoldTime");
+
+    private final String value;
+
+    TimeSeriesMetric(String value) {
+        this.value = value;
+    }
+
+    public static TimeSeriesMetric from(String value) {
+        return Arrays.stream(values())
+                .filter(metric -> metric.value.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The value of 'metric' must be "
+                        + Arrays.stream(values()).map(TimeSeriesMetric::value).toList()));
+    }
+
+    public String value() {
+        return this.value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.sdlc.pro.txboard.export;
+
+import org.springframework.http.ContentDisposition;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    ExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public static ExportFormat from(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The value of 'format' must be " + Arrays.toString(values()));
+        }
+    }
+
+    /**
+     * Returns the attachment header of an export of the given logs, named after them and the day of the export.
+     */
+    public String contentDisposition(String name) {
+        return ContentDisposition.attachment()
+                .filename(name + "-" + LocalDate.now() + "." + this.fileExtension)
+                .build()
+                .toString();
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
@@ -0,0 +1,203 @@
+package com.sdlc.pro.txboard.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.SqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.TransactionLogRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Export of all logs matching a filter as a sequence of encoded chunks, one cursor page of logs each. Every chunk is
+ * read from the repository only when it is requested, so an export holds a single page whatever the number of logs,
+ * and a slow consumer simply requests the next chunk later. The logs are walked like the cursor pages of the API, in
+ * the given sort or in insertion order.
+ */
+public final class LogExport<T> implements Iterator<byte[]> {
+    static final int CHUNK_SIZE = 500;
+
+    private static final List<String> TRANSACTION_LOG_HEADERS = List.of("txId", "depth", "method", "startTime",
+            "endTime", "durationMicros", "status", "propagation", "isolation", "thread", "connectionOriented",
+            "connectionAcquisitionCount", "connectionOccupiedMicros", "queryCount", "nPlusOne");
+    private static final List<String> SQL_EXECUTION_LOG_HEADERS = List.of("id", "conAcquiredTime", "conReleaseTime",
+            "conOccupiedTimeMicros", "alarmingConnection", "thread", "queryCount", "executedQueries");
+
+    private final Function<PageRequest, PageResponse<T>> finder;
+    private final Sort sort;
+    private final FilterNode filter;
+    private final ExportFormat format;
+    private final ObjectWriter jsonWriter;
+    private final List<String> csvHeaders;
+    private final CsvRowWriter<T> csvRowWriter;
+
+    private Cursor cursor;
+    private boolean started;
+    private boolean exhausted;
+
+    private LogExport(Function<PageRequest, PageResponse<T>> finder, Sort sort, FilterNode filter, ExportFormat format,
+                      ObjectMapper mapper, List<String> csvHeaders, CsvRowWriter<T> csvRowWriter) {
+        this.finder = finder;
+        this.sort = sort;
+        this.filter = filter;
+        this.format = format;
+        this.jsonWriter = mapper.writer();
+        this.csvHeaders = csvHeaders;
+        this.csvRowWriter = csvRowWriter;
+    }
+
+    /**
+     * Exports the transaction logs, a CSV row per transaction followed by the rows of its inner transactions.
+     */
+    public static LogExport<TransactionLog> transactionLogs(TransactionLogRepository repository, Sort sort,
+                                                            FilterNode filter, ExportFormat format, ObjectMapper mapper) {
+        return new LogExport<>(repository::findAll, sort, filter, format, mapper, TRANSACTION_LOG_HEADERS,
+                (log, csv) -> writeTransactionLogRows(log, 0, csv));
+    }
+
+    public static LogExport<SqlExecutionLog> sqlExecutionLogs(SqlExecutionLogRepository repository, Sort sort,
+                                                              FilterNode filter, ExportFormat format, ObjectMapper mapper) {
+        return new LogExport<>(repository::findAll, sort, filter, format, mapper, SQL_EXECUTION_LOG_HEADERS,
+                LogExport::writeSqlExecutionLogRow);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !this.exhausted;
+    }
+
+    /**
+     * Reads the next page of logs and returns it encoded, the first chunk starts with the CSV header.
+     */
+    @Override
+    public byte[] next() {
+        if (this.exhausted) {
+            throw new NoSuchElementException();
+        }
+
+        PageResponse<T> page = this.finder.apply(PageRequest.after(this.cursor, CHUNK_SIZE, this.sort, this.filter)
+                .withoutTotal());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Csv csv = this.format == ExportFormat.CSV ? new Csv(out) : null;
+        if (csv != null && !this.started) {
+            this.csvHeaders.forEach(csv::cell);
+            csv.endRow();
+        }
+        for (T log : page.getContent()) {
+            if (csv != null) {
+                this.csvRowWriter.write(log, csv);
+            } else {
+                this.writeJsonLine(log, out);
+            }
+        }
+
+        this.started = true;
+        this.exhausted = !page.hasNext();
+        this.cursor = this.exhausted ? null : Cursor.decode(page.getNextCursor());
+        return out.toByteArray();
+    }
+
+    private void writeJsonLine(T log, ByteArrayOutputStream out) {
+        try {
+            out.writeBytes(this.jsonWriter.writeValueAsBytes(log));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.write('\n');
+    }
+
+    private static void writeTransactionLogRows(TransactionLog log, int depth, Csv csv) {
+        csv.cell(log.getTxId());
+        csv.cell(depth);
+        csv.cell(log.getMethod());
+        csv.cell(log.getStartTime());
+        csv.cell(log.getEndTime());
+        csv.cell(log.getDurationMicros());
+        csv.cell(log.getStatus());
+        csv.cell(log.getPropagation());
+        csv.cell(log.getIsolation());
+        csv.cell(log.getThread());
+        csv.cell(log.getConnectionOriented());
+        csv.cell(log.getConnectionSummary() == null ? null : log.getConnectionSummary().acquisitionCount());
+        csv.cell(log.getConnectionSummary() == null ? null : log.getConnectionSummary().occupiedTimeMicros());
+        csv.cell(log.getExecutedQuires() == null ? 0 : log.getExecutedQuires().size());
+        csv.cell(log.isNPlusOne());
+        csv.endRow();
+
+        if (log.getChild() != null) {
+            for (TransactionLog child : log.getChild()) {
+                writeTransactionLogRows(child, depth + 1, csv);
+            }
+        }
+    }
+
+    private static void writeSqlExecutionLogRow(SqlExecutionLog log, Csv csv) {
+        List<String> queries = log.getExecutedQuires() == null ? List.of() : log.getExecutedQuires();
+        csv.cell(log.getId());
+        csv.cell(log.getConAcquiredTime());
+        csv.cell(log.getConReleaseTime());
+        csv.cell(log.getConOccupiedTimeMicros());
+        csv.cell(log.isAlarmingConnection());
+        csv.cell(log.getThread());
+        csv.cell(queries.size());
+        csv.cell(String.join("\n", queries));
+        csv.endRow();
+    }
+
+    @FunctionalInterface
+    private interface CsvRowWriter<T> {
+        void write(T log, Csv csv);
+    }
+
+    /**
+     * Writes RFC 4180 rows, quoting the cells holding a separator, a quote or a line break.
+     */
+    private static final class Csv {
+        private final ByteArrayOutputStream out;
+        private boolean firstCell = true;
+
+        private Csv(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        private void cell(Object value) {
+            if (!this.firstCell) {
+                this.out.write(',');
+            }
+            this.firstCell = false;
+            if (value == null) {
+                return;
+            }
+
+            String text = value.toString();
+            boolean quoted = false;
+            for (int i = 0; i < text.length() && !quoted; i++) {
+                char c = text.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (quoted) {
+                text = '"' + text.replace("\"", "\"\"") + '"';
+            }
+            this.out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void endRow() {
+            this.out.write('\r');
+            this.out.write('\n');
+            this.firstCell = true;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.sdlc.pro.txboard.listener;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.sdlc.pro.txboard.config.TxBoardProperties.OverflowPolicy;
+
+/**
+ * Moves listener invocation off the business thread. Completed logs are put into a bounded queue which is
+ * drained in batches by a single dedicated consumer thread. When the queue is full the configured
+ * {@link OverflowPolicy} decides whether the producer waits or which log is dropped.
+ */
+public final class AsyncLogDispatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(AsyncLogDispatcher.class);
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000L;
+
+    private final BlockingQueue<Envelope> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<TransactionLog> transactionLogConsumer;
+    private final Consumer<TransactionLog> sampledOutTransactionLogConsumer;
+    private final Consumer<SqlExecutionLog> sqlExecutionLogConsumer;
+    private final Thread consumerThread;
+
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public AsyncLogDispatcher(TxBoardProperties.Dispatcher dispatcherProperties,
+                              Consumer<TransactionLog> transactionLogConsumer,
+                              Consumer<SqlExecutionLog> sqlExecutionLogConsumer) {
+        this(dispatcherProperties, transactionLogConsumer, transactionLog -> {}, sqlExecutionLogConsumer);
+    }
+
+    public AsyncLogDispatcher(TxBoardProperties.Dispatcher dispatcherProperties,
+                              Consumer<TransactionLog> transactionLogConsumer,
+                              Consumer<TransactionLog> sampledOutTransactionLogConsumer,
+                              Consumer<SqlExecutionLog> sqlExecutionLogConsumer) {
+        this.queue = new ArrayBlockingQueue<>(dispatcherProperties.getQueueCapacity());
+        this.batchSize = dispatcherProperties.getBatchSize();
+        this.overflowPolicy = dispatcherProperties.getOverflowPolicy();
+        this.transactionLogConsumer = transactionLogConsumer;
+        this.sampledOutTransactionLogConsumer = sampledOutTransactionLogConsumer;
+        this.sqlExecutionLogConsumer = sqlExecutionLogConsumer;
+        this.consumerThread = new Thread(this::drain, "tx-board-log-dispatcher");
+        this.consumerThread.setDaemon(true);
+        this.consumerThread.start();
+    }
+
+    public void dispatch(TransactionLog transactionLog) {
+        this.enqueue(new Envelope(transactionLog, transactionLog.isHealthyTransaction(), System.nanoTime()));
+    }
+
+    public void dispatchSampledOut(TransactionLog transactionLog) {
+        this.enqueue(new Envelope(new SampledOut(transactionLog), true, System.nanoTime()));
+    }
+
+    public void dispatch(SqlExecutionLog sqlExecutionLog) {
+        this.enqueue(new Envelope(sqlExecutionLog, !sqlExecutionLog.isAlarmingConnection(), System.nanoTime()));
+    }
+
+    private void enqueue(Envelope envelope) {
+        if (!this.running) {
+            // the consumer has been stopped, deliver on the caller thread rather than losing the log
+            this.deliver(envelope);
+            return;
+        }
+
+        boolean accepted = switch (this.overflowPolicy) {
+            case BLOCK -> this.put(envelope);
+            case DROP_NEWEST -> this.queue.offer(envelope);
+            case DROP_HEALTHY_FIRST -> this.queue.offer(envelope) || this.offerByEvictingHealthy(envelope);
+        };
+
+        if (accepted) {
+            this.queuedCount.increment();
+            // closed while offering, the consumer may have taken its last look at the queue before the offer
+            if (!this.running && this.queue.remove(envelope)) {
+                this.deliver(envelope);
+                this.dispatchedCount.increment();
+            }
+        } else {
+            this.droppedCount.increment();
+        }
+    }
+
+    private boolean put(Envelope envelope) {
+        try {
+            this.queue.put(envelope);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean offerByEvictingHealthy(Envelope envelope) {
+        if (envelope.healthy()) {
+            return false;
+        }
+
+        // another producer may take the freed slot first, so evict until the offer succeeds or no healthy log is left
+        while (true) {
+            Envelope evicted = null;
+            for (Envelope queued : this.queue) {
+                // only a log still queued counts as dropped, the consumer may have taken it in the meantime
+                if (queued.healthy() && this.queue.remove(queued)) {
+                    evicted = queued;
+                    break;
+                }
+            }
+            if (evicted == null) {
+                return false;
+            }
+            this.droppedCount.increment();
+            if (this.queue.offer(envelope)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        List<Envelope> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                Envelope first = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+                for (Envelope envelope : batch) {
+                    this.deliver(envelope);
+                }
+                this.dispatchedCount.add(batch.size());
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void deliver(Envelope envelope) {
+        try {
+            if (envelope.log() instanceof TransactionLog transactionLog) {
+                this.transactionLogConsumer.accept(transactionLog);
+            } else if (envelope.log() instanceof SampledOut sampledOut) {
+                this.sampledOutTransactionLogConsumer.accept(sampledOut.transactionLog());
+            } else if (envelope.log() instanceof SqlExecutionLog sqlExecutionLog) {
+                this.sqlExecutionLogConsumer.accept(sqlExecutionLog);
+            }
+        } catch (Exception ex) {
+            log.error("Failed to dispatch log asynchronously, Ex: {}", ex.getMessage());
+        }
+    }
+
+    public DispatchStatistics getStatistics() {
+        Envelope oldest = this.queue.peek();
+        long lagMillis = oldest == null ? 0L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt());
+        return new DispatchStatistics(
+                this.queuedCount.sum(),
+                this.dispatchedCount.sum(),
+                this.droppedCount.sum(),
+                this.queue.size(),
+                lagMillis
+        );
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        try {
+            this.consumerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.consumerThread.isAlive()) {
+            log.warn("Async log dispatcher stopped with {} pending logs", this.queue.size());
+            return;
+        }
+        // the logs offered after the consumer has stopped and not taken back by their producers
+        List<Envelope> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        for (Envelope envelope : remaining) {
+            this.deliver(envelope);
+        }
+        this.dispatchedCount.add(remaining.size());
+    }
+
+    /**
+     * @param queued     total logs accepted into the queue
+     * @param dispatched total logs handed over to the listeners
+     * @param dropped    total logs discarded by the overflow policy
+     * @param pending    logs currently waiting in the queue
+     * @param lagMillis  age of the oldest pending log
+     */
+    public record DispatchStatistics(long queued, long dispatched, long dropped, int pending, long lagMillis) {
+    }
+
+    private record Envelope(Object log, boolean healthy, long enqueuedAt) {
+    }
+
+    private record SampledOut(TransactionLog transactionLog) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.sdlc.pro.txboard.listener;
+
+import com.sdlc.pro.txboard.model.NPlusOneQuery;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally counts the executions of each SELECT fingerprint of one transaction and keeps the most repeated one
+ * once it has been executed more than the threshold, which is the typical shape of an N+1 access (one parent SELECT
+ * followed by a SELECT per loaded row). The counters live in a reusable open-addressing table keyed by the fingerprint
+ * id, so recording a query is O(1) and allocation free.
+ */
+final class NPlusOneDetector {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    private final QueryDictionary queryDictionary;
+    private final int threshold;
+    private int[] fingerprintIds;
+    private int[] counts;
+    private int size;
+    private int suspectQueryId;
+    private int suspectCount;
+
+    NPlusOneDetector(QueryDictionary queryDictionary, int threshold) {
+        this.queryDictionary = queryDictionary;
+        this.threshold = threshold;
+        this.fingerprintIds = new int[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.fingerprintIds, EMPTY);
+        this.suspectQueryId = QueryDictionary.NOT_INTERNED;
+    }
+
+    /**
+     * Records a statement which has not been interned yet, e.g. one whose text is not captured.
+     */
+    void record(String query) {
+        this.record(this.queryDictionary.intern(SqlNormalizer.normalize(query).template()));
+    }
+
+    void record(int queryId) {
+        if (queryId == QueryDictionary.NOT_INTERNED) {
+            return;
+        }
+
+        QueryDictionary.Entry entry = this.queryDictionary.entryOf(queryId);
+        if (!isSelect(entry.fingerprint())) {
+            return;
+        }
+
+        int count = this.increment(entry.fingerprintId());
+        if (count > this.threshold && count > this.suspectCount) {
+            this.suspectQueryId = queryId;
+            this.suspectCount = count;
+        }
+    }
+
+    /**
+     * Returns the most repeated SELECT fingerprint, {@code null} when no fingerprint exceeded the threshold.
+     */
+    NPlusOneQuery result() {
+        if (this.suspectQueryId == QueryDictionary.NOT_INTERNED) {
+            return null;
+        }
+        return new NPlusOneQuery(this.queryDictionary.fingerprintOf(this.suspectQueryId), this.suspectCount);
+    }
+
+    void reset() {
+        if (this.size > 0) {
+            Arrays.fill(this.fingerprintIds, EMPTY);
+            Arrays.fill(this.counts, 0);
+            this.size = 0;
+        }
+        this.suspectQueryId = QueryDictionary.NOT_INTERNED;
+        this.suspectCount = 0;
+    }
+
+    private int increment(int fingerprintId) {
+        int mask = this.fingerprintIds.length - 1;
+        int slot = mix(fingerprintId) & mask;
+        while (this.fingerprintIds[slot] != EMPTY) {
+            if (this.fingerprintIds[slot] == fingerprintId) {
+                return ++this.counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        this.fingerprintIds[slot] = fingerprintId;
+        this.counts[slot] = 1;
+        if (++this.size > (this.fingerprintIds.length >> 1)) {
+            this.grow();
+        }
+        return 1;
+    }
+
+    private void grow() {
+        int[] oldFingerprintIds = this.fingerprintIds;
+        int[] oldCounts = this.counts;
+        this.fingerprintIds = new int[oldFingerprintIds.length << 1];
+        this.counts = new int[oldCounts.length << 1];
+        Arrays.fill(this.fingerprintIds, EMPTY);
+
+        int mask = this.fingerprintIds.length - 1;
+        for (int i = 0; i < oldFingerprintIds.length; i++) {
+            if (oldFingerprintIds[i] != EMPTY) {
+                int slot = mix(oldFingerprintIds[i]) & mask;
+                while (this.fingerprintIds[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.fingerprintIds[slot] = oldFingerprintIds[i];
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean isSelect(String fingerprint) {
+        return fingerprint != null && fingerprint.regionMatches(true, 0, "select", 0, 6);
+    }
+}
@@ -4,4 +4,11 @@ import com.sdlc.pro.txboard.model.TransactionLog;
 
 public interface TransactionLogListener {
     void listen(TransactionLog transactionLog);
+
+    /**
+     * Invoked instead of {@link #listen(TransactionLog)} for a healthy transaction which has been dropped by the
+     * tail sampling decision. The log should only be used to keep aggregated counters accurate.
+     */
+    default void listenSampledOut(TransactionLog transactionLog) {
+    }
 }
@@ -14,4 +14,9 @@ public final class TransactionLogPersistenceListener implements TransactionLogLi
     public void listen(TransactionLog transactionLog) {
         repository.save(transactionLog);
     }
+
+    @Override
+    public void listenSampledOut(TransactionLog transactionLog) {
+        repository.recordSampledOut(transactionLog);
+    }
 }
@@ -1,5 +1,6 @@
 package com.sdlc.pro.txboard.listener;
 
+import com.sdlc.pro.txboard.model.BatchSummary;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 
@@ -26,6 +27,23 @@ public sealed interface TransactionPhaseListener permits TransactionPhaseListene
     default void executedQuery(String query) {
     }
 
+    /**
+     * @param startNanos    {@link System#nanoTime()} at which the execution started
+     * @param durationNanos time taken by the execution
+     */
+    default void executedQuery(String query, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Reports a JDBC batch as a single execution of the given statement.
+     *
+     * @param batch         the size and the update counts summary of the batch
+     * @param startNanos    {@link System#nanoTime()} at which the batch execution started
+     * @param durationNanos time taken by the batch execution
+     */
+    default void executedBatch(String query, BatchSummary batch, long startNanos, long durationNanos) {
+    }
+
     default void errorOccurredAtTransactionPhase(Throwable throwable) {
     }
 }
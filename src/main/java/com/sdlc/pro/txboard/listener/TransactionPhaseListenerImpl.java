@@ -4,56 +4,87 @@ import com.sdlc.pro.txboard.config.TxBoardProperties;
 import com.sdlc.pro.txboard.enums.IsolationLevel;
 import com.sdlc.pro.txboard.enums.PropagationBehavior;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.BatchSummary;
 import com.sdlc.pro.txboard.model.ConnectionSummary;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
 import com.sdlc.pro.txboard.model.TransactionEvent;
 import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.QueryList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.event.Level;
 import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.transaction.TransactionDefinition;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 import static com.sdlc.pro.txboard.config.TxBoardProperties.AlarmingThreshold;
 
-public final class TransactionPhaseListenerImpl implements TransactionPhaseListener {
+public final class TransactionPhaseListenerImpl implements TransactionPhaseListener, DisposableBean {
     private static final Logger log = LoggerFactory.getLogger(TransactionPhaseListenerImpl.class);
 
     private final TxBoardProperties txBoardProperties;
     private final List<TransactionLogListener> transactionLogListeners;
     private final List<SqlExecutionLogListener> sqlExecutionLogListeners;
+    private final AsyncLogDispatcher asyncLogDispatcher;
+    private final TransactionSampler transactionSampler;
 
-    private static final ThreadLocal<Deque<TransactionInfo>> txInfoThreadLocal = ThreadLocal.withInitial(LinkedList::new);
-    private static final ThreadLocal<Integer> activeConnectionCount = ThreadLocal.withInitial(() -> 0);
-    private static final ThreadLocal<SqlExecutionInfo> sqlExecInfoThreadLocal = new ThreadLocal<>();
+    private final ThreadLocal<CaptureContext> captureContextThreadLocal;
+    private static final String[] CONNECTION_SUBJECTS = IntStream.range(0, 16).mapToObj(String::valueOf).toArray(String[]::new);
 
     public TransactionPhaseListenerImpl(TxBoardProperties txBoardProperties,
                                         List<TransactionLogListener> transactionLogListeners,
                                         List<SqlExecutionLogListener> sqlExecutionLogListeners) {
+        this(txBoardProperties, new QueryDictionary(txBoardProperties.getSql().getDictionaryCapacity()),
+                transactionLogListeners, sqlExecutionLogListeners);
+    }
+
+    public TransactionPhaseListenerImpl(TxBoardProperties txBoardProperties,
+                                        QueryDictionary queryDictionary,
+                                        List<TransactionLogListener> transactionLogListeners,
+                                        List<SqlExecutionLogListener> sqlExecutionLogListeners) {
+        boolean captureParameters = txBoardProperties.getSql().isCaptureParameters();
+        int nPlusOneThreshold = txBoardProperties.getSql().getNPlusOneThreshold();
+        this.captureContextThreadLocal = ThreadLocal.withInitial(
+                () -> new CaptureContext(queryDictionary, captureParameters, nPlusOneThreshold)
+        );
         this.txBoardProperties = txBoardProperties;
         this.transactionLogListeners = transactionLogListeners;
         this.sqlExecutionLogListeners = sqlExecutionLogListeners;
+        this.asyncLogDispatcher = txBoardProperties.getDispatcher().isAsync() ? new AsyncLogDispatcher(
+                txBoardProperties.getDispatcher(),
+                this::publishTransactionLogToListeners,
+                this::publishSampledOutTransactionLogToListeners,
+                this::publishSqlExecutionLogToListeners
+        ) : null;
+        this.transactionSampler = new TransactionSampler(txBoardProperties.getSampling());
     }
 
     @Override
     public void beforeBegin(TransactionDefinition definition) {
+        CaptureContext context = captureContext();
         String method = extractTransactionMethod(definition);
         PropagationBehavior propagation = PropagationBehavior.of(definition.getPropagationBehavior());
         IsolationLevel isolation = IsolationLevel.of(definition.getIsolationLevel());
-        TransactionInfo newTxInfo = new TransactionInfo(
+        TransactionInfo currentTxInfo = context.currentTransactionInfo();
+        TransactionInfo newTxInfo = context.obtainTransactionInfo().init(
                 method,
                 propagation,
                 isolation,
                 txBoardProperties.getAlarmingThreshold(),
-                !hasActiveTransaction()
+                currentTxInfo,
+                currentTxInfo != null ? currentTxInfo.isTrackingQueries() : this.transactionSampler.sampleHead()
         );
 
-        currentTransactionInfo().ifPresent(oldTxInfo -> buildRelation(oldTxInfo, newTxInfo));
-        trackNewTransactionInfo(newTxInfo);
+        if (currentTxInfo != null) {
+            buildRelation(currentTxInfo, newTxInfo);
+        }
+        context.push(newTxInfo);
     }
 
     private static void buildRelation(TransactionInfo oldTxInfo, TransactionInfo newTxInfo) {
@@ -62,9 +93,13 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
 
     @Override
     public void afterBegin(Throwable throwable) {
-        Instant timestamp = Instant.now();
-        currentTransactionInfo().ifPresent(txInfo -> txInfo.setStartTime(timestamp));
-        addTransactionEvent(new TransactionEvent(TransactionEvent.Type.TRANSACTION_START, timestamp, "Transaction Start [%s]".formatted(currentTransactionMethodName())));
+        CaptureContext context = captureContext();
+        TransactionInfo txInfo = context.currentTransactionInfo();
+        if (txInfo != null) {
+            long timestamp = System.nanoTime();
+            txInfo.setStartNanos(timestamp);
+            context.parentTransactionInfo().addEvent(TransactionEvent.Type.TRANSACTION_START, timestamp, txInfo.getMethodName());
+        }
         if (throwable != null) {
             endWithTransactionStatusAndEvent(TransactionPhaseStatus.ERRORED);
         }
@@ -82,45 +117,57 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
 
     @Override
     public void afterAcquiredConnection() {
-        if (hasActiveTransaction()) {
-            int count = onConnectionAcquired();
-            addTransactionEvent(new TransactionEvent(TransactionEvent.Type.CONNECTION_ACQUIRED, "Connection Acquired [%d]".formatted(count)));
+        CaptureContext context = captureContext();
+        if (context.hasActiveTransaction()) {
+            int count = context.onConnectionAcquired();
+            context.parentTransactionInfo().addEvent(TransactionEvent.Type.CONNECTION_ACQUIRED, System.nanoTime(), connectionSubject(count));
         } else {
             long conAlarmingThreshold = this.txBoardProperties.getAlarmingThreshold().getConnection();
-            SqlExecutionInfo sqlExecutionInfo = new SqlExecutionInfo(conAlarmingThreshold);
-            sqlExecutionInfo.setThread(Thread.currentThread().getName());
-            sqlExecInfoThreadLocal.set(sqlExecutionInfo);
+            context.sqlExecutionInfo().start(conAlarmingThreshold, Thread.currentThread().getName());
         }
     }
 
     @Override
     public void afterCloseConnection() {
-        if (hasActiveTransaction()) {
-            int count = onConnectionReleased();
-            addTransactionEvent(new TransactionEvent(TransactionEvent.Type.CONNECTION_RELEASED, "Connection Released [%d]".formatted(count)));
-            if (getParentTransactionInfo().isCompleted()) {
+        CaptureContext context = captureContext();
+        if (context.hasActiveTransaction()) {
+            int count = context.onConnectionReleased();
+            TransactionInfo parentTxInfo = context.parentTransactionInfo();
+            parentTxInfo.addEvent(TransactionEvent.Type.CONNECTION_RELEASED, System.nanoTime(), connectionSubject(count));
+            if (parentTxInfo.isCompleted()) {
                 finish();
             }
         } else {
-            SqlExecutionInfo sqlExecutionInfo = sqlExecInfoThreadLocal.get();
-            sqlExecutionInfo.complete();
-            sqlExecInfoThreadLocal.remove();
-            finish(sqlExecutionInfo);
+            SqlExecutionInfo sqlExecutionInfo = context.sqlExecutionInfo();
+            if (sqlExecutionInfo.isActive()) {
+                sqlExecutionInfo.complete();
+                finish(sqlExecutionInfo);
+            }
         }
     }
 
     @Override
     public void executedQuery(String query) {
-        if (hasActiveTransaction()) {
-            currentTransactionInfo().ifPresent(txInfo -> {
-                if (txInfo.isMostParent() && txInfo.isCompleted()) {
-                    txInfo.addPostTransactionQuery(query);
-                } else {
-                    txInfo.addExecutedQuery(query);
-                }
-            });
-        } else {
-            sqlExecInfoThreadLocal.get().add(query);
+        this.executedQuery(query, System.nanoTime(), 0L);
+    }
+
+    @Override
+    public void executedQuery(String query, long startNanos, long durationNanos) {
+        this.executedBatch(query, null, startNanos, durationNanos);
+    }
+
+    @Override
+    public void executedBatch(String query, BatchSummary batch, long startNanos, long durationNanos) {
+        CaptureContext context = captureContext();
+        TransactionInfo txInfo = context.currentTransactionInfo();
+        if (txInfo != null) {
+            if (txInfo.isMostParent() && txInfo.isCompleted()) {
+                txInfo.addPostTransactionQuery(query, batch, startNanos, durationNanos);
+            } else {
+                txInfo.addExecutedQuery(query, batch, startNanos, durationNanos);
+            }
+        } else if (context.sqlExecutionInfo().isActive()) {
+            context.sqlExecutionInfo().add(query, batch, startNanos, durationNanos);
         }
     }
 
@@ -130,25 +177,32 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
     }
 
     private void endWithTransactionStatusAndEvent(TransactionPhaseStatus status) {
-        currentTransactionInfo().ifPresent(txInfo -> {
-            Instant timestamp = Instant.now();
-            txInfo.setEndTime(timestamp);
-            txInfo.setStatus(status);
-            addTransactionEvent(new TransactionEvent(TransactionEvent.Type.TRANSACTION_END, timestamp, "Transaction End [%s]".formatted(txInfo.getMethodName())));
-
-            if (txInfo.isMostParent()) {
-                if (!hasActiveConnection()) {
-                    finish();
-                }
-            } else {
-                popCurrentTransactionInfo();
+        CaptureContext context = captureContext();
+        TransactionInfo txInfo = context.currentTransactionInfo();
+        if (txInfo == null) {
+            return;
+        }
+
+        long timestamp = System.nanoTime();
+        txInfo.setEndNanos(timestamp);
+        txInfo.setStatus(status);
+        context.parentTransactionInfo().addEvent(TransactionEvent.Type.TRANSACTION_END, timestamp, txInfo.getMethodName());
+
+        if (txInfo.isMostParent()) {
+            if (!context.hasActiveConnection()) {
+                finish();
             }
-        });
+        } else {
+            context.pop();
+        }
     }
 
     private void finish() {
-        popCurrentTransactionInfo().ifPresent(txInfo -> {
+        CaptureContext context = captureContext();
+        TransactionInfo txInfo = context.pop();
+        if (txInfo != null) {
             TransactionLog txLog = txInfo.toTransactionLog();
+            context.recycle(txInfo);
 
             boolean healthyTransaction = txLog.isHealthyTransaction();
             boolean detailedLoggingEnabled = txBoardProperties.getLogType() == TxBoardProperties.LogType.DETAILS;
@@ -171,8 +225,19 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
                 }
             }
 
-            this.publishTransactionLogToListeners(txLog);
-        });
+            boolean sampled = this.transactionSampler.sampleTail(txLog);
+            if (this.asyncLogDispatcher != null) {
+                if (sampled) {
+                    this.asyncLogDispatcher.dispatch(txLog);
+                } else {
+                    this.asyncLogDispatcher.dispatchSampledOut(txLog);
+                }
+            } else if (sampled) {
+                this.publishTransactionLogToListeners(txLog);
+            } else {
+                this.publishSampledOutTransactionLogToListeners(txLog);
+            }
+        }
     }
 
     private static int getConnectionAcquiredCount(TransactionLog txLog) {
@@ -263,53 +328,24 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
         }
     }
 
-    private static boolean hasActiveTransaction() {
-        return !txInfoThreadLocal.get().isEmpty();
-    }
-
-    private static void trackNewTransactionInfo(TransactionInfo transactionInfo) {
-        txInfoThreadLocal.get().push(transactionInfo);
-    }
-
-    private static String currentTransactionMethodName() {
-        return currentTransactionInfo()
-                .map(TransactionInfo::getMethodName)
-                .orElse("anonymous");
-    }
-
-    private static Optional<TransactionInfo> currentTransactionInfo() {
-        Deque<TransactionInfo> txInfoDeque = txInfoThreadLocal.get();
-        return Optional.ofNullable(txInfoDeque.isEmpty() ? null : txInfoDeque.peek());
-    }
-
-    private static Optional<TransactionInfo> popCurrentTransactionInfo() {
-        Deque<TransactionInfo> txInfoDeque = txInfoThreadLocal.get();
-        return Optional.ofNullable(txInfoDeque.isEmpty() ? null : txInfoDeque.pop());
-    }
-
-
-    private int onConnectionAcquired() {
-        int count = activeConnectionCount.get() + 1;
-        activeConnectionCount.set(count);
-        return count;
-    }
-
-    private int onConnectionReleased() {
-        int count = activeConnectionCount.get();
-        activeConnectionCount.set(count - 1);
-        return count;
-    }
-
-    private boolean hasActiveConnection() {
-        return activeConnectionCount.get() > 0;
+    private void publishSampledOutTransactionLogToListeners(TransactionLog txLog) {
+        if (this.transactionLogListeners != null && !this.transactionLogListeners.isEmpty()) {
+            for (TransactionLogListener logListener : this.transactionLogListeners) {
+                try {
+                    logListener.listenSampledOut(txLog);
+                } catch (Exception ex) {
+                    log.error("Failed to publish sampled out transaction log to listener: {}, Ex: {}", logListener.getClass().getName(), ex.getMessage());
+                }
+            }
+        }
     }
 
-    private void addTransactionEvent(TransactionEvent event) {
-        this.getParentTransactionInfo().addEvent(event);
+    private CaptureContext captureContext() {
+        return this.captureContextThreadLocal.get();
     }
 
-    private TransactionInfo getParentTransactionInfo() {
-        return txInfoThreadLocal.get().getLast();
+    private static String connectionSubject(int count) {
+        return count >= 0 && count < CONNECTION_SUBJECTS.length ? CONNECTION_SUBJECTS[count] : String.valueOf(count);
     }
 
     private static String extractTransactionMethod(TransactionDefinition definition) {
@@ -362,7 +398,11 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
             logBuilder.log("SQL Executor leased connection for {} ms to executed {} queries", executionLog.getConOccupiedTime(), quires.size());
         }
 
-        publishSqlExecutionLogToListeners(executionLog);
+        if (this.asyncLogDispatcher != null) {
+            this.asyncLogDispatcher.dispatch(executionLog);
+        } else {
+            publishSqlExecutionLogToListeners(executionLog);
+        }
     }
 
     private void publishSqlExecutionLogToListeners(SqlExecutionLog sqlExecutionLog) {
@@ -377,51 +417,208 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
         }
     }
 
-    private static class TransactionInfo {
-        private final UUID txId;
-        private final boolean isMostParent;
-        private final String methodName;
-        private final PropagationBehavior propagation;
-        private final IsolationLevel isolation;
-        private Instant startTime;
-        private Instant endTime;
+    public Optional<AsyncLogDispatcher.DispatchStatistics> getDispatchStatistics() {
+        return Optional.ofNullable(this.asyncLogDispatcher).map(AsyncLogDispatcher::getStatistics);
+    }
+
+    @Override
+    public void destroy() {
+        if (this.asyncLogDispatcher != null) {
+            this.asyncLogDispatcher.close();
+        }
+    }
+
+    /**
+     * Per-thread capture state. The transaction stack, the connection counter and the recycled
+     * {@link TransactionInfo}/{@link SqlExecutionInfo} objects live in a single thread-local so each
+     * callback costs one lookup and no boxing.
+     */
+    private static final class CaptureContext {
+        private static final int MAX_RECYCLED_TX_INFOS = 32;
+
+        private final Deque<TransactionInfo> txInfoStack = new ArrayDeque<>();
+        private final Deque<TransactionInfo> recycledTxInfos = new ArrayDeque<>();
+        private final QueryDictionary queryDictionary;
+        private final boolean captureParameters;
+        private final int nPlusOneThreshold;
+        private final SqlExecutionInfo sqlExecutionInfo;
+        private int activeConnectionCount;
+
+        private CaptureContext(QueryDictionary queryDictionary, boolean captureParameters, int nPlusOneThreshold) {
+            this.queryDictionary = queryDictionary;
+            this.captureParameters = captureParameters;
+            this.nPlusOneThreshold = nPlusOneThreshold;
+            this.sqlExecutionInfo = new SqlExecutionInfo(queryDictionary, captureParameters);
+        }
+
+        private boolean hasActiveTransaction() {
+            return !this.txInfoStack.isEmpty();
+        }
+
+        private TransactionInfo currentTransactionInfo() {
+            return this.txInfoStack.peek();
+        }
+
+        private TransactionInfo parentTransactionInfo() {
+            return this.txInfoStack.getLast();
+        }
+
+        private void push(TransactionInfo txInfo) {
+            this.txInfoStack.push(txInfo);
+        }
+
+        private TransactionInfo pop() {
+            return this.txInfoStack.poll();
+        }
+
+        private TransactionInfo obtainTransactionInfo() {
+            TransactionInfo txInfo = this.recycledTxInfos.poll();
+            return txInfo != null ? txInfo : new TransactionInfo(this.queryDictionary, this.captureParameters, this.nPlusOneThreshold);
+        }
+
+        private void recycle(TransactionInfo txInfo) {
+            // the inner transactions are still referenced by the tree until the most parent one is finished
+            if (!txInfo.isMostParent() || !this.txInfoStack.isEmpty()) {
+                return;
+            }
+            this.release(txInfo);
+        }
+
+        private void release(TransactionInfo txInfo) {
+            for (TransactionInfo child : txInfo.child) {
+                this.release(child);
+            }
+            txInfo.clear();
+            if (this.recycledTxInfos.size() < MAX_RECYCLED_TX_INFOS) {
+                this.recycledTxInfos.push(txInfo);
+            }
+        }
+
+        private SqlExecutionInfo sqlExecutionInfo() {
+            return this.sqlExecutionInfo;
+        }
+
+        private int onConnectionAcquired() {
+            return ++this.activeConnectionCount;
+        }
+
+        private int onConnectionReleased() {
+            return this.activeConnectionCount--;
+        }
+
+        private boolean hasActiveConnection() {
+            return this.activeConnectionCount > 0;
+        }
+    }
+
+    private static final class TransactionInfo {
+        private static final int INITIAL_EVENT_CAPACITY = 8;
+
+        private UUID txId;
+        private boolean isMostParent;
+        private String methodName;
+        private PropagationBehavior propagation;
+        private IsolationLevel isolation;
+        private Instant anchorTime;
+        private long anchorNanos;
+        private long startNanos;
+        private long endNanos;
+        private boolean completed;
+        private boolean trackingQueries;
         private TransactionPhaseStatus status;
-        private final String thread;
-        private final List<TransactionInfo> child;
-        private final List<String> executedQuires;
-        private final List<TransactionEvent> events;
-        private final AlarmingThreshold alarmingThreshold;
-        private final List<String> postTransactionQuires;
-
-        public TransactionInfo(String methodName, PropagationBehavior propagation, IsolationLevel isolation,
-                               AlarmingThreshold alarmingThreshold, boolean isMostParent) {
-            this.isMostParent = isMostParent;
-            this.txId = this.isMostParent ? UUID.randomUUID() : null;
+        private String thread;
+        private AlarmingThreshold alarmingThreshold;
+        private final List<TransactionInfo> child = new ArrayList<>();
+        private final QueryList.Builder executedQuires;
+        private final QueryList.Builder postTransactionQuires;
+        private final NPlusOneDetector nPlusOneDetector;
+
+        // the timeline of the most parent transaction, kept as parallel primitive arrays
+        private TransactionEvent.Type[] eventTypes;
+        private long[] eventNanos;
+        private String[] eventSubjects;
+        private int eventCount;
+        private long[] connectionStack;
+
+        private TransactionInfo(QueryDictionary queryDictionary, boolean captureParameters, int nPlusOneThreshold) {
+            this.executedQuires = new QueryList.Builder(queryDictionary, captureParameters);
+            this.postTransactionQuires = new QueryList.Builder(queryDictionary, captureParameters);
+            this.nPlusOneDetector = new NPlusOneDetector(queryDictionary, nPlusOneThreshold);
+        }
+
+        private TransactionInfo init(String methodName, PropagationBehavior propagation, IsolationLevel isolation,
+                                     AlarmingThreshold alarmingThreshold, TransactionInfo parent,
+                                     boolean trackingQueries) {
+            this.isMostParent = parent == null;
+            this.trackingQueries = trackingQueries;
+            this.txId = this.isMostParent ? randomTxId() : null;
             this.methodName = methodName;
             this.propagation = propagation;
             this.isolation = isolation;
             this.thread = Thread.currentThread().getName();
-            this.child = new LinkedList<>();
-            this.executedQuires = new LinkedList<>();
-            this.events = this.isMostParent ? new LinkedList<>() : null;
             this.alarmingThreshold = alarmingThreshold;
-            this.postTransactionQuires = this.isMostParent ? new LinkedList<>() : null;
+            if (this.isMostParent) {
+                // the wall-clock is read once per transaction tree, every other timestamp is a monotonic offset
+                this.anchorTime = Instant.now();
+                this.anchorNanos = System.nanoTime();
+                if (this.eventTypes == null) {
+                    this.eventTypes = new TransactionEvent.Type[INITIAL_EVENT_CAPACITY];
+                    this.eventNanos = new long[INITIAL_EVENT_CAPACITY];
+                    this.eventSubjects = new String[INITIAL_EVENT_CAPACITY];
+                }
+            } else {
+                this.anchorTime = parent.anchorTime;
+                this.anchorNanos = parent.anchorNanos;
+            }
+            return this;
+        }
+
+        private void clear() {
+            this.txId = null;
+            this.methodName = null;
+            this.propagation = null;
+            this.isolation = null;
+            this.anchorTime = null;
+            this.completed = false;
+            this.status = null;
+            this.thread = null;
+            this.alarmingThreshold = null;
+            this.child.clear();
+            this.executedQuires.clear();
+            this.postTransactionQuires.clear();
+            this.nPlusOneDetector.reset();
+            if (this.eventSubjects != null) {
+                Arrays.fill(this.eventSubjects, 0, this.eventCount, null);
+            }
+            this.eventCount = 0;
+        }
+
+        private static UUID randomTxId() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+            long leastSigBits = (random.nextLong() & ~0xC000000000000000L) | 0x8000000000000000L;
+            return new UUID(mostSigBits, leastSigBits);
         }
 
         public String getMethodName() {
             return methodName;
         }
 
-        public void setStartTime(Instant startTime) {
-            this.startTime = startTime;
+        public void setStartNanos(long startNanos) {
+            this.startNanos = startNanos;
         }
 
-        public void setEndTime(Instant endTime) {
-            this.endTime = endTime;
+        public void setEndNanos(long endNanos) {
+            this.endNanos = endNanos;
+            this.completed = true;
         }
 
         public boolean isCompleted() {
-            return this.endTime != null;
+            return this.completed;
+        }
+
+        public boolean isTrackingQueries() {
+            return this.trackingQueries;
         }
 
         public TransactionPhaseStatus getStatus() {
@@ -436,26 +633,57 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
             this.child.add(childTxInfo);
         }
 
-        public void addExecutedQuery(String query) {
-            this.executedQuires.add(query);
+        public void addExecutedQuery(String query, BatchSummary batch, long startNanos, long durationNanos) {
+            long startOffsetNanos = Math.max(0L, startNanos - this.startNanos);
+            if (this.trackingQueries) {
+                int queryId = this.executedQuires.add(query, startOffsetNanos, durationNanos, batch);
+                if (batch == null) {
+                    this.nPlusOneDetector.record(queryId);
+                }
+            } else {
+                // an untracked execution is still counted with its timings and its statement shape
+                this.executedQuires.addUncaptured(startOffsetNanos, durationNanos, batch);
+                if (batch == null) {
+                    this.nPlusOneDetector.record(query);
+                }
+            }
         }
 
-        public void addEvent(TransactionEvent event) {
-            this.events.add(event);
+        public void addEvent(TransactionEvent.Type type, long nanos, String subject) {
+            if (this.eventCount == this.eventTypes.length) {
+                int newCapacity = this.eventCount << 1;
+                this.eventTypes = Arrays.copyOf(this.eventTypes, newCapacity);
+                this.eventNanos = Arrays.copyOf(this.eventNanos, newCapacity);
+                this.eventSubjects = Arrays.copyOf(this.eventSubjects, newCapacity);
+            }
+            this.eventTypes[this.eventCount] = type;
+            this.eventNanos[this.eventCount] = nanos;
+            this.eventSubjects[this.eventCount] = subject;
+            this.eventCount++;
         }
 
         public boolean isMostParent() {
             return this.isMostParent;
         }
 
-        public void addPostTransactionQuery(String query) {
-            this.postTransactionQuires.add(query);
+        public void addPostTransactionQuery(String query, BatchSummary batch, long startNanos, long durationNanos) {
+            long startOffsetNanos = Math.max(0L, startNanos - this.startNanos);
+            if (this.trackingQueries) {
+                this.postTransactionQuires.add(query, startOffsetNanos, durationNanos, batch);
+            } else {
+                this.postTransactionQuires.addUncaptured(startOffsetNanos, durationNanos, batch);
+            }
+        }
+
+        private Instant toInstant(long nanos) {
+            return this.anchorTime.plusNanos(nanos - this.anchorNanos);
         }
 
         public TransactionLog toTransactionLog() {
-            List<TransactionLog> child = this.child.stream()
-                    .map(TransactionInfo::toTransactionLog)
-                    .toList();
+            List<TransactionLog> child = new ArrayList<>(this.child.size());
+            for (TransactionInfo childTxInfo : this.child) {
+                child.add(childTxInfo.toTransactionLog());
+            }
 
             ConnectionSummary connectionSummary = this.isMostParent ? getConnectionRelatedInfo() : null;
 
@@ -464,71 +692,93 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
                     this.methodName,
                     this.propagation,
                     this.isolation,
-                    this.startTime,
-                    this.endTime,
+                    toInstant(this.startNanos),
+                    toInstant(this.endNanos),
+                    (this.endNanos - this.startNanos) / 1_000L,
                     connectionSummary,
                     this.status,
                     this.thread,
-                    executedQuires,
+                    this.executedQuires.build(),
                     child,
-                    events,
+                    this.isMostParent ? getEvents() : null,
                     this.alarmingThreshold.getTransaction(),
-                    this.postTransactionQuires
+                    this.isMostParent ? this.postTransactionQuires.build() : null,
+                    this.nPlusOneDetector.result()
             );
         }
 
+        private List<TransactionEvent> getEvents() {
+            List<TransactionEvent> events = new ArrayList<>(this.eventCount);
+            for (int i = 0; i < this.eventCount; i++) {
+                events.add(TransactionEvent.of(this.eventTypes[i], toInstant(this.eventNanos[i]), this.eventSubjects[i]));
+            }
+            return events;
+        }
+
         private ConnectionSummary getConnectionRelatedInfo() {
-            long occupiedTime = 0L;
+            long occupiedMicros = 0L;
             int acquisitionCount = 0;
             int alarmingConnectionCount = 0;
 
-            if (this.events != null && !this.events.isEmpty()) {
-                Deque<TransactionEvent> conEventStack = new LinkedList<>();
-                for (TransactionEvent event : this.events) {
-                    if (event.getType() == TransactionEvent.Type.CONNECTION_ACQUIRED) {
-                        acquisitionCount++;
-                        conEventStack.push(event);
-                    } else if (event.getType() == TransactionEvent.Type.CONNECTION_RELEASED) {
-                        TransactionEvent prevEvent = conEventStack.pop();
-                        long duration = Duration.between(prevEvent.getTimestamp(), event.getTimestamp()).toMillis();
-                        if (duration >= alarmingThreshold.getConnection()) {
-                            alarmingConnectionCount++;
-                        }
-                        occupiedTime += duration;
+            if (this.connectionStack == null || this.connectionStack.length < this.eventCount) {
+                this.connectionStack = new long[Math.max(INITIAL_EVENT_CAPACITY, this.eventCount)];
+            }
+
+            int depth = 0;
+            for (int i = 0; i < this.eventCount; i++) {
+                TransactionEvent.Type type = this.eventTypes[i];
+                if (type == TransactionEvent.Type.CONNECTION_ACQUIRED) {
+                    acquisitionCount++;
+                    this.connectionStack[depth++] = this.eventNanos[i];
+                } else if (type == TransactionEvent.Type.CONNECTION_RELEASED && depth > 0) {
+                    long micros = (this.eventNanos[i] - this.connectionStack[--depth]) / 1_000L;
+                    if (micros >= alarmingThreshold.getConnection() * 1_000L) {
+                        alarmingConnectionCount++;
                     }
+                    occupiedMicros += micros;
                 }
             }
 
-            return new ConnectionSummary(acquisitionCount, alarmingConnectionCount, occupiedTime);
+            return ConnectionSummary.ofMicros(acquisitionCount, alarmingConnectionCount, occupiedMicros);
         }
     }
 
-    private static class SqlExecutionInfo {
-        private final Instant conAcquiredTime;
-        private Instant conReleaseTime;
+    private static final class SqlExecutionInfo {
+        private final QueryList.Builder executedQuires;
+        private Instant conAcquiredTime;
+        private long conAcquiredNanos;
+        private long conReleaseNanos;
+        private boolean active;
         private String thread;
-        private final List<String> executedQuires;
-        private final long conAlarmingThreshold;
+        private long conAlarmingThreshold;
 
-        public SqlExecutionInfo(long conAlarmingThreshold) {
+        private SqlExecutionInfo(QueryDictionary queryDictionary, boolean captureParameters) {
+            this.executedQuires = new QueryList.Builder(queryDictionary, captureParameters);
+        }
+
+        private void start(long conAlarmingThreshold, String thread) {
+            this.executedQuires.clear();
             this.conAcquiredTime = Instant.now();
-            this.executedQuires = new ArrayList<>();
+            this.conAcquiredNanos = System.nanoTime();
             this.conAlarmingThreshold = conAlarmingThreshold;
+            this.thread = thread;
+            this.active = true;
+        }
+
+        public boolean isActive() {
+            return this.active;
         }
 
-        public void add(String query) {
-            if (this.conReleaseTime != null) {
+        public void add(String query, BatchSummary batch, long startNanos, long durationNanos) {
+            if (!this.active) {
                 throw new IllegalStateException("The execution has already been explicitly marked as finished");
             }
-            this.executedQuires.add(query);
+            this.executedQuires.add(query, Math.max(0L, startNanos - this.conAcquiredNanos), durationNanos, batch);
         }
 
         public void complete() {
-            this.conReleaseTime = Instant.now();
-        }
-
-        public void setThread(String thread) {
-            this.thread = thread;
+            this.conReleaseNanos = System.nanoTime();
+            this.active = false;
         }
 
         public boolean notExecutedAnyQueries() {
@@ -536,15 +786,18 @@ public final class TransactionPhaseListenerImpl implements TransactionPhaseListe
         }
 
         public SqlExecutionLog toSqlExecutionLog() {
-            boolean isAlarmingCon = Duration.between(conAcquiredTime, conReleaseTime).toMillis() > this.conAlarmingThreshold;
+            long occupiedNanos = this.conReleaseNanos - this.conAcquiredNanos;
+            long occupiedMicros = occupiedNanos / 1_000L;
+            boolean isAlarmingCon = occupiedMicros / 1_000L > this.conAlarmingThreshold;
 
             return new SqlExecutionLog(
-                    UUID.randomUUID(),
+                    TransactionInfo.randomTxId(),
                     this.conAcquiredTime,
-                    this.conReleaseTime,
+                    this.conAcquiredTime.plusNanos(occupiedNanos),
+                    occupiedMicros,
                     isAlarmingCon,
                     this.thread,
-                    this.executedQuires
+                    this.executedQuires.build()
             );
         }
     }
@@ -0,0 +1,42 @@
+package com.sdlc.pro.txboard.listener;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Makes the two sampling decisions of the capture path. The head decision is taken when the most parent
+ * transaction begins and controls whether the executed SQL text is tracked; the executions are counted either way.
+ * The tail decision is taken once the transaction has completed: failed, rolled back, alarming and N+1 suspected
+ * transactions are always kept while healthy ones are kept at the configured ratio.
+ */
+public final class TransactionSampler {
+    private final double headRate;
+    private final double healthyRatio;
+
+    public TransactionSampler(TxBoardProperties.Sampling samplingProperties) {
+        this.headRate = samplingProperties.getHeadRate();
+        this.healthyRatio = samplingProperties.getHealthyRatio();
+    }
+
+    public boolean sampleHead() {
+        return sample(this.headRate);
+    }
+
+    public boolean sampleTail(TransactionLog transactionLog) {
+        if (transactionLog.getStatus() != TransactionPhaseStatus.COMMITTED || !transactionLog.isHealthyTransaction()
+                || transactionLog.isNPlusOne()) {
+            return true;
+        }
+        return sample(this.healthyRatio);
+    }
+
+    private static boolean sample(double rate) {
+        if (rate >= 1.0) {
+            return true;
+        }
+        return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
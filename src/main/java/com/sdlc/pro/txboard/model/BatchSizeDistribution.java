@@ -0,0 +1,4 @@
+package com.sdlc.pro.txboard.model;
+
+public record BatchSizeDistribution(BatchSizeRange range, long count) {
+}
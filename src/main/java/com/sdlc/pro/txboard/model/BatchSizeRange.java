@@ -0,0 +1,11 @@
+package com.sdlc.pro.txboard.model;
+
+public record BatchSizeRange(int minSize, int maxSize) {
+    public static BatchSizeRange of(int minSize, int maxSize) {
+        return new BatchSizeRange(minSize, maxSize);
+    }
+
+    public boolean matches(int size) {
+        return size >= minSize && size <= maxSize;
+    }
+}
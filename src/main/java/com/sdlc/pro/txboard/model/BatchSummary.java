@@ -0,0 +1,48 @@
+package com.sdlc.pro.txboard.model;
+
+import java.io.Serializable;
+import java.sql.Statement;
+
+/**
+ * Summary of a single JDBC batch execution, built from the update counts returned by the driver.
+ *
+ * @param size              the number of rows (or statements) which were added to the batch
+ * @param updatedRows       the sum of the reported update counts
+ * @param successNoInfoRows the rows reported as {@link Statement#SUCCESS_NO_INFO}
+ * @param failedRows        the rows reported as {@link Statement#EXECUTE_FAILED} or not reported at all
+ */
+public record BatchSummary(int size, long updatedRows, int successNoInfoRows, int failedRows) implements Serializable {
+
+    public static BatchSummary of(int size, int[] updateCounts) {
+        if (updateCounts == null) {
+            return new BatchSummary(size, 0L, 0, size);
+        }
+        long[] counts = new long[updateCounts.length];
+        for (int i = 0; i < updateCounts.length; i++) {
+            counts[i] = updateCounts[i];
+        }
+        return of(size, counts);
+    }
+
+    public static BatchSummary of(int size, long[] updateCounts) {
+        if (updateCounts == null) {
+            return new BatchSummary(size, 0L, 0, size);
+        }
+
+        long updatedRows = 0L;
+        int successNoInfoRows = 0;
+        int failedRows = 0;
+        for (long count : updateCounts) {
+            if (count >= 0) {
+                updatedRows += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                successNoInfoRows++;
+            } else {
+                failedRows++;
+            }
+        }
+        // drivers stop reporting at the first failed row, the remaining rows have not been applied
+        failedRows += Math.max(0, size - updateCounts.length);
+        return new BatchSummary(size, updatedRows, successNoInfoRows, failedRows);
+    }
+}
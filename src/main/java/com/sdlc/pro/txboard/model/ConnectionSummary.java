@@ -5,8 +5,21 @@ import static com.sdlc.pro.txboard.redis.SchemaFieldType.NUMERIC;
 
 import java.io.Serializable;
 
+/**
+ * @param occupiedTime       the total time (in ms) the connections were held
+ * @param occupiedTimeMicros the same total in microseconds, summed before truncation
+ */
 public record ConnectionSummary(
         @IndexFiled(schemaFieldType = NUMERIC) int acquisitionCount,
         @IndexFiled(schemaFieldType = NUMERIC) int alarmingConnectionCount,
-        @IndexFiled(schemaFieldType = NUMERIC) long occupiedTime) implements Serializable {
+        @IndexFiled(schemaFieldType = NUMERIC) long occupiedTime,
+        @IndexFiled(schemaFieldType = NUMERIC) long occupiedTimeMicros) implements Serializable {
+
+    public ConnectionSummary(int acquisitionCount, int alarmingConnectionCount, long occupiedTime) {
+        this(acquisitionCount, alarmingConnectionCount, occupiedTime, occupiedTime * 1_000L);
+    }
+
+    public static ConnectionSummary ofMicros(int acquisitionCount, int alarmingConnectionCount, long occupiedTimeMicros) {
+        return new ConnectionSummary(acquisitionCount, alarmingConnectionCount, occupiedTimeMicros / 1_000L, occupiedTimeMicros);
+    }
 }
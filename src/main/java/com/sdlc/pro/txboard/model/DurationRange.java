@@ -8,4 +8,11 @@ public record DurationRange(long minMillis, long maxMillis) {
     public boolean matches(long millis) {
         return millis >= minMillis && millis <= maxMillis;
     }
+
+    /**
+     * Matches a precise duration, a fraction above {@code maxMillis} falls into the next range.
+     */
+    public boolean matchesMicros(long micros) {
+        return micros > (minMillis - 1) * 1_000L && micros <= maxMillis * 1_000L;
+    }
 }
@@ -0,0 +1,9 @@
+package com.sdlc.pro.txboard.model;
+
+/**
+ * The median and the tail percentiles of the latencies in milliseconds, each one is the upper bound of the histogram
+ * bucket holding it.
+ */
+public record LatencyPercentiles(long count, double p50, double p95, double p99, double p999) {
+    public static final LatencyPercentiles EMPTY = new LatencyPercentiles(0, 0.0, 0.0, 0.0, 0.0);
+}
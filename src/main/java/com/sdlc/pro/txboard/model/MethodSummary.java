@@ -0,0 +1,11 @@
+package com.sdlc.pro.txboard.model;
+
+/**
+ * The statistics of the transactions of a transactional method, the durations in milliseconds. The inner transactions
+ * are counted for their own methods.
+ */
+public record MethodSummary(String method, long callCount, long committedCount, long rolledBackCount,
+                            long erroredCount, double totalDuration, double averageDuration, double maxDuration,
+                            double p50, double p95, double p99, double p999, double averageQueryCount,
+                            double averageConnectionAcquisitionCount) {
+}
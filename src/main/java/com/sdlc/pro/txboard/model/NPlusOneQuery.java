@@ -0,0 +1,12 @@
+package com.sdlc.pro.txboard.model;
+
+import java.io.Serializable;
+
+/**
+ * The statement shape which has been repeated suspiciously often within a single transaction.
+ *
+ * @param fingerprint the fingerprint of the repeated statement
+ * @param count       the number of executions of the fingerprint in the transaction
+ */
+public record NPlusOneQuery(String fingerprint, int count) implements Serializable {
+}
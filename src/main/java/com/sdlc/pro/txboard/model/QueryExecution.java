@@ -0,0 +1,45 @@
+package com.sdlc.pro.txboard.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+
+/**
+ * A single execution of a SQL statement. The start offset is measured from the start of the owning transaction
+ * (or from the connection acquisition for transaction less executions), both values are in microseconds. A JDBC
+ * batch is a single execution which carries the {@link BatchSummary} of its rows.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryExecution implements Serializable {
+    private final String query;
+    private final long startOffsetMicros;
+    private final long durationMicros;
+    private final BatchSummary batch;
+
+    public QueryExecution(String query, long startOffsetMicros, long durationMicros) {
+        this(query, startOffsetMicros, durationMicros, null);
+    }
+
+    public QueryExecution(String query, long startOffsetMicros, long durationMicros, BatchSummary batch) {
+        this.query = query;
+        this.startOffsetMicros = startOffsetMicros;
+        this.durationMicros = durationMicros;
+        this.batch = batch;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public long getStartOffsetMicros() {
+        return startOffsetMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public BatchSummary getBatch() {
+        return batch;
+    }
+}
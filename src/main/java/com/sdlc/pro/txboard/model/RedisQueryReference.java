@@ -0,0 +1,114 @@
+package com.sdlc.pro.txboard.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class RedisQueryReference implements Serializable {
+    private String id;
+    private List<String> params;
+    private long startOffsetMicros;
+    private long durationMicros;
+    private Integer batchSize;
+    private Long batchUpdatedRows;
+    private Integer batchSuccessNoInfoRows;
+    private Integer batchFailedRows;
+
+    public RedisQueryReference() {
+    }
+
+    public RedisQueryReference(String id, List<String> params) {
+        this.id = id;
+        this.params = params;
+    }
+
+    public RedisQueryReference(String id, List<String> params, long startOffsetMicros, long durationMicros) {
+        this.id = id;
+        this.params = params;
+        this.startOffsetMicros = startOffsetMicros;
+        this.durationMicros = durationMicros;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<String> getParams() {
+        return params;
+    }
+
+    public void setParams(List<String> params) {
+        this.params = params;
+    }
+
+    public long getStartOffsetMicros() {
+        return startOffsetMicros;
+    }
+
+    public void setStartOffsetMicros(long startOffsetMicros) {
+        this.startOffsetMicros = startOffsetMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public void setDurationMicros(long durationMicros) {
+        this.durationMicros = durationMicros;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Long getBatchUpdatedRows() {
+        return batchUpdatedRows;
+    }
+
+    public void setBatchUpdatedRows(Long batchUpdatedRows) {
+        this.batchUpdatedRows = batchUpdatedRows;
+    }
+
+    public Integer getBatchSuccessNoInfoRows() {
+        return batchSuccessNoInfoRows;
+    }
+
+    public void setBatchSuccessNoInfoRows(Integer batchSuccessNoInfoRows) {
+        this.batchSuccessNoInfoRows = batchSuccessNoInfoRows;
+    }
+
+    public Integer getBatchFailedRows() {
+        return batchFailedRows;
+    }
+
+    public void setBatchFailedRows(Integer batchFailedRows) {
+        this.batchFailedRows = batchFailedRows;
+    }
+
+    public void setBatchSummary(BatchSummary batch) {
+        // flattened and left null for plain executions, so they don't grow the stored document
+        this.batchSize = batch == null ? null : batch.size();
+        this.batchUpdatedRows = batch == null ? null : batch.updatedRows();
+        this.batchSuccessNoInfoRows = batch == null ? null : batch.successNoInfoRows();
+        this.batchFailedRows = batch == null ? null : batch.failedRows();
+    }
+
+    public BatchSummary toBatchSummary() {
+        if (this.batchSize == null) {
+            return null;
+        }
+        return new BatchSummary(
+                this.batchSize,
+                this.batchUpdatedRows == null ? 0L : this.batchUpdatedRows,
+                this.batchSuccessNoInfoRows == null ? 0 : this.batchSuccessNoInfoRows,
+                this.batchFailedRows == null ? 0 : this.batchFailedRows
+        );
+    }
+}
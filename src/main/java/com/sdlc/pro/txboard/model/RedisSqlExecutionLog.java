@@ -12,7 +12,8 @@ import static com.sdlc.pro.txboard.redis.SchemaFieldType.TAG;
 
 @RedisEntity(
         indexName = "spring_tx_board_sql_exe_log_idx",
-        recordPrefix = "SpringTxBoardSqlExecutionLog"
+        recordPrefix = "SpringTxBoardSqlExecutionLog",
+        cursorKey = "conAcquiredTime"
 )
 public class RedisSqlExecutionLog implements Serializable {
     @RedisId
@@ -23,11 +24,13 @@ public class RedisSqlExecutionLog implements Serializable {
     private long conReleaseTime;
     @IndexFiled(schemaFieldType = NUMERIC, sortable = true)
     private long conOccupiedTime;
+    private long conOccupiedTimeMicros;
     @IndexFiled(schemaFieldType = TAG)
     private boolean alarmingConnection;
     @IndexFiled(sortable = true)
     private String thread;
     private List<String> executedQuires;
+    private List<RedisQueryReference> executedQueryRefs;
 
     public RedisSqlExecutionLog() {
     }
@@ -64,6 +67,14 @@ public class RedisSqlExecutionLog implements Serializable {
         this.conOccupiedTime = conOccupiedTime;
     }
 
+    public long getConOccupiedTimeMicros() {
+        return conOccupiedTimeMicros;
+    }
+
+    public void setConOccupiedTimeMicros(long conOccupiedTimeMicros) {
+        this.conOccupiedTimeMicros = conOccupiedTimeMicros;
+    }
+
     public boolean isAlarmingConnection() {
         return alarmingConnection;
     }
@@ -87,4 +98,12 @@ public class RedisSqlExecutionLog implements Serializable {
     public void setExecutedQuires(List<String> executedQuires) {
         this.executedQuires = executedQuires;
     }
+
+    public List<RedisQueryReference> getExecutedQueryRefs() {
+        return executedQueryRefs;
+    }
+
+    public void setExecutedQueryRefs(List<RedisQueryReference> executedQueryRefs) {
+        this.executedQueryRefs = executedQueryRefs;
+    }
 }
@@ -11,7 +11,8 @@ import static com.sdlc.pro.txboard.redis.SchemaFieldType.*;
 
 @RedisEntity(
         indexName = "spring_tx_board_transaction_log_idx",
-        recordPrefix = "SpringTxBoardTransactionLog"
+        recordPrefix = "SpringTxBoardTransactionLog",
+        cursorKey = "startTime"
 )
 public class RedisTransactionLog implements Serializable {
     @RedisId
@@ -27,6 +28,8 @@ public class RedisTransactionLog implements Serializable {
     private long endTime;
     @IndexFiled(schemaFieldType = NUMERIC, sortable = true)
     private long duration;
+    @IndexFiled(schemaFieldType = NUMERIC, sortable = true)
+    private long durationMicros;
     @IndexFiled(schemaFieldType = NESTED)
     private ConnectionSummary connectionSummary;
     @IndexFiled(schemaFieldType = TAG)
@@ -36,12 +39,17 @@ public class RedisTransactionLog implements Serializable {
     @IndexFiled(sortable = true)
     private String thread;
     private List<String> executedQuires;
+    private List<RedisQueryReference> executedQueryRefs;
     private List<RedisTransactionLog> child;
     private List<TransactionEvent> events;
     @IndexFiled(schemaFieldType = TAG)
     private boolean alarmingTransaction;
     private Boolean havingAlarmingConnection;
     private List<String> postTransactionQuires;
+    private List<RedisQueryReference> postTransactionQueryRefs;
+    @IndexFiled(schemaFieldType = TAG)
+    private boolean nPlusOne;
+    private NPlusOneQuery nPlusOneQuery;
 
     public RedisTransactionLog() {
 
@@ -107,6 +115,14 @@ public class RedisTransactionLog implements Serializable {
         this.duration = duration;
     }
 
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public void setDurationMicros(long durationMicros) {
+        this.durationMicros = durationMicros;
+    }
+
     public ConnectionSummary getConnectionSummary() {
         return connectionSummary;
     }
@@ -143,6 +159,14 @@ public class RedisTransactionLog implements Serializable {
         this.executedQuires = executedQuires;
     }
 
+    public List<RedisQueryReference> getExecutedQueryRefs() {
+        return executedQueryRefs;
+    }
+
+    public void setExecutedQueryRefs(List<RedisQueryReference> executedQueryRefs) {
+        this.executedQueryRefs = executedQueryRefs;
+    }
+
     public List<RedisTransactionLog> getChild() {
         return child;
     }
@@ -182,4 +206,28 @@ public class RedisTransactionLog implements Serializable {
     public void setPostTransactionQuires(List<String> postTransactionQuires) {
         this.postTransactionQuires = postTransactionQuires;
     }
+
+    public List<RedisQueryReference> getPostTransactionQueryRefs() {
+        return postTransactionQueryRefs;
+    }
+
+    public void setPostTransactionQueryRefs(List<RedisQueryReference> postTransactionQueryRefs) {
+        this.postTransactionQueryRefs = postTransactionQueryRefs;
+    }
+
+    public boolean isNPlusOne() {
+        return nPlusOne;
+    }
+
+    public void setNPlusOne(boolean nPlusOne) {
+        this.nPlusOne = nPlusOne;
+    }
+
+    public NPlusOneQuery getNPlusOneQuery() {
+        return nPlusOneQuery;
+    }
+
+    public void setNPlusOneQuery(NPlusOneQuery nPlusOneQuery) {
+        this.nPlusOneQuery = nPlusOneQuery;
+    }
 }
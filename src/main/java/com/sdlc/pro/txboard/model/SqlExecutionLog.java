@@ -1,5 +1,7 @@
 package com.sdlc.pro.txboard.model;
 
+import com.sdlc.pro.txboard.storage.QueryList;
+
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
@@ -10,16 +12,28 @@ public class SqlExecutionLog {
     private final Instant conAcquiredTime;
     private final Instant conReleaseTime;
     private final long conOccupiedTime;
+    private final long conOccupiedTimeMicros;
     private final boolean alarmingConnection;
     private final String thread;
     private final List<String> executedQuires;
 
     public SqlExecutionLog(UUID id, Instant conAcquiredTime, Instant conReleaseTime, boolean alarmingConnection,
                            String thread, List<String> executedQuires) {
+        this(id, conAcquiredTime, conReleaseTime, Duration.between(conAcquiredTime, conReleaseTime).toNanos() / 1_000L,
+                alarmingConnection, thread, executedQuires);
+    }
+
+    /**
+     * @param conOccupiedTimeMicros the occupancy measured with a monotonic clock, the acquired and release time only
+     *                              anchor the execution on the wall-clock
+     */
+    public SqlExecutionLog(UUID id, Instant conAcquiredTime, Instant conReleaseTime, long conOccupiedTimeMicros,
+                           boolean alarmingConnection, String thread, List<String> executedQuires) {
         this.id = id;
         this.conAcquiredTime = conAcquiredTime;
         this.conReleaseTime = conReleaseTime;
-        this.conOccupiedTime = Duration.between(conAcquiredTime, conReleaseTime).toMillis();
+        this.conOccupiedTimeMicros = conOccupiedTimeMicros;
+        this.conOccupiedTime = Math.floorDiv(conOccupiedTimeMicros, 1_000L);
         this.alarmingConnection = alarmingConnection;
         this.thread = thread;
         this.executedQuires = executedQuires;
@@ -41,6 +55,10 @@ public class SqlExecutionLog {
         return conOccupiedTime;
     }
 
+    public long getConOccupiedTimeMicros() {
+        return conOccupiedTimeMicros;
+    }
+
     public boolean isAlarmingConnection() {
         return alarmingConnection;
     }
@@ -52,4 +70,8 @@ public class SqlExecutionLog {
     public List<String> getExecutedQuires() {
         return executedQuires;
     }
+
+    public List<QueryExecution> getQueryExecutions() {
+        return this.executedQuires instanceof QueryList queryList ? queryList.executions() : List.of();
+    }
 }
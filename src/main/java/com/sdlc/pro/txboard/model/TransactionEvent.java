@@ -1,5 +1,7 @@
 package com.sdlc.pro.txboard.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 import java.time.Instant;
 import java.util.Objects;
@@ -8,6 +10,7 @@ public class TransactionEvent implements Serializable {
     private Type type;
     private Instant timestamp;
     private String details;
+    private String subject;
 
     public TransactionEvent() {}
 
@@ -21,6 +24,16 @@ public class TransactionEvent implements Serializable {
         this.details = details;
     }
 
+    /**
+     * Creates an event that only keeps the subject (method name or connection number) of the event,
+     * the human-readable details are rendered from it when they are read for the first time.
+     */
+    public static TransactionEvent of(Type type, Instant timestamp, String subject) {
+        TransactionEvent event = new TransactionEvent(type, timestamp, null);
+        event.subject = subject;
+        return event;
+    }
+
     public Type getType() {
         return type;
     }
@@ -38,6 +51,9 @@ public class TransactionEvent implements Serializable {
     }
 
     public String getDetails() {
+        if (this.details == null && this.subject != null && this.type != null) {
+            this.details = this.type.render(this.subject);
+        }
         return details;
     }
 
@@ -45,11 +61,25 @@ public class TransactionEvent implements Serializable {
         this.details = details;
     }
 
+    @JsonIgnore
+    public String getSubject() {
+        return subject;
+    }
+
     public enum Type {
-        TRANSACTION_START,
-        TRANSACTION_END,
-        CONNECTION_ACQUIRED,
-        CONNECTION_RELEASED,
+        TRANSACTION_START("Transaction Start [%s]"),
+        TRANSACTION_END("Transaction End [%s]"),
+        CONNECTION_ACQUIRED("Connection Acquired [%s]"),
+        CONNECTION_RELEASED("Connection Released [%s]");
+
+        private final String detailsPattern;
+
+        Type(String detailsPattern) {
+            this.detailsPattern = detailsPattern;
+        }
+
+        public String render(String subject) {
+            return this.detailsPattern.formatted(subject);
+        }
     }
 }
-
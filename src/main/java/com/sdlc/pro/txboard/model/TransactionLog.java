@@ -1,13 +1,17 @@
 package com.sdlc.pro.txboard.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sdlc.pro.txboard.enums.IsolationLevel;
 import com.sdlc.pro.txboard.enums.PropagationBehavior;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.storage.QueryList;
 
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +24,7 @@ public class TransactionLog implements Serializable {
     private final Instant startTime;
     private final Instant endTime;
     private final long duration;
+    private final long durationMicros;
     private final ConnectionSummary connectionSummary;
     private final Boolean connectionOriented;
     private final TransactionPhaseStatus status;
@@ -30,6 +35,8 @@ public class TransactionLog implements Serializable {
     private final boolean alarmingTransaction;
     private final Boolean havingAlarmingConnection;
     private final List<String> postTransactionQuires;
+    private final boolean nPlusOne;
+    private final NPlusOneQuery nPlusOneQuery;
 
     public TransactionLog(UUID txId, String method, PropagationBehavior propagation, IsolationLevel isolation,
                           Instant startTime, Instant endTime, ConnectionSummary connectionSummary,
@@ -45,6 +52,29 @@ public class TransactionLog implements Serializable {
                           TransactionPhaseStatus status, String thread, List<String> executedQuires,
                           List<TransactionLog> child, List<TransactionEvent> events, long txAlarmingThreshold,
                           List<String> postTransactionQuires) {
+        this(txId, method, propagation, isolation, startTime, endTime, connectionSummary, status, thread,
+                executedQuires, child, events, txAlarmingThreshold, postTransactionQuires, null);
+    }
+
+    public TransactionLog(UUID txId, String method, PropagationBehavior propagation, IsolationLevel isolation,
+                          Instant startTime, Instant endTime, ConnectionSummary connectionSummary,
+                          TransactionPhaseStatus status, String thread, List<String> executedQuires,
+                          List<TransactionLog> child, List<TransactionEvent> events, long txAlarmingThreshold,
+                          List<String> postTransactionQuires, NPlusOneQuery nPlusOneQuery) {
+        this(txId, method, propagation, isolation, startTime, endTime,
+                Duration.between(startTime, endTime).toNanos() / 1_000L, connectionSummary, status, thread,
+                executedQuires, child, events, txAlarmingThreshold, postTransactionQuires, nPlusOneQuery);
+    }
+
+    /**
+     * @param durationMicros the duration measured with a monotonic clock, the start and end time only anchor the
+     *                       transaction on the wall-clock
+     */
+    public TransactionLog(UUID txId, String method, PropagationBehavior propagation, IsolationLevel isolation,
+                          Instant startTime, Instant endTime, long durationMicros, ConnectionSummary connectionSummary,
+                          TransactionPhaseStatus status, String thread, List<String> executedQuires,
+                          List<TransactionLog> child, List<TransactionEvent> events, long txAlarmingThreshold,
+                          List<String> postTransactionQuires, NPlusOneQuery nPlusOneQuery) {
         this.txId = txId;
         this.method = method;
         this.propagation = propagation;
@@ -52,17 +82,21 @@ public class TransactionLog implements Serializable {
         this.startTime = startTime;
         this.endTime = endTime;
         this.status = status;
-        this.duration = Duration.between(startTime, endTime).toMillis();
+        this.durationMicros = durationMicros;
+        this.duration = Math.floorDiv(durationMicros, 1_000L);
         this.connectionSummary = connectionSummary;
         this.connectionOriented = connectionSummary == null ? null : this.connectionSummary.acquisitionCount() > 0;
         this.thread = thread;
         this.child = child;
         this.executedQuires = executedQuires;
         this.events = events;
-        this.alarmingTransaction = this.duration > txAlarmingThreshold;
+        this.alarmingTransaction = this.durationMicros > txAlarmingThreshold * 1_000L;
         this.havingAlarmingConnection = this.connectionSummary != null ?
                 this.connectionSummary.alarmingConnectionCount() > 0 : null;
         this.postTransactionQuires = postTransactionQuires;
+        this.nPlusOneQuery = nPlusOneQuery;
+        // a transaction is marked when itself or any of its inner transactions is suspected
+        this.nPlusOne = nPlusOneQuery != null || this.getChild().stream().anyMatch(TransactionLog::isNPlusOne);
     }
 
     public UUID getTxId() {
@@ -101,6 +135,10 @@ public class TransactionLog implements Serializable {
         return duration;
     }
 
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
     public ConnectionSummary getConnectionSummary() {
         return this.connectionSummary;
     }
@@ -117,6 +155,10 @@ public class TransactionLog implements Serializable {
         return this.executedQuires == null ? List.of() : this.executedQuires;
     }
 
+    public List<QueryExecution> getQueryExecutions() {
+        return this.executedQuires instanceof QueryList queryList ? queryList.executions() : List.of();
+    }
+
     public List<TransactionEvent> getEvents() {
         return events;
     }
@@ -133,6 +175,35 @@ public class TransactionLog implements Serializable {
                 .sum();
     }
 
+    /**
+     * Returns the summaries of the JDBC batches executed by this transaction and its inner transactions.
+     */
+    @JsonIgnore
+    public List<BatchSummary> getBatches() {
+        List<BatchSummary> batches = new ArrayList<>();
+        this.collectBatches(batches);
+        return batches;
+    }
+
+    private void collectBatches(List<BatchSummary> batches) {
+        collectBatches(this.executedQuires, batches);
+        collectBatches(this.postTransactionQuires, batches);
+        for (TransactionLog child : this.getChild()) {
+            child.collectBatches(batches);
+        }
+    }
+
+    private static void collectBatches(List<String> queries, List<BatchSummary> batches) {
+        if (queries instanceof QueryList queryList) {
+            for (int i = 0; i < queryList.size(); i++) {
+                BatchSummary batch = queryList.batchAt(i);
+                if (batch != null) {
+                    batches.add(batch);
+                }
+            }
+        }
+    }
+
     public boolean isAlarmingTransaction() {
         return this.alarmingTransaction;
     }
@@ -152,4 +223,17 @@ public class TransactionLog implements Serializable {
     public List<String> getPostTransactionQuires() {
         return postTransactionQuires;
     }
+
+    @JsonProperty("nPlusOne")
+    public boolean isNPlusOne() {
+        return nPlusOne;
+    }
+
+    /**
+     * Returns the most repeated SELECT fingerprint of this transaction, {@code null} when no N+1 pattern is suspected.
+     */
+    @JsonProperty("nPlusOneQuery")
+    public NPlusOneQuery getNPlusOneQuery() {
+        return nPlusOneQuery;
+    }
 }
@@ -0,0 +1,12 @@
+package com.sdlc.pro.txboard.model;
+
+import java.time.Instant;
+
+/**
+ * The transactions completed in a window starting at the given time, the durations in milliseconds. The failed ones
+ * are the rolled back and the errored transactions, the connection hold time is the average occupied time of the
+ * acquired connections.
+ */
+public record TransactionRollup(Instant start, long transactionCount, long failedCount, double p95,
+                                long connectionAcquisitionCount, double connectionHoldTime) {
+}
@@ -9,10 +9,41 @@ public class TransactionSummary {
     private final long connectionAcquisitionCount;
     private final long totalConnectionOccupiedTime;
     private final long alarmingConnectionCount;
+    private final long totalDurationMicros;
+    private final long totalConnectionOccupiedTimeMicros;
+    private final LatencyPercentiles durationPercentiles;
+    private final LatencyPercentiles connectionOccupiedTimePercentiles;
+    private final LatencyPercentiles sqlConnectionTimePercentiles;
 
     public TransactionSummary(long committedCount, long rolledBackCount, long erroredCount, long totalDuration,
                               long alarmingCount, long connectionAcquisitionCount,
                               long totalConnectionOccupiedTime, long alarmingConnectionCount) {
+        this(committedCount, rolledBackCount, erroredCount, totalDuration, alarmingCount, connectionAcquisitionCount,
+                totalConnectionOccupiedTime, alarmingConnectionCount, totalDuration * 1_000L,
+                totalConnectionOccupiedTime * 1_000L);
+    }
+
+    /**
+     * The micro totals are accumulated from the precise durations, so the averages stay meaningful for sub
+     * millisecond transactions.
+     */
+    public TransactionSummary(long committedCount, long rolledBackCount, long erroredCount, long totalDuration,
+                              long alarmingCount, long connectionAcquisitionCount,
+                              long totalConnectionOccupiedTime, long alarmingConnectionCount,
+                              long totalDurationMicros, long totalConnectionOccupiedTimeMicros) {
+        this(committedCount, rolledBackCount, erroredCount, totalDuration, alarmingCount, connectionAcquisitionCount,
+                totalConnectionOccupiedTime, alarmingConnectionCount, totalDurationMicros,
+                totalConnectionOccupiedTimeMicros, LatencyPercentiles.EMPTY, LatencyPercentiles.EMPTY,
+                LatencyPercentiles.EMPTY);
+    }
+
+    public TransactionSummary(long committedCount, long rolledBackCount, long erroredCount, long totalDuration,
+                              long alarmingCount, long connectionAcquisitionCount,
+                              long totalConnectionOccupiedTime, long alarmingConnectionCount,
+                              long totalDurationMicros, long totalConnectionOccupiedTimeMicros,
+                              LatencyPercentiles durationPercentiles,
+                              LatencyPercentiles connectionOccupiedTimePercentiles,
+                              LatencyPercentiles sqlConnectionTimePercentiles) {
         this.committedCount = committedCount;
         this.rolledBackCount = rolledBackCount;
         this.erroredCount = erroredCount;
@@ -21,6 +52,30 @@ public class TransactionSummary {
         this.connectionAcquisitionCount = connectionAcquisitionCount;
         this.totalConnectionOccupiedTime = totalConnectionOccupiedTime;
         this.alarmingConnectionCount = alarmingConnectionCount;
+        this.totalDurationMicros = totalDurationMicros;
+        this.totalConnectionOccupiedTimeMicros = totalConnectionOccupiedTimeMicros;
+        this.durationPercentiles = durationPercentiles;
+        this.connectionOccupiedTimePercentiles = connectionOccupiedTimePercentiles;
+        this.sqlConnectionTimePercentiles = sqlConnectionTimePercentiles;
+    }
+
+    public TransactionSummary withPercentiles(LatencyPercentiles durationPercentiles,
+                                              LatencyPercentiles connectionOccupiedTimePercentiles) {
+        return new TransactionSummary(this.committedCount, this.rolledBackCount, this.erroredCount, this.totalDuration,
+                this.alarmingCount, this.connectionAcquisitionCount, this.totalConnectionOccupiedTime,
+                this.alarmingConnectionCount, this.totalDurationMicros, this.totalConnectionOccupiedTimeMicros,
+                durationPercentiles, connectionOccupiedTimePercentiles, this.sqlConnectionTimePercentiles);
+    }
+
+    /**
+     * The sql execution logs are kept by their own repository, so their percentiles are added to the summary of the
+     * transactions when it is served.
+     */
+    public TransactionSummary withSqlConnectionTimePercentiles(LatencyPercentiles sqlConnectionTimePercentiles) {
+        return new TransactionSummary(this.committedCount, this.rolledBackCount, this.erroredCount, this.totalDuration,
+                this.alarmingCount, this.connectionAcquisitionCount, this.totalConnectionOccupiedTime,
+                this.alarmingConnectionCount, this.totalDurationMicros, this.totalConnectionOccupiedTimeMicros,
+                this.durationPercentiles, this.connectionOccupiedTimePercentiles, sqlConnectionTimePercentiles);
     }
 
     public long getCommittedCount() {
@@ -55,6 +110,26 @@ public class TransactionSummary {
         return totalConnectionOccupiedTime;
     }
 
+    public long getTotalDurationMicros() {
+        return totalDurationMicros;
+    }
+
+    public long getTotalConnectionOccupiedTimeMicros() {
+        return totalConnectionOccupiedTimeMicros;
+    }
+
+    public LatencyPercentiles getDurationPercentiles() {
+        return durationPercentiles;
+    }
+
+    public LatencyPercentiles getConnectionOccupiedTimePercentiles() {
+        return connectionOccupiedTimePercentiles;
+    }
+
+    public LatencyPercentiles getSqlConnectionTimePercentiles() {
+        return sqlConnectionTimePercentiles;
+    }
+
     public long getTotalTransaction() {
         return this.committedCount + this.rolledBackCount + this.erroredCount;
     }
@@ -64,13 +139,13 @@ public class TransactionSummary {
         if (totalTransactions == 0) {
             return 0.0;
         }
-        return (double) this.totalDuration / totalTransactions;
+        return this.totalDurationMicros / 1_000.0 / totalTransactions;
     }
 
     public double getAverageConnectionOccupiedTime() {
         if (this.connectionAcquisitionCount == 0) {
             return 0.0;
         }
-        return (double) this.totalConnectionOccupiedTime / this.connectionAcquisitionCount;
+        return this.totalConnectionOccupiedTimeMicros / 1_000.0 / this.connectionAcquisitionCount;
     }
 }
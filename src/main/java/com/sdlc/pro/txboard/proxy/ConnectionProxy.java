@@ -21,14 +21,12 @@ public final class ConnectionProxy extends AbstractConnectionDelegator {
 
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql);
+        return new PreparedStatementProxy(super.prepareStatement(sql), sql, this.transactionPhaseListener);
     }
 
     @Override
     public CallableStatement prepareCall(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareCall(sql);
+        return new CallableStatementProxy(super.prepareCall(sql), sql, this.transactionPhaseListener);
     }
 
     @Override
@@ -39,8 +37,7 @@ public final class ConnectionProxy extends AbstractConnectionDelegator {
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        return new PreparedStatementProxy(super.prepareStatement(sql, resultSetType, resultSetConcurrency), sql, this.transactionPhaseListener);
     }
 
     @Override
@@ -51,37 +48,31 @@ public final class ConnectionProxy extends AbstractConnectionDelegator {
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        return new PreparedStatementProxy(super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql, this.transactionPhaseListener);
     }
 
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        return new CallableStatementProxy(super.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql, this.transactionPhaseListener);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql, autoGeneratedKeys);
+        return new PreparedStatementProxy(super.prepareStatement(sql, autoGeneratedKeys), sql, this.transactionPhaseListener);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql, columnIndexes);
+        return new PreparedStatementProxy(super.prepareStatement(sql, columnIndexes), sql, this.transactionPhaseListener);
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareStatement(sql, columnNames);
+        return new PreparedStatementProxy(super.prepareStatement(sql, columnNames), sql, this.transactionPhaseListener);
     }
 
     @Override
     public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.prepareCall(sql, resultSetType, resultSetConcurrency);
+        return new CallableStatementProxy(super.prepareCall(sql, resultSetType, resultSetConcurrency), sql, this.transactionPhaseListener);
     }
 }
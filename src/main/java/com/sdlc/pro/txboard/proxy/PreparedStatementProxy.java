@@ -0,0 +1,124 @@
+package com.sdlc.pro.txboard.proxy;
+
+import com.sdlc.pro.txboard.delegator.AbstractPreparedStatementDelegator;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.model.BatchSummary;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public final class PreparedStatementProxy extends AbstractPreparedStatementDelegator {
+    private final String sql;
+    private final TransactionPhaseListener transactionPhaseListener;
+    private int batchSize;
+
+    public PreparedStatementProxy(PreparedStatement preparedStatement, String sql, TransactionPhaseListener transactionPhaseListener) {
+        super(preparedStatement);
+        this.sql = sql;
+        this.transactionPhaseListener = transactionPhaseListener;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeQuery();
+        } finally {
+            this.executed(startNanos);
+        }
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeUpdate();
+        } finally {
+            this.executed(startNanos);
+        }
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return super.execute();
+        } finally {
+            this.executed(startNanos);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeLargeUpdate();
+        } finally {
+            this.executed(startNanos);
+        }
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        super.addBatch();
+        this.batchSize++;
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        super.clearBatch();
+        this.batchSize = 0;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long startNanos = System.nanoTime();
+        BatchSummary batch = null;
+        try {
+            int[] updateCounts = super.executeBatch();
+            batch = BatchSummary.of(this.batchSize, updateCounts);
+            return updateCounts;
+        } catch (BatchUpdateException ex) {
+            batch = BatchSummary.of(this.batchSize, ex.getUpdateCounts());
+            throw ex;
+        } finally {
+            this.executedBatch(batch, startNanos);
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long startNanos = System.nanoTime();
+        BatchSummary batch = null;
+        try {
+            long[] updateCounts = super.executeLargeBatch();
+            batch = BatchSummary.of(this.batchSize, updateCounts);
+            return updateCounts;
+        } catch (BatchUpdateException ex) {
+            batch = BatchSummary.of(this.batchSize, ex.getLargeUpdateCounts());
+            throw ex;
+        } finally {
+            this.executedBatch(batch, startNanos);
+        }
+    }
+
+    private void executed(long startNanos) {
+        this.transactionPhaseListener.executedQuery(this.sql, startNanos, System.nanoTime() - startNanos);
+    }
+
+    private void executedBatch(BatchSummary batch, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        if (this.batchSize > 0) {
+            // the rows added through addBatch() are reported as a single record of the statement
+            BatchSummary summary = batch != null ? batch : BatchSummary.of(this.batchSize, (int[]) null);
+            this.transactionPhaseListener.executedBatch(this.sql, summary, startNanos, durationNanos);
+        }
+        this.batchSize = 0;
+    }
+}
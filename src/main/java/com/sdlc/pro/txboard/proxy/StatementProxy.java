@@ -2,13 +2,22 @@ package com.sdlc.pro.txboard.proxy;
 
 import com.sdlc.pro.txboard.delegator.AbstractStatementDelegator;
 import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
 
+import java.sql.BatchUpdateException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class StatementProxy extends AbstractStatementDelegator {
     private final TransactionPhaseListener transactionPhaseListener;
+    private final List<String> batchQuires = new ArrayList<>();
 
     public StatementProxy(Statement statement, TransactionPhaseListener transactionPhaseListener) {
         super(statement);
@@ -17,85 +26,205 @@ public final class StatementProxy extends AbstractStatementDelegator {
 
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeQuery(sql);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeQuery(sql);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public int executeUpdate(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeUpdate(sql);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeUpdate(sql);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public boolean execute(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.execute(sql);
+        long startNanos = System.nanoTime();
+        try {
+            return super.execute(sql);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public void addBatch(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
         super.statement.addBatch(sql);
+        this.batchQuires.add(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        super.clearBatch();
+        this.batchQuires.clear();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long startNanos = System.nanoTime();
+        long[] updateCounts = null;
+        try {
+            int[] result = super.executeBatch();
+            updateCounts = toLongArray(result);
+            return result;
+        } catch (BatchUpdateException ex) {
+            updateCounts = toLongArray(ex.getUpdateCounts());
+            throw ex;
+        } finally {
+            this.executedBatch(updateCounts, startNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long startNanos = System.nanoTime();
+        long[] updateCounts = null;
+        try {
+            updateCounts = super.executeLargeBatch();
+            return updateCounts;
+        } catch (BatchUpdateException ex) {
+            updateCounts = ex.getLargeUpdateCounts();
+            throw ex;
+        } finally {
+            this.executedBatch(updateCounts, startNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void executedBatch(long[] updateCounts, long startNanos, long durationNanos) {
+        // rows sharing a statement shape (e.g. inserts with inlined literals) are reported as one batch record
+        Map<String, List<Integer>> rowsByTemplate = new LinkedHashMap<>();
+        for (int row = 0; row < this.batchQuires.size(); row++) {
+            String template = SqlNormalizer.normalize(this.batchQuires.get(row)).template();
+            rowsByTemplate.computeIfAbsent(template, k -> new ArrayList<>()).add(row);
+        }
+
+        // the driver times the batch as a whole, so each record gets a consecutive share of it by its statement count
+        int statementCount = this.batchQuires.size();
+        long recordedStatements = 0;
+        long offsetNanos = 0;
+        for (List<Integer> rows : rowsByTemplate.values()) {
+            long[] counts = updateCounts == null ? null : rows.stream()
+                    .filter(row -> row < updateCounts.length)
+                    .mapToLong(row -> updateCounts[row])
+                    .toArray();
+            BatchSummary batch = BatchSummary.of(rows.size(), counts);
+            recordedStatements += rows.size();
+            long endOffsetNanos = durationNanos * recordedStatements / statementCount;
+            this.transactionPhaseListener.executedBatch(this.batchQuires.get(rows.get(0)), batch,
+                    startNanos + offsetNanos, endOffsetNanos - offsetNanos);
+            offsetNanos = endOffsetNanos;
+        }
+        this.batchQuires.clear();
+    }
+
+    private static long[] toLongArray(int[] values) {
+        return values == null ? null : Arrays.stream(values).asLongStream().toArray();
     }
 
     @Override
     public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeUpdate(sql, autoGeneratedKeys);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeUpdate(sql, autoGeneratedKeys);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeUpdate(sql, columnIndexes);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeUpdate(sql, columnIndexes);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public int executeUpdate(String sql, String[] columnNames) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeUpdate(sql, columnNames);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeUpdate(sql, columnNames);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.execute(sql, autoGeneratedKeys);
+        long startNanos = System.nanoTime();
+        try {
+            return super.execute(sql, autoGeneratedKeys);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public boolean execute(String sql, int[] columnIndexes) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.execute(sql, columnIndexes);
+        long startNanos = System.nanoTime();
+        try {
+            return super.execute(sql, columnIndexes);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public boolean execute(String sql, String[] columnNames) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.execute(sql, columnNames);
+        long startNanos = System.nanoTime();
+        try {
+            return super.execute(sql, columnNames);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public long executeLargeUpdate(String sql) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeLargeUpdate(sql);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeLargeUpdate(sql);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeLargeUpdate(sql, autoGeneratedKeys);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeLargeUpdate(sql, autoGeneratedKeys);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeLargeUpdate(sql, columnIndexes);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeLargeUpdate(sql, columnIndexes);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
-        this.transactionPhaseListener.executedQuery(sql);
-        return super.executeLargeUpdate(sql, columnNames);
+        long startNanos = System.nanoTime();
+        try {
+            return super.executeLargeUpdate(sql, columnNames);
+        } finally {
+            this.transactionPhaseListener.executedQuery(sql, startNanos, System.nanoTime() - startNanos);
+        }
     }
 }
@@ -1,13 +1,23 @@
 package com.sdlc.pro.txboard.redis;
 
 import com.google.gson.Gson;
+import com.sdlc.pro.txboard.domain.Cursor;
 import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
 import com.sdlc.pro.txboard.domain.Sort;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -15,6 +25,19 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
     protected final RedisConnectionFactory connectionFactory;
     protected final Gson mapper;
 
+    private static final String INCREMENT_COUNTERS_SCRIPT = """
+            local arg = 2
+            for _, key in ipairs(KEYS) do
+                for _ = 1, tonumber(ARGV[arg]) do
+                    redis.call('HINCRBY', key, ARGV[arg + 1], ARGV[arg + 2])
+                    arg = arg + 2
+                end
+                arg = arg + 1
+                redis.call('EXPIRE', key, ARGV[1])
+            end
+            return #KEYS
+            """;
+
     private final ConcurrentMap<Class<?>, RedisEntityInfo> entityInfoMap;
 
     public AbstractRedisJsonOperation(RedisConnectionFactory connectionFactory, Gson mapper) {
@@ -73,21 +96,95 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
                 .addArg("SCHEMA");
 
         for (IndexedFieldInfo info : entityInfo.getIndexedFieldInfos()) {
-            String path = info.getPath();
-            String type = info.getRedisType().name();
-            builder.addArg("$.%s".formatted(path))
-                    .addArg("AS")
-                    .addArg(path)
-                    .addArg(type);
-
-            if (info.isSortable()) {
-                builder.addArg("SORTABLE");
-            }
+            addFieldSchema(builder, info);
         }
 
         return builder.build();
     }
 
+    private static void addFieldSchema(RedisCommand.Builder builder, IndexedFieldInfo info) {
+        String path = info.getPath();
+        builder.addArg("$.%s".formatted(path))
+                .addArg("AS")
+                .addArg(path)
+                .addArg(info.getRedisType().name());
+
+        if (info.isSortable()) {
+            builder.addArg("SORTABLE");
+        }
+    }
+
+    protected RedisCommand buildIndexInfoCommand(Class<?> entityType) {
+        return RedisCommand.builder(RedisInstruction.FT_INFO)
+                .addArg(redisEntityInfoOf(entityType).getIndexName())
+                .build();
+    }
+
+    /**
+     * Builds the FT.ALTER commands adding the indexed fields of the entity which are missing from its existing index,
+     * e.g. one created by an earlier version, one command per field.
+     *
+     * @param indexInfo the reply of the {@link #buildIndexInfoCommand(Class) FT.INFO} command
+     */
+    protected List<RedisCommand> buildAlterIndexCommands(Class<?> entityType, Object indexInfo) {
+        RedisEntityInfo entityInfo = redisEntityInfoOf(entityType);
+        Set<String> attributes = new HashSet<>();
+        collectAttributes(indexInfo, attributes);
+
+        List<RedisCommand> commands = new ArrayList<>();
+        for (IndexedFieldInfo info : entityInfo.getIndexedFieldInfos()) {
+            if (!attributes.contains(info.getPath())) {
+                RedisCommand.Builder builder = RedisCommand.builder(RedisInstruction.FT_ALTER)
+                        .addArg(entityInfo.getIndexName())
+                        .addArgs("SCHEMA", "ADD");
+                addFieldSchema(builder, info);
+                commands.add(builder.build());
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Collects the names of the attributes from an FT.INFO reply, whose attributes are lists (or maps with RESP3) of
+     * option names followed by their value, the name following "attribute".
+     */
+    private static void collectAttributes(Object reply, Set<String> attributes) {
+        if (reply instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if ("attribute".equals(stringOf(key))) {
+                    attributes.add(stringOf(value));
+                } else {
+                    collectAttributes(value, attributes);
+                }
+            });
+        } else if (reply instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                Object element = list.get(i);
+                if (i + 1 < list.size() && "attribute".equals(stringOf(element))) {
+                    attributes.add(stringOf(list.get(++i)));
+                } else {
+                    collectAttributes(element, attributes);
+                }
+            }
+        }
+    }
+
+    private static String stringOf(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    /**
+     * Returns whether the failure of an FT.CREATE command reports that the index already exists.
+     */
+    protected static boolean isIndexAlreadyExists(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("Index already exists")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected <T> RedisCommand buildSaveCommand(T t) {
         Objects.requireNonNull(t, "The @RedisEntity instance should not be null");
         Class<?> entityType = t.getClass();
@@ -108,9 +205,24 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
         builder.addArg(entityInfo.getIndexName());
 
         String query = RedisQueryBuilder.toRedisQuery(request.getFilter(), entityInfo);
+        Sort sort = request.getSort();
+        if (request.isCursorPaged()) {
+            // the rows from the key of the cursor on, skipping the ones with the same key already returned
+            sort = cursorSortOf(entityInfo, sort);
+            String property = cursorKeyOf(entityInfo, sort).getPath();
+            Cursor cursor = request.getCursor();
+            if (cursor != null) {
+                String range = (sort.getDirection() == Sort.Direction.ASC ? "@%s:[%d inf]" : "@%s:[-inf %d]")
+                        .formatted(property, cursor.getKey());
+                query = query.equals("*") ? range : query + " " + range;
+            }
+            return builder.addArg(query)
+                    .addArgs("SORTBY", property, sort.getDirection())
+                    .addArgs("LIMIT", cursor == null ? 0 : cursor.getPosition(), request.getPageSize() + 1)
+                    .build();
+        }
         builder.addArg(query);
 
-        Sort sort = request.getSort();
         if (sort.isSortable()) {
             builder.addArgs("SORTBY", sort.getProperty(), sort.getDirection());
         }
@@ -121,6 +233,74 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
         return builder.build();
     }
 
+    /**
+     * Returns the sort a cursor page is walked in: the requested one, or the ascending cursor key of the entity when
+     * the page is not sorted.
+     */
+    private static Sort cursorSortOf(RedisEntityInfo entityInfo, Sort sort) {
+        if (sort != null && sort.isSortable()) {
+            return sort;
+        }
+        if (entityInfo.getCursorKey().isBlank()) {
+            throw new IllegalArgumentException("The cursor pagination of %s requires a sort"
+                    .formatted(entityInfo.getEntitySimpleName()));
+        }
+        return Sort.by(entityInfo.getCursorKey(), Sort.Direction.ASC);
+    }
+
+    private static IndexedFieldInfo cursorKeyOf(RedisEntityInfo entityInfo, Sort sort) {
+        IndexedFieldInfo fieldInfo = entityInfo.getIndexedFieldInfo(sort.getProperty());
+        if (!fieldInfo.isCursorKey()) {
+            throw new IllegalArgumentException("The sort property '%s' does not support cursor pagination"
+                    .formatted(sort.getProperty()));
+        }
+        return fieldInfo;
+    }
+
+    /**
+     * Builds the page of the fetched entities. A cursor page was fetched with one more entity than requested, which
+     * tells whether there is a next page; its cursor counts the entities with the key of the last one returned so far,
+     * as RediSearch can not order the equal keys by a second field. The total of a page after a cursor is counted
+     * without the range of the cursor.
+     */
+    protected <T> PageResponse<T> toPageResponse(Class<T> entityType, PageRequest request, List<T> content,
+                                                 long totalElements) {
+        if (!request.isCursorPaged()) {
+            return new PageResponse<>(content, request, totalElements);
+        }
+
+        RedisEntityInfo entityInfo = redisEntityInfoOf(entityType);
+        Cursor cursor = request.getCursor();
+        long total = cursor == null ? totalElements : this.performCountCommand(
+                this.buildCountCommandForFilter(entityInfo, request.getFilter()));
+        int size = request.getPageSize();
+        if (content.size() <= size) {
+            return new PageResponse<>(content, request, Math.max(total, content.size()));
+        }
+
+        List<T> page = new ArrayList<>(content.subList(0, size));
+        IndexedFieldInfo key = cursorKeyOf(entityInfo, cursorSortOf(entityInfo, request.getSort()));
+        long lastKey = key.longValueOf(page.get(size - 1));
+        long ties = 0;
+        for (int i = size - 1; i >= 0 && key.longValueOf(page.get(i)) == lastKey; i--) {
+            ties++;
+        }
+        if (ties == size && cursor != null && cursor.getKey() == lastKey) {
+            ties += cursor.getPosition();
+        }
+        return new PageResponse<>(page, request, Math.max(total, size), Cursor.of(request.getSort(), lastKey, ties));
+    }
+
+    private RedisCommand buildCountCommandForFilter(RedisEntityInfo entityInfo, FilterNode filter) {
+        return RedisCommand.builder(RedisInstruction.FT_SEARCH)
+                .addArg(entityInfo.getIndexName())
+                .addArg(RedisQueryBuilder.toRedisQuery(filter, entityInfo))
+                .addArgs("LIMIT", 0, 0)
+                .build();
+    }
+
+    protected abstract long performCountCommand(RedisCommand command);
+
     protected RedisCommand buildSimpleCountCommand(Class<?> entityType) {
         return buildCountCommandForField(entityType, null, null);
     }
@@ -152,7 +332,89 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
                 .build();
     }
 
-    protected RedisCommand buildAggregateSumCommand(Class<?> entityType, String fieldName) {
+    /**
+     * Builds a single script call incrementing the fields of all the given hashes and renewing their expiry, or
+     * {@code null} when there is no non-zero increment. The script arguments are the expiry followed by the number of
+     * fields and the field/increment pairs of every key.
+     */
+    protected RedisCommand buildIncrementCommand(Map<String, Map<String, Long>> increments, long expireSeconds) {
+        List<Object> keys = new ArrayList<>(increments.size());
+        List<Object> args = new ArrayList<>();
+        args.add(expireSeconds);
+        for (Map.Entry<String, Map<String, Long>> counters : increments.entrySet()) {
+            Objects.requireNonNull(counters.getKey(), "The counter key should not be null");
+            int countIndex = args.size();
+            args.add(0);
+            int fields = 0;
+            for (Map.Entry<String, Long> increment : counters.getValue().entrySet()) {
+                if (increment.getValue() != 0L) {
+                    args.add(increment.getKey());
+                    args.add(increment.getValue());
+                    fields++;
+                }
+            }
+            if (fields == 0) {
+                args.remove(countIndex);
+            } else {
+                args.set(countIndex, fields);
+                keys.add(counters.getKey());
+            }
+        }
+        if (keys.isEmpty()) {
+            return null;
+        }
+
+        return RedisCommand.builder(RedisInstruction.EVAL)
+                .addArg(INCREMENT_COUNTERS_SCRIPT)
+                .addArg(keys.size())
+                .addArgs(keys.toArray())
+                .addArgs(args.toArray())
+                .build();
+    }
+
+    protected RedisCommand buildGetCountersCommand(String key) {
+        Objects.requireNonNull(key, "The counter key should not be null");
+        return RedisCommand.builder(RedisInstruction.HGETALL)
+                .addArg(key)
+                .build();
+    }
+
+    protected RedisCommand buildPutHashEntriesCommand(String key, Map<String, String> entries) {
+        Objects.requireNonNull(key, "The hash key should not be null");
+        RedisCommand.Builder builder = RedisCommand.builder(RedisInstruction.HSET).addArg(key);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            builder.addArgs(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    protected RedisCommand buildExpireCommand(String key, long expireSeconds) {
+        Objects.requireNonNull(key, "The key should not be null");
+        return RedisCommand.builder(RedisInstruction.EXPIRE)
+                .addArgs(key, expireSeconds)
+                .build();
+    }
+
+    protected RedisCommand buildGetHashEntriesCommand(String key, List<String> fields) {
+        Objects.requireNonNull(key, "The hash key should not be null");
+        RedisCommand.Builder builder = RedisCommand.builder(RedisInstruction.HMGET).addArg(key);
+        for (String field : fields) {
+            builder.addArg(field);
+        }
+        return builder.build();
+    }
+
+    protected static Map<String, String> toHashEntries(List<String> fields, List<?> values) {
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < fields.size() && i < values.size(); i++) {
+            if (values.get(i) instanceof byte[] value) {
+                entries.put(fields.get(i), new String(value));
+            }
+        }
+        return entries;
+    }
+
+    protected RedisCommand buildAggregateSumCommand(Class<?> entityType, String fieldName, FilterNode filter) {
         RedisEntityInfo entityInfo = redisEntityInfoOf(entityType);
         if (entityInfo.getRedisSchemaFieldTypeOf(fieldName) != SchemaFieldType.NUMERIC) {
             throw new IllegalArgumentException("The field %s should be NUMERIC type to perform aggregate SUM operation");
@@ -160,7 +422,7 @@ public abstract class AbstractRedisJsonOperation implements RedisJsonOperation {
 
         return RedisCommand.builder(RedisInstruction.FT_AGGREGATE)
                 .addArg(entityInfo.getIndexName())
-                .addArg("*")
+                .addArg(RedisQueryBuilder.toRedisQuery(filter, entityInfo))
                 .addArgs("GROUPBY", "0", "REDUCE", "SUM", "1")
                 .addArgs(fieldName, "AS", "__sum__")
                 .build();
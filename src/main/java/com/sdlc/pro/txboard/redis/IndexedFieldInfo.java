@@ -29,4 +29,21 @@ class IndexedFieldInfo {
     boolean isSortable() {
         return this.indexFiled.sortable();
     }
+
+    /**
+     * Returns whether the field is a sortable numeric field of the entity itself, whose value can key a cursor.
+     */
+    boolean isCursorKey() {
+        return this.isSortable() && this.getRedisType() == SchemaFieldType.NUMERIC && this.path.equals(this.field.getName())
+                && (this.field.getType() == long.class || this.field.getType() == Long.class);
+    }
+
+    long longValueOf(Object entity) {
+        try {
+            this.field.setAccessible(true);
+            return ((Number) this.field.get(entity)).longValue();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Failed to read the field %s".formatted(this.path), e);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.sdlc.pro.txboard.redis;
 
 import com.google.gson.Gson;
+import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
 import org.slf4j.Logger;
@@ -9,8 +10,10 @@ import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisConnectionUtils;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class JedisJsonOperation extends AbstractRedisJsonOperation {
@@ -31,14 +34,23 @@ public class JedisJsonOperation extends AbstractRedisJsonOperation {
                 log.warn("Unexpected error occurred while creating index for @RedisEntity type '{}'", clazz.getName());
             }
         } catch (Throwable ex) {
-            if (Objects.equals("Index already exists", ex.getCause().getCause().getMessage())) {
-                log.warn("Index already exist for @RedisEntity type '{}'", clazz.getName());
+            if (isIndexAlreadyExists(ex)) {
+                log.info("Index already exist for @RedisEntity type '{}'", clazz.getName());
+                alterIndex(clazz);
             } else {
                 throw ex;
             }
         }
     }
 
+    private void alterIndex(Class<?> clazz) {
+        Object indexInfo = performCommand(buildIndexInfoCommand(clazz));
+        for (RedisCommand command : buildAlterIndexCommands(clazz, indexInfo)) {
+            performCommand(command);
+            log.info("Index of @RedisEntity type '{}' altered to add the field '{}'", clazz.getName(), new String(command.args()[5]));
+        }
+    }
+
     @Override
     public <T> String save(T entity) {
         RedisCommand command = buildSaveCommand(entity);
@@ -49,10 +61,7 @@ public class JedisJsonOperation extends AbstractRedisJsonOperation {
     @Override
     public <T> String saveWithExpire(T entity, long second) {
         String key = save(entity);
-        RedisCommand expireCommand = RedisCommand.builder(RedisInstruction.EXPIRE)
-                .addArgs(key, second)
-                .build();
-        performCommand(expireCommand);
+        performCommand(buildExpireCommand(key, second));
         return key;
     }
 
@@ -80,7 +89,7 @@ public class JedisJsonOperation extends AbstractRedisJsonOperation {
             }
         }
 
-        return new PageResponse<>(content, request, totalElements);
+        return super.toPageResponse(entityType, request, content, totalElements);
     }
 
     @Override
@@ -103,7 +112,12 @@ public class JedisJsonOperation extends AbstractRedisJsonOperation {
 
     @Override
     public <T> double sum(Class<T> entityType, String fieldName) {
-        RedisCommand command = buildAggregateSumCommand(entityType, fieldName);
+        return this.sum(entityType, fieldName, FilterNode.UNFILTERED);
+    }
+
+    @Override
+    public <T> double sum(Class<T> entityType, String fieldName, FilterNode filter) {
+        RedisCommand command = buildAggregateSumCommand(entityType, fieldName, filter);
         Object result = performCommand(command);
         if (result instanceof List<?> resultList) {
             for (var data : resultList) {
@@ -118,7 +132,53 @@ public class JedisJsonOperation extends AbstractRedisJsonOperation {
         return 0.0;
     }
 
-    private long performCountCommand(RedisCommand command) {
+    @Override
+    public void incrementCounters(Map<String, Map<String, Long>> increments, long expireSeconds) {
+        RedisCommand command = buildIncrementCommand(increments, expireSeconds);
+        if (command != null) {
+            performCommand(command);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters(String key) {
+        RedisCommand command = buildGetCountersCommand(key);
+        Map<String, Long> counters = new HashMap<>();
+        Object result = performCommand(command);
+        if (result instanceof List<?> resultList) {
+            for (int i = 0; i + 1 < resultList.size(); i += 2) {
+                if (resultList.get(i) instanceof byte[] field && resultList.get(i + 1) instanceof byte[] value) {
+                    counters.put(new String(field), Long.parseLong(new String(value)));
+                }
+            }
+        }
+
+        return counters;
+    }
+
+    @Override
+    public void putHashEntries(String key, Map<String, String> entries) {
+        if (!entries.isEmpty()) {
+            performCommand(buildPutHashEntriesCommand(key, entries));
+        }
+    }
+
+    @Override
+    public void expire(String key, long expireSeconds) {
+        performCommand(buildExpireCommand(key, expireSeconds));
+    }
+
+    @Override
+    public Map<String, String> getHashEntries(String key, List<String> fields) {
+        if (fields.isEmpty()) {
+            return Map.of();
+        }
+        Object result = performCommand(buildGetHashEntriesCommand(key, fields));
+        return result instanceof List<?> values ? toHashEntries(fields, values) : Map.of();
+    }
+
+    @Override
+    protected long performCountCommand(RedisCommand command) {
         Object result = performCommand(command);
         if (result instanceof List<?> resultList) {
             for (Object data : resultList) {
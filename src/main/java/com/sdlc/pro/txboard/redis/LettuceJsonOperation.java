@@ -1,10 +1,13 @@
 package com.sdlc.pro.txboard.redis;
 
 import com.google.gson.Gson;
+import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
 import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.ArrayOutput;
 import io.lettuce.core.output.CommandOutput;
+import io.lettuce.core.output.IntegerOutput;
 import io.lettuce.core.output.MapOutput;
 import io.lettuce.core.output.MultiOutput;
 import io.lettuce.core.output.StatusOutput;
@@ -37,15 +40,23 @@ public class LettuceJsonOperation extends AbstractRedisJsonOperation {
                 log.warn("Unexpected error occurred while creating index for @RedisEntity type '{}'", clazz.getName());
             }
         } catch (Throwable ex) {
-            if (ex.getCause() != null && ex.getCause().getCause() != null
-                    && Objects.equals("Index already exists", ex.getCause().getCause().getMessage())) {
+            if (isIndexAlreadyExists(ex)) {
                 log.info("Index already exist for @RedisEntity type '{}'", clazz.getName());
+                alterIndex(clazz);
             } else {
                 throw ex;
             }
         }
     }
 
+    private void alterIndex(Class<?> clazz) {
+        Object indexInfo = performCommand(super.buildIndexInfoCommand(clazz), new ArrayOutput<>(ByteArrayCodec.INSTANCE));
+        for (RedisCommand command : super.buildAlterIndexCommands(clazz, indexInfo)) {
+            performCommand(command, new StatusOutput<>(ByteArrayCodec.INSTANCE));
+            log.info("Index of @RedisEntity type '{}' altered to add the field '{}'", clazz.getName(), new String(command.args()[5]));
+        }
+    }
+
     @Override
     public <T> String save(T entity) {
         RedisCommand command = super.buildSaveCommand(entity);
@@ -56,10 +67,7 @@ public class LettuceJsonOperation extends AbstractRedisJsonOperation {
     @Override
     public <T> String saveWithExpire(T entity, long second) {
         String key = save(entity);
-        RedisCommand expireCommand = RedisCommand.builder(RedisInstruction.EXPIRE)
-                .addArgs(key, second)
-                .build();
-        performCommand(expireCommand, new MultiOutput<>(ByteArrayCodec.INSTANCE));
+        performCommand(super.buildExpireCommand(key, second), new MultiOutput<>(ByteArrayCodec.INSTANCE));
         return key;
     }
 
@@ -83,7 +91,7 @@ public class LettuceJsonOperation extends AbstractRedisJsonOperation {
             }
         }
 
-        return new PageResponse<T>(content, request, totalElements);
+        return super.toPageResponse(entityType, request, content, totalElements);
     }
 
     @Override
@@ -112,7 +120,12 @@ public class LettuceJsonOperation extends AbstractRedisJsonOperation {
 
     @Override
     public <T> double sum(Class<T> entityType, String fieldName) {
-        RedisCommand command = buildAggregateSumCommand(entityType, fieldName);
+        return this.sum(entityType, fieldName, FilterNode.UNFILTERED);
+    }
+
+    @Override
+    public <T> double sum(Class<T> entityType, String fieldName, FilterNode filter) {
+        RedisCommand command = buildAggregateSumCommand(entityType, fieldName, filter);
         Map<?, ?> map = (Map<?, ?>) this.performCommand(command, new MapOutput<>(ByteArrayCodec.INSTANCE));
         return map.entrySet()
                 .stream()
@@ -122,7 +135,50 @@ public class LettuceJsonOperation extends AbstractRedisJsonOperation {
                 .orElse(0.0);
     }
 
-    private long performCountCommand(RedisCommand command) {
+    @Override
+    public void incrementCounters(Map<String, Map<String, Long>> increments, long expireSeconds) {
+        RedisCommand command = buildIncrementCommand(increments, expireSeconds);
+        if (command != null) {
+            performCommand(command, new IntegerOutput<>(ByteArrayCodec.INSTANCE));
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters(String key) {
+        RedisCommand command = buildGetCountersCommand(key);
+        Map<?, ?> map = (Map<?, ?>) this.performCommand(command, new MapOutput<>(ByteArrayCodec.INSTANCE));
+        Map<String, Long> counters = new HashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() instanceof byte[] field && entry.getValue() instanceof byte[] value) {
+                counters.put(new String(field), Long.parseLong(new String(value)));
+            }
+        }
+        return counters;
+    }
+
+    @Override
+    public void putHashEntries(String key, Map<String, String> entries) {
+        if (!entries.isEmpty()) {
+            performCommand(buildPutHashEntriesCommand(key, entries), new IntegerOutput<>(ByteArrayCodec.INSTANCE));
+        }
+    }
+
+    @Override
+    public void expire(String key, long expireSeconds) {
+        performCommand(super.buildExpireCommand(key, expireSeconds), new IntegerOutput<>(ByteArrayCodec.INSTANCE));
+    }
+
+    @Override
+    public Map<String, String> getHashEntries(String key, List<String> fields) {
+        if (fields.isEmpty()) {
+            return Map.of();
+        }
+        Object result = performCommand(buildGetHashEntriesCommand(key, fields), new ArrayOutput<>(ByteArrayCodec.INSTANCE));
+        return result instanceof List<?> values ? toHashEntries(fields, values) : Map.of();
+    }
+
+    @Override
+    protected long performCountCommand(RedisCommand command) {
         Map<?, ?> map = (Map<?, ?>) this.performCommand(command, new MapOutput<>(ByteArrayCodec.INSTANCE));
         return map.entrySet()
                 .stream()
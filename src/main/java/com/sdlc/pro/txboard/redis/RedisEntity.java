@@ -10,4 +10,10 @@ import java.lang.annotation.Target;
 public @interface RedisEntity {
     String indexName() default "";
     String recordPrefix() default "";
+
+    /**
+     * The sortable numeric field walked in ascending order by a cursor page without a sort, e.g. a start time.
+     * Without one the cursor pages of the entity require a sort.
+     */
+    String cursorKey() default "";
 }
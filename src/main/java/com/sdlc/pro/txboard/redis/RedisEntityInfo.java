@@ -104,6 +104,10 @@ class RedisEntityInfo {
         return this.entityType.getSimpleName();
     }
 
+    String getCursorKey() {
+        return this.redisEntity.cursorKey();
+    }
+
     Field getIdField() {
         return this.idField;
     }
@@ -117,11 +121,15 @@ class RedisEntityInfo {
     }
 
     SchemaFieldType getRedisSchemaFieldTypeOf(String fieldName) {
+        return getIndexedFieldInfo(fieldName).getRedisType();
+    }
+
+    IndexedFieldInfo getIndexedFieldInfo(String fieldName) {
         IndexedFieldInfo fieldInfo = indexedFieldInfoMap.get(fieldName);
         if (fieldInfo == null) {
             throw new IllegalArgumentException("Field %s is not found at @RedisEntity %s".formatted(fieldName, entityType.getName()));
         }
 
-        return fieldInfo.getRedisType();
+        return fieldInfo;
     }
 }
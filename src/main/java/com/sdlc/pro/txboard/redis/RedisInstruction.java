@@ -7,8 +7,13 @@ public enum RedisInstruction {
     JSON_GET("JSON.GET"),
     FT_SEARCH("FT.SEARCH"),
     FT_CREATE("FT.CREATE"),
+    FT_ALTER("FT.ALTER"),
     FT_AGGREGATE("FT.AGGREGATE"),
-    EXPIRE("EXPIRE");
+    EXPIRE("EXPIRE"),
+    EVAL("EVAL"),
+    HGETALL("HGETALL"),
+    HSET("HSET"),
+    HMGET("HMGET");
 
     public final String instruction;
 
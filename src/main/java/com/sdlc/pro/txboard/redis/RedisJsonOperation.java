@@ -1,8 +1,12 @@
 package com.sdlc.pro.txboard.redis;
 
+import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
 
+import java.util.List;
+import java.util.Map;
+
 public interface RedisJsonOperation {
 
     <T> void registerRedisEntityClass(Class<T> entityType);
@@ -22,4 +26,28 @@ public interface RedisJsonOperation {
     <T> long countByRange(Class<T> entityType, String fieldName, long lowerLimit, long upperLimit);
 
     <T> double sum(Class<T> entityType, String fieldName);
+
+    /**
+     * Sums the numeric field over the entities matching the filter only, a field missing from an entity adds nothing.
+     */
+    <T> double sum(Class<T> entityType, String fieldName, FilterNode filter);
+
+    /**
+     * Increments the fields of the counter hashes in one round trip, the zero increments are skipped. Every hash
+     * incremented is given the expiry again, so it expires {@code expireSeconds} after its last increment.
+     *
+     * @param increments the field increments by hash key
+     */
+    void incrementCounters(Map<String, Map<String, Long>> increments, long expireSeconds);
+
+    Map<String, Long> getCounters(String key);
+
+    void putHashEntries(String key, Map<String, String> entries);
+
+    /**
+     * Sets the expiry of the key, which expires {@code expireSeconds} from now on.
+     */
+    void expire(String key, long expireSeconds);
+
+    Map<String, String> getHashEntries(String key, List<String> fields);
 }
@@ -0,0 +1,385 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.BlobStore;
+import com.sdlc.pro.txboard.storage.ByteColumn;
+import com.sdlc.pro.txboard.storage.IntColumn;
+import com.sdlc.pro.txboard.storage.LongColumn;
+import com.sdlc.pro.txboard.storage.StringTable;
+import com.sdlc.pro.txboard.storage.TransactionLogCodec;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the scalar fields of the logs in primitive columns: enums as ordinals, method and thread names as ids of a
+ * {@link StringTable}, instants as seconds and nanos. The statement lists, inner transactions and events are encoded
+ * with the {@link TransactionLogCodec} into a {@link BlobStore}. A log is only materialized when it is read, the
+ * indexes, the method and thread filters and the duration aggregations run on the columns.
+ */
+final class ColumnarTransactionLogStore implements TransactionLogStore {
+    private static final int STRING_TABLE_CAPACITY = 1 << 16;
+
+    private static final byte TX_ID = 1;
+    private static final byte START_TIME = 1 << 1;
+    private static final byte END_TIME = 1 << 2;
+    private static final byte CONNECTION_SUMMARY = 1 << 3;
+    private static final byte ALARMING = 1 << 4;
+    private static final byte N_PLUS_ONE = 1 << 5;
+    // the method or the thread could not be interned, the blob holds the whole log
+    private static final byte WHOLE_LOG = (byte) (1 << 6);
+
+    private static final PropagationBehavior[] PROPAGATIONS = PropagationBehavior.values();
+    private static final IsolationLevel[] ISOLATIONS = IsolationLevel.values();
+    private static final TransactionPhaseStatus[] STATUSES = TransactionPhaseStatus.values();
+
+    private final int capacity;
+    private final TransactionLogCodec codec;
+    private final BlobStore blobs;
+    private final StringTable names;
+    private long sequence;
+
+    private final ByteColumn flags;
+    private final ByteColumn statuses;
+    private final ByteColumn propagations;
+    private final ByteColumn isolations;
+    private final IntColumn methodIds;
+    private final IntColumn threadIds;
+    private final LongColumn txIdMostBits;
+    private final LongColumn txIdLeastBits;
+    private final LongColumn startSeconds;
+    private final IntColumn startNanos;
+    private final LongColumn endSeconds;
+    private final IntColumn endNanos;
+    private final LongColumn durationMicros;
+    private final IntColumn acquisitionCounts;
+    private final IntColumn alarmingConnectionCounts;
+    private final LongColumn occupiedTimes;
+    private final LongColumn occupiedTimesMicros;
+
+    ColumnarTransactionLogStore(int capacity, TransactionLogCodec codec, BlobStore blobs) {
+        this.capacity = capacity;
+        this.codec = codec;
+        this.blobs = blobs;
+        this.names = new StringTable(STRING_TABLE_CAPACITY);
+
+        this.flags = new ByteColumn(capacity);
+        this.statuses = new ByteColumn(capacity);
+        this.propagations = new ByteColumn(capacity);
+        this.isolations = new ByteColumn(capacity);
+        this.methodIds = new IntColumn(capacity);
+        this.threadIds = new IntColumn(capacity);
+        this.txIdMostBits = new LongColumn(capacity);
+        this.txIdLeastBits = new LongColumn(capacity);
+        this.startSeconds = new LongColumn(capacity);
+        this.startNanos = new IntColumn(capacity);
+        this.endSeconds = new LongColumn(capacity);
+        this.endNanos = new IntColumn(capacity);
+        this.durationMicros = new LongColumn(capacity);
+        this.acquisitionCounts = new IntColumn(capacity);
+        this.alarmingConnectionCounts = new IntColumn(capacity);
+        this.occupiedTimes = new LongColumn(capacity);
+        this.occupiedTimesMicros = new LongColumn(capacity);
+    }
+
+    BlobStore blobs() {
+        return this.blobs;
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(this.sequence, this.capacity);
+    }
+
+    @Override
+    public int nextSlot() {
+        return (int) (this.sequence % this.capacity);
+    }
+
+    @Override
+    public int oldestSlot() {
+        return this.sequence <= this.capacity ? 0 : this.nextSlot();
+    }
+
+    @Override
+    public void append(TransactionLog transactionLog) {
+        int slot = this.nextSlot();
+        int methodId = this.internName(transactionLog.getMethod());
+        int threadId = this.internName(transactionLog.getThread());
+        boolean wholeLog = methodId == StringTable.NOT_INTERNED || threadId == StringTable.NOT_INTERNED;
+
+        byte flags = wholeLog ? WHOLE_LOG : 0;
+        UUID txId = transactionLog.getTxId();
+        if (txId != null) {
+            flags |= TX_ID;
+            this.txIdMostBits.set(slot, txId.getMostSignificantBits());
+            this.txIdLeastBits.set(slot, txId.getLeastSignificantBits());
+        }
+        Instant startTime = transactionLog.getStartTime();
+        if (startTime != null) {
+            flags |= START_TIME;
+            this.startSeconds.set(slot, startTime.getEpochSecond());
+            this.startNanos.set(slot, startTime.getNano());
+        }
+        Instant endTime = transactionLog.getEndTime();
+        if (endTime != null) {
+            flags |= END_TIME;
+            this.endSeconds.set(slot, endTime.getEpochSecond());
+            this.endNanos.set(slot, endTime.getNano());
+        }
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        if (connectionSummary != null) {
+            flags |= CONNECTION_SUMMARY;
+            this.acquisitionCounts.set(slot, connectionSummary.acquisitionCount());
+            this.alarmingConnectionCounts.set(slot, connectionSummary.alarmingConnectionCount());
+            this.occupiedTimes.set(slot, connectionSummary.occupiedTime());
+            this.occupiedTimesMicros.set(slot, connectionSummary.occupiedTimeMicros());
+        }
+        if (transactionLog.isAlarmingTransaction()) {
+            flags |= ALARMING;
+        }
+        if (transactionLog.isNPlusOne()) {
+            flags |= N_PLUS_ONE;
+        }
+
+        this.flags.set(slot, flags);
+        this.statuses.set(slot, ordinalOf(transactionLog.getStatus()));
+        this.propagations.set(slot, ordinalOf(transactionLog.getPropagation()));
+        this.isolations.set(slot, ordinalOf(transactionLog.getIsolation()));
+        this.methodIds.set(slot, methodId);
+        this.threadIds.set(slot, threadId);
+        this.durationMicros.set(slot, transactionLog.getDurationMicros());
+        this.blobs.put(slot, wholeLog ? this.codec.encode(transactionLog) : this.codec.encodeDetails(transactionLog));
+        this.sequence++;
+    }
+
+    /**
+     * Interns the name, a missing name takes the id past the table.
+     */
+    private int internName(String name) {
+        return name == null ? STRING_TABLE_CAPACITY : this.names.intern(name);
+    }
+
+    private String nameOf(int id) {
+        return id == STRING_TABLE_CAPACITY ? null : this.names.stringOf(id);
+    }
+
+    @Override
+    public TransactionLog get(int slot) {
+        Row row = this.rowAt(slot);
+        return row == null ? null : row.get();
+    }
+
+    /**
+     * Copies the columns and the blob reference of the slot into a row, which is decoded when it is read.
+     */
+    @Override
+    public Supplier<TransactionLog> detach(int slot) {
+        return this.rowAt(slot);
+    }
+
+    private Row rowAt(int slot) {
+        if (slot >= this.size()) {
+            return null;
+        }
+        byte flags = this.flags.get(slot);
+        byte[] blob = this.blobs.get(slot);
+        if ((flags & WHOLE_LOG) != 0) {
+            return new Row(this.codec, flags, blob, null, null, null, null, null, null, 0L, null, null, null);
+        }
+        return new Row(
+                this.codec,
+                flags,
+                blob,
+                (flags & TX_ID) == 0 ? null : new UUID(this.txIdMostBits.get(slot), this.txIdLeastBits.get(slot)),
+                this.nameOf(this.methodIds.get(slot)),
+                this.propagationAt(slot),
+                this.isolationAt(slot),
+                (flags & START_TIME) == 0 ? null
+                        : Instant.ofEpochSecond(this.startSeconds.get(slot), this.startNanos.get(slot)),
+                (flags & END_TIME) == 0 ? null
+                        : Instant.ofEpochSecond(this.endSeconds.get(slot), this.endNanos.get(slot)),
+                this.durationMicros.get(slot),
+                (flags & CONNECTION_SUMMARY) == 0 ? null : new ConnectionSummary(
+                        this.acquisitionCounts.get(slot), this.alarmingConnectionCounts.get(slot),
+                        this.occupiedTimes.get(slot), this.occupiedTimesMicros.get(slot)),
+                this.statusAt(slot),
+                this.nameOf(this.threadIds.get(slot))
+        );
+    }
+
+    @Override
+    public List<TransactionLog> snapshot() {
+        int size = this.size();
+        int oldest = this.oldestSlot();
+        List<TransactionLog> transactionLogs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactionLogs.add(this.get((oldest + i) % this.capacity));
+        }
+        return transactionLogs;
+    }
+
+    @Override
+    public TransactionPhaseStatus statusAt(int slot) {
+        return valueOf(STATUSES, this.statuses.get(slot));
+    }
+
+    @Override
+    public PropagationBehavior propagationAt(int slot) {
+        return valueOf(PROPAGATIONS, this.propagations.get(slot));
+    }
+
+    @Override
+    public IsolationLevel isolationAt(int slot) {
+        return valueOf(ISOLATIONS, this.isolations.get(slot));
+    }
+
+    @Override
+    public Boolean connectionOrientedAt(int slot) {
+        return (this.flags.get(slot) & CONNECTION_SUMMARY) == 0 ? null : this.acquisitionCounts.get(slot) > 0;
+    }
+
+    @Override
+    public boolean alarmingTransactionAt(int slot) {
+        return (this.flags.get(slot) & ALARMING) != 0;
+    }
+
+    @Override
+    public Boolean havingAlarmingConnectionAt(int slot) {
+        return (this.flags.get(slot) & CONNECTION_SUMMARY) == 0 ? null : this.alarmingConnectionCounts.get(slot) > 0;
+    }
+
+    @Override
+    public boolean nPlusOneAt(int slot) {
+        return (this.flags.get(slot) & N_PLUS_ONE) != 0;
+    }
+
+    @Override
+    public long durationMicrosAt(int slot) {
+        return this.durationMicros.get(slot);
+    }
+
+    @Override
+    public long startTimeNanosAt(int slot) {
+        if ((this.flags.get(slot) & START_TIME) == 0) {
+            return Long.MIN_VALUE;
+        }
+        return TransactionLogIndex.epochNanosOf(Instant.ofEpochSecond(this.startSeconds.get(slot), this.startNanos.get(slot)));
+    }
+
+    /**
+     * Resolves the method and thread filters on the distinct names of the string table and then matches the slots by
+     * their name ids, a log whose names could not be interned is tested itself.
+     */
+    @Override
+    public BitSet scan(Filter filter) {
+        String property = filter.getProperty();
+        if (!"method".equals(property) && !"thread".equals(property)) {
+            return null;
+        }
+
+        Predicate<Names> predicate = FilterPredicateFactory.compile(filter, Names.class);
+        BitSet matchingIds = new BitSet();
+        for (int id = 0; id < this.names.size(); id++) {
+            if (predicate.test(new Names(this.names.stringOf(id)))) {
+                matchingIds.set(id);
+            }
+        }
+        if (predicate.test(new Names(null))) {
+            matchingIds.set(STRING_TABLE_CAPACITY);
+        }
+
+        IntColumn ids = "method".equals(property) ? this.methodIds : this.threadIds;
+        Predicate<TransactionLog> logPredicate = null;
+        BitSet slots = new BitSet();
+        int size = this.size();
+        for (int slot = 0; slot < size; slot++) {
+            int id = ids.get(slot);
+            if (id == StringTable.NOT_INTERNED) {
+                if (logPredicate == null) {
+                    logPredicate = FilterPredicateFactory.compile(filter, TransactionLog.class);
+                }
+                if (logPredicate.test(this.get(slot))) {
+                    slots.set(slot);
+                }
+            } else if (matchingIds.get(id)) {
+                slots.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    private static byte ordinalOf(Enum<?> value) {
+        return (byte) (value == null ? -1 : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E valueOf(E[] values, byte ordinal) {
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * The values of a slot copied out of the columns, the blob is only decoded when the log is read. The row of a
+     * whole encoded log only carries the blob.
+     */
+    private record Row(TransactionLogCodec codec, byte flags, byte[] blob, UUID txId, String method,
+                       PropagationBehavior propagation, IsolationLevel isolation, Instant startTime, Instant endTime,
+                       long durationMicros, ConnectionSummary connectionSummary, TransactionPhaseStatus status,
+                       String thread) implements Supplier<TransactionLog> {
+
+        @Override
+        public TransactionLog get() {
+            if ((this.flags & WHOLE_LOG) != 0) {
+                return this.codec.decode(this.blob);
+            }
+
+            TransactionLogCodec.Details details = this.codec.decodeDetails(this.blob);
+            return new TransactionLog(
+                    this.txId,
+                    this.method,
+                    this.propagation,
+                    this.isolation,
+                    this.startTime,
+                    this.endTime,
+                    this.durationMicros,
+                    this.connectionSummary,
+                    this.status,
+                    this.thread,
+                    details.executedQuires(),
+                    details.child(),
+                    details.events(),
+                    TransactionLogCodec.alarmingThresholdOf(this.durationMicros, (this.flags & ALARMING) != 0),
+                    details.postTransactionQuires(),
+                    details.nPlusOneQuery()
+            );
+        }
+    }
+
+    /**
+     * The name a method or thread filter is tested on, carried by both filtered fields.
+     */
+    private static final class Names {
+        private final String method;
+        private final String thread;
+
+        private Names(String name) {
+            this.method = name;
+            this.thread = name;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * The long sort keys the cursors of the sql execution log pages are built from, the times in epoch nanoseconds.
+ */
+final class CursorKeys {
+
+    private CursorKeys() {
+    }
+
+    /**
+     * Returns the sort key of the given property, {@code null} when the property can not be walked with a cursor.
+     */
+    static ToLongFunction<SqlExecutionLog> sqlExecutionLogKey(String property) {
+        return switch (property) {
+            case "conAcquiredTime" -> log -> TransactionLogIndex.epochNanosOf(log.getConAcquiredTime());
+            case "conReleaseTime" -> log -> TransactionLogIndex.epochNanosOf(log.getConReleaseTime());
+            case "conOccupiedTime" -> SqlExecutionLog::getConOccupiedTime;
+            case "conOccupiedTimeMicros" -> SqlExecutionLog::getConOccupiedTimeMicros;
+            default -> null;
+        };
+    }
+
+    static IllegalArgumentException unsupportedSort(String property) {
+        return new IllegalArgumentException("The sort property '%s' does not support cursor pagination".formatted(property));
+    }
+}
@@ -0,0 +1,47 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.DurationRange;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buckets the transaction durations recorded in a {@link LogLinearHistogram} into the ranges of the given upper
+ * bounds (in ms), so the distribution is recorded once at full resolution and can be read with any boundaries. A range
+ * holds the histogram buckets up to the one of its upper bound, the durations less than 0.8% above a bound may be
+ * counted in the range below it.
+ */
+final class DurationDistributions {
+
+    private DurationDistributions() {
+    }
+
+    /**
+     * @param buckets the ascending upper bounds of the ranges, the durations above the last one are counted in a
+     *                last range up to {@link Integer#MAX_VALUE} when there are any
+     */
+    static List<DurationDistribution> of(LogLinearHistogram histogram, List<Integer> buckets) {
+        List<DurationDistribution> distributions = new ArrayList<>(buckets.size() + 1);
+        int bucket = 0;
+        int prev = 0;
+        for (int curr : buckets) {
+            long count = 0;
+            for (int last = LogLinearHistogram.bucketOf(curr * 1_000L); bucket <= last; bucket++) {
+                count += histogram.countAt(bucket);
+            }
+            distributions.add(new DurationDistribution(DurationRange.of(prev, curr), count));
+            prev = curr + 1;
+        }
+
+        long count = 0;
+        for (; bucket < LogLinearHistogram.BUCKET_COUNT; bucket++) {
+            count += histogram.countAt(bucket);
+        }
+        if (count != 0) {
+            distributions.add(new DurationDistribution(DurationRange.of(prev, Integer.MAX_VALUE), count));
+        }
+        return distributions;
+    }
+}
@@ -0,0 +1,288 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.SegmentedLog;
+import com.sdlc.pro.txboard.storage.TransactionLogCodec;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import com.sdlc.pro.txboard.util.SortUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps the sql execution logs in a {@link SegmentedLog} on the local disk, keyed by their connection acquired time.
+ * Unfiltered pages and pages sorted by the acquired time only decode the logs of the returned page. A read only
+ * captures a {@link SegmentedLog.Snapshot} under the lock and scans it after releasing the lock. The retention is
+ * applied when a save rolls the log. The histogram of the connection times is checkpointed on close and caught up
+ * from the logs appended after its checkpoint on open.
+ */
+public class FileSqlExecutionLogRepository implements SqlExecutionLogRepository, InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(FileSqlExecutionLogRepository.class);
+
+    private final SegmentedLog sqlExecutionLogs;
+    private final ReadWriteLock lock;
+    private final TransactionLogCodec codec;
+    private final long retentionBytes;
+    private final long retentionNanos;
+    private final LogLinearHistogram connectionTimeHistogram;
+
+    public FileSqlExecutionLogRepository(TxBoardProperties txBoardProperties) {
+        this(txBoardProperties, null);
+    }
+
+    /**
+     * @param queryDictionary the dictionary the statements of the read logs are interned in, may be {@code null}
+     */
+    public FileSqlExecutionLogRepository(TxBoardProperties txBoardProperties, QueryDictionary queryDictionary) {
+        TxBoardProperties.File file = txBoardProperties.getFile();
+        this.sqlExecutionLogs = new SegmentedLog(Path.of(file.getDirectory(), "sql-execution-logs"),
+                (int) file.getSegmentSize().toBytes(), file.getRollInterval());
+        this.lock = new ReentrantReadWriteLock();
+        // the records outlive the dictionary, the statements are written as text
+        this.codec = new TransactionLogCodec(queryDictionary != null ? queryDictionary
+                : new QueryDictionary(txBoardProperties.getSql().getDictionaryCapacity()), false);
+        this.retentionBytes = file.getRetentionSize().toBytes();
+        this.retentionNanos = TimeUnit.NANOSECONDS.convert(file.getRetentionPeriod());
+        this.connectionTimeHistogram = new LogLinearHistogram();
+
+        long replayFrom = this.sqlExecutionLogs.lastCheckpoint()
+                .filter(this::restore)
+                .map(SegmentedLog.Checkpoint::address)
+                .orElse(0L);
+        this.sqlExecutionLogs.scanAfter(replayFrom, (address, key, buffer, offset, length) -> {
+            this.connectionTimeHistogram.record(this.decode(buffer, offset, length).getConOccupiedTimeMicros());
+            return true;
+        });
+    }
+
+    private boolean restore(SegmentedLog.Checkpoint checkpoint) {
+        try {
+            this.connectionTimeHistogram.set(
+                    LogLinearHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(checkpoint.state()))));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void save(SqlExecutionLog sqlExecutionLog) {
+        Objects.requireNonNull(sqlExecutionLog, "Required non-null SqlExecutionLog");
+        byte[] payload = this.codec.encode(sqlExecutionLog);
+        this.lock.writeLock().lock();
+        try {
+            int segmentCount = this.sqlExecutionLogs.segmentCount();
+            this.sqlExecutionLogs.append(TransactionLogIndex.epochNanosOf(sqlExecutionLog.getConAcquiredTime()), payload);
+            if (this.sqlExecutionLogs.segmentCount() != segmentCount) {
+                // only a roll seals a segment retention may drop
+                this.sqlExecutionLogs.retain(this.retentionBytes,
+                        TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - this.retentionNanos);
+            }
+            this.connectionTimeHistogram.record(sqlExecutionLog.getConOccupiedTimeMicros());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Captures the retained records under the lock, they are scanned and decoded after it has been released.
+     */
+    private SegmentedLog.Snapshot snapshot() {
+        this.lock.readLock().lock();
+        try {
+            return this.sqlExecutionLogs.snapshot();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public LatencyPercentiles getConnectionTimePercentiles() {
+        return this.connectionTimeHistogram.percentiles();
+    }
+
+    @Override
+    public PageResponse<SqlExecutionLog> findAll(PageRequest pageRequest) {
+        Objects.requireNonNull(pageRequest, "Required non-null PageRequest");
+        if (pageRequest.isCursorPaged()) {
+            return this.findPageAfter(pageRequest);
+        }
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageRequest.getPageNumber() * pageRequest.getPageSize());
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        boolean unfiltered = pageRequest.getFilter() == FilterNode.UNFILTERED;
+
+        SegmentedLog.Snapshot snapshot = this.snapshot();
+        if (unfiltered && !sorted) {
+            List<SqlExecutionLog> logs = new ArrayList<>();
+            snapshot.scanFrom(offset, (address, key, buffer, recordOffset, length) -> {
+                logs.add(this.decode(buffer, recordOffset, length));
+                return logs.size() < pageRequest.getPageSize();
+            });
+            return new PageResponse<>(logs, pageRequest, snapshot.recordCount());
+        }
+        if (unfiltered && sort.getProperty().equals("conAcquiredTime")) {
+            TopRecords top = new TopRecords(
+                    (int) Math.min((long) offset + pageRequest.getPageSize(), Integer.MAX_VALUE),
+                    sort.getDirection() == Sort.Direction.ASC);
+            snapshot.scan(Long.MIN_VALUE, Long.MAX_VALUE,
+                    (address, key, buffer, recordOffset, length) -> {
+                        top.offer(key, address);
+                        return true;
+                    });
+            List<SqlExecutionLog> logs = new ArrayList<>();
+            long[] addresses = top.sortedAddresses();
+            for (int i = offset; i < addresses.length; i++) {
+                logs.add(this.codec.decodeSqlExecutionLog(snapshot.read(addresses[i], 0)));
+            }
+            return new PageResponse<>(logs, pageRequest, snapshot.recordCount());
+        }
+
+        KeyRange range = KeyRange.of(pageRequest.getFilter(), "conAcquiredTime");
+        Predicate<SqlExecutionLog> predicate = unfiltered ? null
+                : FilterPredicateFactory.compile(pageRequest.getFilter(), SqlExecutionLog.class);
+        List<SqlExecutionLog> logs = new ArrayList<>();
+        snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+            SqlExecutionLog sqlExecutionLog = this.decode(buffer, recordOffset, length);
+            if (predicate == null || predicate.test(sqlExecutionLog)) {
+                logs.add(sqlExecutionLog);
+            }
+            return true;
+        });
+        List<SqlExecutionLog> content = SortUtils.sortPage(logs, sort, offset, pageRequest.getPageSize());
+        return new PageResponse<>(content, pageRequest, logs.size());
+    }
+
+    /**
+     * Reads the page following the cursor of the request. An unfiltered page in insertion order is read right after
+     * the address of the cursor; otherwise the matches after the cursor are selected in one pass over the log with a
+     * bounded heap, which also counts the total. Sorted by the acquired time an unfiltered pass only reads the keys.
+     */
+    private PageResponse<SqlExecutionLog> findPageAfter(PageRequest pageRequest) {
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        ToLongFunction<SqlExecutionLog> sortKey = sorted ? CursorKeys.sqlExecutionLogKey(sort.getProperty()) : null;
+        if (sorted && sortKey == null) {
+            throw CursorKeys.unsupportedSort(sort.getProperty());
+        }
+        boolean unfiltered = pageRequest.getFilter() == FilterNode.UNFILTERED;
+        Predicate<SqlExecutionLog> predicate = unfiltered ? null
+                : FilterPredicateFactory.compile(pageRequest.getFilter(), SqlExecutionLog.class);
+        boolean keyed = sorted && sort.getProperty().equals("conAcquiredTime");
+        Cursor cursor = pageRequest.getCursor();
+        int limit = pageRequest.getPageSize();
+
+        List<SqlExecutionLog> logs = new ArrayList<>();
+        long[] keys = new long[limit + 1];
+        long[] addresses = new long[limit + 1];
+        long[] matches = new long[1];
+        SegmentedLog.Snapshot snapshot = this.snapshot();
+        if (!sorted && unfiltered) {
+            snapshot.scanAfter(cursor == null ? 0 : cursor.getPosition() + 1,
+                    (address, key, buffer, recordOffset, length) -> {
+                        keys[logs.size()] = address;
+                        addresses[logs.size()] = address;
+                        logs.add(this.decode(buffer, recordOffset, length));
+                        return logs.size() <= limit;
+                    });
+            matches[0] = snapshot.recordCount();
+        } else if (!sorted) {
+            KeyRange range = KeyRange.of(pageRequest.getFilter(), "conAcquiredTime");
+            snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+                SqlExecutionLog sqlExecutionLog = this.decode(buffer, recordOffset, length);
+                if (predicate.test(sqlExecutionLog)) {
+                    matches[0]++;
+                    if (logs.size() <= limit && (cursor == null || address > cursor.getPosition())) {
+                        keys[logs.size()] = address;
+                        addresses[logs.size()] = address;
+                        logs.add(sqlExecutionLog);
+                    }
+                }
+                return true;
+            });
+        } else {
+            KeyRange range = unfiltered ? KeyRange.ALL : KeyRange.of(pageRequest.getFilter(), "conAcquiredTime");
+            TopRecords top = new TopRecords(limit + 1, sort.getDirection() == Sort.Direction.ASC);
+            snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+                SqlExecutionLog sqlExecutionLog = keyed && unfiltered ? null
+                        : this.decode(buffer, recordOffset, length);
+                if (predicate == null || predicate.test(sqlExecutionLog)) {
+                    matches[0]++;
+                    long sortValue = keyed ? key : sortKey.applyAsLong(sqlExecutionLog);
+                    if (cursor == null || cursor.isFollowedBy(sortValue, address)) {
+                        top.offer(sortValue, address);
+                    }
+                }
+                return true;
+            });
+            for (long address : top.sortedAddresses()) {
+                SqlExecutionLog sqlExecutionLog = this.codec.decodeSqlExecutionLog(snapshot.read(address, 0));
+                keys[logs.size()] = sortKey.applyAsLong(sqlExecutionLog);
+                addresses[logs.size()] = address;
+                logs.add(sqlExecutionLog);
+            }
+        }
+
+        Cursor nextCursor = null;
+        if (logs.size() > limit) {
+            logs.remove(limit);
+            nextCursor = Cursor.of(sort, keys[limit - 1], addresses[limit - 1]);
+        }
+        return new PageResponse<>(logs, pageRequest, matches[0], nextCursor);
+    }
+
+    private SqlExecutionLog decode(ByteBuffer buffer, int offset, int length) {
+        byte[] encoded = new byte[length];
+        buffer.get(offset, encoded);
+        return this.codec.decodeSqlExecutionLog(encoded);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        log.info("The FileSqlExecutionLogRepository has been created and initialized to support file storage of sql execution logs.");
+    }
+
+    @Override
+    public void destroy() {
+        this.lock.writeLock().lock();
+        try {
+            ByteArrayOutputStream state = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(state)) {
+                this.connectionTimeHistogram.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.sqlExecutionLogs.checkpoint(state.toByteArray());
+            this.sqlExecutionLogs.close();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,636 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.RollupWindow;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
+import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionRollup;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.SegmentedLog;
+import com.sdlc.pro.txboard.storage.TransactionLogCodec;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import com.sdlc.pro.txboard.util.SortUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the transaction logs in a {@link SegmentedLog} on the local disk, keyed by their start time. A record starts
+ * with the duration and the status of the log followed by the log encoded by the {@link TransactionLogCodec}, so the
+ * counts, the average duration and pages filtered by status, duration and start time and sorted by duration or start
+ * time are served from the record headers and only the logs of the returned page are decoded. Other filters and sorts
+ * decode the logs in the start time range of the filter. A read only captures a {@link SegmentedLog.Snapshot} under
+ * the lock, the records are scanned and decoded after it has been released.
+ * <p>
+ * The summary and the distributions are kept in memory and periodically persisted as a checkpoint of the log, a
+ * background pass then also drops the expired logs. A save only applies the retention when it rolled the log. When
+ * the repository is opened the counters are restored from the checkpoint and only the logs appended after it are
+ * replayed, without a checkpoint they are rebuilt from the retained logs.
+ */
+public final class FileTransactionLogRepository implements TransactionLogRepository, InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(FileTransactionLogRepository.class);
+
+    private static final int DURATION_OFFSET = 0;
+    private static final int STATUS_OFFSET = DURATION_OFFSET + Long.BYTES;
+    private static final int HEADER_SIZE = STATUS_OFFSET + 1;
+    private static final TransactionPhaseStatus[] STATUSES = TransactionPhaseStatus.values();
+    private static final long MAINTENANCE_SHUTDOWN_TIMEOUT_SECONDS = 30L;
+
+    private final SegmentedLog transactionLogs;
+    private final ReadWriteLock lock;
+    private final TransactionLogCodec codec;
+    private final TransactionStatistics statistics;
+    private final TransactionRollups rollups;
+    private final long retentionBytes;
+    private final long retentionNanos;
+    private final ScheduledExecutorService maintenance;
+    private boolean closed;
+
+    public FileTransactionLogRepository(TxBoardProperties txBoardProperties) {
+        this(txBoardProperties, null);
+    }
+
+    /**
+     * @param queryDictionary the dictionary the statements of the read logs are interned in, may be {@code null}
+     */
+    public FileTransactionLogRepository(TxBoardProperties txBoardProperties, QueryDictionary queryDictionary) {
+        TxBoardProperties.File file = txBoardProperties.getFile();
+        this.transactionLogs = new SegmentedLog(Path.of(file.getDirectory(), "transaction-logs"),
+                (int) file.getSegmentSize().toBytes(), file.getRollInterval());
+        this.lock = new ReentrantReadWriteLock();
+        // the records outlive the dictionary, the statements are written as text
+        this.codec = new TransactionLogCodec(queryDictionary != null ? queryDictionary
+                : new QueryDictionary(txBoardProperties.getSql().getDictionaryCapacity()), false);
+        this.statistics = new TransactionStatistics(txBoardProperties);
+        this.rollups = new TransactionRollups();
+        this.retentionBytes = file.getRetentionSize().toBytes();
+        this.retentionNanos = TimeUnit.NANOSECONDS.convert(file.getRetentionPeriod());
+
+        if (this.transactionLogs.truncatedSegments() > 0) {
+            log.warn("Truncated the torn tail of {} transaction log segment(s) in {}",
+                    this.transactionLogs.truncatedSegments(), file.getDirectory());
+        }
+        long replayFrom = this.transactionLogs.lastCheckpoint()
+                .filter(this::restore)
+                .map(SegmentedLog.Checkpoint::address)
+                .orElse(0L);
+        this.transactionLogs.scanAfter(replayFrom, (address, key, buffer, offset, length) -> {
+            this.statistics.record(this.decode(buffer, offset, length));
+            return true;
+        });
+
+        long interval = file.getCheckpointInterval().toMillis();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "tx-board-file-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean restore(SegmentedLog.Checkpoint checkpoint) {
+        try {
+            return this.statistics.restore(new DataInputStream(new ByteArrayInputStream(checkpoint.state())));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops the expired logs and persists the counters. The checkpoint is written before the compaction, which only
+     * rewrites the segments before the one of the checkpoint. The lock is only held to capture the counters, to plan
+     * the compaction and to swap the rewritten segments in; the checkpoint and the rewritten segments are written
+     * while the logs are saved and read.
+     */
+    void maintain() {
+        try {
+            SegmentedLog.PendingCheckpoint checkpoint;
+            this.lock.writeLock().lock();
+            try {
+                if (this.closed) {
+                    return;
+                }
+                this.transactionLogs.retain(this.retentionBytes, this.retentionKey());
+                checkpoint = this.transactionLogs.prepareCheckpoint(this.checkpointState());
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            checkpoint.write();
+
+            SegmentedLog.Compaction compaction;
+            this.lock.writeLock().lock();
+            try {
+                if (this.closed) {
+                    return;
+                }
+                this.transactionLogs.commitCheckpoint(checkpoint);
+                compaction = this.transactionLogs.planCompaction(this.retentionKey());
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            compaction.rewrite();
+
+            this.lock.writeLock().lock();
+            try {
+                // the rewrites of the segments deleted meanwhile, or of a closed log, are discarded
+                this.transactionLogs.applyCompaction(compaction);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to maintain the transaction log files", e);
+        }
+    }
+
+    private byte[] checkpointState() {
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(state)) {
+            this.statistics.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return state.toByteArray();
+    }
+
+    @Override
+    public void save(TransactionLog transactionLog) {
+        TransactionPhaseStatus status = transactionLog.getStatus();
+        byte[] encoded = this.codec.encode(transactionLog);
+        byte[] payload = ByteBuffer.allocate(HEADER_SIZE + encoded.length)
+                .putLong(DURATION_OFFSET, transactionLog.getDurationMicros())
+                .put(STATUS_OFFSET, status == null ? -1 : (byte) status.ordinal())
+                .put(HEADER_SIZE, encoded)
+                .array();
+
+        this.lock.writeLock().lock();
+        try {
+            int segmentCount = this.transactionLogs.segmentCount();
+            this.transactionLogs.append(TransactionLogIndex.epochNanosOf(transactionLog.getStartTime()), payload);
+            if (this.transactionLogs.segmentCount() != segmentCount) {
+                // only a roll seals a segment retention may drop, the maintenance covers the retention period
+                this.transactionLogs.retain(this.retentionBytes, this.retentionKey());
+            }
+            // counted under the lock, a checkpoint covers exactly the logs appended before it
+            this.statistics.record(transactionLog);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        this.rollups.record(transactionLog);
+    }
+
+    private long retentionKey() {
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - this.retentionNanos;
+    }
+
+    @Override
+    public void recordSampledOut(TransactionLog transactionLog) {
+        this.statistics.record(transactionLog);
+        this.rollups.record(transactionLog);
+    }
+
+    @Override
+    public List<TransactionLog> findAll() {
+        List<TransactionLog> logs = new ArrayList<>();
+        this.snapshot().scan(Long.MIN_VALUE, Long.MAX_VALUE, (address, key, buffer, offset, length) ->
+                logs.add(this.decode(buffer, offset, length)));
+        return logs;
+    }
+
+    /**
+     * Captures the retained records under the lock, they are scanned and decoded after it has been released.
+     */
+    private SegmentedLog.Snapshot snapshot() {
+        this.lock.readLock().lock();
+        try {
+            return this.transactionLogs.snapshot();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        this.lock.readLock().lock();
+        try {
+            return this.transactionLogs.recordCount();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long countByTransactionStatus(TransactionPhaseStatus status) {
+        long[] count = new long[1];
+        this.snapshot().scan(Long.MIN_VALUE, Long.MAX_VALUE, (address, key, buffer, offset, length) -> {
+            if (statusOf(buffer, offset) == status) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    @Override
+    public double averageDuration() {
+        double[] totalMillis = new double[1];
+        SegmentedLog.Snapshot snapshot = this.snapshot();
+        snapshot.scan(Long.MIN_VALUE, Long.MAX_VALUE, (address, key, buffer, offset, length) -> {
+            totalMillis[0] += buffer.getLong(offset + DURATION_OFFSET) / 1_000.0;
+            return true;
+        });
+        long count = snapshot.recordCount();
+        return count == 0 ? 0.0 : totalMillis[0] / count;
+    }
+
+    @Override
+    public PageResponse<TransactionLog> findAll(PageRequest pageRequest) {
+        if (pageRequest.isCursorPaged()) {
+            return this.findPageAfter(pageRequest);
+        }
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageRequest.getPageNumber() * pageRequest.getPageSize());
+        KeyRange range = KeyRange.of(pageRequest.getFilter(), "startTime");
+        HeaderPredicate header = HeaderPredicate.of(pageRequest.getFilter());
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        SortKey sortKey = sorted ? SortKey.of(sort.getProperty()) : null;
+
+        SegmentedLog.Snapshot snapshot = this.snapshot();
+        if (header != null && !sorted) {
+            return this.findUnsortedPage(snapshot, pageRequest, range, header, offset);
+        }
+        if (header != null && sortKey != null) {
+            return this.findSortedPage(snapshot, pageRequest, range, header, sortKey, offset);
+        }
+
+        Predicate<TransactionLog> predicate = pageRequest.getFilter() == FilterNode.UNFILTERED ? null
+                : FilterPredicateFactory.compile(pageRequest.getFilter(), TransactionLog.class);
+        List<TransactionLog> logs = new ArrayList<>();
+        snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+            TransactionLog transactionLog = this.decode(buffer, recordOffset, length);
+            if (predicate == null || predicate.test(transactionLog)) {
+                logs.add(transactionLog);
+            }
+            return true;
+        });
+        List<TransactionLog> content = SortUtils.sortPage(logs, sort, offset, pageRequest.getPageSize());
+        return new PageResponse<>(content, pageRequest, logs.size());
+    }
+
+    private PageResponse<TransactionLog> findUnsortedPage(SegmentedLog.Snapshot snapshot, PageRequest pageRequest,
+                                                          KeyRange range, HeaderPredicate header, int offset) {
+        List<TransactionLog> logs = new ArrayList<>();
+        if (header == HeaderPredicate.ALL) {
+            snapshot.scanFrom(offset, (address, key, buffer, recordOffset, length) -> {
+                logs.add(this.decode(buffer, recordOffset, length));
+                return logs.size() < pageRequest.getPageSize();
+            });
+            return new PageResponse<>(logs, pageRequest, snapshot.recordCount());
+        }
+
+        long end = (long) offset + pageRequest.getPageSize();
+        int[] matches = new int[1];
+        snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+            if (header.test(key, buffer.getLong(recordOffset + DURATION_OFFSET), statusOf(buffer, recordOffset))) {
+                if (matches[0] >= offset && matches[0] < end) {
+                    logs.add(this.decode(buffer, recordOffset, length));
+                }
+                matches[0]++;
+            }
+            return true;
+        });
+        return new PageResponse<>(logs, pageRequest, matches[0]);
+    }
+
+    private PageResponse<TransactionLog> findSortedPage(SegmentedLog.Snapshot snapshot, PageRequest pageRequest,
+                                                        KeyRange range, HeaderPredicate header, SortKey sortKey,
+                                                        int offset) {
+        boolean ascending = pageRequest.getSort().getDirection() == Sort.Direction.ASC;
+        TopRecords top = new TopRecords((int) Math.min((long) offset + pageRequest.getPageSize(), Integer.MAX_VALUE),
+                ascending);
+        int[] matches = new int[1];
+        snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+            long duration = buffer.getLong(recordOffset + DURATION_OFFSET);
+            if (header.test(key, duration, statusOf(buffer, recordOffset))) {
+                top.offer(sortKey == SortKey.START_TIME ? key : duration, address);
+                matches[0]++;
+            }
+            return true;
+        });
+
+        List<TransactionLog> logs = new ArrayList<>();
+        long[] addresses = top.sortedAddresses();
+        for (int i = offset; i < addresses.length; i++) {
+            logs.add(this.codec.decode(snapshot.read(addresses[i], HEADER_SIZE)));
+        }
+        return new PageResponse<>(logs, pageRequest, matches[0]);
+    }
+
+    /**
+     * Reads the page following the cursor of the request. A page in insertion order is read right after the address
+     * of the cursor, and a page sorted by start time from the key of the cursor on; the runs of records of the sparse
+     * index which can not hold one of the next logs are stepped over, so a walk over the log reads every record about
+     * once. Sorted by duration the matches after the cursor are selected in one pass over the start time range of the
+     * filter with a bounded heap. The total is counted in another pass over the headers, unless the request goes
+     * without it. The filters which can not be tested on the record headers are tested on the decoded logs.
+     */
+    private PageResponse<TransactionLog> findPageAfter(PageRequest pageRequest) {
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        SortKey sortKey = sorted ? SortKey.of(sort.getProperty()) : null;
+        if (sorted && sortKey == null) {
+            throw CursorKeys.unsupportedSort(sort.getProperty());
+        }
+        Cursor cursor = pageRequest.getCursor();
+        int limit = pageRequest.getPageSize();
+        KeyRange range = KeyRange.of(pageRequest.getFilter(), "startTime");
+        HeaderPredicate header = HeaderPredicate.of(pageRequest.getFilter());
+        Predicate<TransactionLog> predicate = header != null ? null
+                : FilterPredicateFactory.compile(pageRequest.getFilter(), TransactionLog.class);
+
+        List<TransactionLog> logs = new ArrayList<>();
+        long[] keys = new long[limit + 1];
+        long[] addresses = new long[limit + 1];
+        long total = -1;
+        SegmentedLog.Snapshot snapshot = this.snapshot();
+        if (!sorted) {
+            snapshot.scanAfter(cursor == null ? 0 : cursor.getPosition() + 1, range.from(), range.to(),
+                    (address, key, buffer, recordOffset, length) -> {
+                        TransactionLog transactionLog = header != null ? null
+                                : this.decode(buffer, recordOffset, length);
+                        if (header != null ? header.test(key, buffer.getLong(recordOffset + DURATION_OFFSET),
+                                statusOf(buffer, recordOffset)) : predicate.test(transactionLog)) {
+                            keys[logs.size()] = address;
+                            addresses[logs.size()] = address;
+                            logs.add(transactionLog != null ? transactionLog
+                                    : this.decode(buffer, recordOffset, length));
+                        }
+                        return logs.size() <= limit;
+                    });
+        } else {
+            boolean ascending = sort.getDirection() == Sort.Direction.ASC;
+            TopRecords top = new TopRecords(limit + 1, ascending);
+            long[] matches = new long[1];
+            long from = range.from();
+            long to = range.to();
+            SegmentedLog.KeyRangeFilter ranges = (minKey, maxKey) -> true;
+            if (sortKey == SortKey.START_TIME) {
+                // the logs before the cursor and the runs after the last of the selected ones are not read
+                if (cursor != null) {
+                    from = ascending ? Math.max(from, cursor.getKey()) : from;
+                    to = ascending ? to : Math.min(to, cursor.getKey());
+                }
+                ranges = (minKey, maxKey) -> !top.isFull()
+                        || (ascending ? minKey <= top.lastKey() : maxKey >= top.lastKey());
+            }
+            snapshot.scan(from, to, ranges, (address, key, buffer, recordOffset, length) -> {
+                long duration = buffer.getLong(recordOffset + DURATION_OFFSET);
+                if (header != null ? header.test(key, duration, statusOf(buffer, recordOffset))
+                        : predicate.test(this.decode(buffer, recordOffset, length))) {
+                    matches[0]++;
+                    long sortValue = sortKey == SortKey.START_TIME ? key : duration;
+                    if (cursor == null || cursor.isFollowedBy(sortValue, address)) {
+                        top.offer(sortValue, address);
+                    }
+                }
+                return true;
+            });
+            for (long address : top.sortedAddresses()) {
+                TransactionLog transactionLog = this.codec.decode(snapshot.read(address, HEADER_SIZE));
+                keys[logs.size()] = sortKey == SortKey.START_TIME
+                        ? TransactionLogIndex.epochNanosOf(transactionLog.getStartTime())
+                        : transactionLog.getDurationMicros();
+                addresses[logs.size()] = address;
+                logs.add(transactionLog);
+            }
+            if (sortKey == SortKey.DURATION) {
+                // the pass over the whole range has counted every match
+                total = matches[0];
+            }
+        }
+
+        if (!pageRequest.isTotalCounted()) {
+            total = Math.min(logs.size(), limit);
+        } else if (total < 0) {
+            total = this.countMatches(snapshot, range, header, predicate);
+        }
+
+        Cursor nextCursor = null;
+        if (logs.size() > limit) {
+            logs.remove(limit);
+            nextCursor = Cursor.of(sort, keys[limit - 1], addresses[limit - 1]);
+        }
+        return new PageResponse<>(logs, pageRequest, total, nextCursor);
+    }
+
+    private long countMatches(SegmentedLog.Snapshot snapshot, KeyRange range, HeaderPredicate header,
+                              Predicate<TransactionLog> predicate) {
+        if (header == HeaderPredicate.ALL) {
+            return snapshot.recordCount();
+        }
+        long[] matches = new long[1];
+        snapshot.scan(range.from(), range.to(), (address, key, buffer, recordOffset, length) -> {
+            if (header != null ? header.test(key, buffer.getLong(recordOffset + DURATION_OFFSET),
+                    statusOf(buffer, recordOffset)) : predicate.test(this.decode(buffer, recordOffset, length))) {
+                matches[0]++;
+            }
+            return true;
+        });
+        return matches[0];
+    }
+
+    private TransactionLog decode(ByteBuffer buffer, int offset, int length) {
+        byte[] encoded = new byte[length - HEADER_SIZE];
+        buffer.get(offset + HEADER_SIZE, encoded);
+        return this.codec.decode(encoded);
+    }
+
+    private static TransactionPhaseStatus statusOf(ByteBuffer buffer, int offset) {
+        byte ordinal = buffer.get(offset + STATUS_OFFSET);
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    @Override
+    public TransactionSummary getTransactionSummary() {
+        return this.statistics.getTransactionSummary();
+    }
+
+    @Override
+    public List<DurationDistribution> getDurationDistributions() {
+        return this.statistics.getDurationDistributions();
+    }
+
+    @Override
+    public List<DurationDistribution> getDurationDistributions(List<Integer> buckets) {
+        return this.statistics.getDurationDistributions(buckets);
+    }
+
+    @Override
+    public List<BatchSizeDistribution> getBatchSizeDistributions() {
+        return this.statistics.getBatchSizeDistributions();
+    }
+
+    @Override
+    public List<MethodSummary> getMethodSummaries() {
+        return this.statistics.getMethodSummaries();
+    }
+
+    @Override
+    public List<TransactionRollup> getRollups(RollupWindow window) {
+        return this.rollups.getRollups(window);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        log.info("The FileTransactionLogRepository has been created and initialized to support file storage of transaction logs.");
+    }
+
+    @Override
+    public void destroy() {
+        // a running pass writes outside the lock, it is waited for rather than interrupted
+        this.maintenance.shutdown();
+        try {
+            if (!this.maintenance.awaitTermination(MAINTENANCE_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("The maintenance of the transaction log files did not finish before the shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.lock.writeLock().lock();
+        try {
+            if (!this.closed) {
+                this.closed = true;
+                this.transactionLogs.checkpoint(this.checkpointState());
+            }
+        } finally {
+            this.transactionLogs.close();
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private enum SortKey {
+        START_TIME, DURATION;
+
+        private static SortKey of(String property) {
+            return switch (property) {
+                case "startTime" -> START_TIME;
+                case "duration", "durationMicros" -> DURATION;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * A filter which can be tested on the start time, the duration and the status of a record header, built from
+     * the filters on these properties combined with AND.
+     */
+    @FunctionalInterface
+    private interface HeaderPredicate {
+        HeaderPredicate ALL = (startTime, durationMicros, status) -> true;
+        Set<Filter.Operator> RANGE_OPERATORS = EnumSet.of(Filter.Operator.EQUALS, Filter.Operator.GREATER_THAN,
+                Filter.Operator.GREATER_THAN_OR_EQUALS, Filter.Operator.LESS_THAN, Filter.Operator.LESS_THAN_OR_EQUALS);
+
+        boolean test(long startTime, long durationMicros, TransactionPhaseStatus status);
+
+        /**
+         * Returns {@code null} when the filter can not be tested on the header.
+         */
+        static HeaderPredicate of(FilterNode filter) {
+            if (filter == FilterNode.UNFILTERED) {
+                return ALL;
+            }
+            if (filter instanceof FilterGroup group) {
+                if (group.getLogic() != FilterGroup.Logic.AND) {
+                    return null;
+                }
+                HeaderPredicate predicate = ALL;
+                for (FilterNode child : group.getFilterNodes()) {
+                    HeaderPredicate childPredicate = of(child);
+                    if (childPredicate == null) {
+                        return null;
+                    }
+                    HeaderPredicate previous = predicate;
+                    predicate = (startTime, durationMicros, status) -> previous.test(startTime, durationMicros, status)
+                            && childPredicate.test(startTime, durationMicros, status);
+                }
+                return predicate;
+            }
+            return filter instanceof Filter leaf ? ofLeaf(leaf) : null;
+        }
+
+        private static HeaderPredicate ofLeaf(Filter filter) {
+            Object value = filter.getValue();
+            return switch (filter.getProperty()) {
+                case "status" -> {
+                    if (!(value instanceof TransactionPhaseStatus expected)) {
+                        yield null;
+                    }
+                    yield switch (filter.getOperator()) {
+                        case EQUALS -> (startTime, durationMicros, status) -> status == expected;
+                        case NOT_EQUALS -> (startTime, durationMicros, status) -> status != null && status != expected;
+                        default -> null;
+                    };
+                }
+                case "startTime" -> {
+                    if (!(value instanceof Instant) || !RANGE_OPERATORS.contains(filter.getOperator())) {
+                        yield null;
+                    }
+                    KeyRange range = KeyRange.of(filter, "startTime");
+                    // a missing start time is keyed with the lowest value and never matches a comparison
+                    yield (startTime, durationMicros, status) -> startTime != Long.MIN_VALUE
+                            && startTime >= range.from() && startTime <= range.to();
+                }
+                // like the compiled filters, only a long value is compared with the long properties
+                case "durationMicros" -> value instanceof Long target ? compare(filter.getOperator(), target, 1L) : null;
+                case "duration" -> value instanceof Long target ? compare(filter.getOperator(), target, 1_000L) : null;
+                default -> null;
+            };
+        }
+
+        private static HeaderPredicate compare(Filter.Operator operator, long target, long microsPerUnit) {
+            LongPredicate condition = switch (operator) {
+                case EQUALS -> v -> v == target;
+                case NOT_EQUALS -> v -> v != target;
+                case GREATER_THAN -> v -> v > target;
+                case GREATER_THAN_OR_EQUALS -> v -> v >= target;
+                case LESS_THAN -> v -> v < target;
+                case LESS_THAN_OR_EQUALS -> v -> v <= target;
+                case CONTAINS, STARTS_WITH, ENDS_WITH -> null;
+            };
+            return condition == null ? null : (startTime, durationMicros, status) ->
+                    condition.test(Math.floorDiv(durationMicros, microsPerUnit));
+        }
+    }
+}
@@ -1,57 +1,147 @@
 package com.sdlc.pro.txboard.repository;
 
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
 import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+import com.sdlc.pro.txboard.storage.RingBuffer;
 import com.sdlc.pro.txboard.util.FilterPredicateFactory;
 import com.sdlc.pro.txboard.util.SortUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 public class InMemorySqlExecutionLogRepository implements SqlExecutionLogRepository, InitializingBean {
     private static final Logger log = LoggerFactory.getLogger(InMemorySqlExecutionLogRepository.class);
 
-    private final List<SqlExecutionLog> sqlExecutionLogs;
+    private final RingBuffer<SqlExecutionLog> sqlExecutionLogs;
+    private final LogLinearHistogram connectionTimeHistogram;
 
     public InMemorySqlExecutionLogRepository() {
-        this.sqlExecutionLogs = new CopyOnWriteArrayList<>();
+        this(new TxBoardProperties());
+    }
+
+    public InMemorySqlExecutionLogRepository(TxBoardProperties txBoardProperties) {
+        this.sqlExecutionLogs = new RingBuffer<>(txBoardProperties.getInMemory().getSqlExecutionLogCapacity());
+        this.connectionTimeHistogram = new LogLinearHistogram();
     }
 
     @Override
     public void save(SqlExecutionLog sqlExecutionLog) {
         Objects.requireNonNull(sqlExecutionLog, "Required non-null SqlExecutionLog");
-        this.sqlExecutionLogs.add(sqlExecutionLog);
+        this.sqlExecutionLogs.append(sqlExecutionLog);
+        this.connectionTimeHistogram.record(sqlExecutionLog.getConOccupiedTimeMicros());
+    }
+
+    @Override
+    public LatencyPercentiles getConnectionTimePercentiles() {
+        return this.connectionTimeHistogram.percentiles();
     }
 
     @Override
     public PageResponse<SqlExecutionLog> findAll(PageRequest pageRequest) {
         Objects.requireNonNull(pageRequest, "Required non-null PageRequest");
-        List<SqlExecutionLog> logs = pageRequest.getFilter() == FilterNode.UNFILTERED ? this.sqlExecutionLogs :
-                this.sqlExecutionLogs.stream()
-                        .filter(FilterPredicateFactory.buildPredicate(pageRequest.getFilter()))
+        if (pageRequest.isCursorPaged()) {
+            return this.findPageAfter(pageRequest);
+        }
+        List<SqlExecutionLog> snapshot = this.sqlExecutionLogs.snapshot();
+        List<SqlExecutionLog> logs = pageRequest.getFilter() == FilterNode.UNFILTERED ? snapshot :
+                snapshot.stream()
+                        .filter(FilterPredicateFactory.compile(pageRequest.getFilter(), SqlExecutionLog.class))
                         .toList();
 
-        List<SqlExecutionLog> sortedLogs = SortUtils.sort(logs, pageRequest.getSort());
-        List<SqlExecutionLog> content = getSqlExecutionLogPage(sortedLogs, pageRequest);
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageRequest.getPageNumber() * pageRequest.getPageSize());
+        List<SqlExecutionLog> content = SortUtils.sortPage(logs, pageRequest.getSort(), offset, pageRequest.getPageSize());
 
-        int totalElements = sortedLogs.size();
+        int totalElements = logs.size();
         return new PageResponse<>(content, pageRequest, totalElements);
     }
 
-    private static List<SqlExecutionLog> getSqlExecutionLogPage(List<SqlExecutionLog> logs, PageRequest pageRequest) {
-        try {
-            int start = pageRequest.getPageNumber() * pageRequest.getPageSize();
-            int end = (pageRequest.getPageNumber() + 1) * pageRequest.getPageSize();
-            return logs.subList(start, Math.min(end, logs.size()));
-        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
-            return List.of();
+    /**
+     * Reads the page following the cursor of the request. In insertion order an unfiltered page is read right after
+     * the sequence of the cursor, otherwise the matches after the cursor are selected in one pass over the buffer
+     * with a bounded heap, so a deep page costs the same as the first one.
+     */
+    private PageResponse<SqlExecutionLog> findPageAfter(PageRequest pageRequest) {
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        ToLongFunction<SqlExecutionLog> sortKey = sorted ? CursorKeys.sqlExecutionLogKey(sort.getProperty()) : null;
+        if (sorted && sortKey == null) {
+            throw CursorKeys.unsupportedSort(sort.getProperty());
+        }
+        Predicate<SqlExecutionLog> predicate = pageRequest.getFilter() == FilterNode.UNFILTERED ? null
+                : FilterPredicateFactory.compile(pageRequest.getFilter(), SqlExecutionLog.class);
+        Cursor cursor = pageRequest.getCursor();
+        int limit = pageRequest.getPageSize();
+
+        List<SqlExecutionLog> logs = new ArrayList<>();
+        long[] keys = new long[limit + 1];
+        long[] sequences = new long[limit + 1];
+        long total;
+        if (!sorted) {
+            long from = cursor == null ? 0 : cursor.getPosition() + 1;
+            long[] matches = new long[1];
+            this.sqlExecutionLogs.forEachFrom(predicate == null ? from : 0, (sequence, sqlExecutionLog) -> {
+                if (predicate == null || predicate.test(sqlExecutionLog)) {
+                    matches[0]++;
+                    if (sequence >= from && logs.size() <= limit) {
+                        keys[logs.size()] = sequence;
+                        sequences[logs.size()] = sequence;
+                        logs.add(sqlExecutionLog);
+                    }
+                }
+                // without a filter the total is the size, the visit stops after the page
+                return predicate != null || logs.size() <= limit;
+            });
+            total = predicate == null ? this.sqlExecutionLogs.size() : matches[0];
+        } else {
+            // the admitted logs are kept in insertion order, their index breaks the ties like their sequence
+            List<SqlExecutionLog> admitted = new ArrayList<>();
+            long[][] admittedSequences = {new long[64]};
+            long[] matches = new long[1];
+            TopRecords top = new TopRecords(limit + 1, sort.getDirection() == Sort.Direction.ASC);
+            this.sqlExecutionLogs.forEachFrom(0, (sequence, sqlExecutionLog) -> {
+                if (predicate == null || predicate.test(sqlExecutionLog)) {
+                    matches[0]++;
+                    long key = sortKey.applyAsLong(sqlExecutionLog);
+                    if (cursor == null || cursor.isFollowedBy(key, sequence)) {
+                        if (admitted.size() == admittedSequences[0].length) {
+                            admittedSequences[0] = Arrays.copyOf(admittedSequences[0], admitted.size() << 1);
+                        }
+                        admittedSequences[0][admitted.size()] = sequence;
+                        top.offer(key, admitted.size());
+                        admitted.add(sqlExecutionLog);
+                    }
+                }
+                return true;
+            });
+            for (long index : top.sortedAddresses()) {
+                SqlExecutionLog sqlExecutionLog = admitted.get((int) index);
+                keys[logs.size()] = sortKey.applyAsLong(sqlExecutionLog);
+                sequences[logs.size()] = admittedSequences[0][(int) index];
+                logs.add(sqlExecutionLog);
+            }
+            total = matches[0];
+        }
+
+        Cursor nextCursor = null;
+        if (logs.size() > limit) {
+            logs.remove(limit);
+            nextCursor = Cursor.of(sort, keys[limit - 1], sequences[limit - 1]);
         }
+        return new PageResponse<>(logs, pageRequest, total, nextCursor);
     }
 
     @Override
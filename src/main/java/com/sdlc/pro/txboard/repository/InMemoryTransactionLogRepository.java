@@ -1,155 +1,490 @@
 package com.sdlc.pro.txboard.repository;
 
 import com.sdlc.pro.txboard.config.TxBoardProperties;
-import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.Cursor;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.RollupWindow;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
 import com.sdlc.pro.txboard.model.*;
+import com.sdlc.pro.txboard.storage.BlobStore;
+import com.sdlc.pro.txboard.storage.HeapBlobStore;
+import com.sdlc.pro.txboard.storage.OffHeapBlobStore;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.SortedLongIndex;
+import com.sdlc.pro.txboard.storage.TransactionLogCodec;
 import com.sdlc.pro.txboard.util.FilterPredicateFactory;
 import com.sdlc.pro.txboard.util.SortUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+/**
+ * Retains the latest transaction logs in a bounded {@link TransactionLogStore} with secondary indexes. A save only
+ * queues the log and counts it in the statistics; the logs are appended to the store and its indexes by a single
+ * writer, the indexer thread, in batches under the write lock. A read first appends the logs saved before it itself,
+ * so it always sees them. The reads only resolve the slots of a page under the read lock and detach them from the
+ * store, the logs are materialized, filtered and sorted after the lock has been released.
+ */
 public final class InMemoryTransactionLogRepository implements TransactionLogRepository, InitializingBean {
     private static final Logger log = LoggerFactory.getLogger(InMemoryTransactionLogRepository.class);
+    // the logs appended per write lock, a read waits for one batch at most
+    private static final int INDEX_BATCH_SIZE = 256;
 
-    private final int MAX_DURATION_DIST_RANGE;
-
-    private final List<TransactionLog> transactionLogs;
-    private final AtomicReference<TransactionSummary> summaryAtomicReference;
-    private final Map<DurationRange, AtomicLong> durationDistributionMap;
+    private final TransactionLogStore transactionLogs;
+    // the saved logs waiting to be appended, in the order of their saves
+    private final Queue<TransactionLog> pendingLogs;
+    private final AtomicBoolean indexing;
+    private final ThreadPoolExecutor indexer;
+    // serializes the appends with the index updates, so the indexes always describe the slots of the store
+    private final ReadWriteLock indexLock;
+    private final TransactionLogIndex index;
+    // the total duration of the stored logs, guarded by the index lock
+    private long storedDurationMicros;
+    private final TransactionStatistics statistics;
+    private final TransactionRollups rollups;
 
     public InMemoryTransactionLogRepository(TxBoardProperties txBoardProperties) {
-        this.transactionLogs = new CopyOnWriteArrayList<>();
-        this.summaryAtomicReference = new AtomicReference<>(new TransactionSummary(0, 0, 0, 0, 0, 0, 0, 0));
-        this.durationDistributionMap = new ConcurrentSkipListMap<>(Comparator.comparingLong(DurationRange::minMillis));
-        List<Integer> buckets = txBoardProperties.getDurationBuckets();
-        this.MAX_DURATION_DIST_RANGE = buckets.get(buckets.size() - 1);
-        this.initializeDurationDistributionMap(buckets);
+        this(txBoardProperties, null);
     }
 
-    private void initializeDurationDistributionMap(List<Integer> buckets) {
-        int prev = 0;
-        for (int curr : buckets) {
-            DurationRange range = DurationRange.of(prev, curr);
-            this.durationDistributionMap.put(range, new AtomicLong(0));
-            prev = curr + 1;
+    /**
+     * @param queryDictionary the dictionary the statements of the saved logs are interned in, the columnar layout
+     *                        encodes their ids instead of their text, may be {@code null}
+     */
+    public InMemoryTransactionLogRepository(TxBoardProperties txBoardProperties, QueryDictionary queryDictionary) {
+        int capacity = txBoardProperties.getInMemory().getTransactionLogCapacity();
+        this.transactionLogs = createStore(txBoardProperties, queryDictionary);
+        this.pendingLogs = new ConcurrentLinkedQueue<>();
+        this.indexing = new AtomicBoolean();
+        // a single thread which only lives while there are logs to append
+        this.indexer = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "tx-board-log-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.indexer.allowCoreThreadTimeOut(true);
+        this.indexLock = new ReentrantReadWriteLock();
+        this.index = new TransactionLogIndex(capacity);
+        this.statistics = new TransactionStatistics(txBoardProperties);
+        this.rollups = new TransactionRollups();
+    }
+
+    private static TransactionLogStore createStore(TxBoardProperties txBoardProperties, QueryDictionary queryDictionary) {
+        TxBoardProperties.InMemory inMemory = txBoardProperties.getInMemory();
+        int capacity = inMemory.getTransactionLogCapacity();
+        TxBoardProperties.OffHeap offHeap = inMemory.getOffHeap();
+        // the off-heap arena keeps the blobs of the columnar layout, enabling it implies that layout
+        if (inMemory.getLayout() == TxBoardProperties.InMemoryLayout.OBJECT && !offHeap.isEnabled()) {
+            return new ObjectTransactionLogStore(capacity);
         }
+
+        QueryDictionary dictionary = queryDictionary != null ? queryDictionary
+                : new QueryDictionary(txBoardProperties.getSql().getDictionaryCapacity());
+        BlobStore blobs = offHeap.isEnabled()
+                ? new OffHeapBlobStore(capacity, offHeap.getBudget().toBytes(), (int) offHeap.getChunkSize().toBytes())
+                : new HeapBlobStore(capacity);
+        return new ColumnarTransactionLogStore(capacity, new TransactionLogCodec(dictionary), blobs);
     }
 
     @Override
     public void save(TransactionLog transactionLog) {
-        this.transactionLogs.add(transactionLog);
-        this.updateDurationDistribution(transactionLog);
-        this.updateTransactionSummary(transactionLog);
+        this.pendingLogs.offer(transactionLog);
+        if (this.indexing.compareAndSet(false, true)) {
+            this.indexer.execute(this::index);
+        }
+        this.statistics.record(transactionLog);
+        this.rollups.record(transactionLog);
     }
 
-    private void updateTransactionSummary(TransactionLog transactionLog) {
-        this.summaryAtomicReference.updateAndGet(summary -> {
-            long committedCount = summary.getCommittedCount();
-            long rolledBackCount = summary.getRolledBackCount();
-            long erroredCount = summary.getErroredCount();
+    private void index() {
+        do {
+            this.appendPendingLogs();
+            this.indexing.set(false);
+            // a log queued after the last batch whose save saw the indexer still running
+        } while (!this.pendingLogs.isEmpty() && this.indexing.compareAndSet(false, true));
+    }
 
-            switch (transactionLog.getStatus()) {
-                case COMMITTED -> committedCount++;
-                case ROLLED_BACK -> rolledBackCount++;
-                case ERRORED -> erroredCount++;
+    /**
+     * Appends the pending logs to the store and the indexes, called by the indexer and by the reads.
+     */
+    private void appendPendingLogs() {
+        while (!this.pendingLogs.isEmpty()) {
+            this.indexLock.writeLock().lock();
+            try {
+                TransactionLog transactionLog;
+                for (int i = 0; i < INDEX_BATCH_SIZE && (transactionLog = this.pendingLogs.poll()) != null; i++) {
+                    this.append(transactionLog);
+                }
+            } finally {
+                this.indexLock.writeLock().unlock();
             }
-
-            long totalDuration = summary.getTotalDuration() + transactionLog.getDuration();
-            long alarmingCount = summary.getAlarmingCount() + (transactionLog.isAlarmingTransaction() ? 1 : 0);
-
-            ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
-
-            long connectionAcquisitionCount = summary.getConnectionAcquisitionCount() + connectionSummary.acquisitionCount();
-            long totalConnectionOccupiedTime = summary.getTotalConnectionOccupiedTime() + connectionSummary.occupiedTime();
-            long alarmingConnectionCount = summary.getAlarmingConnectionCount() + connectionSummary.alarmingConnectionCount();
-
-            return new TransactionSummary(committedCount, rolledBackCount, erroredCount, totalDuration, alarmingCount,
-                    connectionAcquisitionCount, totalConnectionOccupiedTime, alarmingConnectionCount);
-        });
+        }
     }
 
-    private void updateDurationDistribution(TransactionLog transactionLog) {
-        DurationRange range = this.durationDistributionMap.keySet()
-                .stream()
-                .filter(r -> r.matches(transactionLog.getDuration()))
-                .findFirst()
-                .orElse(DurationRange.of(this.MAX_DURATION_DIST_RANGE + 1, Integer.MAX_VALUE));
+    private void append(TransactionLog transactionLog) {
+        int slot = this.transactionLogs.nextSlot();
+        if (this.transactionLogs.size() == this.transactionLogs.capacity()) {
+            this.index.remove(slot, this.transactionLogs);
+            this.storedDurationMicros -= this.transactionLogs.durationMicrosAt(slot);
+        }
+        this.transactionLogs.append(transactionLog);
+        this.storedDurationMicros += transactionLog.getDurationMicros();
+        this.index.add(slot, transactionLog, this.transactionLogs);
+    }
 
-        this.durationDistributionMap
-                .computeIfAbsent(range, k -> new AtomicLong(0))
-                .incrementAndGet();
+    @Override
+    public void recordSampledOut(TransactionLog transactionLog) {
+        this.statistics.record(transactionLog);
+        this.rollups.record(transactionLog);
     }
 
     public List<TransactionLog> findAll() {
-        return List.copyOf(transactionLogs);
+        this.appendPendingLogs();
+        List<Supplier<TransactionLog>> detached;
+        this.indexLock.readLock().lock();
+        try {
+            detached = this.detach(null, 0, Integer.MAX_VALUE);
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
+        return materialize(detached, null, new ArrayList<>(detached.size()));
     }
 
     @Override
     public long count() {
-        return transactionLogs.size();
+        this.appendPendingLogs();
+        this.indexLock.readLock().lock();
+        try {
+            return this.transactionLogs.size();
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
     }
 
     @Override
     public long countByTransactionStatus(TransactionPhaseStatus status) {
-        return this.transactionLogs.stream()
-                .filter(t -> t.getStatus() == status)
-                .count();
+        this.appendPendingLogs();
+        this.indexLock.readLock().lock();
+        try {
+            return this.index.count("status", status);
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
     }
 
     @Override
     public double averageDuration() {
-        return transactionLogs.stream()
-                .mapToDouble(TransactionLog::getDuration)
-                .average().orElse(0.0);
+        this.appendPendingLogs();
+        this.indexLock.readLock().lock();
+        try {
+            int size = this.transactionLogs.size();
+            return size == 0 ? 0.0 : this.storedDurationMicros / 1_000.0 / size;
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
     }
 
     @Override
     public PageResponse<TransactionLog> findAll(PageRequest pageRequest) {
-        List<TransactionLog> logs = pageRequest.getFilter() == FilterNode.UNFILTERED ? this.transactionLogs :
-                this.transactionLogs.stream()
-                        .filter(FilterPredicateFactory.buildPredicate(pageRequest.getFilter()))
-                        .toList();
+        if (pageRequest.isCursorPaged()) {
+            return this.findPageAfter(pageRequest);
+        }
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageRequest.getPageNumber() * pageRequest.getPageSize());
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+
+        this.appendPendingLogs();
+        List<Supplier<TransactionLog>> detached;
+        Predicate<TransactionLog> residual;
+        boolean ordered;
+        int total = -1;
+        this.indexLock.readLock().lock();
+        try {
+            TransactionLogIndex.Plan plan = this.index.plan(pageRequest.getFilter(), this.transactionLogs);
+            BitSet candidates = plan.candidates();
+            residual = plan.residual() == null ? null
+                    : FilterPredicateFactory.compile(plan.residual(), TransactionLog.class);
+            SortedLongIndex sortedIndex = sorted ? this.index.sortedIndex(sort.getProperty()) : null;
+            boolean ascending = sorted && sort.getDirection() == Sort.Direction.ASC;
+            ordered = !sorted || sortedIndex != null;
+            if (ordered && residual == null) {
+                // only the page is detached, the total is known from the candidates
+                total = candidates == null ? this.transactionLogs.size() : candidates.cardinality();
+                detached = sortedIndex == null ? this.detach(candidates, offset, pageRequest.getPageSize())
+                        : this.detachSorted(sortedIndex, ascending, candidates, offset, pageRequest.getPageSize());
+            } else {
+                detached = sortedIndex == null ? this.detach(candidates, 0, Integer.MAX_VALUE)
+                        : this.detachSorted(sortedIndex, ascending, candidates, 0, Integer.MAX_VALUE);
+            }
+        } finally {
+            this.indexLock.readLock().unlock();
+        }
+
+        if (total >= 0) {
+            return new PageResponse<>(materialize(detached, null, new ArrayList<>(detached.size())), pageRequest, total);
+        }
+        List<TransactionLog> matches = materialize(detached, residual, new ArrayList<>());
+        List<TransactionLog> content = ordered
+                ? new ArrayList<>(matches.subList(Math.min(offset, matches.size()),
+                        (int) Math.min(matches.size(), (long) offset + pageRequest.getPageSize())))
+                : SortUtils.sortPage(matches, sort, offset, pageRequest.getPageSize());
+        return new PageResponse<>(content, pageRequest, matches.size());
+    }
+
+    /**
+     * Reads the page following the cursor of the request: a sorted index is entered right after the key and the
+     * sequence of the cursor, the insertion order right after its sequence, so a deep page costs the same as the
+     * first one. Only the properties with a sorted index and the insertion order can be walked with a cursor. With a
+     * residual filter the walk goes on in growing chunks, each one resumed after the last log of the previous one
+     * like a cursor, until one more log than requested matches; the total is then estimated by the number of
+     * candidate slots, which is an upper bound of the matches.
+     */
+    private PageResponse<TransactionLog> findPageAfter(PageRequest pageRequest) {
+        Sort sort = pageRequest.getSort();
+        boolean sorted = sort != null && sort.isSortable();
+        Cursor cursor = pageRequest.getCursor();
+        int limit = pageRequest.getPageSize();
+
+        this.appendPendingLogs();
+        List<TransactionLog> logs = new ArrayList<>(limit + 1);
+        Predicate<TransactionLog> residual = null;
+        // one more log than requested tells whether there is a next page
+        int chunk = limit + 1;
+        boolean resumed = cursor != null;
+        long afterKey = cursor == null ? 0L : cursor.getKey();
+        long afterSequence = cursor == null ? -1L : cursor.getPosition();
+        long lastKey = 0L;
+        long lastSequence = 0L;
+        long total;
+        while (true) {
+            Walk walk = new Walk(Math.min(chunk, 1024));
+            boolean exhausted;
+            this.indexLock.readLock().lock();
+            try {
+                SortedLongIndex sortedIndex = sorted ? this.index.sortedIndex(sort.getProperty()) : null;
+                if (sorted && sortedIndex == null) {
+                    throw CursorKeys.unsupportedSort(sort.getProperty());
+                }
+                TransactionLogIndex.Plan plan = this.index.plan(pageRequest.getFilter(), this.transactionLogs);
+                BitSet candidates = plan.candidates();
+                if (residual == null && plan.residual() != null) {
+                    residual = FilterPredicateFactory.compile(plan.residual(), TransactionLog.class);
+                }
+                exhausted = sorted
+                        ? this.walkSorted(walk, chunk, sortedIndex, sort, candidates, resumed, afterKey, afterSequence)
+                        : this.walkInserted(walk, chunk, candidates, afterSequence);
+                total = candidates == null ? this.transactionLogs.size() : candidates.cardinality();
+            } finally {
+                this.indexLock.readLock().unlock();
+            }
+
+            for (int i = 0; i < walk.size && logs.size() <= limit; i++) {
+                TransactionLog transactionLog = walk.logs.get(i).get();
+                if (residual == null || residual.test(transactionLog)) {
+                    logs.add(transactionLog);
+                    if (logs.size() == limit) {
+                        lastKey = walk.keys[i];
+                        lastSequence = walk.sequences[i];
+                    }
+                }
+            }
+            if (logs.size() > limit || exhausted || walk.size == 0) {
+                break;
+            }
+            resumed = true;
+            afterKey = walk.keys[walk.size - 1];
+            afterSequence = walk.sequences[walk.size - 1];
+            chunk = (int) Math.min(Integer.MAX_VALUE, (long) chunk << 1);
+        }
+
+        Cursor nextCursor = null;
+        if (logs.size() > limit) {
+            logs.remove(limit);
+            nextCursor = Cursor.of(sort, lastKey, lastSequence);
+        }
+        // the logs of an earlier chunk may have been evicted since
+        return new PageResponse<>(logs, pageRequest, Math.max(total, logs.size()), nextCursor);
+    }
+
+    /**
+     * Detaches up to {@code limit} candidate logs in the order of the sorted index, after the given key and sequence
+     * once resumed, and tells whether the index has been walked to its end.
+     */
+    private boolean walkSorted(Walk walk, int limit, SortedLongIndex sortedIndex, Sort sort, BitSet candidates,
+                               boolean resumed, long afterKey, long afterSequence) {
+        boolean ascending = sort.getDirection() == Sort.Direction.ASC;
+        PrimitiveIterator.OfLong iterator = resumed ? sortedIndex.valuesAfter(ascending, afterKey, afterSequence)
+                : sortedIndex.values(ascending, 0);
+        while (walk.size < limit && iterator.hasNext()) {
+            long sequence = iterator.nextLong();
+            int slot = this.index.slotOf(sequence);
+            if (candidates == null || candidates.get(slot)) {
+                walk.add(this.transactionLogs.detach(slot), sequence,
+                        this.index.sortKeyAt(sort.getProperty(), this.transactionLogs, slot));
+            }
+        }
+        return !iterator.hasNext();
+    }
+
+    /**
+     * Detaches up to {@code limit} candidate logs in insertion order after the given sequence, and tells whether the
+     * newest log has been reached.
+     */
+    private boolean walkInserted(Walk walk, int limit, BitSet candidates, long afterSequence) {
+        long end = this.index.nextSequence();
+        long sequence = Math.max(end - this.transactionLogs.size(), afterSequence + 1);
+        while (walk.size < limit && sequence < end) {
+            int slot = this.index.slotOf(sequence);
+            if (candidates != null && !candidates.get(slot)) {
+                // jump to the next candidate slot, wrapping around at the capacity
+                int next = candidates.nextSetBit(slot);
+                if (next < 0) {
+                    next = candidates.nextSetBit(0);
+                    if (next < 0) {
+                        return true;
+                    }
+                    next += this.transactionLogs.capacity();
+                }
+                sequence += next - slot;
+                continue;
+            }
+            walk.add(this.transactionLogs.detach(slot), sequence, sequence);
+            sequence++;
+        }
+        return sequence >= end;
+    }
 
-        List<TransactionLog> sortedLogs = SortUtils.sort(logs, pageRequest.getSort());
-        List<TransactionLog> content = getTransactionLogPage(sortedLogs, pageRequest);
+    /**
+     * Detaches the retained logs of the candidate slots (all slots when {@code null}) in insertion order, skipping
+     * the first {@code skip} and keeping at most {@code limit}.
+     */
+    private List<Supplier<TransactionLog>> detach(BitSet candidates, int skip, int limit) {
+        int size = this.transactionLogs.size();
+        int capacity = this.transactionLogs.capacity();
+        int oldest = this.transactionLogs.oldestSlot();
+        long end = (long) skip + limit;
 
-        int totalElements = sortedLogs.size();
-        return new PageResponse<>(content, pageRequest, totalElements);
+        // the retained slots in insertion order are [oldest, capacity) followed by [0, oldest)
+        int[][] ranges = {{oldest, Math.min(capacity, oldest + size)}, {0, oldest}};
+        List<Supplier<TransactionLog>> detached = new ArrayList<>((int) Math.min(limit, size));
+        int seen = 0;
+        for (int[] range : ranges) {
+            int slot = candidates == null ? range[0] : candidates.nextSetBit(range[0]);
+            while (slot >= 0 && slot < range[1] && seen < end) {
+                if (seen >= skip) {
+                    Supplier<TransactionLog> transactionLog = this.transactionLogs.detach(slot);
+                    if (transactionLog != null) {
+                        detached.add(transactionLog);
+                    }
+                }
+                seen++;
+                slot = candidates == null ? slot + 1 : candidates.nextSetBit(slot + 1);
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Walks the sorted index and detaches the logs of the candidate slots, skipping the first {@code skip} and
+     * stopping once {@code limit} are detached. Without candidates the skipped logs are stepped over in the index.
+     */
+    private List<Supplier<TransactionLog>> detachSorted(SortedLongIndex sortedIndex, boolean ascending,
+                                                        BitSet candidates, int skip, int limit) {
+        PrimitiveIterator.OfLong sequences = sortedIndex.values(ascending, candidates == null ? skip : 0);
+        List<Supplier<TransactionLog>> detached = new ArrayList<>((int) Math.min(limit, this.transactionLogs.size()));
+        int seen = candidates == null ? skip : 0;
+        long end = (long) skip + limit;
+        while (seen < end && sequences.hasNext()) {
+            int slot = this.index.slotOf(sequences.nextLong());
+            if (candidates != null && !candidates.get(slot)) {
+                continue;
+            }
+            if (seen >= skip) {
+                detached.add(this.transactionLogs.detach(slot));
+            }
+            seen++;
+        }
+        return detached;
+    }
+
+    /**
+     * Materializes the detached logs matching the residual predicate into the given list.
+     */
+    private static List<TransactionLog> materialize(List<Supplier<TransactionLog>> detached,
+                                                    Predicate<TransactionLog> residual, List<TransactionLog> logs) {
+        for (Supplier<TransactionLog> supplier : detached) {
+            TransactionLog transactionLog = supplier.get();
+            if (residual == null || residual.test(transactionLog)) {
+                logs.add(transactionLog);
+            }
+        }
+        return logs;
     }
 
     @Override
     public TransactionSummary getTransactionSummary() {
-        return this.summaryAtomicReference.get();
+        return this.statistics.getTransactionSummary();
     }
 
     @Override
     public List<DurationDistribution> getDurationDistributions() {
-        return this.durationDistributionMap.entrySet()
-                .stream()
-                .map(e -> new DurationDistribution(e.getKey(), e.getValue().get()))
-                .toList();
+        return this.statistics.getDurationDistributions();
+    }
+
+    @Override
+    public List<DurationDistribution> getDurationDistributions(List<Integer> buckets) {
+        return this.statistics.getDurationDistributions(buckets);
+    }
+
+    @Override
+    public List<BatchSizeDistribution> getBatchSizeDistributions() {
+        return this.statistics.getBatchSizeDistributions();
+    }
+
+    @Override
+    public List<MethodSummary> getMethodSummaries() {
+        return this.statistics.getMethodSummaries();
     }
 
+    @Override
+    public List<TransactionRollup> getRollups(RollupWindow window) {
+        return this.rollups.getRollups(window);
+    }
 
-    private static List<TransactionLog> getTransactionLogPage(List<TransactionLog> logs, PageRequest pageRequest) {
+    /**
+     * Returns the usage of the off-heap arena the blobs of the logs are written into, empty unless the off-heap
+     * storage is enabled.
+     */
+    public Optional<OffHeapBlobStore.OffHeapStatistics> getOffHeapStatistics() {
+        if (!(this.transactionLogs instanceof ColumnarTransactionLogStore columnar)
+                || !(columnar.blobs() instanceof OffHeapBlobStore offHeapBlobs)) {
+            return Optional.empty();
+        }
+        this.appendPendingLogs();
+        this.indexLock.readLock().lock();
         try {
-            int start = pageRequest.getPageNumber() * pageRequest.getPageSize();
-            int end = (pageRequest.getPageNumber() + 1) * pageRequest.getPageSize();
-            return logs.subList(start, Math.min(end, logs.size()));
-        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
-            return List.of();
+            return Optional.of(offHeapBlobs.getStatistics());
+        } finally {
+            this.indexLock.readLock().unlock();
         }
     }
 
@@ -157,4 +492,32 @@ public final class InMemoryTransactionLogRepository implements TransactionLogRep
     public void afterPropertiesSet() throws Exception {
         log.info("The InMemoryTransactionLogRepository has been created and initialized to support in-memory storage of transaction logs.");
     }
+
+    /**
+     * The logs walked for a cursor page with their sequences and sort keys, the key of the last log of the page is
+     * the key of the next cursor.
+     */
+    private static final class Walk {
+        private final List<Supplier<TransactionLog>> logs;
+        private long[] sequences;
+        private long[] keys;
+        private int size;
+
+        private Walk(int capacity) {
+            this.logs = new ArrayList<>(capacity);
+            this.sequences = new long[capacity];
+            this.keys = new long[capacity];
+        }
+
+        private void add(Supplier<TransactionLog> transactionLog, long sequence, long key) {
+            if (this.size == this.sequences.length) {
+                this.sequences = Arrays.copyOf(this.sequences, this.size << 1);
+                this.keys = Arrays.copyOf(this.keys, this.size << 1);
+            }
+            this.logs.add(transactionLog);
+            this.sequences[this.size] = sequence;
+            this.keys[this.size] = key;
+            this.size++;
+        }
+    }
 }
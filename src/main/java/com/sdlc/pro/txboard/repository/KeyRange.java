@@ -0,0 +1,48 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+
+import java.time.Instant;
+
+/**
+ * Inclusive range of epoch nanoseconds an instant property of the matching logs must be in, derived from the
+ * comparisons of a filter which every match has to fulfil. The filter itself still has to be tested on the logs.
+ */
+record KeyRange(long from, long to) {
+    static final KeyRange ALL = new KeyRange(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    static KeyRange of(FilterNode filter, String property) {
+        if (filter instanceof Filter leaf) {
+            return ofComparison(leaf, property);
+        }
+        if (filter instanceof FilterGroup group && group.getLogic() == FilterGroup.Logic.AND) {
+            KeyRange range = ALL;
+            for (FilterNode child : group.getFilterNodes()) {
+                range = range.intersect(of(child, property));
+            }
+            return range;
+        }
+        return ALL;
+    }
+
+    private static KeyRange ofComparison(Filter filter, String property) {
+        if (!filter.getProperty().equals(property) || !(filter.getValue() instanceof Instant instant)) {
+            return ALL;
+        }
+        long nanos = TransactionLogIndex.epochNanosOf(instant);
+        return switch (filter.getOperator()) {
+            case EQUALS -> new KeyRange(nanos, nanos);
+            case GREATER_THAN -> new KeyRange(nanos == Long.MAX_VALUE ? nanos : nanos + 1, Long.MAX_VALUE);
+            case GREATER_THAN_OR_EQUALS -> new KeyRange(nanos, Long.MAX_VALUE);
+            case LESS_THAN -> new KeyRange(Long.MIN_VALUE, nanos == Long.MIN_VALUE ? nanos : nanos - 1);
+            case LESS_THAN_OR_EQUALS -> new KeyRange(Long.MIN_VALUE, nanos);
+            default -> ALL;
+        };
+    }
+
+    KeyRange intersect(KeyRange other) {
+        return new KeyRange(Math.max(this.from, other.from), Math.min(this.to, other.to));
+    }
+}
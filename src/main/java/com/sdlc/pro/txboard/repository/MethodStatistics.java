@@ -0,0 +1,141 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of every transactional method, updated as the transactions are recorded, so the method statistics are
+ * read in the number of methods whatever the number of logs. The counters are striped {@link LongAdder}s which keep
+ * concurrent transactions of the same method from contending on a single word. Thread-safe.
+ */
+final class MethodStatistics {
+    private final ConcurrentMap<String, Counters> countersByMethod = new ConcurrentHashMap<>();
+
+    void record(TransactionLog transactionLog) {
+        String method = transactionLog.getMethod();
+        if (method != null) {
+            Counters counters = this.countersByMethod.get(method);
+            if (counters == null) {
+                counters = this.countersByMethod.computeIfAbsent(method, k -> new Counters());
+            }
+            counters.record(transactionLog);
+        }
+        for (TransactionLog child : transactionLog.getChild()) {
+            this.record(child);
+        }
+    }
+
+    List<MethodSummary> getMethodSummaries() {
+        List<MethodSummary> summaries = new ArrayList<>(this.countersByMethod.size());
+        this.countersByMethod.forEach((method, counters) -> summaries.add(counters.toSummary(method)));
+        return summaries;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        Map<String, Counters> snapshot = new HashMap<>(this.countersByMethod);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Counters> entry : snapshot.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Replaces the counters with the ones written by {@link #writeTo(DataOutput)}, once all of them have been read.
+     */
+    void restore(DataInput in) throws IOException {
+        Map<String, Counters> restored = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            restored.put(in.readUTF(), Counters.readFrom(in));
+        }
+        this.countersByMethod.clear();
+        this.countersByMethod.putAll(restored);
+    }
+
+    static MethodSummary summaryOf(String method, long callCount, long committedCount, long rolledBackCount,
+                                   long erroredCount, long totalDurationMicros, long maxDurationMicros,
+                                   LatencyPercentiles percentiles, long queryCount, long connectionAcquisitionCount) {
+        double calls = Math.max(callCount, 1);
+        return new MethodSummary(method, callCount, committedCount, rolledBackCount, erroredCount,
+                totalDurationMicros / 1_000.0, totalDurationMicros / 1_000.0 / calls, maxDurationMicros / 1_000.0,
+                percentiles.p50(), percentiles.p95(), percentiles.p99(), percentiles.p999(), queryCount / calls,
+                connectionAcquisitionCount / calls);
+    }
+
+    // the inner transactions may be logged without a connection summary
+    static int connectionAcquisitionCountOf(TransactionLog transactionLog) {
+        return transactionLog.getConnectionSummary() == null ? 0 : transactionLog.getConnectionSummary().acquisitionCount();
+    }
+
+    private static final class Counters {
+        private final LongAdder callCount = new LongAdder();
+        private final LongAdder committedCount = new LongAdder();
+        private final LongAdder rolledBackCount = new LongAdder();
+        private final LongAdder erroredCount = new LongAdder();
+        private final LongAdder totalDurationMicros = new LongAdder();
+        private final LongAccumulator maxDurationMicros = new LongAccumulator(Math::max, 0L);
+        private final LongAdder queryCount = new LongAdder();
+        private final LongAdder connectionAcquisitionCount = new LongAdder();
+        private final LogLinearHistogram durations = new LogLinearHistogram();
+
+        void record(TransactionLog transactionLog) {
+            this.callCount.increment();
+            if (transactionLog.getStatus() != null) {
+                switch (transactionLog.getStatus()) {
+                    case COMMITTED -> this.committedCount.increment();
+                    case ROLLED_BACK -> this.rolledBackCount.increment();
+                    case ERRORED -> this.erroredCount.increment();
+                }
+            }
+            long durationMicros = transactionLog.getDurationMicros();
+            this.totalDurationMicros.add(durationMicros);
+            this.maxDurationMicros.accumulate(durationMicros);
+            this.durations.record(durationMicros);
+            this.queryCount.add(transactionLog.getExecutedQuires().size());
+            this.connectionAcquisitionCount.add(connectionAcquisitionCountOf(transactionLog));
+        }
+
+        MethodSummary toSummary(String method) {
+            return summaryOf(method, this.callCount.sum(), this.committedCount.sum(), this.rolledBackCount.sum(),
+                    this.erroredCount.sum(), this.totalDurationMicros.sum(), this.maxDurationMicros.get(),
+                    this.durations.percentiles(), this.queryCount.sum(), this.connectionAcquisitionCount.sum());
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            for (long value : new long[]{this.callCount.sum(), this.committedCount.sum(), this.rolledBackCount.sum(),
+                    this.erroredCount.sum(), this.totalDurationMicros.sum(), this.maxDurationMicros.get(),
+                    this.queryCount.sum(), this.connectionAcquisitionCount.sum()}) {
+                out.writeLong(value);
+            }
+            this.durations.writeTo(out);
+        }
+
+        static Counters readFrom(DataInput in) throws IOException {
+            Counters counters = new Counters();
+            counters.callCount.add(in.readLong());
+            counters.committedCount.add(in.readLong());
+            counters.rolledBackCount.add(in.readLong());
+            counters.erroredCount.add(in.readLong());
+            counters.totalDurationMicros.add(in.readLong());
+            counters.maxDurationMicros.accumulate(in.readLong());
+            counters.queryCount.add(in.readLong());
+            counters.connectionAcquisitionCount.add(in.readLong());
+            counters.durations.set(LogLinearHistogram.readFrom(in));
+            return counters;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.RingBuffer;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the logs as they are in a {@link RingBuffer}, a read returns the very same instance which has been saved.
+ */
+final class ObjectTransactionLogStore implements TransactionLogStore {
+    private final RingBuffer<TransactionLog> transactionLogs;
+
+    ObjectTransactionLogStore(int capacity) {
+        this.transactionLogs = new RingBuffer<>(capacity);
+    }
+
+    @Override
+    public int capacity() {
+        return this.transactionLogs.capacity();
+    }
+
+    @Override
+    public int size() {
+        return this.transactionLogs.size();
+    }
+
+    @Override
+    public int nextSlot() {
+        return this.transactionLogs.nextIndex();
+    }
+
+    @Override
+    public int oldestSlot() {
+        return this.transactionLogs.oldestIndex();
+    }
+
+    @Override
+    public void append(TransactionLog transactionLog) {
+        this.transactionLogs.append(transactionLog);
+    }
+
+    @Override
+    public TransactionLog get(int slot) {
+        return this.transactionLogs.elementAt(slot);
+    }
+
+    @Override
+    public Supplier<TransactionLog> detach(int slot) {
+        TransactionLog transactionLog = this.get(slot);
+        return transactionLog == null ? null : () -> transactionLog;
+    }
+
+    @Override
+    public List<TransactionLog> snapshot() {
+        return this.transactionLogs.snapshot();
+    }
+
+    @Override
+    public TransactionPhaseStatus statusAt(int slot) {
+        return this.get(slot).getStatus();
+    }
+
+    @Override
+    public PropagationBehavior propagationAt(int slot) {
+        return this.get(slot).getPropagation();
+    }
+
+    @Override
+    public IsolationLevel isolationAt(int slot) {
+        return this.get(slot).getIsolation();
+    }
+
+    @Override
+    public Boolean connectionOrientedAt(int slot) {
+        return this.get(slot).getConnectionOriented();
+    }
+
+    @Override
+    public boolean alarmingTransactionAt(int slot) {
+        return this.get(slot).isAlarmingTransaction();
+    }
+
+    @Override
+    public Boolean havingAlarmingConnectionAt(int slot) {
+        return this.get(slot).getHavingAlarmingConnection();
+    }
+
+    @Override
+    public boolean nPlusOneAt(int slot) {
+        return this.get(slot).isNPlusOne();
+    }
+
+    @Override
+    public long durationMicrosAt(int slot) {
+        return this.get(slot).getDurationMicros();
+    }
+
+    @Override
+    public long startTimeNanosAt(int slot) {
+        return TransactionLogIndex.epochNanosOf(this.get(slot).getStartTime());
+    }
+
+    @Override
+    public BitSet scan(Filter filter) {
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a Redis counter hash into windowed hashes of an eighth of the TTL of the logs. Every increment renews the
+ * expiry of its window to the TTL, so a window expires with the last log counted into it, and the windows of the last
+ * TTL count the same logs as the stored ones, to within one window.
+ */
+final class RedisCounterWindows {
+    private static final int WINDOWS_PER_TTL = 8;
+
+    private RedisCounterWindows() {
+    }
+
+    /**
+     * Returns the windowed hash the logs saved at the given time are counted in, the key itself for a zero TTL.
+     */
+    static String windowKey(String key, long ttlSeconds, long epochSecond) {
+        long windowSeconds = windowSecondsOf(ttlSeconds);
+        return windowSeconds == 0 ? key : key + ":" + Math.floorDiv(epochSecond, windowSeconds);
+    }
+
+    /**
+     * Returns the windowed hashes overlapping the last TTL before the given time, oldest first.
+     */
+    static List<String> windowKeys(String key, long ttlSeconds, long epochSecond) {
+        long windowSeconds = windowSecondsOf(ttlSeconds);
+        if (windowSeconds == 0) {
+            return List.of(key);
+        }
+        List<String> keys = new ArrayList<>(WINDOWS_PER_TTL + 1);
+        long last = Math.floorDiv(epochSecond, windowSeconds);
+        for (long window = Math.floorDiv(epochSecond - ttlSeconds, windowSeconds); window <= last; window++) {
+            keys.add(key + ":" + window);
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the windowed hashes overlapping the last TTL and sums their counters, the expired windows are gone.
+     */
+    static Map<String, Long> read(RedisJsonOperation redisJsonOperation, String key, long ttlSeconds,
+                                  long epochSecond) {
+        Map<String, Long> counters = new HashMap<>();
+        for (String windowKey : windowKeys(key, ttlSeconds, epochSecond)) {
+            redisJsonOperation.getCounters(windowKey).forEach((field, count) -> counters.merge(field, count, Long::sum));
+        }
+        return counters;
+    }
+
+    private static long windowSecondsOf(long ttlSeconds) {
+        return (ttlSeconds + WINDOWS_PER_TTL - 1) / WINDOWS_PER_TTL;
+    }
+}
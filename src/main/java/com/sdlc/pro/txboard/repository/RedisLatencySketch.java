@@ -0,0 +1,34 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+
+import java.util.Map;
+
+/**
+ * A {@link LogLinearHistogram} kept in a Redis counter hash, a field per used bucket. Every node increments the fields
+ * of its recorded latencies, so the hash is the merged histogram of all of them.
+ */
+final class RedisLatencySketch {
+
+    private RedisLatencySketch() {
+    }
+
+    static void record(Map<String, Long> increments, String prefix, long micros) {
+        increments.merge(prefix + LogLinearHistogram.bucketOf(micros), 1L, Long::sum);
+    }
+
+    static LatencyPercentiles percentiles(Map<String, Long> counters, String prefix) {
+        return histogram(counters, prefix).percentiles();
+    }
+
+    static LogLinearHistogram histogram(Map<String, Long> counters, String prefix) {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        counters.forEach((field, count) -> {
+            if (field.startsWith(prefix)) {
+                histogram.add(Integer.parseInt(field, prefix.length(), field.length(), 10), count);
+            }
+        });
+        return histogram;
+    }
+}
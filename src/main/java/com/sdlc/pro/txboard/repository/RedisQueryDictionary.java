@@ -0,0 +1,188 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.RedisQueryReference;
+import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.QueryList;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces the statement text of the Redis entities by references into a shared Redis hash which maps a stable
+ * 64-bit hash of each SQL template to its text. Known templates are cached locally up to the given capacity, so a
+ * template is written once and read back once per application instance; once the cache is full, further templates are
+ * written and read on each use. Resolved statements are handed out as {@link QueryList}, so their execution timings
+ * stay available to the readers. A reference whose template is missing from the hash resolves to a placeholder
+ * statement naming its id.
+ * <p>
+ * The hash expires together with the logs: its expiry is set to the entity TTL plus a refresh interval of half the
+ * TTL, and renewed whenever templates are written or the interval has passed, so a template outlives every log
+ * referencing it. Once the hash may have expired unseen, the local cache is dropped and the templates are written
+ * again.
+ */
+final class RedisQueryDictionary {
+    static final String DICTIONARY_KEY = "SpringTxBoardQueryDictionary";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String UNKNOWN_TEMPLATE = "/* unknown statement %s */";
+
+    private final RedisJsonOperation redisJsonOperation;
+    private final int capacity;
+    private final ConcurrentMap<String, String> templates;
+    private final QueryDictionary localDictionary;
+    private final long refreshIntervalMillis;
+    private final long expireSeconds;
+    private final long expireMillis;
+    private final Clock clock;
+    private final AtomicLong lastExpireMillis;
+
+    RedisQueryDictionary(RedisJsonOperation redisJsonOperation, int capacity, Duration ttl) {
+        this(redisJsonOperation, capacity, ttl, Clock.systemUTC());
+    }
+
+    RedisQueryDictionary(RedisJsonOperation redisJsonOperation, int capacity, Duration ttl, Clock clock) {
+        this.redisJsonOperation = redisJsonOperation;
+        this.capacity = capacity;
+        this.templates = new ConcurrentHashMap<>();
+        this.localDictionary = new QueryDictionary(capacity);
+        // a zero TTL keeps the hash without expiry
+        long ttlSeconds = ttl.toSeconds();
+        long refreshIntervalSeconds = (ttlSeconds + 1) / 2;
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        this.expireSeconds = ttlSeconds == 0 ? 0 : ttlSeconds + refreshIntervalSeconds;
+        this.expireMillis = TimeUnit.SECONDS.toMillis(this.expireSeconds);
+        this.clock = clock;
+        this.lastExpireMillis = new AtomicLong();
+    }
+
+    List<RedisQueryReference> toReferences(List<String> queries) {
+        if (queries == null) {
+            return null;
+        }
+
+        long now = this.clock.millis();
+        long lastExpire = this.lastExpireMillis.get();
+        if (this.expireSeconds > 0 && lastExpire != 0 && now - lastExpire >= this.expireMillis) {
+            // the hash may have expired, the cached templates would never be written again
+            this.templates.clear();
+        }
+
+        List<RedisQueryReference> references = new ArrayList<>(queries.size());
+        Map<String, String> newTemplates = new HashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            String template;
+            String[] params;
+            long startOffsetMicros = 0L;
+            long durationMicros = 0L;
+            BatchSummary batch = null;
+            if (queries instanceof QueryList queryList) {
+                template = queryList.templateAt(i);
+                params = queryList.parametersAt(i);
+                startOffsetMicros = TimeUnit.NANOSECONDS.toMicros(queryList.startOffsetNanosAt(i));
+                durationMicros = TimeUnit.NANOSECONDS.toMicros(queryList.durationNanosAt(i));
+                batch = queryList.batchAt(i);
+            } else {
+                SqlNormalizer.NormalizedSql normalizedSql = SqlNormalizer.normalize(queries.get(i));
+                template = normalizedSql.template();
+                params = normalizedSql.parameters();
+            }
+
+            String id = idOf(template);
+            if (!this.templates.containsKey(id)) {
+                newTemplates.put(id, template);
+            }
+            RedisQueryReference reference = new RedisQueryReference(
+                    id, params.length == 0 ? null : Arrays.asList(params), startOffsetMicros, durationMicros
+            );
+            reference.setBatchSummary(batch);
+            references.add(reference);
+        }
+
+        if (!newTemplates.isEmpty()) {
+            this.redisJsonOperation.putHashEntries(DICTIONARY_KEY, newTemplates);
+            this.cache(newTemplates);
+        }
+        this.refreshExpiry(now, lastExpire, !newTemplates.isEmpty());
+        return references;
+    }
+
+    List<String> resolve(List<RedisQueryReference> references) {
+        if (references == null) {
+            return null;
+        }
+
+        List<String> unknownIds = references.stream()
+                .map(RedisQueryReference::getId)
+                .filter(id -> !this.templates.containsKey(id))
+                .distinct()
+                .toList();
+        Map<String, String> fetchedTemplates = unknownIds.isEmpty() ? Map.of()
+                : this.redisJsonOperation.getHashEntries(DICTIONARY_KEY, unknownIds);
+        this.cache(fetchedTemplates);
+
+        QueryList.Builder builder = new QueryList.Builder(this.localDictionary, true);
+        for (RedisQueryReference reference : references) {
+            String template = this.templates.get(reference.getId());
+            if (template == null) {
+                template = fetchedTemplates.get(reference.getId());
+            }
+            List<String> params = reference.getParams();
+            SqlNormalizer.NormalizedSql normalizedSql = template == null
+                    ? new SqlNormalizer.NormalizedSql(UNKNOWN_TEMPLATE.formatted(reference.getId()), new String[0])
+                    : new SqlNormalizer.NormalizedSql(template, params == null ? new String[0] : params.toArray(String[]::new));
+            builder.add(
+                    normalizedSql,
+                    TimeUnit.MICROSECONDS.toNanos(reference.getStartOffsetMicros()),
+                    TimeUnit.MICROSECONDS.toNanos(reference.getDurationMicros()),
+                    reference.toBatchSummary()
+            );
+        }
+        return builder.build();
+    }
+
+    // a write always renews the expiry, as the hash may just have been created without one
+    private void refreshExpiry(long now, long lastExpire, boolean written) {
+        if (this.expireSeconds == 0) {
+            return;
+        }
+        if (written) {
+            this.lastExpireMillis.accumulateAndGet(now, Math::max);
+        } else if (now - lastExpire < this.refreshIntervalMillis) {
+            return;
+        } else if (!this.lastExpireMillis.compareAndSet(lastExpire, now)) {
+            return;
+        }
+        this.redisJsonOperation.expire(DICTIONARY_KEY, this.expireSeconds);
+    }
+
+    // the size is checked without a lock, so concurrent writers may overshoot the capacity by a few templates
+    private void cache(Map<String, String> templates) {
+        for (Map.Entry<String, String> entry : templates.entrySet()) {
+            if (this.templates.size() >= this.capacity) {
+                return;
+            }
+            if (entry.getValue() != null) {
+                this.templates.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    static String idOf(String template) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : template.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return Long.toHexString(hash);
+    }
+}
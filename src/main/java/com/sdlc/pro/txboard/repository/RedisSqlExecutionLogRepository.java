@@ -3,6 +3,8 @@ package com.sdlc.pro.txboard.repository;
 import com.sdlc.pro.txboard.config.TxBoardProperties;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import com.sdlc.pro.txboard.model.RedisQueryReference;
 import com.sdlc.pro.txboard.model.RedisSqlExecutionLog;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
 import com.sdlc.pro.txboard.redis.RedisJsonOperation;
@@ -11,37 +13,49 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class RedisSqlExecutionLogRepository implements SqlExecutionLogRepository, InitializingBean {
     private static final Logger log = LoggerFactory.getLogger(RedisSqlExecutionLogRepository.class);
+    private static final String CONNECTION_TIME_SKETCH_KEY = "SpringTxBoardSqlConnectionTimeSketch";
+    private static final String CONNECTION_TIME_SKETCH_PREFIX = "";
 
     private final RedisJsonOperation redisJsonOperation;
     private final TxBoardProperties txBoardProperties;
+    private final RedisQueryDictionary queryDictionary;
 
     public RedisSqlExecutionLogRepository(RedisJsonOperation redisJsonOperation, TxBoardProperties txBoardProperties) {
         this.redisJsonOperation = redisJsonOperation;
         this.txBoardProperties = txBoardProperties;
+        this.queryDictionary = new RedisQueryDictionary(redisJsonOperation,
+                txBoardProperties.getSql().getDictionaryCapacity(), txBoardProperties.getRedis().getEntityTtl());
     }
 
     @Override
     public void save(SqlExecutionLog sqlExecutionLog) {
-        this.redisJsonOperation.saveWithExpire(
-                this.toRedisSqlExecutionLog(sqlExecutionLog),
-                this.txBoardProperties.getRedis().getEntityTtl().toSeconds()
-        );
+        long ttl = this.txBoardProperties.getRedis().getEntityTtl().toSeconds();
+        this.redisJsonOperation.saveWithExpire(this.toRedisSqlExecutionLog(sqlExecutionLog), ttl);
+        Map<String, Long> increments = new LinkedHashMap<>();
+        RedisLatencySketch.record(increments, CONNECTION_TIME_SKETCH_PREFIX, sqlExecutionLog.getConOccupiedTimeMicros());
+        String sketchKey = RedisCounterWindows.windowKey(CONNECTION_TIME_SKETCH_KEY, ttl, Instant.now().getEpochSecond());
+        this.redisJsonOperation.incrementCounters(Map.of(sketchKey, increments), ttl);
+    }
+
+    @Override
+    public LatencyPercentiles getConnectionTimePercentiles() {
+        long ttl = this.txBoardProperties.getRedis().getEntityTtl().toSeconds();
+        Map<String, Long> sketch = RedisCounterWindows.read(this.redisJsonOperation, CONNECTION_TIME_SKETCH_KEY, ttl,
+                Instant.now().getEpochSecond());
+        return RedisLatencySketch.percentiles(sketch, CONNECTION_TIME_SKETCH_PREFIX);
     }
 
     @Override
     public PageResponse<SqlExecutionLog> findAll(PageRequest request) {
         PageResponse<RedisSqlExecutionLog> pageResponse = this.redisJsonOperation.findPageable(RedisSqlExecutionLog.class, request);
-        List<SqlExecutionLog> content = pageResponse.getContent()
-                .stream()
-                .map(this::toSqlExecutionLog)
-                .toList();
-
-        return new PageResponse<>(content, request, pageResponse.getTotalElements());
+        return pageResponse.map(this::toSqlExecutionLog);
     }
 
     @Override
@@ -62,9 +76,10 @@ public class RedisSqlExecutionLogRepository implements SqlExecutionLogRepository
         redisSqlExecutionLog.setConAcquiredTime(sqlExecutionLog.getConAcquiredTime().toEpochMilli());
         redisSqlExecutionLog.setConReleaseTime(sqlExecutionLog.getConReleaseTime().toEpochMilli());
         redisSqlExecutionLog.setConOccupiedTime(sqlExecutionLog.getConOccupiedTime());
+        redisSqlExecutionLog.setConOccupiedTimeMicros(sqlExecutionLog.getConOccupiedTimeMicros());
         redisSqlExecutionLog.setAlarmingConnection(sqlExecutionLog.isAlarmingConnection());
         redisSqlExecutionLog.setThread(sqlExecutionLog.getThread());
-        redisSqlExecutionLog.setExecutedQuires(sqlExecutionLog.getExecutedQuires());
+        redisSqlExecutionLog.setExecutedQueryRefs(this.queryDictionary.toReferences(sqlExecutionLog.getExecutedQuires()));
         return redisSqlExecutionLog;
     }
 
@@ -73,9 +88,21 @@ public class RedisSqlExecutionLogRepository implements SqlExecutionLogRepository
                 UUID.fromString(redisSqlExecutionLog.getId()),
                 Instant.ofEpochMilli(redisSqlExecutionLog.getConAcquiredTime()),
                 Instant.ofEpochMilli(redisSqlExecutionLog.getConReleaseTime()),
+                occupiedTimeMicrosOf(redisSqlExecutionLog),
                 redisSqlExecutionLog.isAlarmingConnection(),
                 redisSqlExecutionLog.getThread(),
-                redisSqlExecutionLog.getExecutedQuires()
+                this.resolveQueries(redisSqlExecutionLog.getExecutedQueryRefs(), redisSqlExecutionLog.getExecutedQuires())
         );
     }
+
+    private static long occupiedTimeMicrosOf(RedisSqlExecutionLog redisSqlExecutionLog) {
+        // logs written before the microsecond precision was introduced only have the millis
+        long micros = redisSqlExecutionLog.getConOccupiedTimeMicros();
+        return micros != 0L ? micros : redisSqlExecutionLog.getConOccupiedTime() * 1_000L;
+    }
+
+    private List<String> resolveQueries(List<RedisQueryReference> references, List<String> legacyQueries) {
+        // logs written before the query dictionary was introduced keep the raw statements
+        return references != null ? this.queryDictionary.resolve(references) : legacyQueries;
+    }
 }
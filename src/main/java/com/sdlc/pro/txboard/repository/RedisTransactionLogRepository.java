@@ -1,35 +1,53 @@
 package com.sdlc.pro.txboard.repository;
 
 import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
 import com.sdlc.pro.txboard.enums.IsolationLevel;
 import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.RollupWindow;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
 import com.sdlc.pro.txboard.exception.MethodNotImplementedException;
 import com.sdlc.pro.txboard.model.*;
 import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 
 public final class RedisTransactionLogRepository implements TransactionLogRepository, InitializingBean {
     private static final Logger log = LoggerFactory.getLogger(RedisTransactionLogRepository.class);
+    private static final String SAMPLED_OUT_SUMMARY_KEY = "SpringTxBoardSampledOutTransactionSummary";
+    private static final String BATCH_SIZE_DISTRIBUTION_KEY = "SpringTxBoardBatchSizeDistribution";
+    private static final String LATENCY_SKETCH_KEY = "SpringTxBoardTransactionLatencySketch";
+    private static final String DURATION_SKETCH_PREFIX = "duration:";
+    private static final String CONNECTION_SKETCH_PREFIX = "connection:";
+    private static final String METHOD_STATISTICS_KEY = "SpringTxBoardMethodStatistics";
 
     private final RedisJsonOperation redisJsonOperation;
     private final TxBoardProperties txBoardProperties;
+    private final RedisQueryDictionary queryDictionary;
+    private final TransactionRollups rollups;
 
     public RedisTransactionLogRepository(RedisJsonOperation redisJsonOperation, TxBoardProperties txBoardProperties) {
         this.redisJsonOperation = redisJsonOperation;
         this.txBoardProperties = txBoardProperties;
+        this.queryDictionary = new RedisQueryDictionary(redisJsonOperation,
+                txBoardProperties.getSql().getDictionaryCapacity(), txBoardProperties.getRedis().getEntityTtl());
+        this.rollups = new TransactionRollups();
     }
 
     @Override
@@ -38,6 +56,104 @@ public final class RedisTransactionLogRepository implements TransactionLogReposi
         Duration ttl = this.txBoardProperties.getRedis().getEntityTtl();
         String key = this.redisJsonOperation.saveWithExpire(redisTransactionLog, ttl.toSeconds());
         log.debug("Redis entity saved. key: {}, TTL: {}", key, ttl);
+        this.recordCounters(transactionLog, new LinkedHashMap<>());
+        this.rollups.record(transactionLog);
+    }
+
+    @Override
+    public void recordSampledOut(TransactionLog transactionLog) {
+        // sampled out logs are not stored, their contribution to the summary is kept in windowed counter hashes instead
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+        Map<String, Long> summary = counterHash(increments, this.windowKey(SAMPLED_OUT_SUMMARY_KEY));
+        summary.put(transactionLog.getStatus().name(), 1L);
+        summary.put("duration", transactionLog.getDuration());
+        summary.put("durationMicros", transactionLog.getDurationMicros());
+        summary.put("alarmingTransaction", transactionLog.isAlarmingTransaction() ? 1L : 0L);
+        summary.put("connectionSummary.acquisitionCount", (long) connectionSummary.acquisitionCount());
+        summary.put("connectionSummary.occupiedTime", connectionSummary.occupiedTime());
+        summary.put("connectionSummary.occupiedTimeMicros", connectionSummary.occupiedTimeMicros());
+        summary.put("connectionSummary.alarmingConnectionCount", (long) connectionSummary.alarmingConnectionCount());
+        this.recordCounters(transactionLog, increments);
+        this.rollups.record(transactionLog);
+    }
+
+    /**
+     * Sends the counter increments of a transaction in a single call. The counter hashes outlive the expiring logs
+     * while transactions keep coming, every increment renews their expiry to the ttl of the logs.
+     */
+    private void recordCounters(TransactionLog transactionLog, Map<String, Map<String, Long>> increments) {
+        this.addLatencyIncrements(increments, transactionLog);
+        this.addBatchSizeIncrements(increments, transactionLog);
+        this.addMethodIncrements(increments, transactionLog);
+        this.redisJsonOperation.incrementCounters(increments, this.txBoardProperties.getRedis().getEntityTtl().toSeconds());
+    }
+
+    private void addLatencyIncrements(Map<String, Map<String, Long>> increments, TransactionLog transactionLog) {
+        // the sketch is windowed like the sampled out counters, so it ages out with the stored logs
+        Map<String, Long> sketch = counterHash(increments, this.windowKey(LATENCY_SKETCH_KEY));
+        RedisLatencySketch.record(sketch, DURATION_SKETCH_PREFIX, transactionLog.getDurationMicros());
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        if (connectionSummary.acquisitionCount() > 0) {
+            RedisLatencySketch.record(sketch, CONNECTION_SKETCH_PREFIX, connectionSummary.occupiedTimeMicros());
+        }
+    }
+
+    private String windowKey(String key) {
+        return RedisCounterWindows.windowKey(key, this.txBoardProperties.getRedis().getEntityTtl().toSeconds(),
+                Instant.now().getEpochSecond());
+    }
+
+    private Map<String, Long> readWindows(String key) {
+        return RedisCounterWindows.read(this.redisJsonOperation, key,
+                this.txBoardProperties.getRedis().getEntityTtl().toSeconds(), Instant.now().getEpochSecond());
+    }
+
+    private static Map<String, Long> counterHash(Map<String, Map<String, Long>> increments, String key) {
+        return increments.computeIfAbsent(key, k -> new LinkedHashMap<>());
+    }
+
+    private void addMethodIncrements(Map<String, Map<String, Long>> increments, TransactionLog transactionLog) {
+        // a field per counter and method, "<counter>:<method>", the durations as a latency sketch per method
+        String method = transactionLog.getMethod();
+        if (method != null) {
+            Map<String, Long> counters = counterHash(increments, METHOD_STATISTICS_KEY);
+            counters.merge("calls:" + method, 1L, Long::sum);
+            if (transactionLog.getStatus() != null) {
+                counters.merge(transactionLog.getStatus().name() + ":" + method, 1L, Long::sum);
+            }
+            counters.merge("durationMicros:" + method, transactionLog.getDurationMicros(), Long::sum);
+            counters.merge("queries:" + method, (long) transactionLog.getExecutedQuires().size(), Long::sum);
+            counters.merge("acquisitions:" + method,
+                    (long) MethodStatistics.connectionAcquisitionCountOf(transactionLog), Long::sum);
+            RedisLatencySketch.record(counters, "sketch:" + method + ":", transactionLog.getDurationMicros());
+        }
+        for (TransactionLog child : transactionLog.getChild()) {
+            this.addMethodIncrements(increments, child);
+        }
+    }
+
+    private void addBatchSizeIncrements(Map<String, Map<String, Long>> increments, TransactionLog transactionLog) {
+        // batches are nested inside the query references, so their distribution is counted on write
+        List<BatchSummary> batches = transactionLog.getBatches();
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> counters = counterHash(increments, BATCH_SIZE_DISTRIBUTION_KEY);
+        List<Integer> buckets = this.txBoardProperties.getSql().getBatchSizeBuckets();
+        for (BatchSummary batch : batches) {
+            counters.merge(String.valueOf(bucketOf(buckets, batch.size())), 1L, Long::sum);
+        }
+    }
+
+    private static int bucketOf(List<Integer> buckets, long value) {
+        for (int bucket : buckets) {
+            if (value <= bucket) {
+                return bucket;
+            }
+        }
+        return Integer.MAX_VALUE;
     }
 
     @Override
@@ -63,25 +179,35 @@ public final class RedisTransactionLogRepository implements TransactionLogReposi
     @Override
     public PageResponse<TransactionLog> findAll(PageRequest request) {
         PageResponse<RedisTransactionLog> pageResponse = this.redisJsonOperation.findPageable(RedisTransactionLog.class, request);
-        List<TransactionLog> content = pageResponse.getContent()
-                .stream()
-                .map(this::toTransactionLog)
-                .toList();
-
-        return new PageResponse<>(content, request, pageResponse.getTotalElements());
+        return pageResponse.map(this::toTransactionLog);
     }
 
     @Override
     public TransactionSummary getTransactionSummary() {
         Class<?> entityType = RedisTransactionLog.class;
-        long commitCount = this.countByTransactionStatus(TransactionPhaseStatus.COMMITTED);
-        long rolledBackCount = this.countByTransactionStatus(TransactionPhaseStatus.ROLLED_BACK);
-        long erroredCount = this.countByTransactionStatus(TransactionPhaseStatus.ERRORED);
-        long totalDuration = (long) this.redisJsonOperation.sum(entityType, "duration");
-        long alarmingCount = this.redisJsonOperation.countByFieldValue(entityType, "alarmingTransaction", true);
-        long connectionAcquisitionCount = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.acquisitionCount");
-        long totalConnectionOccupiedTime = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.occupiedTime");
-        long alarmingConnectionCount = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.alarmingConnectionCount");
+        Map<String, Long> sampledOut = this.readWindows(SAMPLED_OUT_SUMMARY_KEY);
+        long commitCount = this.countByTransactionStatus(TransactionPhaseStatus.COMMITTED)
+                + sampledOut.getOrDefault(TransactionPhaseStatus.COMMITTED.name(), 0L);
+        long rolledBackCount = this.countByTransactionStatus(TransactionPhaseStatus.ROLLED_BACK)
+                + sampledOut.getOrDefault(TransactionPhaseStatus.ROLLED_BACK.name(), 0L);
+        long erroredCount = this.countByTransactionStatus(TransactionPhaseStatus.ERRORED)
+                + sampledOut.getOrDefault(TransactionPhaseStatus.ERRORED.name(), 0L);
+        long totalDuration = (long) this.redisJsonOperation.sum(entityType, "duration")
+                + sampledOut.getOrDefault("duration", 0L);
+        long totalDurationMicros = this.sumMicros("durationMicros", "duration")
+                + sampledOut.getOrDefault("durationMicros", 0L);
+        long alarmingCount = this.redisJsonOperation.countByFieldValue(entityType, "alarmingTransaction", true)
+                + sampledOut.getOrDefault("alarmingTransaction", 0L);
+        long connectionAcquisitionCount = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.acquisitionCount")
+                + sampledOut.getOrDefault("connectionSummary.acquisitionCount", 0L);
+        long totalConnectionOccupiedTime = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.occupiedTime")
+                + sampledOut.getOrDefault("connectionSummary.occupiedTime", 0L);
+        long totalConnectionOccupiedTimeMicros = this.sumMicros("connectionSummary.occupiedTimeMicros", "connectionSummary.occupiedTime")
+                + sampledOut.getOrDefault("connectionSummary.occupiedTimeMicros", 0L);
+        long alarmingConnectionCount = (long) this.redisJsonOperation.sum(entityType, "connectionSummary.alarmingConnectionCount")
+                + sampledOut.getOrDefault("connectionSummary.alarmingConnectionCount", 0L);
+
+        Map<String, Long> latencySketch = this.readWindows(LATENCY_SKETCH_KEY);
 
         return new TransactionSummary(
                 commitCount,
@@ -91,33 +217,114 @@ public final class RedisTransactionLogRepository implements TransactionLogReposi
                 alarmingCount,
                 connectionAcquisitionCount,
                 totalConnectionOccupiedTime,
-                alarmingConnectionCount
+                alarmingConnectionCount,
+                totalDurationMicros,
+                totalConnectionOccupiedTimeMicros
+        ).withPercentiles(
+                RedisLatencySketch.percentiles(latencySketch, DURATION_SKETCH_PREFIX),
+                RedisLatencySketch.percentiles(latencySketch, CONNECTION_SKETCH_PREFIX)
         );
     }
 
+    /**
+     * Sums the microsecond field, counting the legacy logs stored before it existed by their milliseconds as
+     * {@link #durationMicrosOf} reads them. Those logs hold no positive micros, so their milliseconds are the ones left
+     * over once the logs holding micros are subtracted.
+     */
+    private long sumMicros(String microsField, String millisField) {
+        Class<?> entityType = RedisTransactionLog.class;
+        long micros = (long) this.redisJsonOperation.sum(entityType, microsField);
+        long millis = (long) this.redisJsonOperation.sum(entityType, millisField);
+        long measuredMillis = (long) this.redisJsonOperation.sum(entityType, millisField,
+                Filter.of(microsField, 0L, Filter.Operator.GREATER_THAN));
+        return micros + (millis - measuredMillis) * 1_000L;
+    }
+
     @Override
     public List<DurationDistribution> getDurationDistributions() {
-        Class<?> entityType = RedisTransactionLog.class;
-        List<Integer> buckets = txBoardProperties.getDurationBuckets();
-        List<DurationDistribution> distributions = new LinkedList<>();
+        return this.getDurationDistributions(this.txBoardProperties.getDurationBuckets());
+    }
 
-        int prev = 0;
-        for (int curr : buckets) {
-            long count = this.redisJsonOperation.countByRange(entityType, "duration", prev, curr);
-            distributions.add(new DurationDistribution(new DurationRange(prev, curr), count));
+    /**
+     * Buckets the duration sketch shared by all nodes, which counts the stored and the sampled out logs of the last
+     * TTL.
+     */
+    @Override
+    public List<DurationDistribution> getDurationDistributions(List<Integer> buckets) {
+        Map<String, Long> latencySketch = this.readWindows(LATENCY_SKETCH_KEY);
+        return DurationDistributions.of(RedisLatencySketch.histogram(latencySketch, DURATION_SKETCH_PREFIX), buckets);
+    }
+
+    @Override
+    public List<BatchSizeDistribution> getBatchSizeDistributions() {
+        Map<String, Long> counters = this.redisJsonOperation.getCounters(BATCH_SIZE_DISTRIBUTION_KEY);
+        List<BatchSizeDistribution> distributions = new LinkedList<>();
+
+        int prev = 1;
+        for (int curr : this.txBoardProperties.getSql().getBatchSizeBuckets()) {
+            long count = counters.getOrDefault(String.valueOf(curr), 0L);
+            distributions.add(new BatchSizeDistribution(new BatchSizeRange(prev, curr), count));
             prev = curr + 1;
         }
 
-        if (prev > 0) {
-            long count = this.redisJsonOperation.countByRange(entityType, "duration", prev, Integer.MAX_VALUE);
-            if (count != 0) {
-                distributions.add(new DurationDistribution(new DurationRange(prev, Integer.MAX_VALUE), count));
-            }
+        long count = counters.getOrDefault(String.valueOf(Integer.MAX_VALUE), 0L);
+        if (count != 0) {
+            distributions.add(new BatchSizeDistribution(new BatchSizeRange(prev, Integer.MAX_VALUE), count));
         }
 
         return distributions;
     }
 
+    /**
+     * Reads the method counters of all nodes. The max duration is the upper bound of the highest bucket of the
+     * method's sketch, Redis has no atomic maximum for hash fields.
+     */
+    @Override
+    public List<MethodSummary> getMethodSummaries() {
+        Map<String, Map<String, Long>> countersByMethod = new LinkedHashMap<>();
+        this.redisJsonOperation.getCounters(METHOD_STATISTICS_KEY).forEach((field, value) -> {
+            int separator = field.indexOf(':');
+            String counter = field.substring(0, separator);
+            String method = field.substring(separator + 1);
+            if (counter.equals("sketch")) {
+                // the bucket follows the method, whose name may hold a colon itself
+                int bucketSeparator = method.lastIndexOf(':');
+                counter = "sketch:" + method.substring(bucketSeparator + 1);
+                method = method.substring(0, bucketSeparator);
+            }
+            countersByMethod.computeIfAbsent(method, k -> new HashMap<>()).put(counter, value);
+        });
+
+        List<MethodSummary> summaries = new ArrayList<>(countersByMethod.size());
+        countersByMethod.forEach((method, counters) -> {
+            LatencyPercentiles percentiles = RedisLatencySketch.percentiles(counters, "sketch:");
+            int maxBucket = counters.keySet().stream()
+                    .filter(counter -> counter.startsWith("sketch:"))
+                    .mapToInt(counter -> Integer.parseInt(counter.substring("sketch:".length())))
+                    .max()
+                    .orElse(0);
+            summaries.add(MethodStatistics.summaryOf(method,
+                    counters.getOrDefault("calls", 0L),
+                    counters.getOrDefault(TransactionPhaseStatus.COMMITTED.name(), 0L),
+                    counters.getOrDefault(TransactionPhaseStatus.ROLLED_BACK.name(), 0L),
+                    counters.getOrDefault(TransactionPhaseStatus.ERRORED.name(), 0L),
+                    counters.getOrDefault("durationMicros", 0L),
+                    LogLinearHistogram.highestValueAt(maxBucket),
+                    percentiles,
+                    counters.getOrDefault("queries", 0L),
+                    counters.getOrDefault("acquisitions", 0L)));
+        });
+        return summaries;
+    }
+
+    /**
+     * The windows are rolled up by every node on its own, they only cover the transactions of this node.
+     */
+    @Override
+    public List<TransactionRollup> getRollups(RollupWindow window) {
+        return this.rollups.getRollups(window);
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         this.prepareSchema();
@@ -139,15 +346,18 @@ public final class RedisTransactionLogRepository implements TransactionLogReposi
         redisTransactionLog.setStartTime(transactionLog.getStartTime().toEpochMilli());
         redisTransactionLog.setEndTime(transactionLog.getEndTime().toEpochMilli());
         redisTransactionLog.setDuration(transactionLog.getDuration());
+        redisTransactionLog.setDurationMicros(transactionLog.getDurationMicros());
         redisTransactionLog.setConnectionSummary(transactionLog.getConnectionSummary());
         redisTransactionLog.setConnectionOriented(transactionLog.getConnectionOriented());
         redisTransactionLog.setStatus(transactionLog.getStatus().name());
         redisTransactionLog.setThread(transactionLog.getThread());
-        redisTransactionLog.setExecutedQuires(transactionLog.getExecutedQuires());
+        redisTransactionLog.setExecutedQueryRefs(this.queryDictionary.toReferences(transactionLog.getExecutedQuires()));
         redisTransactionLog.setEvents(transactionLog.getEvents());
         redisTransactionLog.setAlarmingTransaction(transactionLog.isAlarmingTransaction());
         redisTransactionLog.setHavingAlarmingConnection(transactionLog.getHavingAlarmingConnection());
-        redisTransactionLog.setPostTransactionQuires(transactionLog.getPostTransactionQuires());
+        redisTransactionLog.setPostTransactionQueryRefs(this.queryDictionary.toReferences(transactionLog.getPostTransactionQuires()));
+        redisTransactionLog.setNPlusOne(transactionLog.isNPlusOne());
+        redisTransactionLog.setNPlusOneQuery(transactionLog.getNPlusOneQuery());
 
         List<RedisTransactionLog> child = transactionLog.getChild()
                 .stream()
@@ -172,14 +382,35 @@ public final class RedisTransactionLogRepository implements TransactionLogReposi
                 IsolationLevel.valueOf(redisTransactionLog.getIsolation()),
                 Instant.ofEpochMilli(redisTransactionLog.getStartTime()),
                 Instant.ofEpochMilli(redisTransactionLog.getEndTime()),
-                redisTransactionLog.getConnectionSummary(),
+                durationMicrosOf(redisTransactionLog),
+                connectionSummaryOf(redisTransactionLog),
                 TransactionPhaseStatus.valueOf(redisTransactionLog.getStatus()),
                 redisTransactionLog.getThread(),
-                redisTransactionLog.getExecutedQuires(),
+                this.resolveQueries(redisTransactionLog.getExecutedQueryRefs(), redisTransactionLog.getExecutedQuires()),
                 child,
                 redisTransactionLog.getEvents(),
                 this.txBoardProperties.getAlarmingThreshold().getTransaction(),
-                redisTransactionLog.getPostTransactionQuires()
+                this.resolveQueries(redisTransactionLog.getPostTransactionQueryRefs(), redisTransactionLog.getPostTransactionQuires()),
+                redisTransactionLog.getNPlusOneQuery()
         );
     }
+
+    private static long durationMicrosOf(RedisTransactionLog redisTransactionLog) {
+        // logs written before the microsecond precision was introduced only have the millis
+        long micros = redisTransactionLog.getDurationMicros();
+        return micros != 0L ? micros : redisTransactionLog.getDuration() * 1_000L;
+    }
+
+    private static ConnectionSummary connectionSummaryOf(RedisTransactionLog redisTransactionLog) {
+        ConnectionSummary summary = redisTransactionLog.getConnectionSummary();
+        if (summary == null || summary.occupiedTimeMicros() != 0L) {
+            return summary;
+        }
+        return new ConnectionSummary(summary.acquisitionCount(), summary.alarmingConnectionCount(), summary.occupiedTime());
+    }
+
+    private List<String> resolveQueries(List<RedisQueryReference> references, List<String> legacyQueries) {
+        // logs written before the query dictionary was introduced keep the raw statements
+        return references != null ? this.queryDictionary.resolve(references) : legacyQueries;
+    }
 }
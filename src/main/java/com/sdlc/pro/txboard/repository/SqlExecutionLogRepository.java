@@ -2,10 +2,19 @@ package com.sdlc.pro.txboard.repository;
 
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
 
 public interface SqlExecutionLogRepository {
     void save(SqlExecutionLog sqlExecutionLog);
 
     PageResponse<SqlExecutionLog> findAll(PageRequest request);
+
+    /**
+     * Returns the percentiles of the connection occupied time of all saved sql execution logs, also the ones which
+     * are already evicted from the storage.
+     */
+    default LatencyPercentiles getConnectionTimePercentiles() {
+        return LatencyPercentiles.EMPTY;
+    }
 }
@@ -0,0 +1,113 @@
+package com.sdlc.pro.txboard.repository;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the addresses of the first records of a {@link com.sdlc.pro.txboard.storage.SegmentedLog} in the order of a
+ * long sort key in a bounded heap, ties are ordered by the address which follows the insertion order.
+ */
+final class TopRecords {
+    private final int limit;
+    private final boolean ascending;
+    private long[] keys;
+    private long[] addresses;
+    private int size;
+
+    TopRecords(int limit, boolean ascending) {
+        this.limit = limit;
+        this.ascending = ascending;
+        this.keys = new long[Math.min(limit, 1024)];
+        this.addresses = new long[this.keys.length];
+    }
+
+    void offer(long key, long address) {
+        if (this.limit == 0) {
+            return;
+        }
+        if (this.size < this.limit) {
+            if (this.size == this.keys.length) {
+                int length = (int) Math.min((long) this.size << 1, this.limit);
+                this.keys = Arrays.copyOf(this.keys, length);
+                this.addresses = Arrays.copyOf(this.addresses, length);
+            }
+            this.keys[this.size] = key;
+            this.addresses[this.size] = address;
+            this.siftUp(this.size++);
+        } else if (this.precedes(key, address, this.keys[0], this.addresses[0])) {
+            // the root is the last of the kept records
+            this.keys[0] = key;
+            this.addresses[0] = address;
+            this.siftDown(0);
+        }
+    }
+
+    private boolean precedes(long key, long address, long otherKey, long otherAddress) {
+        if (key != otherKey) {
+            return this.ascending ? key < otherKey : key > otherKey;
+        }
+        return address < otherAddress;
+    }
+
+    private boolean follows(int i, int j) {
+        return this.precedes(this.keys[j], this.addresses[j], this.keys[i], this.addresses[i]);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!this.follows(index, parent)) {
+                return;
+            }
+            this.swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= this.size) {
+                return;
+            }
+            int last = left + 1 < this.size && this.follows(left + 1, left) ? left + 1 : left;
+            if (!this.follows(last, index)) {
+                return;
+            }
+            this.swap(index, last);
+            index = last;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = this.keys[i];
+        this.keys[i] = this.keys[j];
+        this.keys[j] = key;
+        long address = this.addresses[i];
+        this.addresses[i] = this.addresses[j];
+        this.addresses[j] = address;
+    }
+
+    boolean isFull() {
+        return this.size > 0 && this.size == this.limit;
+    }
+
+    /**
+     * Returns the key of the last of the kept records, a record with a key after it is not kept once the heap is full.
+     */
+    long lastKey() {
+        return this.keys[0];
+    }
+
+    /**
+     * Returns the kept addresses in the sort order, emptying the heap.
+     */
+    long[] sortedAddresses() {
+        long[] sorted = new long[this.size];
+        for (int i = this.size - 1; i >= 0; i--) {
+            sorted[i] = this.addresses[0];
+            this.swap(0, --this.size);
+            this.siftDown(0);
+        }
+        return sorted;
+    }
+}
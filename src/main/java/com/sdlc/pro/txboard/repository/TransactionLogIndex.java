@@ -0,0 +1,300 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.BitmapIndex;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.QueryList;
+import com.sdlc.pro.txboard.storage.SortedLongIndex;
+import com.sdlc.pro.txboard.storage.TextIndex;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Secondary indexes over the slots of the {@link TransactionLogStore} and the planner which resolves the indexable
+ * part of a filter into a candidate bitmap before any log is touched. The duration and the start time are also kept
+ * in sorted indexes of the append sequences, so a sorted page is read in order instead of sorting all matches. The
+ * method and thread names and the executed statements are kept in {@link TextIndex text indexes} which answer the
+ * {@code CONTAINS} filters on them. The statements are indexed by their normalized templates, which the
+ * {@link QueryDictionary} shares between the logs, so a log only adds the references to its templates; the few logs
+ * whose statements carry captured literals are verified on their rendered statements. Not thread-safe, the repository
+ * serializes the updates with the appends and guards the reads.
+ */
+final class TransactionLogIndex {
+    private final int capacity;
+    private final Map<String, SlotValue> properties;
+    private final Map<String, BitmapIndex<Object>> bitmapIndexes;
+    private final Map<String, SortedProperty> sortedProperties;
+    private final List<SortedProperty> distinctSortedProperties;
+    private final Map<String, TextProperty> textProperties;
+    private final TextProperty executedQueries;
+    // the slots whose statements carry captured literals, their templates do not tell the rendered text
+    private final BitSet parameterizedSlots;
+    private long sequence;
+
+    TransactionLogIndex(int capacity) {
+        this.capacity = capacity;
+
+        this.properties = new LinkedHashMap<>();
+        this.properties.put("status", TransactionLogStore::statusAt);
+        this.properties.put("propagation", TransactionLogStore::propagationAt);
+        this.properties.put("isolation", TransactionLogStore::isolationAt);
+        this.properties.put("connectionOriented", TransactionLogStore::connectionOrientedAt);
+        this.properties.put("alarmingTransaction", TransactionLogStore::alarmingTransactionAt);
+        this.properties.put("havingAlarmingConnection", TransactionLogStore::havingAlarmingConnectionAt);
+        this.properties.put("nPlusOne", TransactionLogStore::nPlusOneAt);
+
+        this.bitmapIndexes = new LinkedHashMap<>();
+        this.properties.keySet().forEach(property -> this.bitmapIndexes.put(property, new BitmapIndex<>()));
+
+        // the duration is ordered by its microseconds, logs of equal milliseconds come in their microsecond order
+        SortedProperty duration = new SortedProperty(TransactionLogStore::durationMicrosAt, new SortedLongIndex());
+        SortedProperty startTime = new SortedProperty(TransactionLogStore::startTimeNanosAt, new SortedLongIndex());
+        this.sortedProperties = Map.of("duration", duration, "durationMicros", duration, "startTime", startTime);
+        this.distinctSortedProperties = List.of(duration, startTime);
+
+        // a template is searched as rendered without literals, the markers read as '?' like in a statement
+        this.executedQueries = new TextProperty(TransactionLogIndex::templatesOf,
+                new TextIndex(capacity, template -> SqlNormalizer.render(template, null)));
+        this.parameterizedSlots = new BitSet(capacity);
+        this.textProperties = Map.of(
+                "method", new TextProperty(log -> Collections.singletonList(log.getMethod()), new TextIndex(capacity)),
+                "thread", new TextProperty(log -> Collections.singletonList(log.getThread()), new TextIndex(capacity)),
+                "executedQuires", this.executedQueries
+        );
+    }
+
+    /**
+     * Returns the templates of the statements of a dictionary backed list, which are shared by all logs, and the
+     * statements themselves otherwise.
+     */
+    private static List<String> templatesOf(TransactionLog transactionLog) {
+        List<String> queries = transactionLog.getExecutedQuires();
+        if (!(queries instanceof QueryList queryList)) {
+            return queries;
+        }
+        List<String> templates = new ArrayList<>(queryList.size());
+        for (int i = 0; i < queryList.size(); i++) {
+            templates.add(queryList.templateAt(i));
+        }
+        return templates;
+    }
+
+    private static boolean hasCapturedLiterals(TransactionLog transactionLog) {
+        if (transactionLog.getExecutedQuires() instanceof QueryList queryList) {
+            for (int i = 0; i < queryList.size(); i++) {
+                if (queryList.idAt(i) != QueryDictionary.NOT_INTERNED && queryList.parametersAt(i).length > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the log of the given slot, which is about to be evicted, from the indexes.
+     */
+    void remove(int slot, TransactionLogStore store) {
+        for (Map.Entry<String, SlotValue> entry : this.properties.entrySet()) {
+            this.bitmapIndexes.get(entry.getKey()).update(slot, entry.getValue().at(store, slot), null);
+        }
+        for (SortedProperty sortedProperty : this.distinctSortedProperties) {
+            sortedProperty.index().remove(sortedProperty.key().at(store, slot), this.sequence - this.capacity);
+        }
+        for (TextProperty textProperty : this.textProperties.values()) {
+            textProperty.index().clear(slot);
+        }
+        this.parameterizedSlots.clear(slot);
+    }
+
+    /**
+     * Adds the given log which has just been appended into the given slot to the indexes.
+     */
+    void add(int slot, TransactionLog transactionLog, TransactionLogStore store) {
+        for (Map.Entry<String, SlotValue> entry : this.properties.entrySet()) {
+            this.bitmapIndexes.get(entry.getKey()).update(slot, null, entry.getValue().at(store, slot));
+        }
+        for (TextProperty textProperty : this.textProperties.values()) {
+            List<String> values = textProperty.values().apply(transactionLog);
+            textProperty.index().update(slot, values != null ? values : List.of());
+        }
+        this.parameterizedSlots.set(slot, hasCapturedLiterals(transactionLog));
+        for (SortedProperty sortedProperty : this.distinctSortedProperties) {
+            sortedProperty.index().add(sortedProperty.key().at(store, slot), this.sequence);
+        }
+        this.sequence++;
+    }
+
+    int count(String property, Object value) {
+        return this.bitmapIndexes.get(property).count(value);
+    }
+
+    /**
+     * Returns the sorted index of the given property, {@code null} when the property is not indexed.
+     */
+    SortedLongIndex sortedIndex(String property) {
+        SortedProperty sortedProperty = this.sortedProperties.get(property);
+        return sortedProperty == null ? null : sortedProperty.index();
+    }
+
+    int slotOf(long sequence) {
+        return (int) (sequence % this.capacity);
+    }
+
+    /**
+     * Returns the append sequence the next log gets, the retained logs hold the sequences below it.
+     */
+    long nextSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Returns the key of the log in the given slot in the sorted index of the given property.
+     */
+    long sortKeyAt(String property, TransactionLogStore store, int slot) {
+        return this.sortedProperties.get(property).key().at(store, slot);
+    }
+
+    /**
+     * Splits the filter into the candidate slots resolved from the bitmap indexes and the residual filter which still
+     * has to be tested on each candidate. An AND group intersects the candidates of its indexable children and keeps
+     * the others as residual, an OR group is only resolved from the indexes when all of its children are. A string
+     * {@code CONTAINS} filter on a text property is resolved by its text index, any other filter without a bitmap
+     * index by a scan of the store when the store supports it.
+     */
+    Plan plan(FilterNode node, TransactionLogStore store) {
+        if (node instanceof Filter filter) {
+            TextProperty textProperty = this.textProperties.get(filter.getProperty());
+            if (textProperty != null && filter.getOperator() == Filter.Operator.CONTAINS
+                    && filter.getValue() instanceof String value) {
+                BitSet slots = textProperty.index().contains(value);
+                if (textProperty == this.executedQueries && !this.parameterizedSlots.isEmpty()) {
+                    this.verifyParameterizedSlots(filter, slots, store);
+                }
+                return new Plan(slots, null);
+            }
+            BitmapIndex<Object> index = this.bitmapIndexes.get(filter.getProperty());
+            if (index != null) {
+                switch (filter.getOperator()) {
+                    case EQUALS -> {
+                        return new Plan(index.equalTo(filter.getValue()), null);
+                    }
+                    case NOT_EQUALS -> {
+                        return new Plan(index.notEqualTo(filter.getValue()), null);
+                    }
+                    default -> {
+                    }
+                }
+            }
+            BitSet scanned = store.scan(filter);
+            return scanned != null ? new Plan(scanned, null) : new Plan(null, filter);
+        } else if (node instanceof FilterGroup group) {
+            return group.getLogic() == FilterGroup.Logic.AND ? this.planAnd(group, store) : this.planOr(group, store);
+        }
+        return Plan.ALL;
+    }
+
+    /**
+     * Replaces the matches of the slots with captured literals by the result of the filter on their logs.
+     */
+    private void verifyParameterizedSlots(Filter filter, BitSet slots, TransactionLogStore store) {
+        Predicate<TransactionLog> predicate = FilterPredicateFactory.compile(filter, TransactionLog.class);
+        for (int slot = this.parameterizedSlots.nextSetBit(0); slot >= 0;
+             slot = this.parameterizedSlots.nextSetBit(slot + 1)) {
+            TransactionLog transactionLog = store.get(slot);
+            slots.set(slot, transactionLog != null && predicate.test(transactionLog));
+        }
+    }
+
+    private Plan planAnd(FilterGroup group, TransactionLogStore store) {
+        BitSet candidates = null;
+        List<FilterNode> residuals = new ArrayList<>();
+        for (FilterNode child : group.getFilterNodes()) {
+            Plan plan = this.plan(child, store);
+            if (plan.candidates() != null) {
+                if (candidates == null) {
+                    candidates = plan.candidates();
+                } else {
+                    candidates.and(plan.candidates());
+                }
+            }
+            if (plan.residual() != null) {
+                residuals.add(plan.residual());
+            }
+        }
+
+        FilterNode residual = switch (residuals.size()) {
+            case 0 -> null;
+            case 1 -> residuals.get(0);
+            default -> FilterGroup.of(residuals, FilterGroup.Logic.AND);
+        };
+        return new Plan(candidates, residual);
+    }
+
+    private Plan planOr(FilterGroup group, TransactionLogStore store) {
+        BitSet candidates = new BitSet();
+        for (FilterNode child : group.getFilterNodes()) {
+            Plan plan = this.plan(child, store);
+            if (plan.residual() != null) {
+                return new Plan(null, group);
+            }
+            if (plan.candidates() == null) {
+                // an unconditional child matches everything
+                return Plan.ALL;
+            }
+            candidates.or(plan.candidates());
+        }
+        return new Plan(candidates, null);
+    }
+
+    /**
+     * Returns the start time in epoch nanoseconds, saturated to the long range. A missing start time sorts first like
+     * a null key does in ascending order.
+     */
+    static long epochNanosOf(Instant instant) {
+        if (instant == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE + 1 : Long.MAX_VALUE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotValue {
+        Object at(TransactionLogStore store, int slot);
+    }
+
+    @FunctionalInterface
+    private interface SlotKey {
+        long at(TransactionLogStore store, int slot);
+    }
+
+    private record SortedProperty(SlotKey key, SortedLongIndex index) {
+    }
+
+    private record TextProperty(Function<TransactionLog, List<String>> values, TextIndex index) {
+    }
+
+    /**
+     * @param candidates the slots which may match, {@code null} when every retained log may match
+     * @param residual   the part of the filter which has to be tested on the candidates, {@code null} when none
+     */
+    record Plan(BitSet candidates, FilterNode residual) {
+        static final Plan ALL = new Plan(null, null);
+    }
+}
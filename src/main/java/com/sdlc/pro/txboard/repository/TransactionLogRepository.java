@@ -1,16 +1,22 @@
 package com.sdlc.pro.txboard.repository;
 
+import com.sdlc.pro.txboard.enums.RollupWindow;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
 import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.MethodSummary;
 import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionRollup;
 import com.sdlc.pro.txboard.model.TransactionSummary;
 
 import java.util.List;
 
-public sealed interface TransactionLogRepository permits InMemoryTransactionLogRepository, RedisTransactionLogRepository {
+public sealed interface TransactionLogRepository permits InMemoryTransactionLogRepository, RedisTransactionLogRepository,
+        FileTransactionLogRepository {
     void save(TransactionLog transactionLog);
+    void recordSampledOut(TransactionLog transactionLog);
     List<TransactionLog> findAll();
     long count();
     long countByTransactionStatus(TransactionPhaseStatus status);
@@ -18,4 +24,8 @@ public sealed interface TransactionLogRepository permits InMemoryTransactionLogR
     PageResponse<TransactionLog> findAll(PageRequest request);
     TransactionSummary getTransactionSummary();
     List<DurationDistribution> getDurationDistributions();
+    List<DurationDistribution> getDurationDistributions(List<Integer> buckets);
+    List<BatchSizeDistribution> getBatchSizeDistributions();
+    List<MethodSummary> getMethodSummaries();
+    List<TransactionRollup> getRollups(RollupWindow window);
 }
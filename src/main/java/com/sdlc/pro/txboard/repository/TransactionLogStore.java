@@ -0,0 +1,81 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Slot addressed storage of the logs retained by the {@link InMemoryTransactionLogRepository}. A log is appended into
+ * the slot of its sequence modulo the capacity, evicting the oldest log once the capacity is reached. Besides the
+ * logs themselves the storage exposes the scalar values of a slot the indexes are built from. Not thread-safe, the
+ * repository serializes the appends and guards the reads.
+ */
+sealed interface TransactionLogStore permits ObjectTransactionLogStore, ColumnarTransactionLogStore {
+
+    int capacity();
+
+    int size();
+
+    /**
+     * Returns the slot the next append writes into.
+     */
+    int nextSlot();
+
+    /**
+     * Returns the slot of the oldest retained log, the retained logs follow it in insertion order and wrap around at
+     * the capacity.
+     */
+    int oldestSlot();
+
+    void append(TransactionLog transactionLog);
+
+    /**
+     * Returns the log of the given slot, {@code null} when the slot is empty.
+     */
+    TransactionLog get(int slot);
+
+    /**
+     * Returns the log of the given slot detached from the storage, {@code null} when the slot is empty. The log is
+     * materialized when the supplier is called, which needs no lock as it no longer reads the slot, so the slot may
+     * be overwritten meanwhile.
+     */
+    Supplier<TransactionLog> detach(int slot);
+
+    /**
+     * Returns the retained logs ordered from oldest to newest.
+     */
+    List<TransactionLog> snapshot();
+
+    TransactionPhaseStatus statusAt(int slot);
+
+    PropagationBehavior propagationAt(int slot);
+
+    IsolationLevel isolationAt(int slot);
+
+    Boolean connectionOrientedAt(int slot);
+
+    boolean alarmingTransactionAt(int slot);
+
+    Boolean havingAlarmingConnectionAt(int slot);
+
+    boolean nPlusOneAt(int slot);
+
+    long durationMicrosAt(int slot);
+
+    /**
+     * Returns the start time in epoch nanoseconds saturated to the long range, {@link Long#MIN_VALUE} when missing.
+     */
+    long startTimeNanosAt(int slot);
+
+    /**
+     * Resolves the filter into the matching slots by scanning the stored values without materializing any log,
+     * {@code null} when the storage can not resolve the filter this way.
+     */
+    BitSet scan(Filter filter);
+}
@@ -0,0 +1,177 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.enums.RollupWindow;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionRollup;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolls the transactions up into a ring of windows per {@link RollupWindow} as they are recorded. A transaction is
+ * counted in the second of its end time; a window replaced in its ring by a later one is folded into the window of
+ * the next coarser ring, so the minutes and hours are downsampled from the seconds without reading any log again. The
+ * coarse windows are read together with the finer windows which have not been folded yet. A window holds counters
+ * and a latency histogram of a quarter of the full resolution (7.5KB, a relative error below 3.2%) and only exists
+ * for the periods with transactions. Thread-safe, the windows are replaced without locking.
+ */
+final class TransactionRollups {
+    private static final int HISTOGRAM_SHIFT = 2;
+
+    private final Ring[] rings;
+    private final Clock clock;
+
+    TransactionRollups() {
+        this(Clock.systemUTC());
+    }
+
+    TransactionRollups(Clock clock) {
+        RollupWindow[] windows = RollupWindow.values();
+        this.rings = new Ring[windows.length];
+        for (int i = windows.length - 1; i >= 0; i--) {
+            this.rings[i] = new Ring(windows[i], i + 1 < windows.length ? this.rings[i + 1] : null);
+        }
+        this.clock = clock;
+    }
+
+    void record(TransactionLog transactionLog) {
+        Instant endTime = transactionLog.getEndTime();
+        if (endTime != null) {
+            this.rings[0].record(endTime.toEpochMilli(), transactionLog);
+        }
+    }
+
+    /**
+     * Returns the retained windows of the given size up to the current one, oldest first and empty ones included.
+     */
+    List<TransactionRollup> getRollups(RollupWindow window) {
+        long windowMillis = window.duration().toMillis();
+        long last = Math.floorDiv(this.clock.millis(), windowMillis) * windowMillis;
+        long first = last - (window.retainedWindows() - 1) * windowMillis;
+
+        Window[] merged = new Window[window.retainedWindows()];
+        for (int i = 0; i <= window.ordinal(); i++) {
+            AtomicReferenceArray<Window> windows = this.rings[i].windows;
+            for (int slot = 0; slot < windows.length(); slot++) {
+                Window finer = windows.get(slot);
+                if (finer == null || finer.start < first || finer.start >= last + windowMillis) {
+                    continue;
+                }
+                int index = (int) ((finer.start - first) / windowMillis);
+                if (merged[index] == null) {
+                    merged[index] = new Window(first + index * windowMillis);
+                }
+                merged[index].add(finer);
+            }
+        }
+
+        List<TransactionRollup> rollups = new ArrayList<>(merged.length);
+        for (int index = 0; index < merged.length; index++) {
+            Window rollup = merged[index] != null ? merged[index] : new Window(first + index * windowMillis);
+            rollups.add(rollup.toRollup());
+        }
+        return rollups;
+    }
+
+    private static final class Ring {
+        private final long windowMillis;
+        private final AtomicReferenceArray<Window> windows;
+        private final Ring coarser;
+
+        Ring(RollupWindow window, Ring coarser) {
+            this.windowMillis = window.duration().toMillis();
+            this.windows = new AtomicReferenceArray<>(window.retainedWindows());
+            this.coarser = coarser;
+        }
+
+        void record(long time, TransactionLog transactionLog) {
+            Window window = this.windowOf(time);
+            if (window != null) {
+                window.record(transactionLog);
+            } else if (this.coarser != null) {
+                // the slot already moved on to a later window, a late transaction goes to the coarser one
+                this.coarser.record(time, transactionLog);
+            }
+        }
+
+        void fold(Window finer) {
+            Window window = this.windowOf(finer.start);
+            if (window != null) {
+                window.add(finer);
+            } else if (this.coarser != null) {
+                this.coarser.fold(finer);
+            }
+        }
+
+        /**
+         * Returns the window of the given time, replacing an earlier one in its slot, or {@code null} when the slot
+         * holds a later window.
+         */
+        private Window windowOf(long time) {
+            long start = Math.floorDiv(time, this.windowMillis) * this.windowMillis;
+            int slot = (int) Math.floorMod(Math.floorDiv(time, this.windowMillis), (long) this.windows.length());
+            while (true) {
+                Window current = this.windows.get(slot);
+                if (current != null && current.start >= start) {
+                    return current.start == start ? current : null;
+                }
+                Window created = new Window(start);
+                if (this.windows.compareAndSet(slot, current, created)) {
+                    if (current != null && this.coarser != null) {
+                        this.coarser.fold(current);
+                    }
+                    return created;
+                }
+            }
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private final LongAdder transactionCount = new LongAdder();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAdder connectionAcquisitionCount = new LongAdder();
+        private final LongAdder connectionOccupiedTimeMicros = new LongAdder();
+        private final LogLinearHistogram durations = new LogLinearHistogram(HISTOGRAM_SHIFT);
+
+        Window(long start) {
+            this.start = start;
+        }
+
+        void record(TransactionLog transactionLog) {
+            this.transactionCount.increment();
+            TransactionPhaseStatus status = transactionLog.getStatus();
+            if (status == TransactionPhaseStatus.ROLLED_BACK || status == TransactionPhaseStatus.ERRORED) {
+                this.failedCount.increment();
+            }
+            ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+            if (connectionSummary != null) {
+                this.connectionAcquisitionCount.add(connectionSummary.acquisitionCount());
+                this.connectionOccupiedTimeMicros.add(connectionSummary.occupiedTimeMicros());
+            }
+            this.durations.record(transactionLog.getDurationMicros());
+        }
+
+        void add(Window other) {
+            this.transactionCount.add(other.transactionCount.sum());
+            this.failedCount.add(other.failedCount.sum());
+            this.connectionAcquisitionCount.add(other.connectionAcquisitionCount.sum());
+            this.connectionOccupiedTimeMicros.add(other.connectionOccupiedTimeMicros.sum());
+            this.durations.add(other.durations);
+        }
+
+        TransactionRollup toRollup() {
+            long acquisitions = this.connectionAcquisitionCount.sum();
+            return new TransactionRollup(Instant.ofEpochMilli(this.start), this.transactionCount.sum(),
+                    this.failedCount.sum(), this.durations.valueAtPercentile(95.0) / 1_000.0, acquisitions,
+                    acquisitions == 0 ? 0.0 : this.connectionOccupiedTimeMicros.sum() / 1_000.0 / acquisitions);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
+import com.sdlc.pro.txboard.model.BatchSizeRange;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.storage.LogLinearHistogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The summary counters, the duration and batch size distributions, the latency histograms and the method statistics
+ * of the local repositories. Every recorded transaction is counted, also the ones which are sampled out or already
+ * evicted from the storage. Thread-safe.
+ */
+final class TransactionStatistics {
+    private final TransactionSummaryCounters summaryCounters;
+    private final List<Integer> durationBuckets;
+    // the ascending upper bounds of the batch size ranges, a batch larger than the last one counts in an overflow range
+    private final int[] batchSizeBounds;
+    private final BatchSizeRange[] batchSizeRanges;
+    private final AtomicLongArray batchSizeCounts;
+    private final LogLinearHistogram durationHistogram;
+    private final LogLinearHistogram connectionOccupiedTimeHistogram;
+    private final MethodStatistics methodStatistics;
+
+    TransactionStatistics(TxBoardProperties txBoardProperties) {
+        this.summaryCounters = new TransactionSummaryCounters();
+        this.durationBuckets = txBoardProperties.getDurationBuckets();
+        this.batchSizeBounds = txBoardProperties.getSql().getBatchSizeBuckets().stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.batchSizeRanges = batchSizeRangesOf(this.batchSizeBounds);
+        this.batchSizeCounts = new AtomicLongArray(this.batchSizeRanges.length);
+        this.durationHistogram = new LogLinearHistogram();
+        this.connectionOccupiedTimeHistogram = new LogLinearHistogram();
+        this.methodStatistics = new MethodStatistics();
+    }
+
+    private static BatchSizeRange[] batchSizeRangesOf(int[] bounds) {
+        BatchSizeRange[] ranges = new BatchSizeRange[bounds.length + 1];
+        int prev = 1;
+        for (int i = 0; i < bounds.length; i++) {
+            ranges[i] = BatchSizeRange.of(prev, bounds[i]);
+            prev = bounds[i] + 1;
+        }
+        ranges[bounds.length] = BatchSizeRange.of(prev, Integer.MAX_VALUE);
+        return ranges;
+    }
+
+    void record(TransactionLog transactionLog) {
+        this.updateBatchSizeDistribution(transactionLog);
+        this.summaryCounters.record(transactionLog);
+        this.durationHistogram.record(transactionLog.getDurationMicros());
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        if (connectionSummary.acquisitionCount() > 0) {
+            this.connectionOccupiedTimeHistogram.record(connectionSummary.occupiedTimeMicros());
+        }
+        this.methodStatistics.record(transactionLog);
+    }
+
+    private void updateBatchSizeDistribution(TransactionLog transactionLog) {
+        for (BatchSummary batch : transactionLog.getBatches()) {
+            this.batchSizeCounts.incrementAndGet(this.batchSizeRangeIndexOf(batch.size()));
+        }
+    }
+
+    private int batchSizeRangeIndexOf(int size) {
+        if (size < 1) {
+            return this.batchSizeBounds.length;
+        }
+        int index = Arrays.binarySearch(this.batchSizeBounds, size);
+        // the first bound not below the size, the overflow range past the last one
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Writes the summary and the distributions, to be restored with {@link #restore(DataInput)}. The duration
+     * distribution is read from the duration histogram, its section is written empty.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        TransactionSummary summary = this.summaryCounters.snapshot();
+        for (long value : new long[]{summary.getCommittedCount(), summary.getRolledBackCount(),
+                summary.getErroredCount(), summary.getTotalDuration(), summary.getAlarmingCount(),
+                summary.getConnectionAcquisitionCount(), summary.getTotalConnectionOccupiedTime(),
+                summary.getAlarmingConnectionCount(), summary.getTotalDurationMicros(),
+                summary.getTotalConnectionOccupiedTimeMicros()}) {
+            out.writeLong(value);
+        }
+
+        out.writeInt(0);
+        List<BatchSizeDistribution> batchSizes = this.getBatchSizeDistributions();
+        out.writeInt(batchSizes.size());
+        for (BatchSizeDistribution distribution : batchSizes) {
+            out.writeInt(distribution.range().minSize());
+            out.writeInt(distribution.range().maxSize());
+            out.writeLong(distribution.count());
+        }
+        this.durationHistogram.writeTo(out);
+        this.connectionOccupiedTimeHistogram.writeTo(out);
+        this.methodStatistics.writeTo(out);
+    }
+
+    /**
+     * Replaces the counters with the ones written by {@link #writeTo(DataOutput)}. Nothing is restored when the
+     * written batch size distribution has been bucketed differently than the configured one, a checkpoint without the
+     * latency histograms fails on its end. The duration distribution of an older checkpoint is skipped, the duration
+     * histogram holds it for any buckets.
+     *
+     * @return whether the counters have been restored
+     */
+    boolean restore(DataInput in) throws IOException {
+        TransactionSummary summary = new TransactionSummary(in.readLong(), in.readLong(), in.readLong(),
+                in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readLong());
+
+        for (int i = in.readInt(); i > 0; i--) {
+            in.readLong();
+            in.readLong();
+            in.readLong();
+        }
+        List<BatchSizeRange> batchSizeRanges = Arrays.asList(this.batchSizeRanges);
+        long[] batchSizes = new long[this.batchSizeRanges.length];
+        for (int i = in.readInt(); i > 0; i--) {
+            int index = batchSizeRanges.indexOf(BatchSizeRange.of(in.readInt(), in.readInt()));
+            if (index < 0) {
+                return false;
+            }
+            batchSizes[index] = in.readLong();
+        }
+        LogLinearHistogram durationHistogram = LogLinearHistogram.readFrom(in);
+        LogLinearHistogram connectionOccupiedTimeHistogram = LogLinearHistogram.readFrom(in);
+        // the last part read, it replaces the method counters once all of them have been read
+        this.methodStatistics.restore(in);
+
+        this.summaryCounters.set(summary);
+        this.durationHistogram.set(durationHistogram);
+        this.connectionOccupiedTimeHistogram.set(connectionOccupiedTimeHistogram);
+        for (int i = 0; i < batchSizes.length; i++) {
+            this.batchSizeCounts.set(i, batchSizes[i]);
+        }
+        return true;
+    }
+
+    public TransactionSummary getTransactionSummary() {
+        return this.summaryCounters.snapshot()
+                .withPercentiles(this.durationHistogram.percentiles(), this.connectionOccupiedTimeHistogram.percentiles());
+    }
+
+    public List<MethodSummary> getMethodSummaries() {
+        return this.methodStatistics.getMethodSummaries();
+    }
+
+    public List<DurationDistribution> getDurationDistributions() {
+        return this.getDurationDistributions(this.durationBuckets);
+    }
+
+    /**
+     * Buckets the recorded durations into the ranges of the given ascending upper bounds (in ms).
+     */
+    public List<DurationDistribution> getDurationDistributions(List<Integer> buckets) {
+        return DurationDistributions.of(this.durationHistogram, buckets);
+    }
+
+    public List<BatchSizeDistribution> getBatchSizeDistributions() {
+        List<BatchSizeDistribution> distributions = new ArrayList<>(this.batchSizeRanges.length);
+        for (int i = 0; i < this.batchSizeRanges.length; i++) {
+            long count = this.batchSizeCounts.get(i);
+            // the overflow range is only listed once a batch has fallen into it
+            if (i < this.batchSizeBounds.length || count > 0) {
+                distributions.add(new BatchSizeDistribution(this.batchSizeRanges[i], count));
+            }
+        }
+        return distributions;
+    }
+}
@@ -0,0 +1,75 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of the {@link TransactionSummary}, one striped {@link LongAdder} per field, so concurrently recording
+ * threads add to their own cells instead of retrying to replace a shared summary. The summary is built when read; it
+ * is not an atomic snapshot, a transaction recorded meanwhile may be counted in some fields only.
+ */
+final class TransactionSummaryCounters {
+    private final LongAdder committedCount = new LongAdder();
+    private final LongAdder rolledBackCount = new LongAdder();
+    private final LongAdder erroredCount = new LongAdder();
+    private final LongAdder totalDuration = new LongAdder();
+    private final LongAdder alarmingCount = new LongAdder();
+    private final LongAdder connectionAcquisitionCount = new LongAdder();
+    private final LongAdder totalConnectionOccupiedTime = new LongAdder();
+    private final LongAdder alarmingConnectionCount = new LongAdder();
+    private final LongAdder totalDurationMicros = new LongAdder();
+    private final LongAdder totalConnectionOccupiedTimeMicros = new LongAdder();
+
+    void record(TransactionLog transactionLog) {
+        if (transactionLog.getStatus() != null) {
+            switch (transactionLog.getStatus()) {
+                case COMMITTED -> this.committedCount.increment();
+                case ROLLED_BACK -> this.rolledBackCount.increment();
+                case ERRORED -> this.erroredCount.increment();
+            }
+        }
+        this.totalDuration.add(transactionLog.getDuration());
+        this.totalDurationMicros.add(transactionLog.getDurationMicros());
+        if (transactionLog.isAlarmingTransaction()) {
+            this.alarmingCount.increment();
+        }
+
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        this.connectionAcquisitionCount.add(connectionSummary.acquisitionCount());
+        this.totalConnectionOccupiedTime.add(connectionSummary.occupiedTime());
+        this.totalConnectionOccupiedTimeMicros.add(connectionSummary.occupiedTimeMicros());
+        this.alarmingConnectionCount.add(connectionSummary.alarmingConnectionCount());
+    }
+
+    TransactionSummary snapshot() {
+        return new TransactionSummary(this.committedCount.sum(), this.rolledBackCount.sum(), this.erroredCount.sum(),
+                this.totalDuration.sum(), this.alarmingCount.sum(), this.connectionAcquisitionCount.sum(),
+                this.totalConnectionOccupiedTime.sum(), this.alarmingConnectionCount.sum(),
+                this.totalDurationMicros.sum(), this.totalConnectionOccupiedTimeMicros.sum());
+    }
+
+    /**
+     * Replaces the counters with the ones of the given summary, e.g. a restored one. Not to be called while
+     * transactions are recorded.
+     */
+    void set(TransactionSummary summary) {
+        set(this.committedCount, summary.getCommittedCount());
+        set(this.rolledBackCount, summary.getRolledBackCount());
+        set(this.erroredCount, summary.getErroredCount());
+        set(this.totalDuration, summary.getTotalDuration());
+        set(this.alarmingCount, summary.getAlarmingCount());
+        set(this.connectionAcquisitionCount, summary.getConnectionAcquisitionCount());
+        set(this.totalConnectionOccupiedTime, summary.getTotalConnectionOccupiedTime());
+        set(this.alarmingConnectionCount, summary.getAlarmingConnectionCount());
+        set(this.totalDurationMicros, summary.getTotalDurationMicros());
+        set(this.totalConnectionOccupiedTimeMicros, summary.getTotalConnectionOccupiedTimeMicros());
+    }
+
+    private static void set(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+}
@@ -0,0 +1,59 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Secondary index mapping each distinct value of a low-cardinality property (an enum or a boolean) to the bitmap of
+ * the {@link RingBuffer} slots holding an element with that value. Null values are not indexed. The index is not
+ * thread-safe, its owner serializes the updates with the appends and guards the reads.
+ */
+public final class BitmapIndex<K> {
+    private final Map<K, BitSet> bitmaps;
+
+    public BitmapIndex() {
+        this.bitmaps = new HashMap<>();
+    }
+
+    /**
+     * Moves the given slot from the bitmap of the value of the evicted element to the one of the new element.
+     */
+    public void update(int slot, K previous, K current) {
+        if (previous != null) {
+            BitSet bitmap = this.bitmaps.get(previous);
+            if (bitmap != null) {
+                bitmap.clear(slot);
+            }
+        }
+        if (current != null) {
+            this.bitmaps.computeIfAbsent(current, k -> new BitSet()).set(slot);
+        }
+    }
+
+    /**
+     * Returns a copy of the bitmap of the slots whose value equals the given one.
+     */
+    public BitSet equalTo(Object value) {
+        BitSet bitmap = this.bitmaps.get(value);
+        return bitmap == null ? new BitSet() : (BitSet) bitmap.clone();
+    }
+
+    /**
+     * Returns the bitmap of the slots having a non-null value which differs from the given one.
+     */
+    public BitSet notEqualTo(Object value) {
+        BitSet result = new BitSet();
+        for (Map.Entry<K, BitSet> entry : this.bitmaps.entrySet()) {
+            if (!entry.getKey().equals(value)) {
+                result.or(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    public int count(Object value) {
+        BitSet bitmap = this.bitmaps.get(value);
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+}
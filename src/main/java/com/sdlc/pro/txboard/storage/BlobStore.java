@@ -0,0 +1,16 @@
+package com.sdlc.pro.txboard.storage;
+
+/**
+ * Slot addressed storage of encoded byte blobs, e.g. the {@link TransactionLogCodec.Details} of the logs whose scalar
+ * fields are kept in columns. Writing a slot replaces the blob of the evicted element. Not thread-safe, the owner
+ * guards the writes and the reads.
+ */
+public sealed interface BlobStore permits HeapBlobStore, OffHeapBlobStore {
+
+    void put(int slot, byte[] blob);
+
+    /**
+     * Returns the blob of the given slot, {@code null} when none has been written.
+     */
+    byte[] get(int slot);
+}
@@ -0,0 +1,35 @@
+package com.sdlc.pro.txboard.storage;
+
+/**
+ * Keeps one heap byte array per slot, in chunks which are only allocated once a blob is written into them.
+ */
+public final class HeapBlobStore implements BlobStore {
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final byte[][][] chunks;
+
+    public HeapBlobStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The blob store capacity must be positive integer");
+        }
+        this.chunks = new byte[(capacity + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][][];
+    }
+
+    @Override
+    public void put(int slot, byte[] blob) {
+        byte[][] chunk = this.chunks[slot >>> CHUNK_SHIFT];
+        if (chunk == null) {
+            chunk = new byte[CHUNK_SIZE][];
+            this.chunks[slot >>> CHUNK_SHIFT] = chunk;
+        }
+        chunk[slot & CHUNK_MASK] = blob;
+    }
+
+    @Override
+    public byte[] get(int slot) {
+        byte[][] chunk = this.chunks[slot >>> CHUNK_SHIFT];
+        return chunk == null ? null : chunk[slot & CHUNK_MASK];
+    }
+}
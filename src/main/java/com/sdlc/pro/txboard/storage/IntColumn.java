@@ -0,0 +1,35 @@
+package com.sdlc.pro.txboard.storage;
+
+/**
+ * Fixed-capacity column of primitive ints stored in fixed-size chunks which are only allocated once a value is
+ * written into them, so a large configured capacity costs nothing until it is used. Not thread-safe, the owner
+ * guards the writes and the reads.
+ */
+public final class IntColumn {
+    static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int[][] chunks;
+
+    public IntColumn(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The column capacity must be positive integer");
+        }
+        this.chunks = new int[(capacity + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][];
+    }
+
+    public int get(int index) {
+        int[] chunk = this.chunks[index >>> CHUNK_SHIFT];
+        return chunk == null ? 0 : chunk[index & CHUNK_MASK];
+    }
+
+    public void set(int index, int value) {
+        int[] chunk = this.chunks[index >>> CHUNK_SHIFT];
+        if (chunk == null) {
+            chunk = new int[CHUNK_SIZE];
+            this.chunks[index >>> CHUNK_SHIFT] = chunk;
+        }
+        chunk[index & CHUNK_MASK] = value;
+    }
+}
@@ -0,0 +1,215 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size latency histogram with log-linear buckets in the manner of HdrHistogram: the values below 256 have a
+ * bucket each, above every power of two is split into 128 equally wide buckets. The highest value of a bucket is less
+ * than 0.8% above its lowest one, so the percentiles keep two significant digits from a microsecond up to the
+ * {@link #MAX_TRACKABLE_VALUE} (about 19 hours in microseconds) in 32KB. Recording is a single atomic increment and
+ * histograms are merged by adding their bucket counts, which lets them be combined across storages and nodes. A
+ * coarser histogram counts a few adjacent buckets together, the buckets given to and returned by it are still the
+ * ones of the full resolution.
+ */
+public final class LogLinearHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final int MAX_VALUE_BITS = 36;
+
+    public static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    public static final int BUCKET_COUNT = bucketOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts;
+    private final int shift;
+
+    public LogLinearHistogram() {
+        this(0);
+    }
+
+    /**
+     * @param shift the binary logarithm of the number of adjacent buckets counted together, every one doubles the
+     *              relative error and halves the memory, e.g. 2 keeps 7.5KB at an error below 3.2% (or 3 for the
+     *              values below 256)
+     */
+    public LogLinearHistogram(int shift) {
+        if (shift < 0 || shift >= SUB_BUCKET_BITS) {
+            throw new IllegalArgumentException("The shift must be between 0 and " + (SUB_BUCKET_BITS - 1));
+        }
+        this.shift = shift;
+        this.counts = new AtomicLongArray(((BUCKET_COUNT - 1) >> shift) + 1);
+    }
+
+    /**
+     * Returns the bucket of the given value, negative values are counted as 0 and the values above the
+     * {@link #MAX_TRACKABLE_VALUE} in the last bucket.
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(value, 0);
+        }
+        long clamped = Math.min(value, MAX_TRACKABLE_VALUE);
+        int shift = 63 - Long.numberOfLeadingZeros(clamped) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (clamped >>> shift) - SUB_BUCKET_HALF;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket;
+    }
+
+    public static long lowestValueAt(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (bucket - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return subBucket << shift;
+    }
+
+    public static long highestValueAt(int bucket) {
+        return bucket + 1 == BUCKET_COUNT ? MAX_TRACKABLE_VALUE : lowestValueAt(bucket + 1) - 1;
+    }
+
+    public void record(long value) {
+        this.counts.incrementAndGet(bucketOf(value) >> this.shift);
+    }
+
+    /**
+     * Adds the given count to a bucket, e.g. of a histogram which is kept elsewhere.
+     */
+    public void add(int bucket, long count) {
+        if (bucket < 0 || bucket >= BUCKET_COUNT) {
+            throw new IllegalArgumentException("The bucket must be between 0 and " + (BUCKET_COUNT - 1));
+        }
+        this.counts.addAndGet(bucket >> this.shift, count);
+    }
+
+    /**
+     * Adds the counts of a histogram of the same or a finer resolution.
+     */
+    public void add(LogLinearHistogram other) {
+        if (other.shift > this.shift) {
+            throw new IllegalArgumentException("A histogram can't be added to a finer one");
+        }
+        for (int index = 0; index < other.counts.length(); index++) {
+            long count = other.counts.get(index);
+            if (count != 0) {
+                this.counts.addAndGet((index << other.shift) >> this.shift, count);
+            }
+        }
+    }
+
+    /**
+     * Returns the count of the given bucket, together with the adjacent ones of a coarser histogram.
+     */
+    public long countAt(int bucket) {
+        return this.counts.get(bucket >> this.shift);
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int index = 0; index < this.counts.length(); index++) {
+            total += this.counts.get(index);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the highest value of the bucket holding the given percentile (between 0 and 100) of the recorded values,
+     * 0 when nothing was recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = this.snapshot();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        return this.valueAtPercentile(snapshot, total, percentile);
+    }
+
+    /**
+     * Returns the median and the tail percentiles of the recorded microseconds in milliseconds. The buckets are read
+     * once, so the percentiles are consistent with each other while values are recorded.
+     */
+    public LatencyPercentiles percentiles() {
+        long[] snapshot = this.snapshot();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        return new LatencyPercentiles(total,
+                this.valueAtPercentile(snapshot, total, 50.0) / 1_000.0,
+                this.valueAtPercentile(snapshot, total, 95.0) / 1_000.0,
+                this.valueAtPercentile(snapshot, total, 99.0) / 1_000.0,
+                this.valueAtPercentile(snapshot, total, 99.9) / 1_000.0);
+    }
+
+    private long valueAtPercentile(long[] snapshot, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        // rounded like HdrHistogram, 99.9 / 100 is not exact and would skip to the next rank
+        long rank = Math.max(1, Math.round(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int index = 0; index < snapshot.length; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return highestValueAt(Math.min(((index + 1) << this.shift) - 1, BUCKET_COUNT - 1));
+            }
+        }
+        return MAX_TRACKABLE_VALUE;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[this.counts.length()];
+        for (int index = 0; index < snapshot.length; index++) {
+            snapshot[index] = this.counts.get(index);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the non-empty buckets, to be read with {@link #readFrom(DataInput)}. The counts of a coarser histogram
+     * are written to the first of their buckets.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        long[] snapshot = this.snapshot();
+        int used = 0;
+        for (long count : snapshot) {
+            used += count != 0 ? 1 : 0;
+        }
+        out.writeInt(used);
+        for (int index = 0; index < snapshot.length; index++) {
+            if (snapshot[index] != 0) {
+                out.writeShort(index << this.shift);
+                out.writeLong(snapshot[index]);
+            }
+        }
+    }
+
+    public static LogLinearHistogram readFrom(DataInput in) throws IOException {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = in.readInt(); i > 0; i--) {
+            int bucket = in.readUnsignedShort();
+            if (bucket >= BUCKET_COUNT) {
+                throw new IOException("Unknown histogram bucket " + bucket);
+            }
+            histogram.counts.set(bucket, in.readLong());
+        }
+        return histogram;
+    }
+
+    /**
+     * Replaces the bucket counts with the ones of the given histogram of the same resolution.
+     */
+    public void set(LogLinearHistogram other) {
+        if (other.shift != this.shift) {
+            throw new IllegalArgumentException("The histograms have different resolutions");
+        }
+        for (int index = 0; index < this.counts.length(); index++) {
+            this.counts.set(index, other.counts.get(index));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the blobs one after another into direct memory chunks, the heap only keeps a fixed-width handle per slot
+ * (chunk id and offset in a long, the length in an int). As the slots are overwritten in insertion order, a chunk
+ * whose blobs have all been replaced is returned to a pool and reused for the next blobs instead of being freed.
+ * <p>
+ * The direct memory never grows past the budget: a blob which does not fit into a chunk, or which would need a new
+ * chunk once the budget is exhausted, is kept on the heap instead. Not thread-safe, the owner guards the writes and
+ * the reads; concurrent reads are safe as they never move the position of a chunk.
+ */
+public final class OffHeapBlobStore implements BlobStore {
+    private static final int EMPTY = 0;
+    // the blob of the slot is kept by the heap fallback
+    private static final int ON_HEAP = -1;
+
+    private final int chunkSize;
+    private final long budget;
+    private final LongColumn handles;
+    // the blob length plus one, or one of EMPTY and ON_HEAP
+    private final IntColumn lengths;
+    private final HeapBlobStore heap;
+    private final Map<Integer, Chunk> chunks;
+    private final Deque<ByteBuffer> pool;
+
+    private Chunk current;
+    private int nextChunkId;
+    private long reservedBytes;
+    private long usedBytes;
+    private long heapBlobCount;
+    private long heapFallbackCount;
+
+    /**
+     * @param capacity  number of slots
+     * @param budget    maximum number of direct memory bytes reserved for the chunks
+     * @param chunkSize size of a chunk in bytes, the largest blob kept off-heap
+     */
+    public OffHeapBlobStore(int capacity, long budget, int chunkSize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The blob store capacity must be positive integer");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The off-heap chunk size must be positive integer");
+        }
+        if (budget < chunkSize) {
+            throw new IllegalArgumentException("The off-heap budget must not be smaller than the chunk size");
+        }
+        this.chunkSize = chunkSize;
+        this.budget = budget;
+        this.handles = new LongColumn(capacity);
+        this.lengths = new IntColumn(capacity);
+        this.heap = new HeapBlobStore(capacity);
+        this.chunks = new HashMap<>();
+        this.pool = new ArrayDeque<>();
+    }
+
+    @Override
+    public void put(int slot, byte[] blob) {
+        this.release(slot);
+        if (blob == null) {
+            return;
+        }
+
+        Chunk chunk = blob.length <= this.chunkSize ? this.chunkFor(blob.length) : null;
+        if (chunk == null) {
+            this.heap.put(slot, blob);
+            this.lengths.set(slot, ON_HEAP);
+            this.heapBlobCount++;
+            this.heapFallbackCount++;
+            return;
+        }
+
+        int offset = chunk.position;
+        chunk.buffer.put(offset, blob);
+        chunk.position += blob.length;
+        chunk.liveCount++;
+        this.handles.set(slot, ((long) chunk.id << 32) | offset);
+        this.lengths.set(slot, blob.length + 1);
+        this.usedBytes += blob.length;
+    }
+
+    @Override
+    public byte[] get(int slot) {
+        int length = this.lengths.get(slot);
+        if (length == EMPTY) {
+            return null;
+        }
+        if (length == ON_HEAP) {
+            return this.heap.get(slot);
+        }
+
+        long handle = this.handles.get(slot);
+        byte[] blob = new byte[length - 1];
+        this.chunks.get((int) (handle >>> 32)).buffer.get((int) handle, blob);
+        return blob;
+    }
+
+    /**
+     * Drops the blob of the slot, a chunk is put back into the pool once its last blob is dropped.
+     */
+    private void release(int slot) {
+        int length = this.lengths.get(slot);
+        if (length == EMPTY) {
+            return;
+        }
+        this.lengths.set(slot, EMPTY);
+        if (length == ON_HEAP) {
+            this.heap.put(slot, null);
+            this.heapBlobCount--;
+            return;
+        }
+
+        int chunkId = (int) (this.handles.get(slot) >>> 32);
+        Chunk chunk = this.chunks.get(chunkId);
+        chunk.liveCount--;
+        this.usedBytes -= length - 1;
+        if (chunk.liveCount == 0 && chunk != this.current) {
+            this.recycle(chunk);
+        }
+    }
+
+    /**
+     * Returns the chunk with room for the given number of bytes, {@code null} when a new chunk would exceed the
+     * budget.
+     */
+    private Chunk chunkFor(int length) {
+        if (this.current != null && this.chunkSize - this.current.position >= length) {
+            return this.current;
+        }
+
+        ByteBuffer buffer = this.pool.poll();
+        if (buffer == null) {
+            if (this.reservedBytes + this.chunkSize > this.budget) {
+                return null;
+            }
+            buffer = ByteBuffer.allocateDirect(this.chunkSize);
+            this.reservedBytes += this.chunkSize;
+        }
+
+        Chunk previous = this.current;
+        this.current = new Chunk(this.nextChunkId++, buffer);
+        this.chunks.put(this.current.id, this.current);
+        if (previous != null && previous.liveCount == 0) {
+            this.recycle(previous);
+        }
+        return this.current;
+    }
+
+    private void recycle(Chunk chunk) {
+        this.chunks.remove(chunk.id);
+        this.pool.push(chunk.buffer);
+    }
+
+    public OffHeapStatistics getStatistics() {
+        return new OffHeapStatistics(
+                this.budget,
+                this.reservedBytes,
+                this.usedBytes,
+                this.chunks.size(),
+                this.pool.size(),
+                this.heapBlobCount,
+                this.heapFallbackCount
+        );
+    }
+
+    /**
+     * @param budgetBytes       maximum number of direct memory bytes the store may reserve
+     * @param reservedBytes     direct memory bytes reserved by the chunks in use and in the pool
+     * @param usedBytes         bytes of the retained blobs kept off-heap
+     * @param chunks            chunks holding at least one retained blob or being written
+     * @param pooledChunks      reclaimed chunks waiting to be reused
+     * @param heapBlobs         retained blobs kept on the heap because they did not fit off-heap
+     * @param heapFallbackCount total blobs written to the heap because they did not fit off-heap
+     */
+    public record OffHeapStatistics(long budgetBytes, long reservedBytes, long usedBytes, int chunks,
+                                    int pooledChunks, long heapBlobs, long heapFallbackCount) {
+    }
+
+    private static final class Chunk {
+        private final int id;
+        private final ByteBuffer buffer;
+        private int position;
+        private int liveCount;
+
+        private Chunk(int id, ByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+    }
+}
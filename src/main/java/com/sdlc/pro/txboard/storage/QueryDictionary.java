@@ -0,0 +1,105 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns normalized SQL templates (see {@link SqlNormalizer}) and hands out compact int ids for them. Lookups of
+ * already known templates are lock-free, only the registration of a new template is serialized. Once the configured
+ * capacity is reached no more templates are registered and {@link #NOT_INTERNED} is returned, in which case the caller
+ * keeps the raw statement. Templates sharing a fingerprint also share a compact fingerprint id.
+ */
+public final class QueryDictionary {
+    public static final int NOT_INTERNED = -1;
+
+    private final int capacity;
+    private final ConcurrentMap<String, Entry> entriesByTemplate;
+    private final Map<String, Integer> fingerprintIds;
+    private volatile Entry[] entries;
+    private volatile int size;
+
+    public QueryDictionary(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The query dictionary capacity must be positive integer");
+        }
+        this.capacity = capacity;
+        this.entriesByTemplate = new ConcurrentHashMap<>();
+        this.fingerprintIds = new HashMap<>();
+        this.entries = new Entry[Math.min(capacity, 64)];
+    }
+
+    public int intern(String template) {
+        if (template == null) {
+            return NOT_INTERNED;
+        }
+        Entry entry = this.entriesByTemplate.get(template);
+        if (entry != null) {
+            return entry.id();
+        }
+        return this.register(template);
+    }
+
+    private synchronized int register(String template) {
+        Entry entry = this.entriesByTemplate.get(template);
+        if (entry != null) {
+            return entry.id();
+        }
+
+        int id = this.size;
+        if (id >= this.capacity) {
+            return NOT_INTERNED;
+        }
+
+        Entry[] current = this.entries;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, Math.min(this.capacity, current.length << 1));
+        }
+        String fingerprint = SqlNormalizer.fingerprint(template);
+        int fingerprintId = this.fingerprintIds.computeIfAbsent(fingerprint, k -> this.fingerprintIds.size());
+        entry = new Entry(id, template, fingerprint, fingerprintId);
+        current[id] = entry;
+        this.entries = current;
+        this.size = id + 1;
+        // publish through the map last, a reader which obtains the id is guaranteed to see the entry
+        this.entriesByTemplate.put(template, entry);
+        return id;
+    }
+
+    public Entry entryOf(int id) {
+        Entry[] current = this.entries;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("There have no query registered for given id %d".formatted(id));
+        }
+        return current[id];
+    }
+
+    public String templateOf(int id) {
+        return this.entryOf(id).template();
+    }
+
+    public String fingerprintOf(int id) {
+        return this.entryOf(id).fingerprint();
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @param id            the compact id of the template
+     * @param template      the statement with its literals replaced by {@link SqlNormalizer#LITERAL_MARKER}
+     * @param fingerprint   the template with IN-lists and whitespace collapsed
+     * @param fingerprintId the compact id of the fingerprint, shared by the templates having the same fingerprint
+     */
+    public record Entry(int id, String template, String fingerprint, int fingerprintId) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.QueryExecution;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable list of executed statements stored as {@link QueryDictionary} ids plus the optional literal parameters
+ * of each execution. The statement text is rendered on access, so a retained log only holds a few ints per query.
+ * Statements which could not be interned (dictionary is full) are kept as raw text. The start offset and the duration
+ * of each execution are kept in nanoseconds and exposed through {@link #executions()}. A JDBC batch takes a single
+ * entry which additionally carries its {@link BatchSummary}. An execution whose text is not captured is listed as
+ * {@link #UNCAPTURED_STATEMENT}.
+ */
+public final class QueryList extends AbstractList<String> implements RandomAccess, Serializable {
+    /**
+     * The statement listed for an execution whose text is not captured.
+     */
+    public static final String UNCAPTURED_STATEMENT = "/* statement not captured */";
+
+    private static final String[] NO_PARAMETERS = new String[0];
+    private static final SqlNormalizer.NormalizedSql UNCAPTURED = new SqlNormalizer.NormalizedSql(UNCAPTURED_STATEMENT,
+            NO_PARAMETERS);
+
+    private final transient QueryDictionary dictionary;
+    private final int[] ids;
+    private final String[][] parameters;
+    private final String[] rawQueries;
+    private final long[] startOffsets;
+    private final long[] durations;
+    private final BatchSummary[] batches;
+
+    private QueryList(QueryDictionary dictionary, int[] ids, String[][] parameters, String[] rawQueries,
+                      long[] startOffsets, long[] durations, BatchSummary[] batches) {
+        this.dictionary = dictionary;
+        this.ids = ids;
+        this.parameters = parameters;
+        this.rawQueries = rawQueries;
+        this.startOffsets = startOffsets;
+        this.durations = durations;
+        this.batches = batches;
+    }
+
+    @Override
+    public String get(int index) {
+        int id = this.ids[index];
+        if (id == QueryDictionary.NOT_INTERNED) {
+            return this.rawQueries[index];
+        }
+        return SqlNormalizer.render(this.dictionary.templateOf(id), this.parametersAt(index));
+    }
+
+    @Override
+    public int size() {
+        return this.ids.length;
+    }
+
+    /**
+     * Returns the dictionary the ids of this list refer to.
+     */
+    QueryDictionary dictionary() {
+        return this.dictionary;
+    }
+
+    public int idAt(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * Returns the normalized template of the statement at the given index.
+     */
+    public String templateAt(int index) {
+        int id = this.ids[index];
+        return id == QueryDictionary.NOT_INTERNED ? this.rawQueries[index] : this.dictionary.templateOf(id);
+    }
+
+    /**
+     * Returns the captured literal parameters of the statement at the given index, empty when the statement has
+     * no literals or parameter capturing is disabled.
+     */
+    public String[] parametersAt(int index) {
+        String[] params = this.parameters == null ? null : this.parameters[index];
+        return params == null ? NO_PARAMETERS : params;
+    }
+
+    public long startOffsetNanosAt(int index) {
+        return this.startOffsets[index];
+    }
+
+    public long durationNanosAt(int index) {
+        return this.durations[index];
+    }
+
+    /**
+     * Returns the summary of the batch at the given index, {@code null} when the entry is not a batch.
+     */
+    public BatchSummary batchAt(int index) {
+        return this.batches == null ? null : this.batches[index];
+    }
+
+    /**
+     * Returns a view of the executions with their timings, the statement text is rendered on access.
+     */
+    public List<QueryExecution> executions() {
+        return new AbstractList<>() {
+            @Override
+            public QueryExecution get(int index) {
+                return new QueryExecution(
+                        QueryList.this.get(index),
+                        TimeUnit.NANOSECONDS.toMicros(QueryList.this.startOffsets[index]),
+                        TimeUnit.NANOSECONDS.toMicros(QueryList.this.durations[index]),
+                        QueryList.this.batchAt(index)
+                );
+            }
+
+            @Override
+            public int size() {
+                return QueryList.this.size();
+            }
+        };
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new ArrayList<>(this);
+    }
+
+    /**
+     * Reusable, not thread-safe builder which normalizes and interns statements as they are executed.
+     */
+    public static final class Builder {
+        private final QueryDictionary dictionary;
+        private final boolean captureParameters;
+        private int[] ids = new int[8];
+        private String[][] parameters;
+        private String[] rawQueries;
+        private long[] startOffsets = new long[8];
+        private long[] durations = new long[8];
+        private BatchSummary[] batches;
+        private int size;
+
+        public Builder(QueryDictionary dictionary, boolean captureParameters) {
+            this.dictionary = dictionary;
+            this.captureParameters = captureParameters;
+        }
+
+        public int add(String sql) {
+            return this.add(sql, 0L, 0L);
+        }
+
+        public int add(String sql, long startOffsetNanos, long durationNanos) {
+            return this.add(sql, startOffsetNanos, durationNanos, null);
+        }
+
+        /**
+         * Adds an executed statement and returns its {@link QueryDictionary} id, or {@link QueryDictionary#NOT_INTERNED}
+         * when the statement is kept as raw text.
+         */
+        public int add(String sql, long startOffsetNanos, long durationNanos, BatchSummary batch) {
+            return this.add(SqlNormalizer.normalize(sql), sql, startOffsetNanos, durationNanos, batch);
+        }
+
+        /**
+         * Adds an already normalized statement, e.g. one which has been read back from a storage.
+         */
+        public int add(SqlNormalizer.NormalizedSql normalizedSql, long startOffsetNanos, long durationNanos,
+                       BatchSummary batch) {
+            return this.add(normalizedSql, null, startOffsetNanos, durationNanos, batch);
+        }
+
+        /**
+         * Adds an execution without its statement text and parameters, the entry only keeps the timings and the batch
+         * under {@link #UNCAPTURED_STATEMENT}.
+         */
+        public void addUncaptured(long startOffsetNanos, long durationNanos, BatchSummary batch) {
+            this.add(UNCAPTURED, null, startOffsetNanos, durationNanos, batch);
+        }
+
+        /**
+         * Adds a statement which is already interned in the dictionary of this builder with the given id, e.g. one
+         * which has been read back from an encoded log.
+         */
+        int addInterned(int id, String[] parameters, long startOffsetNanos, long durationNanos, BatchSummary batch) {
+            String template = this.dictionary.templateOf(id);
+            return this.add(new SqlNormalizer.NormalizedSql(template, parameters), null, startOffsetNanos,
+                    durationNanos, batch);
+        }
+
+        private int add(SqlNormalizer.NormalizedSql normalizedSql, String sql, long startOffsetNanos,
+                        long durationNanos, BatchSummary batch) {
+            int id = this.dictionary.intern(normalizedSql.template());
+            this.ensureCapacity();
+
+            if (batch != null) {
+                if (this.batches == null) {
+                    this.batches = new BatchSummary[this.ids.length];
+                }
+                this.batches[this.size] = batch;
+            }
+            this.ids[this.size] = id;
+            this.startOffsets[this.size] = startOffsetNanos;
+            this.durations[this.size] = durationNanos;
+            if (id == QueryDictionary.NOT_INTERNED) {
+                if (this.rawQueries == null) {
+                    this.rawQueries = new String[this.ids.length];
+                }
+                this.rawQueries[this.size] = sql != null ? sql
+                        : SqlNormalizer.render(normalizedSql.template(), normalizedSql.parameters());
+            } else if (this.captureParameters && normalizedSql.parameters().length > 0) {
+                if (this.parameters == null) {
+                    this.parameters = new String[this.ids.length][];
+                }
+                this.parameters[this.size] = normalizedSql.parameters();
+            }
+            this.size++;
+            return id;
+        }
+
+        private void ensureCapacity() {
+            if (this.size < this.ids.length) {
+                return;
+            }
+            int newCapacity = this.ids.length << 1;
+            this.ids = Arrays.copyOf(this.ids, newCapacity);
+            this.startOffsets = Arrays.copyOf(this.startOffsets, newCapacity);
+            this.durations = Arrays.copyOf(this.durations, newCapacity);
+            if (this.parameters != null) {
+                this.parameters = Arrays.copyOf(this.parameters, newCapacity);
+            }
+            if (this.rawQueries != null) {
+                this.rawQueries = Arrays.copyOf(this.rawQueries, newCapacity);
+            }
+            if (this.batches != null) {
+                this.batches = Arrays.copyOf(this.batches, newCapacity);
+            }
+        }
+
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        public QueryList build() {
+            return new QueryList(
+                    this.dictionary,
+                    Arrays.copyOf(this.ids, this.size),
+                    this.parameters == null ? null : Arrays.copyOf(this.parameters, this.size),
+                    this.rawQueries == null ? null : Arrays.copyOf(this.rawQueries, this.size),
+                    Arrays.copyOf(this.startOffsets, this.size),
+                    Arrays.copyOf(this.durations, this.size),
+                    this.batches == null ? null : Arrays.copyOf(this.batches, this.size)
+            );
+        }
+
+        public void clear() {
+            if (this.parameters != null) {
+                Arrays.fill(this.parameters, 0, this.size, null);
+            }
+            if (this.rawQueries != null) {
+                Arrays.fill(this.rawQueries, 0, this.size, null);
+            }
+            if (this.batches != null) {
+                Arrays.fill(this.batches, 0, this.size, null);
+            }
+            this.size = 0;
+        }
+    }
+}
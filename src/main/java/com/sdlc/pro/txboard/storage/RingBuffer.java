@@ -0,0 +1,131 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity, lock-free ring buffer with O(1) append and oldest-first eviction.
+ * <p>
+ * Every append claims a monotonically increasing sequence number and publishes the element into
+ * slot {@code sequence % capacity}. Each slot remembers the sequence it was written for, so a reader
+ * can tell whether a slot still holds the element it expects or has already been overwritten by a
+ * newer lap. Readers never block writers; a snapshot simply skips slots that are not yet published.
+ */
+public final class RingBuffer<T> {
+    private final int capacity;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong sequence;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The ring buffer capacity must be positive integer");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequence = new AtomicLong(0);
+    }
+
+    /**
+     * Appends the given element and returns the element it evicted, or {@code null} if the slot was empty.
+     */
+    public T append(T element) {
+        long seq = this.sequence.getAndIncrement();
+        int index = indexOf(seq);
+        Slot<T> newSlot = new Slot<>(seq, element);
+
+        Slot<T> current;
+        do {
+            current = this.slots.get(index);
+            if (current != null && current.sequence > seq) {
+                // a writer from a later lap has already published into this slot
+                return element;
+            }
+        } while (!this.slots.compareAndSet(index, current, newSlot));
+
+        return current == null ? null : current.element;
+    }
+
+    /**
+     * Returns a point-in-time copy of the retained elements ordered from oldest to newest.
+     */
+    public List<T> snapshot() {
+        long tail = this.sequence.get();
+        long head = Math.max(0, tail - this.capacity);
+        List<T> elements = new ArrayList<>((int) (tail - head));
+        for (long seq = head; seq < tail; seq++) {
+            Slot<T> slot = this.slots.get(indexOf(seq));
+            if (slot != null && slot.sequence == seq) {
+                elements.add(slot.element);
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Visits the retained elements from the given sequence on, ordered from oldest to newest with the sequence they
+     * were appended with, until the visitor stops. The sequences of the visited elements never repeat, so a reader
+     * can resume after the last one it visited.
+     */
+    public void forEachFrom(long sequence, SequencedVisitor<T> visitor) {
+        long tail = this.sequence.get();
+        long head = Math.max(Math.max(0, tail - this.capacity), sequence);
+        for (long seq = head; seq < tail; seq++) {
+            Slot<T> slot = this.slots.get(indexOf(seq));
+            if (slot != null && slot.sequence == seq && !visitor.visit(seq, slot.element)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the element published in the given slot, or {@code null} if the slot is empty. Together with
+     * {@link #nextIndex()} and {@link #oldestIndex()} it lets an owner which serializes the appends keep slot
+     * addressed indexes over the retained elements.
+     */
+    public T elementAt(int index) {
+        Slot<T> slot = this.slots.get(index);
+        return slot == null ? null : slot.element;
+    }
+
+    /**
+     * Returns the slot the next append publishes into.
+     */
+    public int nextIndex() {
+        return indexOf(this.sequence.get());
+    }
+
+    /**
+     * Returns the slot of the oldest retained element, the retained elements follow it in insertion order and wrap
+     * around at the capacity.
+     */
+    public int oldestIndex() {
+        long tail = this.sequence.get();
+        return tail <= this.capacity ? 0 : indexOf(tail);
+    }
+
+    public int size() {
+        return (int) Math.min(this.sequence.get(), this.capacity);
+    }
+
+    public int capacity() {
+        return this.capacity;
+    }
+
+    private int indexOf(long seq) {
+        return (int) (seq % this.capacity);
+    }
+
+    private record Slot<T>(long sequence, T element) {
+    }
+
+    @FunctionalInterface
+    public interface SequencedVisitor<T> {
+
+        /**
+         * @return whether the visit continues
+         */
+        boolean visit(long sequence, T element);
+    }
+}
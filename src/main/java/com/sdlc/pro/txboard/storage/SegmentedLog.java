@@ -0,0 +1,1026 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of binary records in memory-mapped segment files. A record is written as its length, a CRC-32C of
+ * the rest of the record, a long key (e.g. the start time of a log in epoch nanoseconds) and the payload; a zero
+ * length marks the end of the written records of a segment. Once a segment is full or older than the roll interval a
+ * new one is started, retention drops whole segments from the oldest one on and compaction rewrites the sealed
+ * segments without their expired records.
+ * <p>
+ * Every segment keeps a sparse index with the minimum and maximum key of each run of {@link #INDEX_INTERVAL} records,
+ * so a scan over a key range steps over the segments and the runs which can not hold a matching record without
+ * reading them. The keys do not need to be ordered, though nearly ordered keys (like start times of completed
+ * transactions) make the index selective. Not thread-safe, the owner guards the writes and the reads; a
+ * {@link #snapshot()} captured under that guard is read without it.
+ * <p>
+ * The mapping of a deleted or rewritten segment is not unmapped explicitly, as a snapshot captured before may still
+ * read it. It is released once its buffer is garbage collected, until then the file keeps holding its disk space.
+ * {@link #retain(long, long)} counts these {@link #unreleasedBytes()} against its size limit.
+ * <p>
+ * The index of a sealed segment is written next to it, so opening the log only reads the index files and verifies
+ * the records of the active segment. A record which fails the verification (e.g. torn by a crash while it was
+ * written) ends the segment, the tail from this record on is truncated.
+ */
+public final class SegmentedLog implements Closeable {
+    static final int INDEX_INTERVAL = 64;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_FORMAT_VERSION = 1;
+    private static final int CRC_OFFSET = Integer.BYTES;
+    private static final int KEY_OFFSET = CRC_OFFSET + Integer.BYTES;
+    private static final int RECORD_HEADER = KEY_OFFSET + Long.BYTES;
+    // the length of a record counts the bytes after the length field
+    private static final int LENGTH_OVERHEAD = RECORD_HEADER - Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long rollIntervalMillis;
+    // ordered from oldest to newest by their ascending ids
+    private final List<Segment> segments;
+    private long recordCount;
+    private long sizeBytes;
+    private int truncatedSegments;
+    private Checkpoint checkpoint;
+    // the segments deleted or rewritten while their mappings may still be read
+    private final List<UnreleasedSegment> unreleasedSegments = new ArrayList<>();
+
+    /**
+     * Opens the log in the given directory, recovering the records of its existing segments.
+     *
+     * @param segmentSize  size of a segment file in bytes, a larger record gets a segment of its own size
+     * @param rollInterval age after which the active segment is rolled even though it is not full
+     */
+    public SegmentedLog(Path directory, int segmentSize, Duration rollInterval) {
+        if (segmentSize <= RECORD_HEADER) {
+            throw new IllegalArgumentException("The segment size must be larger than %d bytes".formatted(RECORD_HEADER));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.rollIntervalMillis = rollInterval.toMillis();
+        this.segments = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> segmentFiles = files
+                        .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+                for (int i = 0; i < segmentFiles.size(); i++) {
+                    Path file = segmentFiles.get(i);
+                    Segment segment = Segment.open(file, idOf(file), i == segmentFiles.size() - 1);
+                    this.segments.add(segment);
+                    this.recordCount += segment.recordCount;
+                    this.sizeBytes += segment.position;
+                    if (segment.truncated) {
+                        this.truncatedSegments++;
+                    }
+                }
+            }
+            this.checkpoint = readCheckpoint(directory.resolve(CHECKPOINT_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the segmented log at " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record and returns its address.
+     */
+    public long append(long key, byte[] payload) {
+        int length = RECORD_HEADER + payload.length;
+        Segment segment = this.activeSegment(length);
+        int offset = segment.append(key, payload);
+        this.recordCount++;
+        this.sizeBytes += length;
+        return addressOf(segment.id, offset);
+    }
+
+    private Segment activeSegment(int length) {
+        Segment active = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+        if (active != null && active.remaining() >= length
+                && System.currentTimeMillis() - active.createdMillis < this.rollIntervalMillis) {
+            return active;
+        }
+
+        if (active != null) {
+            this.seal(active);
+        }
+        int id = active == null ? 0 : active.id + 1;
+        try {
+            Segment segment = Segment.create(this.directory.resolve(fileNameOf(id)), id,
+                    Math.max(this.segmentSize, length + Integer.BYTES));
+            this.segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create a segment in " + this.directory, e);
+        }
+    }
+
+    private void seal(Segment segment) {
+        segment.force();
+        try {
+            segment.writeIndex();
+        } catch (IOException e) {
+            // the segment is scanned when the log is opened again
+            segment.deleteIndex();
+        }
+    }
+
+    /**
+     * Returns the payload of the record at the given address, from the given position of the payload on.
+     */
+    public byte[] read(long address, int payloadOffset) {
+        return this.snapshot().read(address, payloadOffset);
+    }
+
+    /**
+     * Visits the records whose key is in the given inclusive range in insertion order, until the visitor stops.
+     */
+    public void scan(long fromKey, long toKey, RecordVisitor visitor) {
+        this.snapshot().scan(fromKey, toKey, visitor);
+    }
+
+    /**
+     * See {@link Snapshot#scan(long, long, KeyRangeFilter, RecordVisitor)}.
+     */
+    public void scan(long fromKey, long toKey, KeyRangeFilter ranges, RecordVisitor visitor) {
+        this.snapshot().scan(fromKey, toKey, ranges, visitor);
+    }
+
+    /**
+     * Visits the records in insertion order from the given index on, until the visitor stops. The segments before the
+     * index are stepped over without being read.
+     */
+    public void scanFrom(long index, RecordVisitor visitor) {
+        this.snapshot().scanFrom(index, visitor);
+    }
+
+    /**
+     * Visits the records appended at or after the given address, as returned by {@link #endAddress()}, in insertion
+     * order until the visitor stops.
+     */
+    public void scanAfter(long address, RecordVisitor visitor) {
+        this.snapshot().scanAfter(address, visitor);
+    }
+
+    /**
+     * See {@link Snapshot#scanAfter(long, long, long, RecordVisitor)}.
+     */
+    public void scanAfter(long address, long fromKey, long toKey, RecordVisitor visitor) {
+        this.snapshot().scanAfter(address, fromKey, toKey, visitor);
+    }
+
+    /**
+     * Returns a view of the records appended so far, which can be read while the owner goes on appending, retaining
+     * and compacting. Only the capture has to be guarded like the other reads: the view keeps the mappings of the
+     * segments and their end, a segment deleted or compacted meanwhile is still read as it was captured.
+     */
+    public Snapshot snapshot() {
+        SegmentView[] views = new SegmentView[this.segments.size()];
+        for (int i = 0; i < views.length; i++) {
+            Segment segment = this.segments.get(i);
+            views[i] = new SegmentView(segment.id, segment.buffer, segment.position, segment.recordCount,
+                    segment.minKey, segment.maxKey, segment.blockCount, segment.blockOffsets, segment.blockMinKeys,
+                    segment.blockMaxKeys);
+        }
+        return new Snapshot(views, this.recordCount);
+    }
+
+    /**
+     * Returns the address the next record is appended at, unless the active segment is rolled before.
+     */
+    public long endAddress() {
+        if (this.segments.isEmpty()) {
+            return 0L;
+        }
+        Segment active = this.segments.get(this.segments.size() - 1);
+        return addressOf(active.id, active.position);
+    }
+
+    /**
+     * Deletes the oldest segments, except the active one, while the log is larger than the given number of bytes or
+     * all the keys of the oldest segment are lower than the given key. The segments deleted earlier whose mappings
+     * have not been released yet count towards the size.
+     *
+     * @return the number of deleted records
+     */
+    public long retain(long maxBytes, long minKey) {
+        // taken once, the segments deleted by this call are not counted twice
+        long retainedBytes = maxBytes - this.unreleasedBytes();
+        long deleted = 0;
+        while (this.segments.size() > 1) {
+            Segment oldest = this.segments.get(0);
+            if (this.sizeBytes <= retainedBytes && (oldest.recordCount == 0 || oldest.maxKey >= minKey)) {
+                break;
+            }
+            deleted += this.delete(0);
+        }
+        return deleted;
+    }
+
+    /**
+     * Forces the written records to the files and persists the given state of the owner, e.g. counters aggregated
+     * from the records, together with the {@link #endAddress()} it covers. The records after the checkpoint are
+     * found with {@link #scanAfter(long, RecordVisitor)} when the log is opened again.
+     */
+    public void checkpoint(byte[] state) {
+        PendingCheckpoint pending = this.prepareCheckpoint(state);
+        pending.write();
+        this.commitCheckpoint(pending);
+    }
+
+    /**
+     * Captures the {@link #endAddress()} the given state covers. The returned checkpoint is
+     * {@link PendingCheckpoint#write() written} without the guard of the owner and becomes the last one with
+     * {@link #commitCheckpoint(PendingCheckpoint)}.
+     */
+    public PendingCheckpoint prepareCheckpoint(byte[] state) {
+        Segment active = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+        return new PendingCheckpoint(this.directory, active, new Checkpoint(this.endAddress(), state));
+    }
+
+    public void commitCheckpoint(PendingCheckpoint pending) {
+        this.checkpoint = pending.checkpoint;
+    }
+
+    /**
+     * Returns the last persisted checkpoint, empty if none has been written or it is corrupted.
+     */
+    public Optional<Checkpoint> lastCheckpoint() {
+        return Optional.ofNullable(this.checkpoint);
+    }
+
+    private static Checkpoint readCheckpoint(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (content.remaining() < Integer.BYTES * 2 + Long.BYTES) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(content.array(), 0, content.limit() - Integer.BYTES);
+        if (content.getInt(content.limit() - Integer.BYTES) != (int) crc.getValue()
+                || content.getInt() != CHECKPOINT_FORMAT_VERSION) {
+            return null;
+        }
+        long address = content.getLong();
+        byte[] state = new byte[content.remaining() - Integer.BYTES];
+        content.get(state);
+        return new Checkpoint(address, state);
+    }
+
+    /**
+     * Rewrites the sealed segments of which at least half of the records have a key lower than the given one without
+     * these records, a segment without a record left is deleted. The addresses of the records in the rewritten
+     * segments change, the segments from the one of the last checkpoint on are therefore left as they are.
+     *
+     * @return the number of dropped records
+     */
+    public long compact(long minKey) {
+        Compaction compaction = this.planCompaction(minKey);
+        compaction.rewrite();
+        return this.applyCompaction(compaction);
+    }
+
+    /**
+     * Deletes the sealed segments whose keys are all lower than the given one and plans the rewrite of the ones
+     * which hold such keys, see {@link #compact(long)}. The sealed segments are not written anymore, so the returned
+     * compaction is {@link Compaction#rewrite() rewritten} without the guard of the owner and then applied under it
+     * with {@link #applyCompaction(Compaction)}.
+     */
+    public Compaction planCompaction(long minKey) {
+        long dropped = 0;
+        List<Segment> candidates = new ArrayList<>();
+        int checkpointSegment = this.checkpoint == null ? Integer.MAX_VALUE : (int) (this.checkpoint.address() >>> 32);
+        for (int i = 0; i < this.segments.size() - 1; i++) {
+            Segment segment = this.segments.get(i);
+            if (segment.id >= checkpointSegment) {
+                break;
+            }
+            if (segment.recordCount == 0 || segment.minKey >= minKey) {
+                continue;
+            }
+            if (segment.maxKey < minKey) {
+                dropped += this.delete(i--);
+                continue;
+            }
+            candidates.add(segment);
+        }
+        return new Compaction(minKey, candidates, dropped);
+    }
+
+    /**
+     * Swaps the rewritten segments of the compaction in, unless they have been deleted meanwhile.
+     *
+     * @return the number of dropped records
+     */
+    public long applyCompaction(Compaction compaction) {
+        long dropped = compaction.deleted;
+        for (Rewrite rewrite : compaction.rewrites) {
+            int index = this.indexOf(rewrite.segment());
+            if (index < 0) {
+                rewrite.compacted().discard();
+                continue;
+            }
+            Segment segment = rewrite.segment();
+            try {
+                Segment compacted = segment.replaceWith(rewrite.compacted());
+                this.segments.set(index, compacted);
+                this.unreleasedSegments.add(new UnreleasedSegment(segment));
+                this.recordCount -= rewrite.expired();
+                this.sizeBytes -= segment.position - compacted.position;
+                dropped += rewrite.expired();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to compact the segment " + segment.file, e);
+            }
+        }
+        compaction.rewrites.clear();
+        return dropped;
+    }
+
+    private int indexOf(Segment segment) {
+        for (int i = 0; i < this.segments.size(); i++) {
+            if (this.segments.get(i) == segment) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long delete(int index) {
+        Segment segment = this.segments.remove(index);
+        this.recordCount -= segment.recordCount;
+        this.sizeBytes -= segment.position;
+        this.unreleasedSegments.add(new UnreleasedSegment(segment));
+        try {
+            segment.close();
+            segment.deleteIndex();
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete the segment " + segment.file, e);
+        }
+        return segment.recordCount;
+    }
+
+    public long recordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Returns the number of bytes written into the retained segments.
+     */
+    public long sizeBytes() {
+        return this.sizeBytes;
+    }
+
+    /**
+     * Returns the number of bytes written into the deleted and rewritten segments whose mappings have not been
+     * released yet, i.e. whose buffers have not been garbage collected.
+     */
+    public long unreleasedBytes() {
+        this.unreleasedSegments.removeIf(UnreleasedSegment::isReleased);
+        long bytes = 0;
+        for (UnreleasedSegment segment : this.unreleasedSegments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    public int segmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * Returns the number of segments whose torn tail has been truncated when the log was opened.
+     */
+    public int truncatedSegments() {
+        return this.truncatedSegments;
+    }
+
+    /**
+     * Writes the records of the active segment through to the file.
+     */
+    public void flush() {
+        if (!this.segments.isEmpty()) {
+            this.segments.get(this.segments.size() - 1).force();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Segment segment : this.segments) {
+            segment.force();
+            try {
+                segment.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close the segment " + segment.file, e);
+            }
+        }
+        this.segments.clear();
+    }
+
+    private static long addressOf(int segmentId, int offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static String fileNameOf(int id) {
+        return "%010d%s".formatted(id, SEGMENT_SUFFIX);
+    }
+
+    private static Path siblingOf(Path file, String suffix) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + suffix);
+    }
+
+    private static void writeAtomically(Path file, ByteBuffer content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int idOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unexpected segment file " + file, e);
+        }
+    }
+
+    /**
+     * A checkpoint captured by {@link #prepareCheckpoint(byte[])}, not persisted yet.
+     */
+    public static final class PendingCheckpoint {
+        private final Path directory;
+        private final Segment active;
+        private final Checkpoint checkpoint;
+
+        private PendingCheckpoint(Path directory, Segment active, Checkpoint checkpoint) {
+            this.directory = directory;
+            this.active = active;
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * Forces the records the checkpoint covers to the files and persists it. The segments before the one which
+         * was active have been forced when they were sealed.
+         */
+        public void write() {
+            if (this.active != null) {
+                this.active.force();
+            }
+            byte[] state = this.checkpoint.state();
+            ByteBuffer content = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES + state.length)
+                    .putInt(CHECKPOINT_FORMAT_VERSION)
+                    .putLong(this.checkpoint.address())
+                    .put(state);
+            CRC32C crc = new CRC32C();
+            crc.update(content.array(), 0, content.position());
+            content.putInt((int) crc.getValue()).flip();
+            try {
+                writeAtomically(this.directory.resolve(CHECKPOINT_FILE), content);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the checkpoint of " + this.directory, e);
+            }
+        }
+    }
+
+    /**
+     * @param address the end address of the log when the checkpoint was written
+     * @param state   the state persisted by the owner
+     */
+    public record Checkpoint(long address, byte[] state) {
+    }
+
+    /**
+     * The records of the log as they were when it was captured, see {@link #snapshot()}. Thread-safe.
+     */
+    public static final class Snapshot {
+        private final SegmentView[] segments;
+        private final long recordCount;
+
+        private Snapshot(SegmentView[] segments, long recordCount) {
+            this.segments = segments;
+            this.recordCount = recordCount;
+        }
+
+        public long recordCount() {
+            return this.recordCount;
+        }
+
+        /**
+         * Returns the payload of the record at the given address, from the given position of the payload on.
+         */
+        public byte[] read(long address, int payloadOffset) {
+            SegmentView segment = this.segmentOf(address);
+            int offset = (int) address;
+            byte[] payload = new byte[segment.buffer.getInt(offset) - LENGTH_OVERHEAD - payloadOffset];
+            segment.buffer.get(offset + RECORD_HEADER + payloadOffset, payload);
+            return payload;
+        }
+
+        private SegmentView segmentOf(long address) {
+            int id = (int) (address >>> 32);
+            int low = 0;
+            int high = this.segments.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                SegmentView segment = this.segments[mid];
+                if (segment.id < id) {
+                    low = mid + 1;
+                } else if (segment.id > id) {
+                    high = mid - 1;
+                } else {
+                    return segment;
+                }
+            }
+            throw new IllegalArgumentException("The record at %d is no longer retained".formatted(address));
+        }
+
+        /**
+         * Visits the records whose key is in the given inclusive range in insertion order, until the visitor stops.
+         */
+        public void scan(long fromKey, long toKey, RecordVisitor visitor) {
+            this.scan(fromKey, toKey, (minKey, maxKey) -> true, visitor);
+        }
+
+        /**
+         * Visits the records whose key is in the given inclusive range in insertion order, until the visitor stops.
+         * The segments and runs of records whose keys the given filter rules out are stepped over, the filter is
+         * asked again before each of them, so a visitor which selects the records with the lowest keys can narrow it
+         * meanwhile.
+         */
+        public void scan(long fromKey, long toKey, KeyRangeFilter ranges, RecordVisitor visitor) {
+            for (SegmentView segment : this.segments) {
+                if (segment.recordCount == 0 || segment.maxKey < fromKey || segment.minKey > toKey
+                        || !ranges.mayMatch(segment.minKey, segment.maxKey)) {
+                    continue;
+                }
+                for (int block = 0; block < segment.blockCount; block++) {
+                    if (segment.blockMaxKeys[block] < fromKey || segment.blockMinKeys[block] > toKey
+                            || !ranges.mayMatch(segment.blockMinKeys[block], segment.blockMaxKeys[block])) {
+                        continue;
+                    }
+                    if (!segment.visit(block, 0, fromKey, toKey, visitor)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Visits the records in insertion order from the given index on, until the visitor stops. The segments
+         * before the index are stepped over without being read.
+         */
+        public void scanFrom(long index, RecordVisitor visitor) {
+            long skip = index;
+            for (SegmentView segment : this.segments) {
+                if (skip >= segment.recordCount) {
+                    skip -= segment.recordCount;
+                    continue;
+                }
+                int block = (int) (skip / INDEX_INTERVAL);
+                skip -= (long) block * INDEX_INTERVAL;
+                int offset = segment.blockOffsets[block];
+                while (offset < segment.position) {
+                    int length = segment.buffer.getInt(offset);
+                    if (skip > 0) {
+                        skip--;
+                    } else if (!visitor.visit(addressOf(segment.id, offset),
+                            segment.buffer.getLong(offset + KEY_OFFSET), segment.buffer, offset + RECORD_HEADER,
+                            length - LENGTH_OVERHEAD)) {
+                        return;
+                    }
+                    offset += Integer.BYTES + length;
+                }
+            }
+        }
+
+        /**
+         * Visits the records appended at or after the given address in insertion order, until the visitor stops.
+         */
+        public void scanAfter(long address, RecordVisitor visitor) {
+            this.scanAfter(address, Long.MIN_VALUE, Long.MAX_VALUE, visitor);
+        }
+
+        /**
+         * Visits the records appended at or after the given address whose key is in the given inclusive range, in
+         * insertion order until the visitor stops. The segments before the address and the runs of records out of
+         * the range are stepped over without being read.
+         */
+        public void scanAfter(long address, long fromKey, long toKey, RecordVisitor visitor) {
+            int id = (int) (address >>> 32);
+            for (SegmentView segment : this.segments) {
+                if (segment.id < id || segment.recordCount == 0 || segment.maxKey < fromKey
+                        || segment.minKey > toKey) {
+                    continue;
+                }
+                int from = segment.id == id ? (int) address : 0;
+                // the run holding the address, the ones before it are stepped over
+                int first = Arrays.binarySearch(segment.blockOffsets, 0, segment.blockCount, from);
+                for (int block = first >= 0 ? first : Math.max(0, -first - 2); block < segment.blockCount; block++) {
+                    if (segment.blockMaxKeys[block] < fromKey || segment.blockMinKeys[block] > toKey) {
+                        continue;
+                    }
+                    if (!segment.visit(block, from, fromKey, toKey, visitor)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The records of a segment up to the position it had when captured. The last run of the sparse index may be
+     * widened by the records appended since, which is harmless to step over the runs.
+     */
+    private record SegmentView(int id, ByteBuffer buffer, int position, int recordCount, long minKey, long maxKey,
+                               int blockCount, int[] blockOffsets, long[] blockMinKeys, long[] blockMaxKeys) {
+
+        /**
+         * Visits the records of the given run at or after the given offset whose key is in the range.
+         *
+         * @return whether the scan continues
+         */
+        private boolean visit(int block, int from, long fromKey, long toKey, RecordVisitor visitor) {
+            int offset = this.blockOffsets[block];
+            int end = block + 1 < this.blockCount ? this.blockOffsets[block + 1] : this.position;
+            while (offset < end) {
+                int length = this.buffer.getInt(offset);
+                long key = this.buffer.getLong(offset + KEY_OFFSET);
+                if (offset >= from && key >= fromKey && key <= toKey && !visitor.visit(addressOf(this.id, offset),
+                        key, this.buffer, offset + RECORD_HEADER, length - LENGTH_OVERHEAD)) {
+                    return false;
+                }
+                offset += Integer.BYTES + length;
+            }
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    public interface KeyRangeFilter {
+
+        /**
+         * @return whether a record with a key between the given minimum and maximum key may be visited
+         */
+        boolean mayMatch(long minKey, long maxKey);
+    }
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+
+        /**
+         * @param buffer        the segment the record is stored in, only to be read with absolute positions
+         * @param payloadOffset position of the payload in the buffer
+         * @return whether the scan continues
+         */
+        boolean visit(long address, long key, ByteBuffer buffer, int payloadOffset, int payloadLength);
+    }
+
+    /**
+     * The sealed segments planned to be rewritten without their expired records, see {@link #planCompaction(long)}.
+     */
+    public static final class Compaction {
+        private final long minKey;
+        private final List<Segment> candidates;
+        private final long deleted;
+        private final List<Rewrite> rewrites = new ArrayList<>();
+
+        private Compaction(long minKey, List<Segment> candidates, long deleted) {
+            this.minKey = minKey;
+            this.candidates = candidates;
+            this.deleted = deleted;
+        }
+
+        /**
+         * Copies the live records of the planned segments of which at least half of the records have expired into
+         * new files, which are not visible until the compaction is applied.
+         */
+        public void rewrite() {
+            for (Segment segment : this.candidates) {
+                int expired = 0;
+                int liveBytes = 0;
+                for (int offset = 0; offset < segment.position; ) {
+                    int size = Integer.BYTES + segment.buffer.getInt(offset);
+                    if (segment.buffer.getLong(offset + KEY_OFFSET) < this.minKey) {
+                        expired++;
+                    } else {
+                        liveBytes += size;
+                    }
+                    offset += size;
+                }
+                if (expired * 2 < segment.recordCount) {
+                    continue;
+                }
+                try {
+                    this.rewrites.add(new Rewrite(segment, segment.compact(this.minKey, liveBytes), expired));
+                } catch (IOException e) {
+                    this.rewrites.forEach(rewrite -> rewrite.compacted().discard());
+                    this.rewrites.clear();
+                    throw new UncheckedIOException("Failed to compact the segment " + segment.file, e);
+                }
+            }
+            this.candidates.clear();
+        }
+    }
+
+    private record Rewrite(Segment segment, Segment compacted, int expired) {
+    }
+
+    private record UnreleasedSegment(WeakReference<MappedByteBuffer> buffer, long bytes) {
+        private UnreleasedSegment(Segment segment) {
+            this(new WeakReference<>(segment.buffer), segment.position);
+        }
+
+        private boolean isReleased() {
+            return this.buffer.get() == null;
+        }
+    }
+
+    private static final class Segment {
+        private static final int INDEX_FORMAT_VERSION = 1;
+        private static final byte[] ZEROS = new byte[4096];
+
+        private final Path file;
+        private final int id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long createdMillis;
+        private int position;
+        private int recordCount;
+        private long minKey = Long.MAX_VALUE;
+        private long maxKey = Long.MIN_VALUE;
+        private boolean truncated;
+
+        private int blockCount;
+        private int[] blockOffsets = new int[16];
+        private long[] blockMinKeys = new long[16];
+        private long[] blockMaxKeys = new long[16];
+
+        private Segment(Path file, int id, FileChannel channel, long createdMillis) throws IOException {
+            this(file, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()), createdMillis);
+        }
+
+        private Segment(Path file, int id, FileChannel channel, MappedByteBuffer buffer, long createdMillis) {
+            this.file = file;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.createdMillis = createdMillis;
+        }
+
+        private static Segment create(Path file, int id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // the file is extended with zeros, a zero length marks the end of the records
+            channel.write(ByteBuffer.allocate(1), size - 1);
+            return new Segment(file, id, channel, System.currentTimeMillis());
+        }
+
+        /**
+         * @param active whether the records may still be appended to the segment, its index is not trusted then
+         */
+        private static Segment open(Path file, int id, boolean active) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long createdMillis = Files.readAttributes(file, BasicFileAttributes.class).creationTime().toMillis();
+            Segment segment = new Segment(file, id, channel, createdMillis);
+            if (active) {
+                segment.deleteIndex();
+                segment.recover();
+            } else if (!segment.readIndex()) {
+                segment.recover();
+                segment.writeIndex();
+            }
+            return segment;
+        }
+
+        /**
+         * Finds the end of the verified records and rebuilds the sparse index. A torn or corrupted record ends the
+         * segment, the tail from this record on is overwritten with zeros.
+         */
+        private void recover() {
+            int capacity = this.buffer.capacity();
+            while (this.position + RECORD_HEADER <= capacity) {
+                int length = this.buffer.getInt(this.position);
+                if (length < LENGTH_OVERHEAD || (long) this.position + Integer.BYTES + length > capacity
+                        || this.buffer.getInt(this.position + CRC_OFFSET) != this.checksum(this.position, length)) {
+                    break;
+                }
+                this.register(this.position, this.buffer.getLong(this.position + KEY_OFFSET));
+                this.position += Integer.BYTES + length;
+            }
+
+            if (!this.isZero(this.position, Math.min(capacity, this.position + RECORD_HEADER))) {
+                // the record would otherwise be followed by the remains of the torn one once the next is appended
+                for (int offset = this.position; offset < capacity; offset += ZEROS.length) {
+                    this.buffer.put(offset, ZEROS, 0, Math.min(ZEROS.length, capacity - offset));
+                }
+                this.buffer.force();
+                this.truncated = true;
+            }
+        }
+
+        private boolean isZero(int from, int to) {
+            for (int offset = from; offset < to; offset++) {
+                if (this.buffer.get(offset) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int checksum(int offset, int length) {
+            CRC32C crc = new CRC32C();
+            crc.update(this.buffer.slice(offset + KEY_OFFSET, length - CRC_OFFSET));
+            return (int) crc.getValue();
+        }
+
+        private int remaining() {
+            return this.buffer.capacity() - this.position;
+        }
+
+        private int append(long key, byte[] payload) {
+            int offset = this.position;
+            int length = LENGTH_OVERHEAD + payload.length;
+            this.buffer.putLong(offset + KEY_OFFSET, key);
+            this.buffer.put(offset + RECORD_HEADER, payload);
+            this.buffer.putInt(offset + CRC_OFFSET, this.checksum(offset, length));
+            // the length is written last, a record is only recovered once it is complete
+            this.buffer.putInt(offset, length);
+            this.register(offset, key);
+            this.position += Integer.BYTES + length;
+            return offset;
+        }
+
+        private void register(int offset, long key) {
+            if (this.recordCount % INDEX_INTERVAL == 0) {
+                if (this.blockCount == this.blockOffsets.length) {
+                    int length = this.blockCount << 1;
+                    this.blockOffsets = Arrays.copyOf(this.blockOffsets, length);
+                    this.blockMinKeys = Arrays.copyOf(this.blockMinKeys, length);
+                    this.blockMaxKeys = Arrays.copyOf(this.blockMaxKeys, length);
+                }
+                this.blockOffsets[this.blockCount] = offset;
+                this.blockMinKeys[this.blockCount] = key;
+                this.blockMaxKeys[this.blockCount] = key;
+                this.blockCount++;
+            } else {
+                int block = this.blockCount - 1;
+                this.blockMinKeys[block] = Math.min(this.blockMinKeys[block], key);
+                this.blockMaxKeys[block] = Math.max(this.blockMaxKeys[block], key);
+            }
+            this.minKey = Math.min(this.minKey, key);
+            this.maxKey = Math.max(this.maxKey, key);
+            this.recordCount++;
+        }
+
+        /**
+         * Writes the records with a key not lower than the given one into a new file which replaces the segment.
+         */
+        private Segment compact(long minKey, int liveBytes) throws IOException {
+            Path temporary = this.file.resolveSibling(this.file.getFileName() + TEMPORARY_SUFFIX);
+            Files.deleteIfExists(temporary);
+            Segment compacted = create(temporary, this.id, Math.max(liveBytes, 1));
+            for (int offset = 0; offset < this.position; ) {
+                int size = Integer.BYTES + this.buffer.getInt(offset);
+                long key = this.buffer.getLong(offset + KEY_OFFSET);
+                if (key >= minKey) {
+                    compacted.buffer.put(compacted.position, this.buffer, offset, size);
+                    compacted.register(compacted.position, key);
+                    compacted.position += size;
+                }
+                offset += size;
+            }
+            compacted.force();
+            return compacted;
+        }
+
+        /**
+         * Moves the given compacted copy of the segment over its file, the copy keeps its mapping and its index.
+         */
+        private Segment replaceWith(Segment compacted) throws IOException {
+            // a stale index would not match the size of the replaced segment, without one it is recovered by a scan
+            this.deleteIndex();
+            this.close();
+            Files.move(compacted.file, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Segment replaced = new Segment(this.file, this.id, compacted.channel, compacted.buffer, this.createdMillis);
+            replaced.position = compacted.position;
+            replaced.recordCount = compacted.recordCount;
+            replaced.minKey = compacted.minKey;
+            replaced.maxKey = compacted.maxKey;
+            replaced.blockCount = compacted.blockCount;
+            replaced.blockOffsets = compacted.blockOffsets;
+            replaced.blockMinKeys = compacted.blockMinKeys;
+            replaced.blockMaxKeys = compacted.blockMaxKeys;
+            replaced.writeIndex();
+            return replaced;
+        }
+
+        private void discard() {
+            try {
+                this.close();
+                Files.deleteIfExists(this.file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete the compacted copy " + this.file, e);
+            }
+        }
+
+        private boolean readIndex() throws IOException {
+            Path indexFile = siblingOf(this.file, INDEX_SUFFIX);
+            if (!Files.exists(indexFile)) {
+                return false;
+            }
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            if (index.remaining() < Integer.BYTES * 5 + Long.BYTES * 2) {
+                return false;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(index.slice(0, index.limit() - Integer.BYTES));
+            if (index.getInt(index.limit() - Integer.BYTES) != (int) crc.getValue()
+                    || index.getInt() != INDEX_FORMAT_VERSION || index.getInt() != this.buffer.capacity()) {
+                return false;
+            }
+
+            this.position = index.getInt();
+            this.recordCount = index.getInt();
+            this.minKey = index.getLong();
+            this.maxKey = index.getLong();
+            this.blockCount = index.getInt();
+            this.blockOffsets = new int[Math.max(this.blockCount, 16)];
+            this.blockMinKeys = new long[this.blockOffsets.length];
+            this.blockMaxKeys = new long[this.blockOffsets.length];
+            for (int block = 0; block < this.blockCount; block++) {
+                this.blockOffsets[block] = index.getInt();
+                this.blockMinKeys[block] = index.getLong();
+                this.blockMaxKeys[block] = index.getLong();
+            }
+            return true;
+        }
+
+        private void writeIndex() throws IOException {
+            ByteBuffer index = ByteBuffer.allocate(Integer.BYTES * 6 + Long.BYTES * 2
+                    + this.blockCount * (Integer.BYTES + Long.BYTES * 2));
+            index.putInt(INDEX_FORMAT_VERSION)
+                    .putInt(this.buffer.capacity())
+                    .putInt(this.position)
+                    .putInt(this.recordCount)
+                    .putLong(this.minKey)
+                    .putLong(this.maxKey)
+                    .putInt(this.blockCount);
+            for (int block = 0; block < this.blockCount; block++) {
+                index.putInt(this.blockOffsets[block])
+                        .putLong(this.blockMinKeys[block])
+                        .putLong(this.blockMaxKeys[block]);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(index.array(), 0, index.position());
+            index.putInt((int) crc.getValue()).flip();
+            writeAtomically(siblingOf(this.file, INDEX_SUFFIX), index);
+        }
+
+        private void deleteIndex() {
+            try {
+                Files.deleteIfExists(siblingOf(this.file, INDEX_SUFFIX));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete the index of the segment " + this.file, e);
+            }
+        }
+
+        private void force() {
+            this.buffer.force();
+        }
+
+        private void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sorted index of {@code (key, value)} pairs of longs, typically a sort key and the {@link RingBuffer} sequence of
+ * the element it belongs to. The pairs are kept in segmented sorted arrays, so an insert or a removal only shifts
+ * the entries of one bounded segment and a walk in either direction reads the entries sequentially. Pairs with equal
+ * keys are ordered by their value, also when walked in descending key order. The index is not thread-safe, its owner
+ * serializes the updates with the appends and guards the reads.
+ */
+public final class SortedLongIndex {
+    private static final int SEGMENT_CAPACITY = 512;
+
+    private final List<Segment> segments;
+    private int size;
+
+    public SortedLongIndex() {
+        this.segments = new ArrayList<>();
+    }
+
+    public void add(long key, long value) {
+        if (this.segments.isEmpty()) {
+            this.segments.add(new Segment());
+        }
+        int segmentIndex = this.segmentOf(key, value);
+        Segment segment = this.segments.get(segmentIndex);
+        int position = segment.search(key, value);
+        position = position < 0 ? -position - 1 : position;
+
+        if (segment.size == SEGMENT_CAPACITY) {
+            if (position == SEGMENT_CAPACITY && segmentIndex == this.segments.size() - 1) {
+                // ascending keys, as the start times mostly are, open a new segment instead of splitting the last one
+                segment = new Segment();
+                this.segments.add(segment);
+                position = 0;
+            } else {
+                Segment upper = segment.split();
+                this.segments.add(segmentIndex + 1, upper);
+                if (position > segment.size) {
+                    position -= segment.size;
+                    segment = upper;
+                }
+            }
+        }
+        segment.insert(position, key, value);
+        this.size++;
+    }
+
+    /**
+     * Removes the given pair and returns whether it was present.
+     */
+    public boolean remove(long key, long value) {
+        if (this.segments.isEmpty()) {
+            return false;
+        }
+        int segmentIndex = this.segmentOf(key, value);
+        Segment segment = this.segments.get(segmentIndex);
+        int position = segment.search(key, value);
+        if (position < 0) {
+            return false;
+        }
+
+        segment.delete(position);
+        this.size--;
+        if (segment.size == 0) {
+            this.segments.remove(segmentIndex);
+        } else if (segment.size < SEGMENT_CAPACITY / 4 && segmentIndex + 1 < this.segments.size()) {
+            Segment next = this.segments.get(segmentIndex + 1);
+            if (segment.size + next.size <= SEGMENT_CAPACITY / 2) {
+                segment.append(next);
+                this.segments.remove(segmentIndex + 1);
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the values in ascending or descending key order, pairs with equal keys in ascending value order,
+     * starting after the first {@code skip} ones. The skipped entries are stepped over segment-wise.
+     */
+    public PrimitiveIterator.OfLong values(boolean ascending, int skip) {
+        if (skip < 0) {
+            throw new IllegalArgumentException("The skip must not be negative");
+        }
+        return ascending ? new AscendingIterator(skip) : new DescendingIterator(skip);
+    }
+
+    /**
+     * Returns the values of the pairs following the given one in the walk order of {@link #values(boolean, int)}, the
+     * given pair does not have to be in the index anymore. The start is found by a binary search instead of stepping
+     * over the preceding pairs.
+     */
+    public PrimitiveIterator.OfLong valuesAfter(boolean ascending, long key, long value) {
+        int[] after = value == Long.MAX_VALUE
+                ? (key == Long.MAX_VALUE ? new int[]{this.segments.size(), 0} : this.lowerBound(key + 1, Long.MIN_VALUE))
+                : this.lowerBound(key, value + 1);
+        return ascending ? new AscendingIterator(after[0], after[1]) : new DescendingIterator(key, after);
+    }
+
+    /**
+     * Returns the segment and the position of the first pair not below the given one, past the last segment if none.
+     */
+    private int[] lowerBound(long key, long value) {
+        if (this.segments.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        int segmentIndex = this.segmentOf(key, value);
+        Segment segment = this.segments.get(segmentIndex);
+        int position = segment.search(key, value);
+        position = position < 0 ? -position - 1 : position;
+        // only the last segment ends below a pair, it is followed by none
+        return position == segment.size ? new int[]{segmentIndex + 1, 0} : new int[]{segmentIndex, position};
+    }
+
+    /**
+     * Returns the index of the first segment whose last pair is not below the given one, the last segment if none.
+     */
+    private int segmentOf(long key, long value) {
+        int low = 0;
+        int high = this.segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Segment segment = this.segments.get(mid);
+            int last = segment.size - 1;
+            if (compare(segment.keys[last], segment.values[last], key, value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long key, long value, long otherKey, long otherValue) {
+        int result = Long.compare(key, otherKey);
+        return result != 0 ? result : Long.compare(value, otherValue);
+    }
+
+    private static final class Segment {
+        private final long[] keys = new long[SEGMENT_CAPACITY];
+        private final long[] values = new long[SEGMENT_CAPACITY];
+        private int size;
+
+        /**
+         * Binary searches the pair, returns its position or {@code -(insertion point) - 1}.
+         */
+        int search(long key, long value) {
+            int low = 0;
+            int high = this.size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int result = compare(this.keys[mid], this.values[mid], key, value);
+                if (result < 0) {
+                    low = mid + 1;
+                } else if (result > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insert(int position, long key, long value) {
+            System.arraycopy(this.keys, position, this.keys, position + 1, this.size - position);
+            System.arraycopy(this.values, position, this.values, position + 1, this.size - position);
+            this.keys[position] = key;
+            this.values[position] = value;
+            this.size++;
+        }
+
+        void delete(int position) {
+            System.arraycopy(this.keys, position + 1, this.keys, position, this.size - position - 1);
+            System.arraycopy(this.values, position + 1, this.values, position, this.size - position - 1);
+            this.size--;
+        }
+
+        Segment split() {
+            Segment upper = new Segment();
+            int half = this.size / 2;
+            upper.size = this.size - half;
+            System.arraycopy(this.keys, half, upper.keys, 0, upper.size);
+            System.arraycopy(this.values, half, upper.values, 0, upper.size);
+            this.size = half;
+            return upper;
+        }
+
+        void append(Segment other) {
+            System.arraycopy(other.keys, 0, this.keys, this.size, other.size);
+            System.arraycopy(other.values, 0, this.values, this.size, other.size);
+            this.size += other.size;
+        }
+    }
+
+    private final class AscendingIterator implements PrimitiveIterator.OfLong {
+        private int segment;
+        private int position;
+
+        AscendingIterator(int skip) {
+            while (this.segment < segments.size() && skip >= segments.get(this.segment).size) {
+                skip -= segments.get(this.segment).size;
+                this.segment++;
+            }
+            this.position = skip;
+        }
+
+        AscendingIterator(int segment, int position) {
+            this.segment = segment;
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.segment < segments.size();
+        }
+
+        @Override
+        public long nextLong() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Segment current = segments.get(this.segment);
+            long value = current.values[this.position++];
+            if (this.position == current.size) {
+                this.segment++;
+                this.position = 0;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Walks the pairs backwards run by run, a run of equal keys is buffered and handed out in ascending value order.
+     */
+    private final class DescendingIterator implements PrimitiveIterator.OfLong {
+        private int segment;
+        private int position;
+        private long[] run = new long[16];
+        private int runStart;
+        private int runEnd;
+
+        DescendingIterator(int skip) {
+            this.segment = segments.size() - 1;
+            while (this.segment >= 0 && skip >= segments.get(this.segment).size) {
+                skip -= segments.get(this.segment).size;
+                this.segment--;
+            }
+            this.position = this.segment < 0 ? -1 : segments.get(this.segment).size - 1 - skip;
+
+            if (this.segment >= 0 && skip > 0) {
+                // the skip may end inside a run, rewind to the run's first pair in walking order and skip within it
+                long key = this.key();
+                int inRun = 0;
+                while (this.stepForward() && this.key() == key) {
+                    inRun++;
+                }
+                if (this.segment == segments.size()) {
+                    this.segment--;
+                    this.position = segments.get(this.segment).size - 1;
+                } else {
+                    this.stepBack();
+                }
+                this.fillRun();
+                this.runStart = inRun;
+            }
+        }
+
+        /**
+         * Starts with the pairs of the given key from the given position on, followed by the pairs of lower keys.
+         */
+        DescendingIterator(long key, int[] after) {
+            int[] runStart = lowerBound(key, Long.MIN_VALUE);
+            this.segment = runStart[0];
+            this.position = runStart[1];
+            if (this.segment == segments.size()) {
+                this.segment--;
+                this.position = this.segment < 0 ? -1 : segments.get(this.segment).size - 1;
+            } else {
+                this.stepBack();
+            }
+
+            int segmentIndex = after[0];
+            int position = after[1];
+            int count = 0;
+            while (segmentIndex < segments.size() && segments.get(segmentIndex).keys[position] == key) {
+                if (count == this.run.length) {
+                    this.run = Arrays.copyOf(this.run, count * 2);
+                }
+                this.run[count++] = segments.get(segmentIndex).values[position];
+                if (++position == segments.get(segmentIndex).size) {
+                    segmentIndex++;
+                    position = 0;
+                }
+            }
+            this.runEnd = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.runStart < this.runEnd) {
+                return true;
+            }
+            if (this.segment < 0) {
+                return false;
+            }
+            this.fillRun();
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.run[this.runStart++];
+        }
+
+        private long key() {
+            return segments.get(this.segment).keys[this.position];
+        }
+
+        /**
+         * Buffers the run ending at the current pair in ascending value order and moves before it.
+         */
+        private void fillRun() {
+            long key = this.key();
+            int count = 0;
+            do {
+                if (count == this.run.length) {
+                    this.run = Arrays.copyOf(this.run, count * 2);
+                }
+                this.run[count++] = segments.get(this.segment).values[this.position];
+            } while (this.stepBack() && this.key() == key);
+
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                long value = this.run[i];
+                this.run[i] = this.run[j];
+                this.run[j] = value;
+            }
+            this.runStart = 0;
+            this.runEnd = count;
+        }
+
+        private boolean stepBack() {
+            if (--this.position < 0) {
+                if (--this.segment < 0) {
+                    return false;
+                }
+                this.position = segments.get(this.segment).size - 1;
+            }
+            return true;
+        }
+
+        private boolean stepForward() {
+            if (++this.position == segments.get(this.segment).size) {
+                if (++this.segment == segments.size()) {
+                    return false;
+                }
+                this.position = 0;
+            }
+            return true;
+        }
+    }
+}
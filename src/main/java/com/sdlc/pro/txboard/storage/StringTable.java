@@ -0,0 +1,56 @@
+package com.sdlc.pro.txboard.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the repeating strings of a column (method and thread names) and hands out compact int ids for them. Once
+ * the capacity is reached no more strings are registered and {@link #NOT_INTERNED} is returned, in which case the
+ * caller keeps the string itself. Not thread-safe, the owner guards the writes and the reads.
+ */
+public final class StringTable {
+    public static final int NOT_INTERNED = -1;
+
+    private final int capacity;
+    private final Map<String, Integer> ids;
+    private String[] strings;
+
+    public StringTable(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The string table capacity must be positive integer");
+        }
+        this.capacity = capacity;
+        this.ids = new HashMap<>();
+        this.strings = new String[Math.min(capacity, 64)];
+    }
+
+    public int intern(String value) {
+        if (value == null) {
+            return NOT_INTERNED;
+        }
+        Integer id = this.ids.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        int size = this.ids.size();
+        if (size >= this.capacity) {
+            return NOT_INTERNED;
+        }
+        if (size == this.strings.length) {
+            this.strings = Arrays.copyOf(this.strings, Math.min(this.capacity, size << 1));
+        }
+        this.strings[size] = value;
+        this.ids.put(value, size);
+        return size;
+    }
+
+    public String stringOf(int id) {
+        return this.strings[id];
+    }
+
+    public int size() {
+        return this.ids.size();
+    }
+}
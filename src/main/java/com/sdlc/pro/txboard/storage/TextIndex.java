@@ -0,0 +1,351 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Inverted index for the case-insensitive substring search over the texts of the {@link RingBuffer} slots (method and
+ * thread names, statement templates). The distinct texts are interned with a reference count and every trigram of a
+ * lower-cased search text has a sorted int posting of the texts containing it. A search intersects the postings of
+ * the trigrams of the searched value, verifies the remaining texts and resolves the slots holding one of the matches.
+ * Values shorter than a trigram or with non-ASCII chars are verified against all distinct texts.
+ * <p>
+ * An update only interns the texts of its slot; the postings of the texts interned or dropped since are brought up to
+ * date by the next search, or once that backlog outgrows the distinct texts. A dropped text keeps its id until its
+ * postings are removed. Not thread-safe, the owner serializes the updates with the appends and guards the reads.
+ */
+public final class TextIndex {
+    private static final int NONE = -1;
+    private static final int MULTIPLE = -2;
+    private static final int MIN_BACKLOG = 1024;
+
+    private final UnaryOperator<String> searchTextOf;
+    private final Map<String, Integer> ids;
+    private final Map<Long, Posting> postings;
+    private String[] texts;
+    // the search text of a posted text, null while its postings are pending
+    private String[] searchTexts;
+    private int[] references;
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+
+    // the texts interned and dropped since their postings were last brought up to date
+    private int[] unposted;
+    private int unpostedCount;
+    private int[] dropped;
+    private int droppedCount;
+
+    // the text of a slot holding a single one, NONE or MULTIPLE with the texts kept in multipleTexts
+    private final int[] slotTexts;
+    private int[][] multipleTexts;
+    private int slotLimit;
+
+    public TextIndex(int capacity) {
+        this(capacity, UnaryOperator.identity());
+    }
+
+    /**
+     * @param searchTextOf maps an interned text to the text it is searched by, e.g. a statement template to the
+     *                     statement rendered without its literals, applied once per distinct text
+     */
+    public TextIndex(int capacity, UnaryOperator<String> searchTextOf) {
+        this.searchTextOf = searchTextOf;
+        this.ids = new HashMap<>();
+        this.postings = new HashMap<>();
+        this.texts = new String[64];
+        this.searchTexts = new String[64];
+        this.references = new int[64];
+        this.freeIds = new int[16];
+        this.unposted = new int[16];
+        this.dropped = new int[16];
+        this.slotTexts = new int[capacity];
+        Arrays.fill(this.slotTexts, NONE);
+    }
+
+    /**
+     * Replaces the texts of the given slot, {@code null} texts are ignored.
+     */
+    public void update(int slot, Collection<String> values) {
+        this.clear(slot);
+        if (values.size() == 1) {
+            String value = values.iterator().next();
+            if (value != null) {
+                this.slotTexts[slot] = this.intern(value);
+                this.slotLimit = Math.max(this.slotLimit, slot + 1);
+            }
+            this.postIfBacklogged();
+            return;
+        }
+
+        Collection<String> distinct = new HashSet<>(values);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            this.postIfBacklogged();
+            return;
+        }
+        if (distinct.size() == 1) {
+            this.slotTexts[slot] = this.intern(distinct.iterator().next());
+        } else {
+            int[] textIds = new int[distinct.size()];
+            int i = 0;
+            for (String value : distinct) {
+                textIds[i++] = this.intern(value);
+            }
+            if (this.multipleTexts == null) {
+                this.multipleTexts = new int[this.slotTexts.length][];
+            }
+            this.multipleTexts[slot] = textIds;
+            this.slotTexts[slot] = MULTIPLE;
+        }
+        this.slotLimit = Math.max(this.slotLimit, slot + 1);
+        this.postIfBacklogged();
+    }
+
+    /**
+     * Removes the texts of the given slot, e.g. before its log is evicted.
+     */
+    public void clear(int slot) {
+        int id = this.slotTexts[slot];
+        if (id == MULTIPLE) {
+            for (int textId : this.multipleTexts[slot]) {
+                this.release(textId);
+            }
+            this.multipleTexts[slot] = null;
+        } else if (id != NONE) {
+            this.release(id);
+        }
+        this.slotTexts[slot] = NONE;
+    }
+
+    /**
+     * Returns the bitmap of the slots holding a text which contains the given value, ignoring the case like the
+     * {@link Filter.Operator#CONTAINS} filters do.
+     */
+    public BitSet contains(String value) {
+        this.post();
+        BitSet matches = this.matchingTexts(value);
+        BitSet slots = new BitSet();
+        if (matches.isEmpty()) {
+            return slots;
+        }
+        for (int slot = 0; slot < this.slotLimit; slot++) {
+            int id = this.slotTexts[slot];
+            if (id >= 0) {
+                if (matches.get(id)) {
+                    slots.set(slot);
+                }
+            } else if (id == MULTIPLE) {
+                for (int textId : this.multipleTexts[slot]) {
+                    if (matches.get(textId)) {
+                        slots.set(slot);
+                        break;
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the number of distinct texts held by the slots.
+     */
+    public int textCount() {
+        return this.ids.size();
+    }
+
+    private BitSet matchingTexts(String value) {
+        BitSet candidates = new BitSet();
+        if (value.length() >= 3 && isAscii(value)) {
+            String folded = fold(value);
+            Posting[] trigramPostings = new Posting[folded.length() - 2];
+            for (int i = 0; i < trigramPostings.length; i++) {
+                Posting posting = this.postings.get(trigramAt(folded, i));
+                if (posting == null) {
+                    return candidates;
+                }
+                trigramPostings[i] = posting;
+            }
+            // the shortest posting is probed in the others
+            Arrays.sort(trigramPostings, (left, right) -> Integer.compare(left.size, right.size));
+            Posting shortest = trigramPostings[0];
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                boolean inAll = true;
+                for (int j = 1; j < trigramPostings.length && inAll; j++) {
+                    inAll = trigramPostings[j].contains(id);
+                }
+                if (inAll) {
+                    candidates.set(id);
+                }
+            }
+        } else {
+            for (int id : this.ids.values()) {
+                candidates.set(id);
+            }
+        }
+
+        Predicate<Text> predicate = FilterPredicateFactory.compile(
+                Filter.of("value", value, Filter.Operator.CONTAINS), Text.class);
+        Text text = new Text();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            text.value = this.searchTexts[id];
+            if (!predicate.test(text)) {
+                candidates.clear(id);
+            }
+        }
+        return candidates;
+    }
+
+    private int intern(String value) {
+        Integer existing = this.ids.get(value);
+        if (existing != null) {
+            this.references[existing]++;
+            return existing;
+        }
+
+        int id = this.freeCount > 0 ? this.freeIds[--this.freeCount] : this.nextId++;
+        if (id == this.texts.length) {
+            this.texts = Arrays.copyOf(this.texts, id << 1);
+            this.searchTexts = Arrays.copyOf(this.searchTexts, id << 1);
+            this.references = Arrays.copyOf(this.references, id << 1);
+        }
+        this.texts[id] = value;
+        this.references[id] = 1;
+        this.ids.put(value, id);
+        this.unposted = push(this.unposted, this.unpostedCount++, id);
+        return id;
+    }
+
+    private void release(int id) {
+        if (--this.references[id] > 0) {
+            return;
+        }
+        this.ids.remove(this.texts[id]);
+        this.dropped = push(this.dropped, this.droppedCount++, id);
+    }
+
+    private void postIfBacklogged() {
+        if (this.unpostedCount + this.droppedCount > Math.max(MIN_BACKLOG, this.ids.size())) {
+            this.post();
+        }
+    }
+
+    /**
+     * Removes the postings of the dropped texts, freeing their ids, and adds the postings of the interned ones which
+     * are still held by a slot.
+     */
+    private void post() {
+        for (int i = 0; i < this.droppedCount; i++) {
+            int id = this.dropped[i];
+            if (this.searchTexts[id] != null) {
+                String folded = fold(this.searchTexts[id]);
+                for (int offset = 0; offset + 3 <= folded.length(); offset++) {
+                    long trigram = trigramAt(folded, offset);
+                    Posting posting = this.postings.get(trigram);
+                    if (posting != null && posting.remove(id) && posting.size == 0) {
+                        this.postings.remove(trigram);
+                    }
+                }
+            }
+            this.texts[id] = null;
+            this.searchTexts[id] = null;
+            this.freeIds = push(this.freeIds, this.freeCount++, id);
+        }
+        this.droppedCount = 0;
+
+        for (int i = 0; i < this.unpostedCount; i++) {
+            int id = this.unposted[i];
+            if (this.texts[id] == null || this.searchTexts[id] != null) {
+                // dropped before it has been posted, or the id has been freed and interned again
+                continue;
+            }
+            String searchText = this.searchTextOf.apply(this.texts[id]);
+            this.searchTexts[id] = searchText;
+            String folded = fold(searchText);
+            for (int offset = 0; offset + 3 <= folded.length(); offset++) {
+                this.postings.computeIfAbsent(trigramAt(folded, offset), k -> new Posting()).add(id);
+            }
+        }
+        this.unpostedCount = 0;
+    }
+
+    private static int[] push(int[] values, int size, int value) {
+        int[] target = size == values.length ? Arrays.copyOf(values, size << 1) : values;
+        target[size] = value;
+        return target;
+    }
+
+    private static String fold(String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(value.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static long trigramAt(String folded, int offset) {
+        return ((long) folded.charAt(offset) << 32) | ((long) folded.charAt(offset + 1) << 16) | folded.charAt(offset + 2);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The ascending ids of the texts containing a trigram.
+     */
+    private static final class Posting {
+        private int[] ids = new int[4];
+        private int size;
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+        }
+
+        private void add(int id) {
+            int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size << 1);
+            }
+            System.arraycopy(this.ids, index, this.ids, index + 1, this.size - index);
+            this.ids[index] = id;
+            this.size++;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(this.ids, index + 1, this.ids, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+    }
+
+    /**
+     * The text a search is verified on, reused for every candidate.
+     */
+    private static final class Text {
+        private String value;
+    }
+}
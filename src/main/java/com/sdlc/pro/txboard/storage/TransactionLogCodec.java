@@ -0,0 +1,434 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.NPlusOneQuery;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.model.TransactionEvent;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary format of a {@link TransactionLog} and of a {@link SqlExecutionLog}. Enums are written as ordinals, instants as seconds and nanos and
+ * the executed statements of a {@link QueryList} as {@link QueryDictionary} ids plus their literal parameters, so an
+ * encoded log is a fraction of its object graph. Ids are only written for statements interned in the dictionary of the
+ * codec and only when the encoded bytes do not outlive it, otherwise the templates are written as text and interned
+ * again when the log is decoded.
+ * <p>
+ * Besides the whole log the codec encodes its {@link Details}: the statement lists, inner transactions, events and
+ * the N+1 query, for a storage which keeps the scalar fields of the log elsewhere.
+ */
+public final class TransactionLogCodec {
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte NULL_LIST = -1;
+    private static final byte PLAIN_LIST = 0;
+    private static final byte QUERY_LIST = 1;
+
+    private static final byte INTERNED_QUERY = 0;
+    private static final byte TEMPLATE_QUERY = 1;
+    private static final byte RAW_QUERY = 2;
+
+    private static final PropagationBehavior[] PROPAGATIONS = PropagationBehavior.values();
+    private static final IsolationLevel[] ISOLATIONS = IsolationLevel.values();
+    private static final TransactionPhaseStatus[] STATUSES = TransactionPhaseStatus.values();
+    private static final TransactionEvent.Type[] EVENT_TYPES = TransactionEvent.Type.values();
+
+    private final QueryDictionary dictionary;
+    private final boolean referenceDictionary;
+
+    /**
+     * Creates a codec for bytes which never outlive the given dictionary, e.g. the ones kept in memory.
+     */
+    public TransactionLogCodec(QueryDictionary dictionary) {
+        this(dictionary, true);
+    }
+
+    /**
+     * @param dictionary          the dictionary the decoded statements are interned into
+     * @param referenceDictionary whether statements interned in the dictionary are written as their ids
+     */
+    public TransactionLogCodec(QueryDictionary dictionary, boolean referenceDictionary) {
+        if (dictionary == null) {
+            throw new IllegalArgumentException("The query dictionary must not be null");
+        }
+        this.dictionary = dictionary;
+        this.referenceDictionary = referenceDictionary;
+    }
+
+    public byte[] encode(TransactionLog transactionLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            this.writeLog(out, transactionLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public TransactionLog decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            checkVersion(in.readByte());
+            return this.readLog(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] encodeDetails(TransactionLog transactionLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            this.writeDetails(out, transactionLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Details decodeDetails(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            checkVersion(in.readByte());
+            return this.readDetails(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] encode(SqlExecutionLog sqlExecutionLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            UUID id = sqlExecutionLog.getId();
+            out.writeBoolean(id != null);
+            if (id != null) {
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+            writeInstant(out, sqlExecutionLog.getConAcquiredTime());
+            writeInstant(out, sqlExecutionLog.getConReleaseTime());
+            out.writeLong(sqlExecutionLog.getConOccupiedTimeMicros());
+            out.writeBoolean(sqlExecutionLog.isAlarmingConnection());
+            writeString(out, sqlExecutionLog.getThread());
+            this.writeQueries(out, sqlExecutionLog.getExecutedQuires());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public SqlExecutionLog decodeSqlExecutionLog(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            checkVersion(in.readByte());
+            UUID id = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+            Instant conAcquiredTime = readInstant(in);
+            Instant conReleaseTime = readInstant(in);
+            long conOccupiedTimeMicros = in.readLong();
+            boolean alarmingConnection = in.readBoolean();
+            String thread = readString(in);
+            List<String> executedQuires = this.readQueries(in);
+            return new SqlExecutionLog(id, conAcquiredTime, conReleaseTime, conOccupiedTimeMicros, alarmingConnection,
+                    thread, executedQuires);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns an alarming threshold (in ms) under which a {@link TransactionLog} of the given duration derives the
+     * given alarming flag again, so a decoded log keeps the flag it was recorded with.
+     */
+    public static long alarmingThresholdOf(long durationMicros, boolean alarming) {
+        return alarming ? Math.floorDiv(durationMicros - 1, 1_000L) : Math.floorDiv(durationMicros + 999, 1_000L);
+    }
+
+    private static void checkVersion(byte version) {
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported transaction log format version %d".formatted(version));
+        }
+    }
+
+    private void writeLog(DataOutputStream out, TransactionLog transactionLog) throws IOException {
+        UUID txId = transactionLog.getTxId();
+        out.writeBoolean(txId != null);
+        if (txId != null) {
+            out.writeLong(txId.getMostSignificantBits());
+            out.writeLong(txId.getLeastSignificantBits());
+        }
+        writeString(out, transactionLog.getMethod());
+        writeString(out, transactionLog.getThread());
+        writeOrdinal(out, transactionLog.getPropagation());
+        writeOrdinal(out, transactionLog.getIsolation());
+        writeOrdinal(out, transactionLog.getStatus());
+        writeInstant(out, transactionLog.getStartTime());
+        writeInstant(out, transactionLog.getEndTime());
+        out.writeLong(transactionLog.getDurationMicros());
+        out.writeBoolean(transactionLog.isAlarmingTransaction());
+
+        ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+        out.writeBoolean(connectionSummary != null);
+        if (connectionSummary != null) {
+            out.writeInt(connectionSummary.acquisitionCount());
+            out.writeInt(connectionSummary.alarmingConnectionCount());
+            out.writeLong(connectionSummary.occupiedTime());
+            out.writeLong(connectionSummary.occupiedTimeMicros());
+        }
+        this.writeDetails(out, transactionLog);
+    }
+
+    private TransactionLog readLog(DataInputStream in) throws IOException {
+        UUID txId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        String method = readString(in);
+        String thread = readString(in);
+        PropagationBehavior propagation = readOrdinal(in, PROPAGATIONS);
+        IsolationLevel isolation = readOrdinal(in, ISOLATIONS);
+        TransactionPhaseStatus status = readOrdinal(in, STATUSES);
+        Instant startTime = readInstant(in);
+        Instant endTime = readInstant(in);
+        long durationMicros = in.readLong();
+        boolean alarming = in.readBoolean();
+        ConnectionSummary connectionSummary = in.readBoolean()
+                ? new ConnectionSummary(in.readInt(), in.readInt(), in.readLong(), in.readLong())
+                : null;
+        Details details = this.readDetails(in);
+
+        return new TransactionLog(txId, method, propagation, isolation, startTime, endTime, durationMicros,
+                connectionSummary, status, thread, details.executedQuires(), details.child(), details.events(),
+                alarmingThresholdOf(durationMicros, alarming), details.postTransactionQuires(),
+                details.nPlusOneQuery());
+    }
+
+    private void writeDetails(DataOutputStream out, TransactionLog transactionLog) throws IOException {
+        // the getter replaces a missing list with an empty one, the field is what has to be restored
+        List<String> executedQuires = transactionLog.getExecutedQuires();
+        this.writeQueries(out, executedQuires.isEmpty() ? null : executedQuires);
+        this.writeQueries(out, transactionLog.getPostTransactionQuires());
+
+        List<TransactionLog> child = transactionLog.getChild();
+        out.writeInt(child.size());
+        for (TransactionLog childLog : child) {
+            this.writeLog(out, childLog);
+        }
+
+        List<TransactionEvent> events = transactionLog.getEvents();
+        out.writeInt(events == null ? -1 : events.size());
+        if (events != null) {
+            for (TransactionEvent event : events) {
+                writeOrdinal(out, event.getType());
+                writeInstant(out, event.getTimestamp());
+                writeString(out, event.getSubject());
+                writeString(out, event.getSubject() == null ? event.getDetails() : null);
+            }
+        }
+
+        NPlusOneQuery nPlusOneQuery = transactionLog.getNPlusOneQuery();
+        out.writeBoolean(nPlusOneQuery != null);
+        if (nPlusOneQuery != null) {
+            writeString(out, nPlusOneQuery.fingerprint());
+            out.writeInt(nPlusOneQuery.count());
+        }
+    }
+
+    private Details readDetails(DataInputStream in) throws IOException {
+        List<String> executedQuires = this.readQueries(in);
+        List<String> postTransactionQuires = this.readQueries(in);
+
+        int childCount = in.readInt();
+        List<TransactionLog> child = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            child.add(this.readLog(in));
+        }
+
+        int eventCount = in.readInt();
+        List<TransactionEvent> events = null;
+        if (eventCount >= 0) {
+            events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                TransactionEvent.Type type = readOrdinal(in, EVENT_TYPES);
+                Instant timestamp = readInstant(in);
+                String subject = readString(in);
+                String details = readString(in);
+                if (subject != null && type != null && timestamp != null) {
+                    events.add(TransactionEvent.of(type, timestamp, subject));
+                } else {
+                    TransactionEvent event = new TransactionEvent();
+                    event.setType(type);
+                    event.setTimestamp(timestamp);
+                    event.setDetails(details);
+                    events.add(event);
+                }
+            }
+        }
+
+        NPlusOneQuery nPlusOneQuery = in.readBoolean() ? new NPlusOneQuery(readString(in), in.readInt()) : null;
+        return new Details(executedQuires, child, events, postTransactionQuires, nPlusOneQuery);
+    }
+
+    private void writeQueries(DataOutputStream out, List<String> queries) throws IOException {
+        if (queries == null) {
+            out.writeByte(NULL_LIST);
+            return;
+        }
+        if (!(queries instanceof QueryList queryList)) {
+            out.writeByte(PLAIN_LIST);
+            out.writeInt(queries.size());
+            for (String query : queries) {
+                writeString(out, query);
+            }
+            return;
+        }
+
+        out.writeByte(QUERY_LIST);
+        out.writeInt(queryList.size());
+        boolean sameDictionary = this.referenceDictionary && queryList.dictionary() == this.dictionary;
+        for (int i = 0; i < queryList.size(); i++) {
+            int id = queryList.idAt(i);
+            if (id == QueryDictionary.NOT_INTERNED) {
+                out.writeByte(RAW_QUERY);
+                writeString(out, queryList.get(i));
+            } else {
+                if (sameDictionary) {
+                    out.writeByte(INTERNED_QUERY);
+                    out.writeInt(id);
+                } else {
+                    out.writeByte(TEMPLATE_QUERY);
+                    writeString(out, queryList.templateAt(i));
+                }
+                String[] parameters = queryList.parametersAt(i);
+                out.writeInt(parameters.length);
+                for (String parameter : parameters) {
+                    writeString(out, parameter);
+                }
+            }
+            out.writeLong(queryList.startOffsetNanosAt(i));
+            out.writeLong(queryList.durationNanosAt(i));
+
+            BatchSummary batch = queryList.batchAt(i);
+            out.writeBoolean(batch != null);
+            if (batch != null) {
+                out.writeInt(batch.size());
+                out.writeLong(batch.updatedRows());
+                out.writeInt(batch.successNoInfoRows());
+                out.writeInt(batch.failedRows());
+            }
+        }
+    }
+
+    private List<String> readQueries(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == NULL_LIST) {
+            return null;
+        }
+        int size = in.readInt();
+        if (kind == PLAIN_LIST) {
+            String[] queries = new String[size];
+            for (int i = 0; i < size; i++) {
+                queries[i] = readString(in);
+            }
+            return Collections.unmodifiableList(Arrays.asList(queries));
+        }
+
+        QueryList.Builder builder = new QueryList.Builder(this.dictionary, true);
+        for (int i = 0; i < size; i++) {
+            byte mode = in.readByte();
+            String raw = null;
+            int id = QueryDictionary.NOT_INTERNED;
+            String template = null;
+            String[] parameters = null;
+            if (mode == RAW_QUERY) {
+                raw = readString(in);
+            } else {
+                if (mode == INTERNED_QUERY) {
+                    id = in.readInt();
+                } else {
+                    template = readString(in);
+                }
+                parameters = new String[in.readInt()];
+                for (int p = 0; p < parameters.length; p++) {
+                    parameters[p] = readString(in);
+                }
+            }
+            long startOffsetNanos = in.readLong();
+            long durationNanos = in.readLong();
+            BatchSummary batch = in.readBoolean()
+                    ? new BatchSummary(in.readInt(), in.readLong(), in.readInt(), in.readInt())
+                    : null;
+
+            if (mode == RAW_QUERY) {
+                builder.add(raw, startOffsetNanos, durationNanos, batch);
+            } else if (mode == INTERNED_QUERY) {
+                builder.addInterned(id, parameters, startOffsetNanos, durationNanos, batch);
+            } else {
+                builder.add(new SqlNormalizer.NormalizedSql(template, parameters), startOffsetNanos, durationNanos,
+                        batch);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeOrdinal(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readOrdinal(DataInputStream in, E[] values) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    /**
+     * The parts of a transaction log which are not scalar fields.
+     */
+    public record Details(List<String> executedQuires, List<TransactionLog> child, List<TransactionEvent> events,
+                          List<String> postTransactionQuires, NPlusOneQuery nPlusOneQuery) {
+    }
+}
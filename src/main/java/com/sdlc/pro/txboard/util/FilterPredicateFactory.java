@@ -4,60 +4,253 @@ import com.sdlc.pro.txboard.domain.Filter;
 import com.sdlc.pro.txboard.domain.FilterGroup;
 import com.sdlc.pro.txboard.domain.FilterNode;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 
+/**
+ * Compiles a {@link FilterNode} tree into a {@link Predicate} for a given type. The filtered fields are resolved once
+ * per class into cached {@link MethodHandle} getters, primitive fields are compared without boxing and the filter
+ * value of the case-insensitive string operators is folded once at compile time. A string {@code CONTAINS} filter on
+ * a collection field (e.g. the executed statements) matches when one of the strings in it contains the value. A filter
+ * on an unknown field or with a value which can not be compared to the field never matches.
+ */
 public final class FilterPredicateFactory {
+    private static final ClassValue<ConcurrentMap<String, Optional<FieldAccessor>>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<String, Optional<FieldAccessor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private FilterPredicateFactory() {
+    }
 
+    /**
+     * Builds a predicate which is compiled for the class of the first item it is tested with, prefer
+     * {@link #compile(FilterNode, Class)} when the type of the items is known.
+     */
     public static <T> Predicate<T> buildPredicate(FilterNode node) {
+        if (node instanceof FilterNode.UnFilter) {
+            return t -> true;
+        }
+        return new LazyPredicate<>(node);
+    }
+
+    public static <T> Predicate<T> buildPredicateFromFilter(Filter filter) {
+        return buildPredicate(filter);
+    }
+
+    public static <T> Predicate<T> compile(FilterNode node, Class<? extends T> type) {
         if (node instanceof Filter filter) {
-            return buildPredicateFromFilter(filter);
+            return compileFilter(filter, type);
         } else if (node instanceof FilterGroup group) {
-            return buildGroupPredicate(group);
+            return compileGroup(group, type);
         }
-        return (Predicate<T>) t -> true;
+        return t -> true;
     }
 
-    public static <T> Predicate<T> buildPredicateFromFilter(Filter filter) {
-        return (T item) -> {
+    private static <T> Predicate<T> compileGroup(FilterGroup group, Class<? extends T> type) {
+        List<FilterNode> nodes = group.getFilterNodes();
+        boolean and = group.getLogic() == FilterGroup.Logic.AND;
+        if (nodes.isEmpty()) {
+            return and ? t -> true : t -> false;
+        }
+        if (nodes.size() == 1) {
+            return compile(nodes.get(0), type);
+        }
+
+        // the nodes have no side effects, so the cheap comparisons are evaluated before the string searches
+        @SuppressWarnings("unchecked")
+        Predicate<T>[] predicates = nodes.stream()
+                .sorted(Comparator.comparingInt(FilterPredicateFactory::costOf))
+                .map(node -> compile(node, type))
+                .toArray(Predicate[]::new);
+
+        if (and) {
+            return t -> {
+                for (Predicate<T> predicate : predicates) {
+                    if (!predicate.test(t)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return t -> {
+            for (Predicate<T> predicate : predicates) {
+                if (predicate.test(t)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static int costOf(FilterNode node) {
+        if (node instanceof Filter filter) {
+            return switch (filter.getOperator()) {
+                case CONTAINS, STARTS_WITH, ENDS_WITH -> 2;
+                default -> 1;
+            };
+        } else if (node instanceof FilterGroup group) {
+            return group.getFilterNodes().stream().mapToInt(FilterPredicateFactory::costOf).sum();
+        }
+        return 0;
+    }
+
+    private static <T> Predicate<T> compileFilter(Filter filter, Class<?> type) {
+        FieldAccessor accessor = accessorOf(type, filter.getProperty());
+        if (accessor == null) {
+            return t -> false;
+        }
+
+        Object value = filter.getValue();
+        Class<?> fieldType = accessor.type();
+        if (fieldType == long.class && value instanceof Long target) {
+            return compileLong(accessor.getter(), filter.getOperator(), target);
+        } else if (fieldType == int.class && value instanceof Integer target) {
+            return compileLong(accessor.getter().asType(MethodType.methodType(long.class, Object.class)),
+                    filter.getOperator(), target);
+        } else if (fieldType == boolean.class && value instanceof Boolean target) {
+            return compileBoolean(accessor.getter(), filter.getOperator(), target);
+        } else if (fieldType == String.class && value instanceof String target) {
+            return compileString(accessor.getter(), filter.getOperator(), target);
+        }
+        return compileObject(accessor.getter().asType(MethodType.methodType(Object.class, Object.class)),
+                filter.getOperator(), value);
+    }
+
+    private static <T> Predicate<T> compileLong(MethodHandle getter, Filter.Operator operator, long target) {
+        LongCondition condition = switch (operator) {
+            case EQUALS -> v -> v == target;
+            case NOT_EQUALS -> v -> v != target;
+            case GREATER_THAN -> v -> v > target;
+            case GREATER_THAN_OR_EQUALS -> v -> v >= target;
+            case LESS_THAN -> v -> v < target;
+            case LESS_THAN_OR_EQUALS -> v -> v <= target;
+            case CONTAINS, STARTS_WITH, ENDS_WITH -> null;
+        };
+        if (condition == null) {
+            return t -> false;
+        }
+        return t -> {
+            try {
+                return condition.test((long) getter.invokeExact((Object) t));
+            } catch (Throwable e) {
+                return false;
+            }
+        };
+    }
+
+    private static <T> Predicate<T> compileBoolean(MethodHandle getter, Filter.Operator operator, boolean target) {
+        LongCondition condition = switch (operator) {
+            case EQUALS -> v -> v == 0;
+            case NOT_EQUALS -> v -> v != 0;
+            case GREATER_THAN -> v -> v > 0;
+            case GREATER_THAN_OR_EQUALS -> v -> v >= 0;
+            case LESS_THAN -> v -> v < 0;
+            case LESS_THAN_OR_EQUALS -> v -> v <= 0;
+            case CONTAINS, STARTS_WITH, ENDS_WITH -> null;
+        };
+        if (condition == null) {
+            return t -> false;
+        }
+        return t -> {
+            try {
+                return condition.test(Boolean.compare((boolean) getter.invokeExact((Object) t), target));
+            } catch (Throwable e) {
+                return false;
+            }
+        };
+    }
+
+    private static <T> Predicate<T> compileString(MethodHandle getter, Filter.Operator operator, String target) {
+        Needle needle = Needle.of(target);
+        StringCondition condition = switch (operator) {
+            case EQUALS -> target::equals;
+            case NOT_EQUALS -> s -> !target.equals(s);
+            case GREATER_THAN -> s -> s.compareTo(target) > 0;
+            case GREATER_THAN_OR_EQUALS -> s -> s.compareTo(target) >= 0;
+            case LESS_THAN -> s -> s.compareTo(target) < 0;
+            case LESS_THAN_OR_EQUALS -> s -> s.compareTo(target) <= 0;
+            case CONTAINS -> needle::isContainedIn;
+            case STARTS_WITH -> s -> s.length() >= needle.length() && needle.matchesAt(s, 0);
+            case ENDS_WITH -> s -> s.length() >= needle.length() && needle.matchesAt(s, s.length() - needle.length());
+        };
+        return t -> {
             try {
-                Object fieldValue = getFieldValue(item, filter.getProperty());
-                Object targetValue = filter.getValue();
-
-                if (fieldValue == null) return false;
-
-                return switch (filter.getOperator()) {
-                    case EQUALS -> fieldValue.equals(targetValue);
-                    case NOT_EQUALS -> !fieldValue.equals(targetValue);
-                    case GREATER_THAN -> compare(fieldValue, targetValue) > 0;
-                    case GREATER_THAN_OR_EQUALS -> compare(fieldValue, targetValue) >= 0;
-                    case LESS_THAN -> compare(fieldValue, targetValue) < 0;
-                    case LESS_THAN_OR_EQUALS -> compare(fieldValue, targetValue) <= 0;
-                    case CONTAINS -> contains(fieldValue, targetValue);
-                    case STARTS_WITH -> startsWith(fieldValue, targetValue);
-                    case ENDS_WITH -> endsWith(fieldValue, targetValue);
-                };
-            } catch (Exception e) {
+                String s = (String) (Object) getter.invokeExact((Object) t);
+                return s != null && condition.test(s);
+            } catch (Throwable e) {
                 return false;
             }
         };
     }
 
-    private static <T> Predicate<T> buildGroupPredicate(FilterGroup group) {
-        return group.getFilterNodes().stream()
-                .<Predicate<T>>map(FilterPredicateFactory::buildPredicate)
-                .reduce(group.getLogic() == FilterGroup.Logic.AND ? Predicate::and : Predicate::or)
-                .orElse(group.getLogic() == FilterGroup.Logic.AND ? t -> true : t -> false);
+    private static <T> Predicate<T> compileObject(MethodHandle getter, Filter.Operator operator, Object target) {
+        Needle needle = target instanceof String value ? Needle.of(value) : null;
+        ObjectCondition condition = switch (operator) {
+            case EQUALS -> v -> v.equals(target);
+            case NOT_EQUALS -> v -> !v.equals(target);
+            case GREATER_THAN -> v -> compare(v, target) > 0;
+            case GREATER_THAN_OR_EQUALS -> v -> compare(v, target) >= 0;
+            case LESS_THAN -> v -> compare(v, target) < 0;
+            case LESS_THAN_OR_EQUALS -> v -> compare(v, target) <= 0;
+            case CONTAINS -> v -> v instanceof Collection<?> c
+                    && (c.contains(target) || needle != null && anyContains(c, needle));
+            case STARTS_WITH, ENDS_WITH -> v -> false;
+        };
+        return t -> {
+            try {
+                Object v = (Object) getter.invokeExact((Object) t);
+                return v != null && condition.test(v);
+            } catch (Throwable e) {
+                return false;
+            }
+        };
+    }
+
+    private static boolean anyContains(Collection<?> collection, Needle needle) {
+        for (Object element : collection) {
+            if (element instanceof String s && needle.isContainedIn(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FieldAccessor accessorOf(Class<?> type, String fieldName) {
+        return ACCESSORS.get(type)
+                .computeIfAbsent(fieldName, name -> Optional.ofNullable(resolveAccessor(type, name)))
+                .orElse(null);
     }
 
-    private static Object getFieldValue(Object item, String fieldName) throws Exception {
-        Field field = getField(item.getClass(), fieldName);
-        field.setAccessible(true);
-        return field.get(item);
+    private static FieldAccessor resolveAccessor(Class<?> type, String fieldName) {
+        Field field = getField(type, fieldName);
+        if (field == null) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            Class<?> fieldType = field.getType();
+            Class<?> returnType = fieldType.isPrimitive() ? fieldType : Object.class;
+            return new FieldAccessor(fieldType, getter.asType(MethodType.methodType(returnType, Object.class)));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
     }
 
-    private static Field getField(Class<?> clazz, String fieldName) throws NoSuchFieldException {
+    private static Field getField(Class<?> clazz, String fieldName) {
         Class<?> current = clazz;
         while (current != null) {
             try {
@@ -66,7 +259,7 @@ public final class FilterPredicateFactory {
                 current = current.getSuperclass();
             }
         }
-        throw new NoSuchFieldException("Field " + fieldName + " not found on " + clazz);
+        return null;
     }
 
     @SuppressWarnings("unchecked")
@@ -74,22 +267,97 @@ public final class FilterPredicateFactory {
         return ((Comparable<Object>) a).compareTo(b);
     }
 
-    private static boolean contains(Object fieldValue, Object value) {
-        if (fieldValue instanceof String s && value instanceof String v) {
-            return s.toLowerCase().contains(v.toLowerCase());
-        } else if (fieldValue instanceof Collection<?> c) {
-            return c.contains(value);
+    /**
+     * @param type   the declared type of the field
+     * @param getter the getter adapted to take an {@link Object}, returning the primitive type for primitive fields
+     *               and {@link Object} otherwise
+     */
+    private record FieldAccessor(Class<?> type, MethodHandle getter) {
+    }
+
+    /**
+     * A filter value folded once into its lower and upper case chars, so matching an item only compares chars and
+     * falls back to folding the item char when neither of them matches.
+     */
+    private record Needle(char[] lower, char[] upper) {
+        static Needle of(String value) {
+            char[] lower = new char[value.length()];
+            char[] upper = new char[value.length()];
+            for (int i = 0; i < lower.length; i++) {
+                lower[i] = Character.toLowerCase(value.charAt(i));
+                upper[i] = Character.toUpperCase(value.charAt(i));
+            }
+            return new Needle(lower, upper);
+        }
+
+        int length() {
+            return this.lower.length;
+        }
+
+        boolean isContainedIn(String s) {
+            if (this.lower.length == 0) {
+                return true;
+            }
+            char firstLower = this.lower[0];
+            char firstUpper = this.upper[0];
+            for (int offset = 0, last = s.length() - this.lower.length; offset <= last; offset++) {
+                char c = s.charAt(offset);
+                if ((c == firstLower || c == firstUpper || Character.toLowerCase(c) == firstLower)
+                        && this.matchesAt(s, offset)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matchesAt(String s, int offset) {
+            for (int i = 0; i < this.lower.length; i++) {
+                char c = s.charAt(offset + i);
+                if (c != this.lower[i] && c != this.upper[i] && Character.toLowerCase(c) != this.lower[i]) {
+                    return false;
+                }
+            }
+            return true;
         }
-        return false;
     }
 
-    private static boolean startsWith(Object fieldValue, Object value) {
-        return (fieldValue instanceof String s && value instanceof String v) &&
-                s.toLowerCase().startsWith(v.toLowerCase());
+    @FunctionalInterface
+    private interface LongCondition {
+        boolean test(long value);
+    }
+
+    @FunctionalInterface
+    private interface StringCondition {
+        boolean test(String value);
+    }
+
+    @FunctionalInterface
+    private interface ObjectCondition {
+        boolean test(Object value);
+    }
+
+    private static final class LazyPredicate<T> implements Predicate<T> {
+        private final FilterNode node;
+        private volatile Compiled compiled;
+
+        private LazyPredicate(FilterNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean test(T item) {
+            if (item == null) {
+                return false;
+            }
+            Compiled current = this.compiled;
+            if (current == null || current.type() != item.getClass()) {
+                current = new Compiled(item.getClass(), compile(this.node, item.getClass()));
+                this.compiled = current;
+            }
+            return current.predicate().test(item);
+        }
     }
 
-    private static boolean endsWith(Object fieldValue, Object value) {
-        return (fieldValue instanceof String s && value instanceof String v) &&
-                s.toLowerCase().endsWith(v.toLowerCase());
+    private record Compiled(Class<?> type, Predicate<Object> predicate) {
     }
 }
@@ -2,64 +2,340 @@ package com.sdlc.pro.txboard.util;
 
 import com.sdlc.pro.txboard.domain.Sort;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Comparator;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class SortUtils {
+/**
+ * Sorts items by the value of a property getter ({@code getXxx()}, or {@code xxx()} for records). The getter is
+ * resolved once per (class, property) into a cached key extractor, the keys are extracted once per item and the items
+ * are ordered through an index array: integral and {@link Instant} properties on a primitive {@code long[]}, other
+ * {@link Comparable} properties on the extracted keys. Null keys come first in ascending and last in descending order,
+ * equal keys keep their original order. When a single page is requested only the items up to the end of the page are
+ * selected with a bounded heap instead of sorting everything. Items without the property are left unsorted.
+ */
+public final class SortUtils {
+    private static final ClassValue<ConcurrentMap<String, Optional<KeyExtractor>>> EXTRACTORS = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<String, Optional<KeyExtractor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // below this share of the items a bounded heap beats sorting everything
+    private static final int TOP_K_DIVISOR = 4;
+
+    private SortUtils() {
+    }
 
     public static <T> List<T> sort(List<T> data, Sort sort) {
-        if (sort == null || !sort.isSortable()) return data;
+        return sortPage(data, sort, 0, data.size());
+    }
 
-        try {
-            Comparator<T> comparator = buildComparator(sort);
-            return data.stream()
-                    .sorted(comparator)
-                    .toList();
-        } catch (Exception e) {
-            return data; // fail-safe: return unsorted
+    /**
+     * Returns the items of {@code [offset, offset + limit)} of the sorted data.
+     */
+    public static <T> List<T> sortPage(List<T> data, Sort sort, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("The offset and limit must not be negative");
+        }
+        int size = data.size();
+        if (offset >= size || limit == 0) {
+            return List.of();
+        }
+        int end = (int) Math.min(size, (long) offset + limit);
+
+        IndexComparator comparator = sort == null || !sort.isSortable() ? null : comparatorOf(data, sort);
+        if (comparator == null) {
+            return data.subList(offset, end);
+        }
+
+        int[] indexes = end <= size / TOP_K_DIVISOR ? selectTop(size, end, comparator) : sortAll(size, comparator);
+        Object[] page = new Object[end - offset];
+        for (int i = offset; i < end; i++) {
+            page[i - offset] = data.get(indexes[i]);
         }
+
+        @SuppressWarnings("unchecked")
+        List<T> content = (List<T>) Collections.unmodifiableList(Arrays.asList(page));
+        return content;
     }
 
-    private static <T> Comparator<T> buildComparator(Sort sort) throws NoSuchFieldException {
+    private static IndexComparator comparatorOf(List<?> data, Sort sort) {
+        int size = data.size();
+        int sign = sort.getDirection() == Sort.Direction.ASC ? 1 : -1;
+
+        Class<?> type = null;
+        KeyExtractor extractor = null;
+        long[] primitiveKeys = null;
+        Comparable<Object>[] keys = null;
+        for (int i = 0; i < size; i++) {
+            Object item = data.get(i);
+            if (item == null) {
+                return null;
+            }
+            if (item.getClass() != type) {
+                type = item.getClass();
+                extractor = extractorOf(type, sort.getProperty());
+                if (extractor == null) {
+                    return null;
+                }
+            }
+
+            if (keys == null) {
+                Long key = extractor.primitive() ? extractor.extractLong(item) : null;
+                if (key != null) {
+                    if (primitiveKeys == null) {
+                        primitiveKeys = new long[size];
+                    }
+                    primitiveKeys[i] = key;
+                    continue;
+                }
+                // a comparable, null or out of range key, continue with the comparable keys
+                keys = boxedKeys(data, i, sort.getProperty());
+                if (keys == null) {
+                    return null;
+                }
+            }
+            keys[i] = extractor.extract(item);
+        }
+
+        if (keys == null) {
+            long[] k = primitiveKeys == null ? new long[0] : primitiveKeys;
+            return (a, b) -> {
+                int result = sign * Long.compare(k[a], k[b]);
+                return result != 0 ? result : Integer.compare(a, b);
+            };
+        }
+
+        Comparable<Object>[] k = keys;
         return (a, b) -> {
-            try {
-                Object va = getMethodValue(a, sort.getProperty());
-                Object vb = getMethodValue(b, sort.getProperty());
+            int result = sign * Integer.signum(compareNullable(k[a], k[b]));
+            return result != 0 ? result : Integer.compare(a, b);
+        };
+    }
 
-                if (va == null && vb == null) return 0;
-                if (va == null) return sort.getDirection() == Sort.Direction.ASC ? -1 : 1;
-                if (vb == null) return sort.getDirection() == Sort.Direction.ASC ? 1 : -1;
+    /**
+     * Re-extracts the keys of the items before {@code until} as comparables.
+     */
+    private static Comparable<Object>[] boxedKeys(List<?> data, int until, String property) {
+        Comparable<Object>[] keys = newKeys(data.size());
+        for (int i = 0; i < until; i++) {
+            Object item = data.get(i);
+            KeyExtractor extractor = extractorOf(item.getClass(), property);
+            if (extractor == null) {
+                return null;
+            }
+            keys[i] = extractor.extract(item);
+        }
+        return keys;
+    }
 
-                @SuppressWarnings("unchecked")
-                int result = ((Comparable<Object>) va).compareTo(vb);
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object>[] newKeys(int size) {
+        return new Comparable[size];
+    }
 
-                return sort.getDirection() == Sort.Direction.ASC ? result : -result;
+    private static int compareNullable(Comparable<Object> a, Comparable<Object> b) {
+        if (a == null) {
+            return b == null ? 0 : -1;
+        }
+        return b == null ? 1 : a.compareTo(b);
+    }
 
-            } catch (Exception e) {
-                return 0;
+    private static int[] sortAll(int size, IndexComparator comparator) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        mergeSort(indexes, new int[size], 0, size, comparator);
+        return indexes;
+    }
+
+    /**
+     * Selects the first {@code k} indexes in order with a bounded max-heap, the comparator is a total order so the
+     * selection is as stable as a full sort.
+     */
+    private static int[] selectTop(int size, int k, IndexComparator comparator) {
+        int[] heap = new int[k];
+        for (int i = 0; i < k; i++) {
+            heap[i] = i;
+        }
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, k, comparator);
+        }
+        for (int i = k; i < size; i++) {
+            if (comparator.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, 0, k, comparator);
             }
-        };
+        }
+        mergeSort(heap, new int[k], 0, k, comparator);
+        return heap;
     }
 
-    private static Object getMethodValue(Object item, String fieldName) throws Exception {
-        Method method = getMethod(item.getClass(), fieldName);
-        method.setAccessible(true);
-        return method.invoke(item);
+    private static void siftDown(int[] heap, int index, int size, IndexComparator comparator) {
+        int value = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(heap[child], value) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
     }
 
-    private static Method getMethod(Class<?> clazz, String fieldName) throws NoSuchMethodException {
-        String methodName = "get" + Character.toUpperCase(fieldName.toCharArray()[0]) + fieldName.substring(1);
+    private static void mergeSort(int[] indexes, int[] buffer, int from, int to, IndexComparator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int value = indexes[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(indexes[j], value) > 0) {
+                    indexes[j + 1] = indexes[j];
+                    j--;
+                }
+                indexes[j + 1] = value;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(indexes, buffer, from, mid, comparator);
+        mergeSort(indexes, buffer, mid, to, comparator);
+        if (comparator.compare(indexes[mid - 1], indexes[mid]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(indexes, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                indexes[i] = buffer[left++];
+            } else {
+                indexes[i] = buffer[right++];
+            }
+        }
+    }
 
+    private static KeyExtractor extractorOf(Class<?> type, String property) {
+        return EXTRACTORS.get(type)
+                .computeIfAbsent(property, name -> Optional.ofNullable(resolveExtractor(type, name)))
+                .orElse(null);
+    }
+
+    private static KeyExtractor resolveExtractor(Class<?> type, String property) {
+        Method method = getMethod(type, property);
+        if (method == null) {
+            return null;
+        }
+
+        Class<?> returnType = method.getReturnType();
+        boolean integral = returnType == long.class || returnType == int.class
+                || returnType == short.class || returnType == byte.class;
+        if (!integral && !returnType.isPrimitive() && !Comparable.class.isAssignableFrom(returnType)) {
+            return null;
+        }
         try {
+            method.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflect(method);
+            if (integral) {
+                return new KeyExtractor(KeyKind.LONG, getter.asType(MethodType.methodType(long.class, Object.class)));
+            }
+            KeyKind kind = returnType == Instant.class ? KeyKind.INSTANT : KeyKind.COMPARABLE;
+            return new KeyExtractor(kind, getter.asType(MethodType.methodType(Object.class, Object.class)));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method getMethod(Class<?> clazz, String property) {
+        String methodName = "get" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            if (current.isRecord()) {
+                try {
+                    return current.getDeclaredMethod(property);
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
             try {
-                if (clazz.isRecord()) {
-                    return clazz.getDeclaredMethod(fieldName);
+                return current.getDeclaredMethod(methodName);
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    private enum KeyKind {
+        LONG, INSTANT, COMPARABLE
+    }
+
+    private record KeyExtractor(KeyKind kind, MethodHandle getter) {
+
+        boolean primitive() {
+            return this.kind != KeyKind.COMPARABLE;
+        }
+
+        /**
+         * Returns the key as a long, {@code null} when it is null or does not fit into a long.
+         */
+        Long extractLong(Object item) {
+            if (this.kind == KeyKind.LONG) {
+                try {
+                    return (long) this.getter.invokeExact(item);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            Instant instant = (Instant) (Object) this.extract(item);
+            if (instant == null) {
+                return null;
+            }
+            try {
+                return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Comparable<Object> extract(Object item) {
+            try {
+                if (this.kind == KeyKind.LONG) {
+                    return (Comparable<Object>) (Object) Long.valueOf((long) this.getter.invokeExact(item));
                 }
-            } catch (NoSuchMethodException ignored) {}
-            return clazz.getDeclaredMethod(methodName);
-        } catch (NoSuchMethodException ignored) {
-            throw new NoSuchMethodException("Method " + methodName + " not found on " + clazz);
+                return (Comparable<Object>) (Object) this.getter.invokeExact(item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
         }
     }
 }
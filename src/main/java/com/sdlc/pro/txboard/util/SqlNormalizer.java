@@ -0,0 +1,181 @@
+package com.sdlc.pro.txboard.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits an executed SQL statement into a literal-free template and the literal values which were stripped out of
+ * it. The template keeps the original text with every literal replaced by {@link #LITERAL_MARKER}, so the statement
+ * can be rendered back exactly from the template and its parameters. The fingerprint additionally collapses IN-lists
+ * of any arity and whitespace, so statements differing only in literal values or list sizes share one fingerprint.
+ */
+public final class SqlNormalizer {
+    public static final char LITERAL_MARKER = '\uE000';
+
+    private static final String[] NO_PARAMETERS = new String[0];
+    private static final Pattern IN_LIST_PATTERN = Pattern.compile(
+            "(?i)\\bIN\\s*\\(\\s*[?\\uE000](\\s*,\\s*[?\\uE000])*\\s*\\)"
+    );
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    private SqlNormalizer() {
+    }
+
+    public static NormalizedSql normalize(String sql) {
+        if (sql == null || !containsLiteral(sql)) {
+            return new NormalizedSql(sql, NO_PARAMETERS);
+        }
+
+        StringBuilder template = new StringBuilder(sql.length());
+        List<String> parameters = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int end;
+            if (c == '\'') {
+                end = endOfQuoted(sql, i, '\'');
+                parameters.add(sql.substring(i, end));
+                template.append(LITERAL_MARKER);
+            } else if (isNumberStart(sql, i)) {
+                end = endOfNumber(sql, i);
+                parameters.add(sql.substring(i, end));
+                template.append(LITERAL_MARKER);
+            } else {
+                end = endOfVerbatim(sql, i);
+                template.append(sql, i, end);
+            }
+            i = end;
+        }
+
+        return new NormalizedSql(template.toString(), parameters.toArray(NO_PARAMETERS));
+    }
+
+    public static String fingerprint(String template) {
+        if (template == null) {
+            return null;
+        }
+        Matcher matcher = IN_LIST_PATTERN.matcher(template);
+        String collapsed = matcher.find() ? matcher.replaceAll("IN (...)") : template;
+        return WHITESPACE_PATTERN.matcher(collapsed.replace(LITERAL_MARKER, '?')).replaceAll(" ").trim();
+    }
+
+    public static String render(String template, String[] parameters) {
+        if (template == null || template.indexOf(LITERAL_MARKER) < 0) {
+            return template;
+        }
+
+        StringBuilder sql = new StringBuilder(template.length() + 16);
+        int parameterIndex = 0;
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == LITERAL_MARKER) {
+                boolean captured = parameters != null && parameterIndex < parameters.length;
+                sql.append(captured ? parameters[parameterIndex] : "?");
+                parameterIndex++;
+            } else {
+                sql.append(c);
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Cheap pre-scan so that statements without literals (e.g. prepared statements) are returned as is.
+     */
+    private static boolean containsLiteral(String sql) {
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || isNumberStart(sql, i)) {
+                return true;
+            }
+            i = endOfVerbatim(sql, i);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the end of the token starting at {@code start} which must be copied as is: a quoted identifier,
+     * a comment, an identifier/keyword or a single character.
+     */
+    private static int endOfVerbatim(String sql, int start) {
+        char c = sql.charAt(start);
+        if (c == '"' || c == '`') {
+            return endOfQuoted(sql, start, c);
+        }
+        if (c == '-' && start + 1 < sql.length() && sql.charAt(start + 1) == '-') {
+            int end = sql.indexOf('\n', start);
+            return end < 0 ? sql.length() : end;
+        }
+        if (c == '/' && start + 1 < sql.length() && sql.charAt(start + 1) == '*') {
+            int end = sql.indexOf("*/", start + 2);
+            return end < 0 ? sql.length() : end + 2;
+        }
+        if (isIdentifierPart(c)) {
+            int end = start + 1;
+            while (end < sql.length() && isIdentifierPart(sql.charAt(end))) {
+                end++;
+            }
+            return end;
+        }
+        return start + 1;
+    }
+
+    private static int endOfQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                // a doubled quote is an escaped quote inside the literal
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    private static boolean isNumberStart(String sql, int index) {
+        char c = sql.charAt(index);
+        boolean digit = Character.isDigit(c)
+                || (c == '.' && index + 1 < sql.length() && Character.isDigit(sql.charAt(index + 1)));
+        if (!digit) {
+            return false;
+        }
+        // digits which are part of an identifier (e.g. table2, t1.col) are not literals
+        return index == 0 || (!isIdentifierPart(sql.charAt(index - 1)) && sql.charAt(index - 1) != '.');
+    }
+
+    private static int endOfNumber(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < sql.length()
+                    && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * @param template   the statement with each literal replaced by {@link #LITERAL_MARKER}
+     * @param parameters the stripped literals in order of appearance, empty when the statement has none
+     */
+    public record NormalizedSql(String template, String[] parameters) {
+    }
+}
@@ -41,9 +41,12 @@ $(document).ready(() => {
     const ENDPOINTS = {
         ALARMING_THRESHOLD: API_BASE_URL + '/config/alarming-threshold',
         TRANSACTIONS: API_BASE_URL + '/tx-logs',
+        TRANSACTIONS_EXPORT: API_BASE_URL + '/tx-logs/export',
         SUMMARY: API_BASE_URL + '/tx-summary',
         CHARTS: API_BASE_URL + '/tx-charts',
-        SQL_LOGS: API_BASE_URL + '/sql-logs'
+        TIME_SERIES: API_BASE_URL + '/timeseries',
+        SQL_LOGS: API_BASE_URL + '/sql-logs',
+        SQL_LOGS_EXPORT: API_BASE_URL + '/sql-logs/export'
     };
 
     // Initialize the dashboard
@@ -59,6 +62,7 @@ $(document).ready(() => {
     function fetchAndUpdateUI() {
         updateSummary()
         loadDurationChartData()
+        loadTimeSeriesChartData()
         loadTransactions()
     }
 
@@ -103,7 +107,7 @@ $(document).ready(() => {
         $("#clearFilters").click(clearAllFilters)
 
         // Filter inputs
-        $("#statusFilter, #propagationFilter, #isolationFilter, #connectionFilter").change(function () {
+        $("#statusFilter, #propagationFilter, #isolationFilter, #connectionFilter, #nPlusOneFilter").change(function () {
             currentPage = 1
             loadTransactions()
         })
@@ -115,6 +119,10 @@ $(document).ready(() => {
             }, 500));
 
         // Page size change
+        $("#timeSeriesMetric, #timeSeriesWindow").change(function () {
+            loadTimeSeriesChartData()
+        });
+
         $("#pageSize").change(function () {
             pageSize = Number.parseInt($(this).val())
             currentPage = 1
@@ -355,6 +363,7 @@ $(document).ready(() => {
             method: 'GET',
             success: function (response) {
                 updateDurationChart(response.durationDistribution)
+                updateBatchSizeChart(response.batchSizeDistribution)
             },
             error: function (error) {
                 console.error('Error loading duration chart data', error);
@@ -410,6 +419,132 @@ $(document).ready(() => {
         });
     }
 
+    function loadTimeSeriesChartData() {
+        $.ajax({
+            url: ENDPOINTS.TIME_SERIES + '?metric=' + $("#timeSeriesMetric").val() + '&window=' + $("#timeSeriesWindow").val(),
+            method: 'GET',
+            success: function (response) {
+                updateTimeSeriesChart(response)
+            },
+            error: function (error) {
+                console.error('Error loading time series data', error);
+            }
+        });
+    }
+
+    // Time series line chart over the retained windows
+    function updateTimeSeriesChart(timeSeries) {
+        const ctx = document.getElementById('timeSeriesChart').getContext('2d');
+
+        if (charts.timeSeriesChart) {
+            charts.timeSeriesChart.destroy();
+        }
+
+        const labels = [];
+        const data = [];
+        for (let i = 0; i < timeSeries.points.length; i++) {
+            const time = new Date(timeSeries.points[i].time);
+            labels.push(timeSeries.window === '1h'
+                ? time.toLocaleString([], {month: 'short', day: 'numeric', hour: '2-digit', minute: '2-digit'})
+                : time.toLocaleTimeString());
+            const value = timeSeries.points[i].value;
+            data.push(timeSeries.metric === 'errorRate' ? value * 100 : value);
+        }
+
+        charts.timeSeriesChart = new Chart(ctx, {
+            type: 'line',
+            data: {
+                labels: labels,
+                datasets: [{
+                    label: $("#timeSeriesMetric option:selected").text(),
+                    data: data,
+                    borderColor: '#8b5cf6',
+                    backgroundColor: 'rgba(139, 92, 246, 0.1)',
+                    borderWidth: 2,
+                    pointRadius: 0,
+                    fill: true,
+                    tension: 0.2
+                }]
+            },
+            options: {
+                responsive: true,
+                maintainAspectRatio: false,
+                animation: false,
+                plugins: {
+                    legend: {
+                        display: false
+                    },
+                    tooltip: {
+                        callbacks: {
+                            label: function (context) {
+                                const value = context.parsed.y.toFixed(2);
+                                return context.dataset.label + ': ' + (timeSeries.metric === 'errorRate' ? value + '%' : value);
+                            }
+                        }
+                    }
+                },
+                scales: {
+                    x: {
+                        ticks: {
+                            maxTicksLimit: 8
+                        }
+                    },
+                    y: {
+                        beginAtZero: true
+                    }
+                }
+            }
+        });
+    }
+
+    // Batch size distribution bar chart
+    function updateBatchSizeChart(batchSizeData) {
+        const ctx = document.getElementById('batchSizeChart').getContext('2d');
+
+        if (charts.batchSizeChart) {
+            charts.batchSizeChart.destroy();
+        }
+
+        const labels = [];
+        const data = [];
+        for (let i = 0; i < batchSizeData.length; i++) {
+            const range = batchSizeData[i].range;
+            labels.push(range.minSize === range.maxSize ? range.minSize + "" : range.minSize + "-" + range.maxSize);
+            data.push(batchSizeData[i].count);
+        }
+
+        charts.batchSizeChart = new Chart(ctx, {
+            type: 'bar',
+            data: {
+                labels: labels,
+                datasets: [{
+                    label: 'Batch Count',
+                    data: data,
+                    backgroundColor: '#10b981',
+                    borderColor: '#059669',
+                    borderWidth: 1
+                }]
+            },
+            options: {
+                responsive: true,
+                maintainAspectRatio: false,
+                plugins: {
+                    legend: {
+                        display: false
+                    }
+                },
+                scales: {
+                    y: {
+                        beginAtZero: true,
+                        ticks: {
+                            stepSize: 1
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     // Load transactions (replace with actual API call)
     function loadTransactions() {
         const url = buildTxLogFetchingRequestUrl()
@@ -435,17 +570,28 @@ $(document).ready(() => {
 
     // Apply filters and sorting
     function buildTxLogFetchingRequestUrl() {
+        // Build query parameters
+        const params = [];
+        params.push('page=' + (currentPage - 1)); // Spring Boot pages are 0-indexed
+        params.push('size=' + pageSize);
+        params.push(...buildTxLogFilterParams())
+
+        if (sortField) {
+            params.push('sort=' + sortField + ',' + sortDirection)
+        }
+
+        return ENDPOINTS.TRANSACTIONS + '?' + params.join('&');
+    }
+
+    function buildTxLogFilterParams() {
         const methodSearch = $("#methodSearch").val().toLowerCase()
         const statusFilter = $("#statusFilter").val()
         const propagationFilter = $("#propagationFilter").val()
         const isolationFilter = $("#isolationFilter").val()
         const connectionFilter = $("#connectionFilter").val()
+        const nPlusOneFilter = $("#nPlusOneFilter").val()
 
-        // Build query parameters
         const params = [];
-        params.push('page=' + (currentPage - 1)); // Spring Boot pages are 0-indexed
-        params.push('size=' + pageSize);
-
         if (statusFilter) {
             params.push('status=' + statusFilter)
         }
@@ -462,15 +608,15 @@ $(document).ready(() => {
             params.push('connectionOriented=' + connectionFilter)
         }
 
-        if (methodSearch) {
-            params.push('search=' + encodeURIComponent(methodSearch))
+        if (nPlusOneFilter) {
+            params.push('nPlusOne=' + nPlusOneFilter)
         }
 
-        if (sortField) {
-            params.push('sort=' + sortField + ',' + sortDirection)
+        if (methodSearch) {
+            params.push('search=' + encodeURIComponent(methodSearch))
         }
 
-        return ENDPOINTS.TRANSACTIONS + '?' + params.join('&');
+        return params
     }
 
     // Render transaction table
@@ -514,7 +660,7 @@ $(document).ready(() => {
                 <td>${formatDateTime(tx.startTime)}</td>
                 <td>
                     <span class="badge ${tx.alarmingTransaction ? "badge-warning" : "badge-secondary"}">
-                        ${formatDuration(tx.duration)}
+                        ${formatDuration(preciseMillis(tx.durationMicros, tx.duration))}
                     </span>
                 </td>
                 <td>${getStatusBadge(tx.status)}</td>
@@ -734,6 +880,14 @@ $(document).ready(() => {
         $("#alarmingConnectionCount").text(txSummary.alarmingConnectionCount || 0)
         $("#avgDuration").text(formatDuration(txSummary.averageDuration))
         $("#avgConnOccupied").text(formatDuration(txSummary.averageConnectionOccupiedTime))
+        $("#durationPercentiles").text(formatPercentiles(txSummary.durationPercentiles, "Average execution time"))
+        $("#connOccupiedPercentiles").text(
+            formatPercentiles(txSummary.connectionOccupiedTimePercentiles, "Average connection time"))
+    }
+
+    function formatPercentiles(percentiles, fallback) {
+        if (!percentiles || !percentiles.count) return fallback
+        return `p50 ${formatDuration(percentiles.p50)} · p95 ${formatDuration(percentiles.p95)} · p99 ${formatDuration(percentiles.p99)}`
     }
 
     // Show transaction details modal
@@ -744,7 +898,7 @@ $(document).ready(() => {
         $("#detailPropagation").text(tx.propagation)
         $("#detailIsolation").text(tx.isolation)
         $("#detailThread").text(tx.thread || "N/A")
-        $("#detailDuration").text(formatDuration(tx.duration))
+        $("#detailDuration").text(formatDuration(preciseMillis(tx.durationMicros, tx.duration)))
         $("#detailTotalTransactions").text(tx.totalTransactionCount || 1)
         $("#detailTotalQueries").text(tx.totalQueryCount || (tx.executedQuires ? tx.executedQuires.length : 0))
 
@@ -756,7 +910,7 @@ $(document).ready(() => {
             const summary = tx.connectionSummary
             $("#totalAcquiredConnection").text(summary.acquisitionCount)
             $("#alarmingConnection").text(summary.alarmingConnectionCount)
-            $("#occupiedTime").text(formatDuration(summary.occupiedTime))
+            $("#occupiedTime").text(formatDuration(preciseMillis(summary.occupiedTimeMicros, summary.occupiedTime)))
         } else {
             connSummaryTab.hide()
             // If connection summary tab was active, switch to overview
@@ -825,7 +979,7 @@ $(document).ready(() => {
                             </div>
                             <div class="detail">
                                 <span class="label">Duration:</span>
-                                <span>${formatDuration(child.duration)}</span>
+                                <span>${formatDuration(preciseMillis(child.durationMicros, child.duration))}</span>
                             </div>
                             <div class="detail">
                                 <span class="label">Propagation:</span>
@@ -890,57 +1044,19 @@ $(document).ready(() => {
         $("#propagationFilter").val("")
         $("#isolationFilter").val("")
         $("#connectionFilter").val("")
+        $("#nPlusOneFilter").val("")
         loadTransactions()
     }
 
-    // Export to CSV
+    // Export all matching transactions to CSV, streamed by the server
     function exportToCSV() {
-        const headers = [
-            "Transaction ID",
-            "Method Name",
-            "Start Time",
-            "End Time",
-            "Duration",
-            "Status",
-            "Propagation",
-            "Isolation",
-            "Thread",
-            "SQL Count",
-        ]
-        const csvContent = [headers.join(",")]
-
-        // Recursive function to add all transactions including children
-        function addTransactionToCSV(tx, depth = 0) {
-            const txId = tx.txId
-            const indent = depth > 0 ? " ".repeat(depth * 2) : ""
-            const row = [
-                `${txId === undefined || txId === null ? '' : tx.txId}`,
-                `"${indent}${tx.method}"`,
-                `"${formatDateTime(tx.startTime)}"`,
-                `"${formatDateTime(tx.endTime)}"`,
-                formatDuration(tx.duration),
-                tx.status,
-                tx.propagation,
-                tx.isolation,
-                tx.thread,
-                tx.executedQuires ? tx.executedQuires.length : 0,
-            ]
-            csvContent.push(row.join(","))
-
-            if (tx.child && tx.child.length > 0) {
-                tx.child.forEach((child) => addTransactionToCSV(child, depth + 1))
-            }
+        const params = buildTxLogFilterParams()
+        params.push('format=csv')
+        // only these sorts can be streamed, the others export in insertion order
+        if (sortField === 'startTime' || sortField === 'duration') {
+            params.push('sort=' + sortField + ',' + sortDirection)
         }
-
-        transactions.forEach((tx) => addTransactionToCSV(tx))
-
-        const blob = new Blob([csvContent.join("\n")], { type: "text/csv" })
-        const url = window.URL.createObjectURL(blob)
-        const a = document.createElement("a")
-        a.href = url
-        a.download = `spring-transactions-${new Date().toISOString().split("T")[0]}.csv`
-        a.click()
-        window.URL.revokeObjectURL(url)
+        window.location.href = ENDPOINTS.TRANSACTIONS_EXPORT + '?' + params.join('&')
     }
 
     // Update sort icons
@@ -971,10 +1087,16 @@ $(document).ready(() => {
     }
 
     function formatDuration(ms) {
+        if (ms < 1) return `${Math.round(ms * 1000)}µs`
+        if (ms < 10) return `${ms.toFixed(2)}ms`
         if (ms < 1000) return `${Math.round(ms)}ms`
         return `${(ms / 1000).toFixed(2)}s`
     }
 
+    function preciseMillis(micros, ms) {
+        return micros === undefined || micros === null ? ms : micros / 1000
+    }
+
     function formatDateTime(date) {
         return new Date(date).toLocaleString()
     }
@@ -1107,7 +1229,7 @@ $(document).ready(() => {
                     <td>${formatDateTime(item.conReleaseTime)}</td>
                     <td>
                          <span class="badge ${item.alarmingConnection ? "badge-warning" : "badge-secondary"}">
-                            ${formatDuration(item.conOccupiedTime)}
+                            ${formatDuration(preciseMillis(item.conOccupiedTimeMicros, item.conOccupiedTime))}
                         </span>
                     </td>
                     <td><span class="thread-id">${item.thread || 'N/A'}</span></td>
@@ -1221,35 +1343,16 @@ $(document).ready(() => {
 
     // Export SQL to CSV
     function exportSqlToCSV() {
-        const headers = [
-            "SQL Execution ID",
-            "Connection Acquired Time",
-            "Connection Release Time",
-            "Occupied Time",
-            "Thread",
-            "SQL Count"
-        ]
-        const csvContent = [headers.join(",")]
-
-        sqlFilteredQueries.forEach(item => {
-            const row = [
-                `"${item.id}"`,
-                `"${formatDateTime(item.conAcquiredTime)}"`,
-                `"${formatDateTime(item.conReleaseTime)}"`,
-                formatDuration(item.conOccupiedTime),
-                `"${item.thread || 'N/A'}"`,
-                item.executedQuires ? item.executedQuires.length : 0
-            ]
-            csvContent.push(row.join(","))
-        })
-
-        const blob = new Blob([csvContent.join("\n")], { type: "text/csv" })
-        const url = window.URL.createObjectURL(blob)
-        const a = document.createElement("a")
-        a.href = url
-        a.download = `sql-execution-logs-${new Date().toISOString().split("T")[0]}.csv`
-        a.click()
-        window.URL.revokeObjectURL(url)
+        const search = $("#sqlSearch").val().toLowerCase()
+        const params = ['format=csv']
+        if (search) {
+            params.push('search=' + encodeURIComponent(search))
+        }
+        // every sortable column of the SQL table but the thread can be streamed
+        if (sqlSortField && sqlSortField !== 'thread') {
+            params.push('sort=' + sqlSortField + ',' + sqlSortDirection)
+        }
+        window.location.href = ENDPOINTS.SQL_LOGS_EXPORT + '?' + params.join('&')
     }
 
     function showSqlDetails(item) {
@@ -1258,7 +1361,7 @@ $(document).ready(() => {
         $("#sqlDetailReleased").text(formatDateTime(item.conReleaseTime))
 
         const occupiedElem = $("#sqlDetailOccupied")
-        occupiedElem.text(formatDuration(item.conOccupiedTime))
+        occupiedElem.text(formatDuration(preciseMillis(item.conOccupiedTimeMicros, item.conOccupiedTime)))
         occupiedElem.removeClass("badge badge-warning")
 
         if (item.alarmingConnection) {
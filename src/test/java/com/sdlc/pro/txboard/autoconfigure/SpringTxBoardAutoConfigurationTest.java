@@ -4,12 +4,14 @@ import com.sdlc.pro.txboard.config.SpringTxBoardWebConfiguration;
 import com.sdlc.pro.txboard.config.TxBoardProperties;
 import com.sdlc.pro.txboard.listener.TransactionLogListener;
 import com.sdlc.pro.txboard.listener.TransactionLogPersistenceListener;
+import com.sdlc.pro.txboard.repository.FileTransactionLogRepository;
 import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
 import com.sdlc.pro.txboard.repository.RedisTransactionLogRepository;
 import com.sdlc.pro.txboard.repository.TransactionLogRepository;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
@@ -20,6 +22,8 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class SpringTxBoardAutoConfigurationTest {
@@ -132,6 +136,16 @@ class SpringTxBoardAutoConfigurationTest {
                     );
         }
 
+        @Test
+        void shouldCreateFileTransactionLogRepository(@TempDir Path directory) {
+            contextRunner
+                    .withPropertyValues("sdlc.pro.spring.tx.board.storage=FILE")
+                    .withPropertyValues("sdlc.pro.spring.tx.board.file.directory=" + directory)
+                    .run(context -> assertThat(context.getBean("sdlcProSpringTxLogRepository"))
+                            .isInstanceOf(FileTransactionLogRepository.class)
+                    );
+        }
+
         @Test
         void shouldCreateRedisTransactionLogRepository() {
             contextRunner
@@ -0,0 +1,112 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal harness for the benchmarks which are tagged with {@code benchmark} and only run with
+ * {@code mvn test -Pbenchmark}. Each measurement runs a number of warmup iterations before the measured ones and
+ * prints the average and the best time.
+ */
+final class Benchmarks {
+    private static final String[] METHODS = {
+            "OrderService.createOrder", "OrderService.cancelOrder", "PaymentService.processPayment",
+            "InventoryService.reserveStock", "InventoryService.checkAvailability", "UserService.updateProfile",
+            "NotificationService.sendEmail", "ReportService.generateDailyReport", "ShippingService.scheduleDelivery",
+            "AuditService.record"
+    };
+    private static final String[] THREADS = {
+            "http-nio-8080-exec-1", "http-nio-8080-exec-2", "http-nio-8080-exec-3", "order-processor-1",
+            "order-processor-2", "scheduler-1", "async-1", "async-2"
+    };
+    private static final TransactionPhaseStatus[] STATUSES = {
+            TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.COMMITTED,
+            TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.COMMITTED,
+            TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.ROLLED_BACK, TransactionPhaseStatus.ROLLED_BACK,
+            TransactionPhaseStatus.ERRORED
+    };
+    private static final String[] TABLES = {
+            "orders", "order_items", "payments", "payment_audit_log", "inventory", "warehouses", "users",
+            "user_profiles", "email_queue", "shipments", "invoices", "customers", "products", "audit_log",
+            "verification_tokens", "daily_reports"
+    };
+
+    private Benchmarks() {
+    }
+
+    static List<TransactionLog> transactionLogs(int count) {
+        return transactionLogs(count, 0);
+    }
+
+    /**
+     * Same logs as {@link #transactionLogs(int)}, each with up to the given number of executed statements on the
+     * tables of a small schema.
+     */
+    static List<TransactionLog> transactionLogs(int count, int maxStatements) {
+        Random random = new Random(42);
+        Random statementRandom = new Random(7);
+        Instant base = Instant.parse("2025-08-20T10:45:00Z");
+        List<TransactionLog> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Instant start = base.plusMillis(i * 10L);
+            long durationMicros = (long) (random.nextGaussian() * 200_000 + 300_000);
+            int acquisitionCount = random.nextInt(3);
+            logs.add(new TransactionLog(
+                    new UUID(random.nextLong(), random.nextLong()), METHODS[random.nextInt(METHODS.length)],
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, start.plusNanos(Math.abs(durationMicros) * 1_000L), Math.abs(durationMicros),
+                    ConnectionSummary.ofMicros(acquisitionCount, 0, acquisitionCount * Math.abs(durationMicros) / 2),
+                    STATUSES[random.nextInt(STATUSES.length)], THREADS[random.nextInt(THREADS.length)],
+                    statements(statementRandom, maxStatements), List.of(), List.of(), 1000L, null, null
+            ));
+        }
+        return logs;
+    }
+
+    private static List<String> statements(Random random, int maxStatements) {
+        if (maxStatements == 0) {
+            return List.of();
+        }
+        int count = 1 + random.nextInt(maxStatements);
+        List<String> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String table = TABLES[random.nextInt(TABLES.length)];
+            statements.add(switch (random.nextInt(3)) {
+                case 0 -> "SELECT * FROM " + table + " WHERE id = ?";
+                case 1 -> "UPDATE " + table + " SET status = ?, updated_at = NOW() WHERE id = ?";
+                default -> "INSERT INTO " + table + " (id, status, created_at) VALUES (?, ?, NOW())";
+            });
+        }
+        return statements;
+    }
+
+    static long measure(String name, int warmupIterations, int iterations, LongSupplier task) {
+        long result = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            result = task.getAsLong();
+        }
+
+        long total = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            result = task.getAsLong();
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            best = Math.min(best, elapsed);
+        }
+        System.out.printf("%-40s avg %10.3f ms  best %10.3f ms  (result %d)%n",
+                name, total / 1e6 / iterations, best / 1e6, result);
+        return result;
+    }
+}
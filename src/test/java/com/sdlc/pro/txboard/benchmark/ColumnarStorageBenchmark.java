@@ -0,0 +1,66 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stores 1M transaction logs in the object and in the columnar in-memory layout, printing the retained heap of each
+ * and the latency of a searched dashboard page.
+ */
+@Tag("benchmark")
+class ColumnarStorageBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    @Test
+    void storeOneMillionTransactionLogs() {
+        FilterNode search = FilterGroup.of(List.of(
+                Filter.of("method", "payment", Filter.Operator.CONTAINS),
+                Filter.of("thread", "payment", Filter.Operator.CONTAINS)
+        ), FilterGroup.Logic.OR);
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.UNSORTED, search);
+
+        long[] totals = new long[2];
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            long before = usedHeap();
+            InMemoryTransactionLogRepository repository = repositoryOf(layout);
+            long retained = usedHeap() - before;
+            System.out.printf("%-40s %10.1f MB  (%d bytes per log)%n",
+                    layout + " retained heap", retained / 1e6, retained / LOG_COUNT);
+
+            totals[layout.ordinal()] = Benchmarks.measure(layout + " searched page", 3, 10,
+                    () -> repository.findAll(pageRequest).getTotalElements());
+            Benchmarks.measure(layout + " average duration", 3, 10, () -> (long) repository.averageDuration());
+        }
+        assertEquals(totals[0], totals[1]);
+    }
+
+    private static InMemoryTransactionLogRepository repositoryOf(TxBoardProperties.InMemoryLayout layout) {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(LOG_COUNT);
+        properties.getInMemory().setLayout(layout);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+        logs.forEach(repository::save);
+        return repository;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
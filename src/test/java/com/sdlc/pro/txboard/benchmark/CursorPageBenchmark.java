@@ -0,0 +1,76 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests the first and a deep page (the middle of the logs) from an in-memory repository holding 1M transaction
+ * logs, once by offset and once following the cursor of the preceding page, in insertion order, "slowest first" and
+ * in insertion order restricted to the committed logs.
+ */
+@Tag("benchmark")
+class CursorPageBenchmark {
+    private static final int CAPACITY = 1_000_000;
+    private static final int PAGE_SIZE = 10;
+
+    @Test
+    void cursorPagesOfOneMillionTransactionLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(CAPACITY);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        Benchmarks.transactionLogs(CAPACITY).forEach(repository::save);
+
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        List<Sort> sorts = List.of(Sort.UNSORTED, Sort.by("duration", Sort.Direction.DESC), Sort.UNSORTED);
+        List<FilterNode> filters = List.of(FilterNode.UNFILTERED, FilterNode.UNFILTERED, committed);
+        for (int i = 0; i < sorts.size(); i++) {
+            Sort sort = sorts.get(i);
+            FilterNode filter = filters.get(i);
+            String name = "1M " + (sort.isSortable() ? sort.getProperty() : "insertion")
+                    + (filter == committed ? " + status" : "");
+            int deepPage = (int) (repository.findAll(PageRequest.after(null, 1, sort, filter)).getTotalElements()
+                    / PAGE_SIZE / 2);
+            Cursor deepCursor = cursorBefore(repository, deepPage * PAGE_SIZE, sort, filter);
+
+            Benchmarks.measure(name + " offset, first page", 3, 10,
+                    () -> repository.findAll(PageRequest.of(0, PAGE_SIZE, sort, filter)).getContent().size());
+            Benchmarks.measure(name + " offset, deep page", 3, 10,
+                    () -> repository.findAll(PageRequest.of(deepPage, PAGE_SIZE, sort, filter)).getContent().size());
+            Benchmarks.measure(name + " cursor, first page", 3, 10,
+                    () -> repository.findAll(PageRequest.after(null, PAGE_SIZE, sort, filter)).getContent().size());
+            Benchmarks.measure(name + " cursor, deep page", 3, 10,
+                    () -> repository.findAll(PageRequest.after(deepCursor, PAGE_SIZE, sort, filter)).getContent().size());
+
+            assertEquals(repository.findAll(PageRequest.of(deepPage, PAGE_SIZE, sort, filter)).getContent(),
+                    repository.findAll(PageRequest.after(deepCursor, PAGE_SIZE, sort, filter)).getContent());
+        }
+    }
+
+    /**
+     * Walks the given number of logs with large cursor pages and returns the cursor of the last one.
+     */
+    private static Cursor cursorBefore(InMemoryTransactionLogRepository repository, int offset, Sort sort,
+                                       FilterNode filter) {
+        Cursor cursor = null;
+        for (int walked = 0; walked < offset; walked += PAGE_SIZE * 100) {
+            PageResponse<TransactionLog> response = repository.findAll(
+                    PageRequest.after(cursor, Math.min(PAGE_SIZE * 100, offset - walked), sort, filter));
+            cursor = Cursor.decode(response.getNextCursor());
+        }
+        return cursor;
+    }
+}
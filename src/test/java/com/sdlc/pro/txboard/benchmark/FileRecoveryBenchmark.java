@@ -0,0 +1,83 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.FileTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fills the file storage with 10GB of transaction logs (override with {@code -Dbenchmark.file.size=2GB}) and prints
+ * the time it takes to open it again: after a clean shutdown, after a crash with logs written since the last
+ * checkpoint, and without the checkpoint and the segment indexes, when every record is verified and replayed.
+ */
+@Tag("benchmark")
+class FileRecoveryBenchmark {
+    private static final int BATCH_SIZE = 100_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoverTenGigabytes() throws IOException {
+        long size = DataSize.parse(System.getProperty("benchmark.file.size", "10GB")).toBytes();
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getFile().setDirectory(this.directory.toString());
+        properties.getFile().setRetentionSize(DataSize.ofBytes(size * 2));
+        properties.getFile().setRetentionPeriod(Duration.ofDays(365_000));
+        properties.getFile().setCheckpointInterval(Duration.ofDays(1));
+
+        List<TransactionLog> logs = Benchmarks.transactionLogs(BATCH_SIZE);
+        FileTransactionLogRepository repository = new FileTransactionLogRepository(properties);
+        long start = System.nanoTime();
+        while (this.storeSize() < size) {
+            logs.forEach(repository::save);
+        }
+        long count = repository.count();
+        System.out.printf("%-40s %10.1f GB  (%d logs in %.1f s)%n", "FILE store", this.storeSize() / 1e9, count,
+                (System.nanoTime() - start) / 1e9);
+        repository.destroy();
+
+        FileTransactionLogRepository reopened = this.open("FILE open after shutdown", properties);
+        // the logs appended after the checkpoint of the shutdown are replayed after the crash
+        logs.forEach(reopened::save);
+        count += logs.size();
+        FileTransactionLogRepository crashed = this.open("FILE open after crash", properties);
+        assertEquals(count, crashed.count());
+        crashed.destroy();
+        reopened.destroy();
+
+        try (Stream<Path> files = Files.list(this.directory.resolve("transaction-logs"))) {
+            for (Path file : files.filter(file -> !file.toString().endsWith(".seg")).toList()) {
+                Files.delete(file);
+            }
+        }
+        FileTransactionLogRepository rebuilt = this.open("FILE open without checkpoint", properties);
+        assertEquals(count, rebuilt.count());
+        rebuilt.destroy();
+    }
+
+    private FileTransactionLogRepository open(String name, TxBoardProperties properties) {
+        long start = System.nanoTime();
+        FileTransactionLogRepository repository = new FileTransactionLogRepository(properties);
+        System.out.printf("%-40s %10.3f s%n", name, (System.nanoTime() - start) / 1e9);
+        return repository;
+    }
+
+    private long storeSize() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
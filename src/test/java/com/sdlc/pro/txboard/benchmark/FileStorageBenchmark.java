@@ -0,0 +1,78 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.FileTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Appends 1M transaction logs to the file storage, printing the append throughput, the latency of a page sorted
+ * by duration and of a page filtered on a start time range and the status, and the time it takes to walk all the logs
+ * in cursor pages like an export does, in insertion order and by start time.
+ */
+@Tag("benchmark")
+class FileStorageBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendOneMillionTransactionLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getFile().setDirectory(this.directory.toString());
+        properties.getFile().setRetentionPeriod(Duration.ofDays(365_000));
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+        FileTransactionLogRepository repository = new FileTransactionLogRepository(properties);
+
+        long start = System.nanoTime();
+        logs.forEach(repository::save);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-40s %10.0f logs/s%n", "FILE append", LOG_COUNT / (elapsed / 1e9));
+
+        PageRequest sorted = PageRequest.of(0, 100, Sort.by("duration", Sort.Direction.DESC), FilterNode.UNFILTERED);
+        Benchmarks.measure("FILE page sorted by duration", 2, 5,
+                () -> repository.findAll(sorted).getContent().size());
+
+        FilterNode filter = FilterGroup.of(List.of(
+                Filter.of("startTime", logs.get(LOG_COUNT / 2).getStartTime(), Filter.Operator.GREATER_THAN_OR_EQUALS),
+                Filter.of("startTime", logs.get(LOG_COUNT / 2 + 10_000).getStartTime(), Filter.Operator.LESS_THAN),
+                Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS)
+        ), FilterGroup.Logic.AND);
+        PageRequest ranged = PageRequest.of(0, 100, Sort.UNSORTED, filter);
+        Benchmarks.measure("FILE page in a start time range", 3, 10,
+                () -> repository.findAll(ranged).getTotalElements());
+
+        for (Sort sort : List.of(Sort.UNSORTED, Sort.by("startTime", Sort.Direction.ASC))) {
+            Benchmarks.measure("FILE export walk " + (sort.isSortable() ? "by start time" : "in insertion order"), 1, 2,
+                    () -> walk(repository, sort));
+        }
+        repository.destroy();
+    }
+
+    private static long walk(FileTransactionLogRepository repository, Sort sort) {
+        long count = 0;
+        Cursor cursor = null;
+        do {
+            PageResponse<TransactionLog> page = repository.findAll(
+                    PageRequest.after(cursor, 500, sort, FilterNode.UNFILTERED).withoutTotal());
+            count += page.getContent().size();
+            cursor = page.hasNext() ? Cursor.decode(page.getNextCursor()) : null;
+        } while (cursor != null);
+        return count;
+    }
+}
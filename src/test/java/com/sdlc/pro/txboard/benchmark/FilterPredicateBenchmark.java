@@ -0,0 +1,102 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Filters 1M transaction logs with the filter the dashboard sends for a search plus a status and a connection filter,
+ * once with the former per-item reflective predicate and once with the compiled one.
+ */
+@Tag("benchmark")
+class FilterPredicateBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    private static final FilterNode DASHBOARD_FILTER = FilterGroup.of(List.of(
+            FilterGroup.of(List.of(
+                    Filter.of("method", "order", Filter.Operator.CONTAINS),
+                    Filter.of("thread", "order", Filter.Operator.CONTAINS)
+            ), FilterGroup.Logic.OR),
+            Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS),
+            Filter.of("connectionOriented", true, Filter.Operator.EQUALS)
+    ), FilterGroup.Logic.AND);
+
+    @Test
+    void filterOneMillionTransactionLogs() {
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+
+        long expected = Benchmarks.measure("reflective filter", 5, 10,
+                () -> logs.stream().filter(ReflectivePredicate.build(DASHBOARD_FILTER)).count());
+        long actual = Benchmarks.measure("compiled filter", 5, 10,
+                () -> logs.stream().filter(FilterPredicateFactory.compile(DASHBOARD_FILTER, TransactionLog.class)).count());
+
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * The predicate as it was built before the filters were compiled, kept as the baseline.
+     */
+    private static final class ReflectivePredicate {
+
+        static Predicate<Object> build(FilterNode node) {
+            if (node instanceof Filter filter) {
+                return item -> test(item, filter);
+            } else if (node instanceof FilterGroup group) {
+                return group.getFilterNodes().stream()
+                        .map(ReflectivePredicate::build)
+                        .reduce(group.getLogic() == FilterGroup.Logic.AND ? Predicate::and : Predicate::or)
+                        .orElse(t -> group.getLogic() == FilterGroup.Logic.AND);
+            }
+            return t -> true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static boolean test(Object item, Filter filter) {
+            try {
+                Field field = field(item.getClass(), filter.getProperty());
+                field.setAccessible(true);
+                Object fieldValue = field.get(item);
+                Object target = filter.getValue();
+                if (fieldValue == null) return false;
+
+                return switch (filter.getOperator()) {
+                    case EQUALS -> fieldValue.equals(target);
+                    case NOT_EQUALS -> !fieldValue.equals(target);
+                    case GREATER_THAN -> ((Comparable<Object>) fieldValue).compareTo(target) > 0;
+                    case GREATER_THAN_OR_EQUALS -> ((Comparable<Object>) fieldValue).compareTo(target) >= 0;
+                    case LESS_THAN -> ((Comparable<Object>) fieldValue).compareTo(target) < 0;
+                    case LESS_THAN_OR_EQUALS -> ((Comparable<Object>) fieldValue).compareTo(target) <= 0;
+                    case CONTAINS -> fieldValue instanceof String s && target instanceof String v
+                            && s.toLowerCase().contains(v.toLowerCase());
+                    case STARTS_WITH -> fieldValue instanceof String s && target instanceof String v
+                            && s.toLowerCase().startsWith(v.toLowerCase());
+                    case ENDS_WITH -> fieldValue instanceof String s && target instanceof String v
+                            && s.toLowerCase().endsWith(v.toLowerCase());
+                };
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private static Field field(Class<?> clazz, String name) throws NoSuchFieldException {
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                try {
+                    return current.getDeclaredField(name);
+                } catch (NoSuchFieldException ignored) {
+                }
+            }
+            throw new NoSuchFieldException(name);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests a filtered dashboard page from an in-memory repository holding 1M transaction logs, once for the status
+ * and connection filters resolved from the bitmap indexes only and once with a search leaving a residual filter,
+ * compared with a linear scan of the compiled filter predicate.
+ */
+@Tag("benchmark")
+class IndexedFilterBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    @Test
+    void filterOneMillionTransactionLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(LOG_COUNT);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+        logs.forEach(repository::save);
+
+        FilterNode indexed = FilterGroup.of(List.of(
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.ROLLED_BACK, Filter.Operator.EQUALS),
+                        Filter.of("status", TransactionPhaseStatus.ERRORED, Filter.Operator.EQUALS)
+                ), FilterGroup.Logic.OR),
+                Filter.of("connectionOriented", true, Filter.Operator.EQUALS)
+        ), FilterGroup.Logic.AND);
+        FilterNode searched = FilterGroup.of(List.of(
+                indexed, Filter.of("method", "payment", Filter.Operator.CONTAINS)
+        ), FilterGroup.Logic.AND);
+
+        for (FilterNode filter : List.of(indexed, searched)) {
+            Predicate<TransactionLog> predicate = FilterPredicateFactory.compile(filter, TransactionLog.class);
+            PageRequest pageRequest = PageRequest.of(0, 10, Sort.UNSORTED, filter);
+
+            long scanned = Benchmarks.measure("linear scan", 3, 10, () -> logs.stream().filter(predicate).count());
+            long indexedTotal = Benchmarks.measure("bitmap indexes", 3, 10,
+                    () -> repository.findAll(pageRequest).getTotalElements());
+            assertEquals(scanned, indexedTotal);
+        }
+    }
+}
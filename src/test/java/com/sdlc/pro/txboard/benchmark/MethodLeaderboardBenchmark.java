@@ -0,0 +1,46 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.controller.SpringTxBoardController;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemorySqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests the method statistics sorted by their p99 from an in-memory repository holding 1M transaction logs,
+ * comparing the incrementally maintained counters with grouping the stored logs by method.
+ */
+@Tag("benchmark")
+class MethodLeaderboardBenchmark {
+    private static final int CAPACITY = 1_000_000;
+
+    @Test
+    void methodStatisticsOfOneMillionTransactionLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(CAPACITY);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        Benchmarks.transactionLogs(CAPACITY).forEach(repository::save);
+        SpringTxBoardController controller = new SpringTxBoardController(properties, repository,
+                new InMemorySqlExecutionLogRepository(),
+                new StaticListableBeanFactory().getBeanProvider(TransactionPhaseListener.class));
+
+        Benchmarks.measure("1M grouped scan", 3, 10, () -> repository.findAll()
+                .stream()
+                .collect(Collectors.groupingBy(TransactionLog::getMethod,
+                        Collectors.summarizingLong(TransactionLog::getDurationMicros)))
+                .size());
+        Benchmarks.measure("1M incremental counters", 3, 10,
+                () -> controller.getMethodSummaries("p99,desc", null).size());
+
+        assertEquals(CAPACITY, repository.getMethodSummaries().stream().mapToLong(MethodSummary::callCount).sum());
+    }
+}
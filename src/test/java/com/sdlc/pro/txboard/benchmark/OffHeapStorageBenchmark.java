@@ -0,0 +1,75 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.storage.OffHeapBlobStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stores 1M transaction logs in the columnar layout with the blobs on the heap and off-heap, printing the retained
+ * heap, the duration of a full collection and the latency of reading a page of materialized logs.
+ */
+@Tag("benchmark")
+class OffHeapStorageBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    @Test
+    void storeOneMillionTransactionLogs() {
+        PageRequest pageRequest = PageRequest.of(0, 100, Sort.by("duration", Sort.Direction.DESC),
+                FilterNode.UNFILTERED);
+
+        long[] totals = new long[2];
+        for (boolean offHeap : new boolean[]{false, true}) {
+            String name = offHeap ? "OFF_HEAP" : "HEAP";
+            long before = usedHeap();
+            InMemoryTransactionLogRepository repository = repositoryOf(offHeap);
+            long retained = usedHeap() - before;
+            System.out.printf("%-40s %10.1f MB  (%d bytes per log)%n",
+                    name + " retained heap", retained / 1e6, retained / LOG_COUNT);
+            repository.getOffHeapStatistics().ifPresent(OffHeapStorageBenchmark::print);
+
+            Benchmarks.measure(name + " full collection", 1, 5, () -> {
+                System.gc();
+                return repository.count();
+            });
+            totals[offHeap ? 1 : 0] = Benchmarks.measure(name + " page of 100 logs", 3, 10,
+                    () -> repository.findAll(pageRequest).getContent().size());
+        }
+        assertEquals(totals[0], totals[1]);
+    }
+
+    private static InMemoryTransactionLogRepository repositoryOf(boolean offHeap) {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(LOG_COUNT);
+        properties.getInMemory().setLayout(TxBoardProperties.InMemoryLayout.COLUMNAR);
+        properties.getInMemory().getOffHeap().setEnabled(offHeap);
+        properties.getInMemory().getOffHeap().setBudget(DataSize.ofMegabytes(512));
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+        logs.forEach(repository::save);
+        return repository;
+    }
+
+    private static void print(OffHeapBlobStore.OffHeapStatistics statistics) {
+        System.out.printf("%-40s %10.1f MB  (%.1f MB reserved, %d heap blobs)%n", "OFF_HEAP used direct memory",
+                statistics.usedBytes() / 1e6, statistics.reservedBytes() / 1e6, statistics.heapBlobs());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,57 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.util.SortUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sorts 100k transaction logs by duration, once with the former reflective comparator, once fully with the key
+ * extracting sort and once selecting the first dashboard page only.
+ */
+@Tag("benchmark")
+class SortBenchmark {
+    private static final int LOG_COUNT = 100_000;
+    private static final int PAGE_SIZE = 10;
+
+    @Test
+    void sortOneHundredThousandTransactionLogs() {
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT);
+        Sort sort = Sort.by("duration", Sort.Direction.DESC);
+
+        Benchmarks.measure("reflective comparator", 3, 5,
+                () -> logs.stream().sorted(reflectiveComparator(sort)).toList().size());
+        Benchmarks.measure("key extracting sort", 3, 5, () -> SortUtils.sort(logs, sort).size());
+        Benchmarks.measure("top-k first page", 3, 5, () -> SortUtils.sortPage(logs, sort, 0, PAGE_SIZE).size());
+
+        assertEquals(logs.stream().sorted(reflectiveComparator(sort)).limit(PAGE_SIZE).toList(),
+                SortUtils.sortPage(logs, sort, 0, PAGE_SIZE));
+    }
+
+    /**
+     * The comparator as it was built before the key extractors were cached, kept as the baseline.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> reflectiveComparator(Sort sort) {
+        String methodName = "get" + Character.toUpperCase(sort.getProperty().charAt(0)) + sort.getProperty().substring(1);
+        return (a, b) -> {
+            try {
+                Method ma = a.getClass().getDeclaredMethod(methodName);
+                ma.setAccessible(true);
+                Method mb = b.getClass().getDeclaredMethod(methodName);
+                mb.setAccessible(true);
+                int result = ((Comparable<Object>) ma.invoke(a)).compareTo(mb.invoke(b));
+                return sort.getDirection() == Sort.Direction.ASC ? result : -result;
+            } catch (Exception e) {
+                return 0;
+            }
+        };
+    }
+}
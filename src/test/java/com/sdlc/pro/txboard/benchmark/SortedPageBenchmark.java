@@ -0,0 +1,70 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.SortUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests the first and a deep "slowest first" and "newest first" page from an in-memory repository holding 1M and
+ * 10M transaction logs, read from the sorted indexes, compared with sorting the retained logs for the page. The 10M
+ * repository retains each of the 1M generated logs ten times to fit into the benchmark heap.
+ */
+@Tag("benchmark")
+class SortedPageBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Test
+    void sortedPagesOfOneMillionTransactionLogs() {
+        run(1_000_000);
+    }
+
+    @Test
+    void sortedPagesOfTenMillionTransactionLogs() {
+        run(10_000_000);
+    }
+
+    private static void run(int capacity) {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(capacity);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> logs = Benchmarks.transactionLogs(Math.min(capacity, 1_000_000));
+        for (int i = 0; i < capacity; i++) {
+            repository.save(logs.get(i % logs.size()));
+        }
+
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        int deepPage = capacity / PAGE_SIZE / 2;
+        for (Sort sort : List.of(Sort.by("duration", Sort.Direction.DESC), Sort.by("startTime", Sort.Direction.DESC))) {
+            String name = capacity / 1_000_000 + "M " + sort.getProperty();
+            if (capacity <= 1_000_000) {
+                List<TransactionLog> retained = repository.findAll();
+                Benchmarks.measure(name + " full sort, first page", 1, 3,
+                        () -> SortUtils.sortPage(retained, sort, 0, PAGE_SIZE).size());
+                Benchmarks.measure(name + " full sort, deep page", 1, 3,
+                        () -> SortUtils.sortPage(retained, sort, deepPage * PAGE_SIZE, PAGE_SIZE).size());
+            }
+            Benchmarks.measure(name + " index, first page", 3, 10,
+                    () -> repository.findAll(PageRequest.of(0, PAGE_SIZE, sort)).getContent().size());
+            Benchmarks.measure(name + " index, deep page", 3, 10,
+                    () -> repository.findAll(PageRequest.of(deepPage, PAGE_SIZE, sort)).getContent().size());
+            Benchmarks.measure(name + " index + status, first page", 3, 10,
+                    () -> repository.findAll(PageRequest.of(0, PAGE_SIZE, sort, committed)).getContent().size());
+            Benchmarks.measure(name + " index + status, deep page", 1, 3,
+                    () -> repository.findAll(PageRequest.of(deepPage / 2, PAGE_SIZE, sort, committed)).getContent().size());
+
+            assertEquals(PAGE_SIZE, repository.findAll(PageRequest.of(deepPage, PAGE_SIZE, sort)).getContent().size());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Records 256K transaction logs into the summary counters of an in-memory repository from 1, 8 and 64 concurrent
+ * writer threads, each one recording its share of the logs.
+ */
+@Tag("benchmark")
+class SummaryContentionBenchmark {
+    private static final int COUNT = 256 * 1024;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void summaryCountersUnderConcurrentWriters() {
+        List<TransactionLog> transactionLogs = Benchmarks.transactionLogs(COUNT);
+        for (int threads : new int[]{1, 8, 64}) {
+            InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+            Benchmarks.measure("256K records by " + threads + " writer(s)", 3, ITERATIONS,
+                    () -> record(repository, transactionLogs, threads));
+
+            TransactionSummary summary = repository.getTransactionSummary();
+            assertEquals((3L + ITERATIONS) * COUNT, summary.getTotalTransaction());
+        }
+    }
+
+    private static long record(InMemoryTransactionLogRepository repository, List<TransactionLog> transactionLogs,
+                               int threads) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>(threads);
+        int share = transactionLogs.size() / threads;
+        for (int i = 0; i < threads; i++) {
+            List<TransactionLog> logs = transactionLogs.subList(i * share, (i + 1) * share);
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                logs.forEach(repository::recordSampledOut);
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return repository.getTransactionSummary().getCommittedCount();
+    }
+}
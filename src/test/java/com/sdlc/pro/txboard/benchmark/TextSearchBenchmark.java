@@ -0,0 +1,52 @@
+package com.sdlc.pro.txboard.benchmark;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Searches 1M in-memory transaction logs for a table name in their executed statements and for the dashboard's
+ * method or thread search through the text indexes, compared with a linear scan of the compiled filter predicate.
+ */
+@Tag("benchmark")
+class TextSearchBenchmark {
+    private static final int LOG_COUNT = 1_000_000;
+
+    @Test
+    void searchOneMillionTransactionLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(LOG_COUNT);
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> logs = Benchmarks.transactionLogs(LOG_COUNT, 4);
+        logs.forEach(repository::save);
+
+        FilterNode sqlContains = Filter.of("executedQuires", "payment_audit", Filter.Operator.CONTAINS);
+        FilterNode search = FilterGroup.of(List.of(
+                Filter.of("method", "processor", Filter.Operator.CONTAINS),
+                Filter.of("thread", "processor", Filter.Operator.CONTAINS)
+        ), FilterGroup.Logic.OR);
+
+        for (FilterNode filter : List.of(sqlContains, search)) {
+            Predicate<TransactionLog> predicate = FilterPredicateFactory.compile(filter, TransactionLog.class);
+            PageRequest pageRequest = PageRequest.of(0, 10, Sort.UNSORTED, filter);
+
+            long scanned = Benchmarks.measure("linear scan", 3, 10, () -> logs.stream().filter(predicate).count());
+            long indexed = Benchmarks.measure("text indexes", 3, 10,
+                    () -> repository.findAll(pageRequest).getTotalElements());
+            assertEquals(scanned, indexed);
+        }
+    }
+}
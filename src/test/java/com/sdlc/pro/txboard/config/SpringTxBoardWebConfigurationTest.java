@@ -1,6 +1,7 @@
 package com.sdlc.pro.txboard.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -10,7 +11,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +42,15 @@ public class SpringTxBoardWebConfigurationTest {
                 .andExpect(jsonPath("$.connection").value(1000));
     }
 
+    @Test
+    void shouldReturnStatisticsJsonWithoutTheDisabledParts() throws Exception {
+        mockMvc.perform(get("/api/tx-board/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.dispatch").doesNotExist())
+                .andExpect(jsonPath("$.offHeap").doesNotExist());
+    }
+
     @Test
     void shouldReturnTxSummaryJsonWithCorrectFormat() throws Exception {
         mockMvc.perform(get("/api/tx-board/tx-summary"))
@@ -76,6 +89,18 @@ public class SpringTxBoardWebConfigurationTest {
                 .andReturn().getResponse().getContentAsString();
     }
 
+    @Test
+    void shouldStreamTxLogExportAsCsvAttachment() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tx-board/tx-logs/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", startsWith("attachment; filename=\"tx-logs-")))
+                .andExpect(content().string(startsWith("txId,depth,method,startTime,endTime,durationMicros")));
+    }
+
     @Test
     void shouldReturnChartJsonCorrectFormat() throws Exception {
         mockMvc.perform(get("/api/tx-board/tx-charts"))
@@ -89,6 +114,35 @@ public class SpringTxBoardWebConfigurationTest {
                 .andExpect(jsonPath("$.durationDistribution[0].count").exists());
     }
 
+    @Test
+    void shouldReturnTheDurationDistributionOfTheRequestedBuckets() throws Exception {
+        mockMvc.perform(get("/api/tx-board/tx-charts").param("buckets", "10,50,100,250,500,1000,2500"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.durationDistribution.length()").value(7))
+                .andExpect(jsonPath("$.durationDistribution[6].range.minMillis").value(1001))
+                .andExpect(jsonPath("$.durationDistribution[6].range.maxMillis").value(2500));
+    }
+
+    @Test
+    void shouldReturnMethodStatisticsJsonArray() throws Exception {
+        mockMvc.perform(get("/api/tx-board/methods").param("sort", "p99,desc").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void shouldReturnTimeSeriesJson() throws Exception {
+        mockMvc.perform(get("/api/tx-board/timeseries").param("metric", "p95").param("window", "1s"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.metric").value("p95"))
+                .andExpect(jsonPath("$.window").value("1s"))
+                .andExpect(jsonPath("$.points").isArray())
+                .andExpect(jsonPath("$.points.length()").value(120));
+    }
+
     @Test
     void shouldRedirectToTxBoardHtmlPage() throws Exception {
         mockMvc.perform(get("/tx-board/ui"))
@@ -107,7 +161,7 @@ public class SpringTxBoardWebConfigurationTest {
     static class TestConfig {
         @Bean
         ObjectMapper objectMapper() {
-            return new ObjectMapper();
+            return new ObjectMapper().registerModule(new JavaTimeModule());
         }
 
         @Bean
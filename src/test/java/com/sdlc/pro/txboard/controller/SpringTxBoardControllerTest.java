@@ -0,0 +1,120 @@
+package com.sdlc.pro.txboard.controller;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.dto.TimeSeries;
+import com.sdlc.pro.txboard.dto.TxBoardStatistics;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemorySqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.TxLogUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpringTxBoardControllerTest {
+    private final InMemoryTransactionLogRepository transactionLogRepository =
+            new InMemoryTransactionLogRepository(new TxBoardProperties());
+    private final SpringTxBoardController controller = new SpringTxBoardController(new TxBoardProperties(),
+            this.transactionLogRepository, new InMemorySqlExecutionLogRepository(),
+            new StaticListableBeanFactory().getBeanProvider(TransactionPhaseListener.class));
+
+    @Test
+    void shouldSortTheMethodSummariesByTheGivenMetric() {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(this.transactionLogRepository::save);
+        List<MethodSummary> summaries = this.transactionLogRepository.getMethodSummaries();
+
+        assertEquals(summaries.stream().sorted(Comparator.comparingDouble(MethodSummary::totalDuration).reversed())
+                .toList(), this.controller.getMethodSummaries("totalDuration,desc", null));
+        assertEquals(summaries.stream().sorted(Comparator.comparingDouble(MethodSummary::p99)).limit(2).toList(),
+                this.controller.getMethodSummaries("p99,asc", 2));
+        assertEquals(summaries.stream().sorted(Comparator.comparingLong(MethodSummary::erroredCount).reversed())
+                .limit(1).toList(), this.controller.getMethodSummaries("erroredCount,desc", 1));
+    }
+
+    @Test
+    void shouldRejectAnUnknownMetricOrLimit() {
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getMethodSummaries("thread,desc", null));
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getMethodSummaries("p99,desc", 0));
+    }
+
+    @Test
+    void shouldDeriveTheTimeSeriesMetricsFromTheRollups() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 4; i++) {
+            this.transactionLogRepository.save(new TransactionLog(null, "OrderService.createOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.READ_COMMITTED, now.minusMillis(50), now,
+                    new ConnectionSummary(1, 0, 20), i == 0 ? TransactionPhaseStatus.ERRORED
+                    : TransactionPhaseStatus.COMMITTED, "worker-1", List.of(), List.of(), List.of(), 1000L));
+        }
+
+        TimeSeries tps = this.controller.getTimeSeries("tps", "1m");
+        assertEquals("tps", tps.metric());
+        assertEquals("1m", tps.window());
+        assertEquals(120, tps.points().size());
+        assertEquals(4 / 60.0, tps.points().stream().mapToDouble(TimeSeries.Point::value).sum(), 1e-9);
+        assertEquals(0.25, this.controller.getTimeSeries("errorRate", "1h").points().stream()
+                .mapToDouble(TimeSeries.Point::value).sum(), 1e-9);
+        assertEquals(50.0, this.controller.getTimeSeries("P95", "1h").points().stream()
+                .mapToDouble(TimeSeries.Point::value).max().orElseThrow(), 50.0 / 32);
+        assertEquals(20.0, this.controller.getTimeSeries("connectionHoldTime", "1h").points().stream()
+                .mapToDouble(TimeSeries.Point::value).max().orElseThrow(), 1e-9);
+    }
+
+    @Test
+    void shouldRejectAnUnknownTimeSeriesMetricOrWindow() {
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getTimeSeries("latency", "1m"));
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getTimeSeries("tps", "5m"));
+    }
+
+    @Test
+    void shouldBucketTheDurationsByTheRequestedBoundaries() {
+        TxLogUtils.createTestTransactionLogs().forEach(this.transactionLogRepository::save);
+
+        assertEquals(this.transactionLogRepository.getDurationDistributions(),
+                this.controller.getTransactionChart(null).durationDistribution());
+        assertEquals(this.transactionLogRepository.getDurationDistributions(List.of(10, 100, 250, 1000, 1500, 3000, 4000)),
+                this.controller.getTransactionChart("1000, 10,250,100,1500,3000,4000,100").durationDistribution());
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getTransactionChart("0,100"));
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getTransactionChart("100,1s"));
+        assertThrows(IllegalArgumentException.class, () -> this.controller.getTransactionChart(""));
+    }
+
+    @Test
+    void shouldServeTheStatisticsOfTheEnabledDispatcherAndOffHeapStorage() {
+        assertEquals(new TxBoardStatistics(null, null), this.controller.getStatistics());
+
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getDispatcher().setAsync(true);
+        properties.getInMemory().getOffHeap().setEnabled(true);
+        InMemoryTransactionLogRepository offHeapRepository = new InMemoryTransactionLogRepository(properties);
+        TxLogUtils.createTestTransactionLogs().forEach(offHeapRepository::save);
+        TransactionPhaseListenerImpl listener = new TransactionPhaseListenerImpl(properties, List.of(), List.of());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("sdlcProTxPhaseListener", listener);
+        try {
+            TxBoardStatistics statistics = new SpringTxBoardController(properties, offHeapRepository,
+                    new InMemorySqlExecutionLogRepository(), beanFactory.getBeanProvider(TransactionPhaseListener.class))
+                    .getStatistics();
+
+            assertEquals(0, statistics.dispatch().queued());
+            assertTrue(statistics.offHeap().usedBytes() > 0);
+        } finally {
+            listener.destroy();
+        }
+    }
+}
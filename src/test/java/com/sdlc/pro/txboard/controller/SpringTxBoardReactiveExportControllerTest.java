@@ -0,0 +1,87 @@
+package com.sdlc.pro.txboard.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemorySqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.SqlLogUtils;
+import com.sdlc.pro.txboard.util.TxLogUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpringTxBoardReactiveExportControllerTest {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final InMemoryTransactionLogRepository transactionLogRepository =
+            new InMemoryTransactionLogRepository(new TxBoardProperties());
+    private final InMemorySqlExecutionLogRepository sqlExecutionLogRepository = new InMemorySqlExecutionLogRepository();
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("objectMapper", this.mapper);
+        SpringTxBoardReactiveExportController controller = new SpringTxBoardReactiveExportController(
+                this.transactionLogRepository, this.sqlExecutionLogRepository,
+                beanFactory.getBeanProvider(ObjectMapper.class));
+        this.client = WebTestClient.bindToController(controller)
+                .configureClient()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    @Test
+    void shouldStreamTheFilteredTransactionLogsAsJsonLines() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        for (int i = 0; i < 200; i++) {
+            transactionLogs.forEach(this.transactionLogRepository::save);
+        }
+
+        String body = this.client.get()
+                .uri("/api/tx-board/tx-logs/export?status=COMMITTED&sort=startTime,asc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        String[] lines = body.split("\n");
+        long committed = transactionLogs.stream().filter(log -> log.getStatus().name().equals("COMMITTED")).count();
+        assertEquals(200 * committed, lines.length);
+        for (String line : lines) {
+            assertEquals("COMMITTED", this.mapper.readTree(line).get("status").asText());
+        }
+    }
+
+    @Test
+    void shouldStreamTheSqlExecutionLogsAsCsvAttachment() {
+        SqlLogUtils.createSqlExecutionLogs().forEach(this.sqlExecutionLogRepository::save);
+
+        String body = this.client.get()
+                .uri("/api/tx-board/sql-logs/export?format=csv&search=thread")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv")
+                .expectHeader().value("Content-Disposition", value -> assertTrue(value.startsWith("attachment")))
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(body);
+        String[] rows = body.split("\r\n");
+        assertTrue(rows[0].startsWith("id,conAcquiredTime"));
+        assertEquals(1 + SqlLogUtils.createSqlExecutionLogs().stream()
+                .filter(log -> log.getThread().contains("thread")).count(), rows.length);
+    }
+}
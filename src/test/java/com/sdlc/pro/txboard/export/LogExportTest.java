@@ -0,0 +1,115 @@
+package com.sdlc.pro.txboard.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.repository.InMemorySqlExecutionLogRepository;
+import com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepository;
+import com.sdlc.pro.txboard.util.SqlLogUtils;
+import com.sdlc.pro.txboard.util.TxLogUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogExportTest {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static List<String> chunks(LogExport<?> export) {
+        List<String> chunks = new ArrayList<>();
+        while (export.hasNext()) {
+            chunks.add(new String(export.next(), StandardCharsets.UTF_8));
+        }
+        return chunks;
+    }
+
+    private static int rowCount(TransactionLog log) {
+        int rows = 1;
+        for (TransactionLog child : log.getChild() == null ? List.<TransactionLog>of() : log.getChild()) {
+            rows += rowCount(child);
+        }
+        return rows;
+    }
+
+    @Test
+    void shouldExportAllMatchingLogsAsJsonLinesOnePageAtATime() throws Exception {
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        while (repository.count() < 2 * LogExport.CHUNK_SIZE) {
+            transactionLogs.forEach(repository::save);
+        }
+
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        for (FilterNode filter : List.of(FilterNode.UNFILTERED, committed)) {
+            Sort sort = Sort.by("duration", Sort.Direction.DESC);
+            List<TransactionLog> expected = repository.findAll(PageRequest.of(0, 10_000, sort, filter)).getContent();
+            List<String> chunks = chunks(LogExport.transactionLogs(repository, sort, filter, ExportFormat.NDJSON, this.mapper));
+
+            assertEquals((expected.size() + LogExport.CHUNK_SIZE - 1) / LogExport.CHUNK_SIZE, chunks.size());
+            StringBuilder lines = new StringBuilder();
+            for (TransactionLog log : expected) {
+                lines.append(this.mapper.writeValueAsString(log)).append('\n');
+            }
+            assertEquals(lines.toString(), String.join("", chunks));
+        }
+    }
+
+    @Test
+    void shouldExportTransactionLogsWithTheirInnerTransactionsAsCsvRows() {
+        InMemoryTransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(repository::save);
+
+        List<String> chunks = chunks(LogExport.transactionLogs(repository, Sort.UNSORTED, FilterNode.UNFILTERED,
+                ExportFormat.CSV, this.mapper));
+        assertEquals(1, chunks.size());
+        String[] rows = chunks.get(0).split("\r\n");
+        assertTrue(rows[0].startsWith("txId,depth,method,startTime,endTime,durationMicros,status"));
+        assertEquals(1 + transactionLogs.stream().mapToInt(LogExportTest::rowCount).sum(), rows.length);
+
+        TransactionLog first = transactionLogs.get(0);
+        assertTrue(rows[1].startsWith(first.getTxId() + ",0," + first.getMethod() + "," + first.getStartTime()));
+    }
+
+    @Test
+    void shouldQuoteCsvCellsHoldingSeparatorsQuotesOrLineBreaks() {
+        InMemorySqlExecutionLogRepository repository = new InMemorySqlExecutionLogRepository();
+        Instant acquired = Instant.parse("2026-02-17T10:45:00Z");
+        repository.save(new SqlExecutionLog(UUID.fromString("08c2c8ee-369f-4ac0-bd47-0763f964967a"), acquired,
+                acquired.plusMillis(5), false, "main",
+                List.of("select id, name from post where title = 'a \"b\"'", "select * from account")));
+
+        List<String> chunks = chunks(LogExport.sqlExecutionLogs(repository, Sort.UNSORTED, FilterNode.UNFILTERED,
+                ExportFormat.CSV, this.mapper));
+        assertEquals("id,conAcquiredTime,conReleaseTime,conOccupiedTimeMicros,alarmingConnection,thread,queryCount,"
+                + "executedQueries\r\n"
+                + "08c2c8ee-369f-4ac0-bd47-0763f964967a,2026-02-17T10:45:00Z,2026-02-17T10:45:00.005Z,5000,false,main,2,"
+                + "\"select id, name from post where title = 'a \"\"b\"\"'\nselect * from account\"\r\n", chunks.get(0));
+    }
+
+    @Test
+    void shouldExportOnlyTheHeaderWhenNoLogMatches() {
+        InMemorySqlExecutionLogRepository repository = new InMemorySqlExecutionLogRepository();
+        SqlLogUtils.createSqlExecutionLogs().forEach(repository::save);
+        FilterNode filter = Filter.of("thread", "unknown", Filter.Operator.CONTAINS);
+
+        assertEquals(List.of("id,conAcquiredTime,conReleaseTime,conOccupiedTimeMicros,alarmingConnection,thread,"
+                + "queryCount,executedQueries\r\n"), chunks(LogExport.sqlExecutionLogs(repository, Sort.UNSORTED, filter,
+                ExportFormat.CSV, this.mapper)));
+        assertEquals(List.of(""), chunks(LogExport.sqlExecutionLogs(repository, Sort.UNSORTED, filter,
+                ExportFormat.NDJSON, this.mapper)));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.from("xml"));
+    }
+}
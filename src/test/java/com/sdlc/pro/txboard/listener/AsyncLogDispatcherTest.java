@@ -0,0 +1,235 @@
+package com.sdlc.pro.txboard.listener;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncLogDispatcherTest {
+    private final List<Object> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch consumerGate = new CountDownLatch(1);
+    private final CountDownLatch consumerBlocked = new CountDownLatch(1);
+    private AsyncLogDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        consumerGate.countDown();
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void shouldDeliverLogsOnDispatcherThread() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        dispatcher = new AsyncLogDispatcher(
+                new TxBoardProperties.Dispatcher(),
+                txLog -> {
+                    threads.add(Thread.currentThread().getName());
+                    latch.countDown();
+                },
+                sqlLog -> {
+                    threads.add(Thread.currentThread().getName());
+                    latch.countDown();
+                }
+        );
+
+        dispatcher.dispatch(transactionLog(true));
+        dispatcher.dispatch(sqlExecutionLog());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("tx-board-log-dispatcher", "tx-board-log-dispatcher"), threads);
+
+        AsyncLogDispatcher.DispatchStatistics statistics = dispatcher.getStatistics();
+        assertEquals(2, statistics.queued());
+        assertEquals(0, statistics.dropped());
+    }
+
+    @Test
+    void shouldDropNewestLogWhenQueueIsFull() throws InterruptedException {
+        dispatcher = blockedDispatcher(TxBoardProperties.OverflowPolicy.DROP_NEWEST);
+        TransactionLog first = transactionLog(true);
+        TransactionLog second = transactionLog(false);
+        TransactionLog third = transactionLog(false);
+
+        dispatcher.dispatch(first);
+        assertTrue(consumerBlocked.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(second);
+        dispatcher.dispatch(third);
+
+        AsyncLogDispatcher.DispatchStatistics statistics = dispatcher.getStatistics();
+        assertEquals(2, statistics.queued());
+        assertEquals(1, statistics.dropped());
+        assertEquals(1, statistics.pending());
+
+        consumerGate.countDown();
+        dispatcher.close();
+        assertEquals(List.of(first, second), delivered);
+    }
+
+    @Test
+    void shouldDropHealthyLogFirstWhenQueueIsFull() throws InterruptedException {
+        dispatcher = blockedDispatcher(TxBoardProperties.OverflowPolicy.DROP_HEALTHY_FIRST);
+        TransactionLog first = transactionLog(true);
+        TransactionLog healthy = transactionLog(true);
+        TransactionLog unhealthy = transactionLog(false);
+        TransactionLog anotherHealthy = transactionLog(true);
+
+        dispatcher.dispatch(first);
+        assertTrue(consumerBlocked.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(healthy);
+        dispatcher.dispatch(unhealthy);
+        dispatcher.dispatch(anotherHealthy);
+
+        assertEquals(2, dispatcher.getStatistics().dropped());
+
+        consumerGate.countDown();
+        dispatcher.close();
+        assertEquals(List.of(first, unhealthy), delivered);
+    }
+
+    @Test
+    void shouldKeepEveryUnhealthyLogAndCountEveryDropUnderConcurrentProducers() throws InterruptedException {
+        TxBoardProperties.Dispatcher properties = new TxBoardProperties.Dispatcher();
+        properties.setQueueCapacity(64);
+        properties.setBatchSize(64);
+        properties.setOverflowPolicy(TxBoardProperties.OverflowPolicy.DROP_HEALTHY_FIRST);
+        dispatcher = new AsyncLogDispatcher(properties, txLog -> {
+            consumerBlocked.countDown();
+            try {
+                consumerGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(txLog);
+        }, delivered::add);
+        TransactionLog healthy = transactionLog(true);
+        dispatcher.dispatch(healthy);
+        assertTrue(consumerBlocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 64; i++) {
+            dispatcher.dispatch(healthy);
+        }
+
+        // the healthy producers race the unhealthy ones for every slot freed by an eviction
+        List<TransactionLog> unhealthy = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            boolean healthyProducer = i % 2 == 0;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int j = 0; j < (healthyProducer ? 2_000 : 16); j++) {
+                    if (healthyProducer) {
+                        dispatcher.dispatch(healthy);
+                    } else {
+                        TransactionLog transactionLog = transactionLog(false);
+                        unhealthy.add(transactionLog);
+                        dispatcher.dispatch(transactionLog);
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        consumerGate.countDown();
+        dispatcher.close();
+        // each dispatched log has either been delivered or counted as dropped, once
+        assertEquals(1 + 64 + 2 * 2_000 + 2 * 16, delivered.size() + dispatcher.getStatistics().dropped());
+        assertTrue(delivered.containsAll(unhealthy));
+    }
+
+    @Test
+    void shouldDeliverOnCallerThreadAfterClose() {
+        dispatcher = new AsyncLogDispatcher(new TxBoardProperties.Dispatcher(), delivered::add, delivered::add);
+        dispatcher.close();
+
+        TransactionLog transactionLog = transactionLog(true);
+        dispatcher.dispatch(transactionLog);
+
+        assertEquals(List.of(transactionLog), delivered);
+    }
+
+    @Test
+    void shouldDeliverEveryLogDispatchedWhileClosing() throws InterruptedException {
+        TxBoardProperties.Dispatcher properties = new TxBoardProperties.Dispatcher();
+        properties.setQueueCapacity(100_000);
+        AtomicInteger deliveredCount = new AtomicInteger();
+        dispatcher = new AsyncLogDispatcher(properties, txLog -> deliveredCount.incrementAndGet(),
+                sqlLog -> deliveredCount.incrementAndGet());
+        TransactionLog transactionLog = transactionLog(true);
+
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(() -> {
+                started.countDown();
+                for (int j = 0; j < 5_000; j++) {
+                    dispatcher.dispatch(transactionLog);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        dispatcher.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(20_000, deliveredCount.get());
+        AsyncLogDispatcher.DispatchStatistics statistics = dispatcher.getStatistics();
+        assertEquals(0, statistics.pending());
+        assertEquals(statistics.queued(), statistics.dispatched());
+    }
+
+    private AsyncLogDispatcher blockedDispatcher(TxBoardProperties.OverflowPolicy overflowPolicy) {
+        TxBoardProperties.Dispatcher properties = new TxBoardProperties.Dispatcher();
+        properties.setQueueCapacity(1);
+        properties.setBatchSize(1);
+        properties.setOverflowPolicy(overflowPolicy);
+        return new AsyncLogDispatcher(properties, txLog -> {
+            consumerBlocked.countDown();
+            try {
+                consumerGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(txLog);
+        }, delivered::add);
+    }
+
+    private static TransactionLog transactionLog(boolean healthy) {
+        TransactionLog transactionLog = mock(TransactionLog.class);
+        when(transactionLog.isHealthyTransaction()).thenReturn(healthy);
+        return transactionLog;
+    }
+
+    private static SqlExecutionLog sqlExecutionLog() {
+        Instant now = Instant.now();
+        return new SqlExecutionLog(UUID.randomUUID(), now, now, false, "main", List.of("select 1"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sdlc.pro.txboard.listener;
+
+import com.sdlc.pro.txboard.model.NPlusOneQuery;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NPlusOneDetectorTest {
+    private QueryDictionary dictionary;
+    private NPlusOneDetector detector;
+
+    @BeforeEach
+    void setup() {
+        dictionary = new QueryDictionary(1000);
+        detector = new NPlusOneDetector(dictionary, 3);
+    }
+
+    private int intern(String sql) {
+        return dictionary.intern(SqlNormalizer.normalize(sql).template());
+    }
+
+    @Test
+    void shouldNotFlagWhenRepetitionsAreWithinThreshold() {
+        detector.record(intern("SELECT * FROM orders WHERE customer_id = 7"));
+        for (int i = 1; i <= 3; i++) {
+            detector.record(intern("SELECT * FROM order_items WHERE order_id = " + i));
+        }
+
+        assertNull(detector.result());
+    }
+
+    @Test
+    void shouldFlagTheMostRepeatedSelectFingerprint() {
+        detector.record(intern("SELECT * FROM orders WHERE customer_id = 7"));
+        for (int i = 1; i <= 6; i++) {
+            detector.record(intern("SELECT * FROM order_items WHERE order_id = " + i));
+            detector.record(intern("SELECT * FROM products WHERE id IN (" + i + ", " + (i + 1) + ")"));
+        }
+        detector.record(intern("SELECT * FROM products WHERE id IN (1, 2, 3)"));
+
+        NPlusOneQuery result = detector.result();
+        assertNotNull(result);
+        assertEquals("SELECT * FROM products WHERE id IN (...)", result.fingerprint());
+        assertEquals(7, result.count());
+    }
+
+    @Test
+    void shouldIgnoreRepeatedNonSelectStatementsAndRawQueries() {
+        for (int i = 0; i < 10; i++) {
+            detector.record(intern("UPDATE inventory SET quantity = quantity - 1 WHERE product_id = " + i));
+            detector.record(QueryDictionary.NOT_INTERNED);
+        }
+
+        assertNull(detector.result());
+    }
+
+    @Test
+    void shouldKeepCountingWhileTheTableGrowsAndForgetOnReset() {
+        for (int table = 0; table < 100; table++) {
+            detector.record(intern("SELECT * FROM table_" + table + " WHERE id = 1"));
+        }
+        for (int i = 0; i < 5; i++) {
+            detector.record(intern("SELECT * FROM table_42 WHERE id = " + i));
+        }
+        assertEquals(6, detector.result().count());
+
+        detector.reset();
+        assertNull(detector.result());
+        detector.record(intern("SELECT * FROM table_42 WHERE id = 1"));
+        assertNull(detector.result());
+    }
+}
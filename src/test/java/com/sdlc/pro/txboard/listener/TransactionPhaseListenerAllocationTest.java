@@ -0,0 +1,100 @@
+package com.sdlc.pro.txboard.listener;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Counts the bytes allocated by the capture path for a representative transaction: one root transaction with a
+ * nested inner transaction, one connection and a handful of queries. The budget depends on the JVM and its
+ * allocation profile, so it only runs with the benchmarks: {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TransactionPhaseListenerAllocationTest {
+    private static final int WARMUP_TRANSACTIONS = 20_000;
+    private static final int MEASURED_TRANSACTIONS = 20_000;
+    private static final long MAX_BYTES_PER_TRANSACTION = 4_500L;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(TransactionPhaseListenerImpl.class);
+    private Level previousLevel;
+
+    @BeforeEach
+    void setup() {
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.OFF);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    void shouldKeepAllocationPerTransactionWithinBudget() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        assumeTrue(threadMXBean != null && threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        TransactionPhaseListenerImpl txPhaseListener = new TransactionPhaseListenerImpl(
+                new TxBoardProperties(),
+                List.of(transactionLog -> {}),
+                List.of(sqlExecutionLog -> {})
+        );
+
+        DefaultTransactionDefinition outer = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        outer.setName("com.example.service.OrderService.placeOrder");
+        DefaultTransactionDefinition inner = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        inner.setName("com.example.service.AuditService.record");
+
+        for (int i = 0; i < WARMUP_TRANSACTIONS; i++) {
+            performTransaction(txPhaseListener, outer, inner);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_TRANSACTIONS; i++) {
+            performTransaction(txPhaseListener, outer, inner);
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        long bytesPerTransaction = (after - before) / MEASURED_TRANSACTIONS;
+        assertTrue(bytesPerTransaction <= MAX_BYTES_PER_TRANSACTION,
+                "Allocated " + bytesPerTransaction + " bytes per transaction");
+    }
+
+    private static void performTransaction(TransactionPhaseListenerImpl txPhaseListener,
+                                           TransactionDefinition outer, TransactionDefinition inner) {
+        txPhaseListener.beforeBegin(outer);
+        txPhaseListener.afterBegin(null);
+        txPhaseListener.afterAcquiredConnection();
+        txPhaseListener.executedQuery("select * from orders where id = ?");
+        txPhaseListener.executedQuery("update orders set status = ? where id = ?");
+
+        txPhaseListener.beforeBegin(inner);
+        txPhaseListener.afterBegin(null);
+        txPhaseListener.executedQuery("insert into audit (order_id, action) values (?, ?)");
+        txPhaseListener.afterCommit();
+
+        txPhaseListener.executedQuery("select * from order_items where order_id = ?");
+        txPhaseListener.executedQuery("update inventory set quantity = quantity - ? where product_id = ?");
+        txPhaseListener.afterCommit();
+        txPhaseListener.afterCloseConnection();
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean ? bean : null;
+    }
+}
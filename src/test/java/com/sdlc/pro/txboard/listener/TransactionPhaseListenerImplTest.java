@@ -9,8 +9,10 @@ import com.sdlc.pro.txboard.enums.IsolationLevel;
 import com.sdlc.pro.txboard.enums.PropagationBehavior;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
 import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.QueryExecution;
 import com.sdlc.pro.txboard.model.TransactionEvent;
 import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.storage.QueryList;
 import com.sdlc.pro.txboard.util.Utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -182,6 +184,51 @@ class TransactionPhaseListenerImplTest {
             TransactionLog transactionLog = txLogCaptor.getValue();
             assertTrue(transactionLog.isAlarmingTransaction());
         }
+
+        @Test
+        void shouldMeasureDurationsInMicroseconds() {
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            txPhaseListener.afterAcquiredConnection();
+            Utils.sleep(3);
+            txPhaseListener.afterCloseConnection();
+            txPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+
+            TransactionLog transactionLog = txLogCaptor.getValue();
+            assertTrue(transactionLog.getDurationMicros() >= 3_000L);
+            assertEquals(transactionLog.getDurationMicros() / 1_000L, transactionLog.getDuration());
+            ConnectionSummary connectionSummary = transactionLog.getConnectionSummary();
+            assertTrue(connectionSummary.occupiedTimeMicros() >= 3_000L);
+            assertTrue(connectionSummary.occupiedTimeMicros() <= transactionLog.getDurationMicros());
+            assertEquals(connectionSummary.occupiedTimeMicros() / 1_000L, connectionSummary.occupiedTime());
+        }
+
+        @Test
+        void shouldRecordStartOffsetAndDurationOfEachExecutedQuery() {
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            txPhaseListener.afterAcquiredConnection();
+            Utils.sleep(2);
+            long startNanos = System.nanoTime();
+            txPhaseListener.executedQuery("SELECT * FROM users WHERE id = ?", startNanos, 1_500_000L);
+            txPhaseListener.executedQuery("UPDATE users SET name = ?", startNanos + 2_000_000L, 500_000L);
+            txPhaseListener.afterCloseConnection();
+            txPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+
+            List<QueryExecution> executions = txLogCaptor.getValue().getQueryExecutions();
+            assertEquals(2, executions.size());
+            assertEquals("SELECT * FROM users WHERE id = ?", executions.get(0).getQuery());
+            assertEquals(1_500L, executions.get(0).getDurationMicros());
+            assertTrue(executions.get(0).getStartOffsetMicros() >= 2_000L);
+            assertEquals(500L, executions.get(1).getDurationMicros());
+            assertEquals(2_000L, executions.get(1).getStartOffsetMicros() - executions.get(0).getStartOffsetMicros());
+        }
     }
 
     @Nested
@@ -398,7 +445,7 @@ class TransactionPhaseListenerImplTest {
             assertEquals(1, connectionSummary.alarmingConnectionCount());
             assertTrue(transactionLog.getHavingAlarmingConnection());
 
-            long occupiedTime = 0L;
+            long occupiedTimeMicros = 0L;
             Stack<TransactionEvent> eventStack = new Stack<>();
             for (TransactionEvent event : transactionLog.getEvents()) {
                 TransactionEvent.Type type = event.getType();
@@ -406,11 +453,12 @@ class TransactionPhaseListenerImplTest {
                     eventStack.push(event);
                 } else if (type == TransactionEvent.Type.CONNECTION_RELEASED) {
                     TransactionEvent prev = eventStack.pop();
-                    occupiedTime += Duration.between(prev.getTimestamp(), event.getTimestamp()).toMillis();
+                    occupiedTimeMicros += Duration.between(prev.getTimestamp(), event.getTimestamp()).toNanos() / 1_000L;
                 }
             }
 
-            assertEquals(occupiedTime, connectionSummary.occupiedTime());
+            assertEquals(occupiedTimeMicros, connectionSummary.occupiedTimeMicros());
+            assertEquals(occupiedTimeMicros / 1_000L, connectionSummary.occupiedTime());
         }
     }
 
@@ -517,6 +565,210 @@ class TransactionPhaseListenerImplTest {
 
     }
 
+    @Nested
+    class AsyncDispatchTests {
+
+        @Test
+        void shouldPublishTransactionLogFromDispatcherThreadWhenAsyncEnabled() {
+            txBoardProperties.getDispatcher().setAsync(true);
+            TransactionPhaseListenerImpl asyncTxPhaseListener = new TransactionPhaseListenerImpl(
+                    txBoardProperties,
+                    List.of(txLogListener),
+                    List.of(sqlExecutionLogListener)
+            );
+
+            try {
+                asyncTxPhaseListener.beforeBegin(transactionDefinition);
+                asyncTxPhaseListener.afterBegin(null);
+                asyncTxPhaseListener.afterCommit();
+
+                verify(txLogListener, timeout(5000)).listen(any(TransactionLog.class));
+                assertTrue(asyncTxPhaseListener.getDispatchStatistics().isPresent());
+                assertEquals(1, asyncTxPhaseListener.getDispatchStatistics().get().queued());
+            } finally {
+                asyncTxPhaseListener.destroy();
+            }
+        }
+
+        @Test
+        void shouldNotExposeDispatchStatisticsWhenAsyncDisabled() {
+            assertTrue(txPhaseListener.getDispatchStatistics().isEmpty());
+        }
+    }
+
+    @Nested
+    class SamplingTests {
+
+        private TransactionPhaseListenerImpl newTxPhaseListener() {
+            return new TransactionPhaseListenerImpl(
+                    txBoardProperties,
+                    List.of(txLogListener),
+                    List.of(sqlExecutionLogListener)
+            );
+        }
+
+        @Test
+        void shouldNotTrackQueriesWhenHeadIsSampledOut() {
+            txBoardProperties.getSampling().setHeadRate(0.0);
+            TransactionPhaseListenerImpl sampledTxPhaseListener = newTxPhaseListener();
+
+            sampledTxPhaseListener.beforeBegin(transactionDefinition);
+            sampledTxPhaseListener.afterBegin(null);
+            sampledTxPhaseListener.afterAcquiredConnection();
+            sampledTxPhaseListener.executedQuery("SELECT * FROM users");
+            sampledTxPhaseListener.afterCloseConnection();
+            sampledTxPhaseListener.afterRollback();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+            assertEquals(List.of(QueryList.UNCAPTURED_STATEMENT), txLogCaptor.getValue().getExecutedQuires());
+            assertEquals(1, txLogCaptor.getValue().getConnectionSummary().acquisitionCount());
+        }
+
+        @Test
+        void shouldKeepAndCountAnUntrackedTransactionRepeatingAQuery() {
+            txBoardProperties.getSampling().setHeadRate(0.0);
+            txBoardProperties.getSampling().setHealthyRatio(0.0);
+            int executions = txBoardProperties.getSql().getNPlusOneThreshold() + 3;
+            TransactionPhaseListenerImpl sampledTxPhaseListener = newTxPhaseListener();
+
+            sampledTxPhaseListener.beforeBegin(transactionDefinition);
+            sampledTxPhaseListener.afterBegin(null);
+            long startNanos = System.nanoTime();
+            for (int orderId = 1; orderId <= executions; orderId++) {
+                sampledTxPhaseListener.executedQuery("SELECT * FROM order_items WHERE order_id = " + orderId,
+                        startNanos + orderId, 2_000_000L);
+            }
+            sampledTxPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+            verify(txLogListener, never()).listenSampledOut(any(TransactionLog.class));
+            TransactionLog transactionLog = txLogCaptor.getValue();
+            assertEquals(executions, transactionLog.getTotalQueryCount());
+            assertTrue(transactionLog.getExecutedQuires().stream().allMatch(QueryList.UNCAPTURED_STATEMENT::equals));
+            assertTrue(transactionLog.getQueryExecutions().stream().allMatch(execution -> execution.getDurationMicros() == 2_000L));
+            assertTrue(transactionLog.isNPlusOne());
+            assertEquals("SELECT * FROM order_items WHERE order_id = ?", transactionLog.getNPlusOneQuery().fingerprint());
+            assertEquals(executions, transactionLog.getNPlusOneQuery().count());
+        }
+
+        @Test
+        void shouldPublishHealthyTransactionAsSampledOutWhenTailIsSampledOut() {
+            txBoardProperties.getSampling().setHealthyRatio(0.0);
+            TransactionPhaseListenerImpl sampledTxPhaseListener = newTxPhaseListener();
+
+            sampledTxPhaseListener.beforeBegin(transactionDefinition);
+            sampledTxPhaseListener.afterBegin(null);
+            sampledTxPhaseListener.afterCommit();
+
+            verify(txLogListener, never()).listen(any(TransactionLog.class));
+            verify(txLogListener).listenSampledOut(any(TransactionLog.class));
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = TransactionPhaseStatus.class, names = {"ROLLED_BACK", "ERRORED"})
+        void shouldAlwaysKeepFailedTransactions(TransactionPhaseStatus status) {
+            txBoardProperties.getSampling().setHealthyRatio(0.0);
+            TransactionPhaseListenerImpl sampledTxPhaseListener = newTxPhaseListener();
+
+            sampledTxPhaseListener.beforeBegin(transactionDefinition);
+            sampledTxPhaseListener.afterBegin(null);
+            if (status == TransactionPhaseStatus.ROLLED_BACK) {
+                sampledTxPhaseListener.afterRollback();
+            } else {
+                sampledTxPhaseListener.errorOccurredAtTransactionPhase(new RuntimeException());
+            }
+
+            verify(txLogListener).listen(any(TransactionLog.class));
+            verify(txLogListener, never()).listenSampledOut(any(TransactionLog.class));
+        }
+
+        @Test
+        void shouldAlwaysKeepAlarmingTransactions() {
+            txBoardProperties.getSampling().setHealthyRatio(0.0);
+            txBoardProperties.getAlarmingThreshold().setTransaction(1);
+            TransactionPhaseListenerImpl sampledTxPhaseListener = newTxPhaseListener();
+
+            sampledTxPhaseListener.beforeBegin(transactionDefinition);
+            sampledTxPhaseListener.afterBegin(null);
+            Utils.sleep(3);
+            sampledTxPhaseListener.afterCommit();
+
+            verify(txLogListener).listen(any(TransactionLog.class));
+            verify(txLogListener, never()).listenSampledOut(any(TransactionLog.class));
+        }
+
+        @Test
+        void shouldRejectInvalidSamplingRates() {
+            assertThrows(IllegalArgumentException.class, () -> txBoardProperties.getSampling().setHeadRate(1.5));
+            assertThrows(IllegalArgumentException.class, () -> txBoardProperties.getSampling().setHealthyRatio(-0.1));
+        }
+    }
+
+    @Nested
+    class NPlusOneDetectionTests {
+
+        private void executeOrderLoading(int orderCount) {
+            txPhaseListener.executedQuery("SELECT * FROM orders WHERE customer_id = 42");
+            for (int orderId = 1; orderId <= orderCount; orderId++) {
+                txPhaseListener.executedQuery("SELECT * FROM order_items WHERE order_id = " + orderId);
+            }
+        }
+
+        @Test
+        void shouldFlagTransactionRepeatingTheSameSelectMoreThanThreshold() {
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            executeOrderLoading(8);
+            txPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+
+            TransactionLog transactionLog = txLogCaptor.getValue();
+            assertTrue(transactionLog.isNPlusOne());
+            assertEquals("SELECT * FROM order_items WHERE order_id = ?", transactionLog.getNPlusOneQuery().fingerprint());
+            assertEquals(8, transactionLog.getNPlusOneQuery().count());
+        }
+
+        @Test
+        void shouldNotFlagTransactionWithinThreshold() {
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            executeOrderLoading(txBoardProperties.getSql().getNPlusOneThreshold());
+            txPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+
+            assertFalse(txLogCaptor.getValue().isNPlusOne());
+            assertNull(txLogCaptor.getValue().getNPlusOneQuery());
+        }
+
+        @Test
+        void shouldMarkParentWhenInnerTransactionIsFlagged() {
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            txPhaseListener.executedQuery("SELECT * FROM customers WHERE id = 42");
+
+            txPhaseListener.beforeBegin(transactionDefinition);
+            txPhaseListener.afterBegin(null);
+            executeOrderLoading(10);
+            txPhaseListener.afterCommit();
+
+            txPhaseListener.afterCommit();
+
+            ArgumentCaptor<TransactionLog> txLogCaptor = ArgumentCaptor.forClass(TransactionLog.class);
+            verify(txLogListener).listen(txLogCaptor.capture());
+
+            TransactionLog transactionLog = txLogCaptor.getValue();
+            assertTrue(transactionLog.isNPlusOne());
+            assertNull(transactionLog.getNPlusOneQuery());
+            assertEquals(10, transactionLog.getChild().get(0).getNPlusOneQuery().count());
+        }
+    }
+
     @Nested
     class ConcurrencyTests {
 
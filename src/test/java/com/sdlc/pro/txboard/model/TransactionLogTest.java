@@ -221,6 +221,45 @@ class TransactionLogTest {
             assertThat(transactionLog.isAlarmingTransaction()).isFalse();
         }
 
+        @Test
+        @DisplayName("durationMicros should keep the sub-millisecond part of the duration")
+        void durationMicrosShouldKeepSubMillisecondPrecision() {
+            // Given
+            Instant start = Instant.parse("2023-01-01T10:00:00Z");
+            Instant end = start.plusNanos(2_750_400L); // 2.7504ms
+
+            // When
+            TransactionLog transactionLog = new TransactionLog(
+                    UUID.randomUUID(), "test", PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, end, null, TransactionPhaseStatus.COMMITTED, "thread",
+                    null, null, null, 1000L
+            );
+
+            // Then
+            assertThat(transactionLog.getDurationMicros()).isEqualTo(2_750L);
+            assertThat(transactionLog.getDuration()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("explicit durationMicros should take precedence over the wall-clock anchors")
+        void explicitDurationMicrosShouldTakePrecedenceOverWallClock() {
+            // Given
+            Instant start = Instant.parse("2023-01-01T10:00:00Z");
+            Instant end = Instant.parse("2023-01-01T10:00:00.001Z");
+
+            // When
+            TransactionLog transactionLog = new TransactionLog(
+                    UUID.randomUUID(), "test", PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, end, 1_000_300L, null, TransactionPhaseStatus.COMMITTED, "thread",
+                    null, null, null, 1000L, null, null
+            );
+
+            // Then
+            assertThat(transactionLog.getDurationMicros()).isEqualTo(1_000_300L);
+            assertThat(transactionLog.getDuration()).isEqualTo(1000L);
+            assertThat(transactionLog.isAlarmingTransaction()).isTrue();
+        }
+
         @Test
         @DisplayName("havingAlarmingConnection should be true when connectionSummary.alarmingConnectionCount() > 0")
         void havingAlarmingConnectionShouldBeTrueWhenAlarmingConnectionCountGreaterThanZero() {
@@ -645,6 +684,8 @@ class TransactionLogTest {
             assertThat(json).contains("connectionOriented");
             assertThat(json).contains("executedQuires");
             assertThat(json).contains("events");
+            assertThat(json).contains("\"nPlusOne\":false");
+            assertThat(json).doesNotContain("nPlusOneQuery");
         }
     }
 
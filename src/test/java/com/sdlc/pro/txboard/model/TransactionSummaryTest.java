@@ -88,4 +88,26 @@ class TransactionSummaryTest {
         assertEquals(0.0, summary.getAverageDuration());
         assertEquals(0.0, summary.getAverageConnectionOccupiedTime());
     }
+
+    @Test
+    void testAveragesUseMicrosecondTotals() {
+        TransactionSummary summary = new TransactionSummary(
+                3, 0, 0, 1, 0, 2, 0, 0, 1_500, 900
+        );
+
+        assertEquals(1_500, summary.getTotalDurationMicros());
+        assertEquals(900, summary.getTotalConnectionOccupiedTimeMicros());
+        assertEquals(0.5, summary.getAverageDuration());
+        assertEquals(0.45, summary.getAverageConnectionOccupiedTime());
+    }
+
+    @Test
+    void testMillisecondConstructorDerivesMicrosecondTotals() {
+        TransactionSummary summary = new TransactionSummary(
+                10, 5, 2, 1000, 3, 7, 700, 2
+        );
+
+        assertEquals(1_000_000, summary.getTotalDurationMicros());
+        assertEquals(700_000, summary.getTotalConnectionOccupiedTimeMicros());
+    }
 }
@@ -0,0 +1,52 @@
+package com.sdlc.pro.txboard.proxy;
+
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CallableStatementProxyTest {
+    private static final String SQL = "{CALL getProductDetails(?, ?)}";
+
+    private CallableStatement callableStatement;
+    private TransactionPhaseListener transactionPhaseListener;
+    private CallableStatementProxy callableStatementProxy;
+
+    @BeforeEach
+    void setup() {
+        callableStatement = mock(CallableStatement.class);
+        transactionPhaseListener = mock(TransactionPhaseListenerImpl.class);
+        callableStatementProxy = new CallableStatementProxy(callableStatement, SQL, transactionPhaseListener);
+    }
+
+    @Test
+    void shouldNotifyTheTimedSqlAfterExecute() throws SQLException {
+        when(callableStatement.execute()).thenReturn(true);
+
+        boolean result = callableStatementProxy.execute();
+
+        assertThat(result).isTrue();
+        verify(callableStatement, times(1)).execute();
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldDelegateOutParameterMethodsWithoutNotifying() throws SQLException {
+        when(callableStatement.getString(2)).thenReturn("Laptop");
+
+        callableStatementProxy.registerOutParameter(2, Types.VARCHAR);
+        String result = callableStatementProxy.getString(2);
+
+        assertThat(result).isEqualTo("Laptop");
+        verify(callableStatement, times(1)).registerOutParameter(2, Types.VARCHAR);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
+    }
+}
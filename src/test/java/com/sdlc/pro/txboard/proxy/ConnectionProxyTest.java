@@ -43,18 +43,20 @@ class ConnectionProxyTest {
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatementMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatementMethod() throws SQLException {
         String SQL = "select * from product";
-        connectionProxy.prepareStatement(SQL);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareCallMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareCallMethod() throws SQLException {
         String SQL = "{CALL getProductDetails(?, ?, ?)}";
-        connectionProxy.prepareCall(SQL);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareCall(SQL);
+        assertThat(proxy).isInstanceOf(CallableStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareCall(SQL);
     }
 
@@ -67,71 +69,78 @@ class ConnectionProxyTest {
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatement3ParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatement3ParamMethod() throws SQLException {
         String SQL = "select * from product where category = ?";
         int resultSetType = ResultSet.TYPE_SCROLL_SENSITIVE;
         int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
-        connectionProxy.prepareStatement(SQL, resultSetType, resultSetConcurrency);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL, resultSetType, resultSetConcurrency);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL, resultSetType, resultSetConcurrency);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatement4ParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatement4ParamMethod() throws SQLException {
         String SQL = "select * from product where category = ?";
         int resultSetType = ResultSet.TYPE_SCROLL_SENSITIVE;
         int resultSetConcurrency = ResultSet.CONCUR_UPDATABLE;
         int resultSetHoldability = ResultSet.HOLD_CURSORS_OVER_COMMIT;
-        connectionProxy.prepareStatement(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareCall3ParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareCall3ParamMethod() throws SQLException {
         String SQL = "{CALL getProductDetails(?, ?, ?)}";
         int resultSetType = ResultSet.TYPE_SCROLL_SENSITIVE;
         int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
-        connectionProxy.prepareCall(SQL, resultSetType, resultSetConcurrency);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareCall(SQL, resultSetType, resultSetConcurrency);
+        assertThat(proxy).isInstanceOf(CallableStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareCall(SQL, resultSetType, resultSetConcurrency);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareCall4ParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareCall4ParamMethod() throws SQLException {
         String SQL = "{CALL getProductDetails(?, ?, ?)}";
         int resultSetType = ResultSet.TYPE_SCROLL_SENSITIVE;
         int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
         int resultSetHoldability = ResultSet.HOLD_CURSORS_OVER_COMMIT;
-        connectionProxy.prepareCall(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareCall(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
+        assertThat(proxy).isInstanceOf(CallableStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareCall(SQL, resultSetType, resultSetConcurrency, resultSetHoldability);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatementKeyGenParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatementKeyGenParamMethod() throws SQLException {
         String SQL = "insert into users (name, email) values (?, ?)";
         int autoGeneratedKeys = Statement.RETURN_GENERATED_KEYS;
-        connectionProxy.prepareStatement(SQL, autoGeneratedKeys);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL, autoGeneratedKeys);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL, autoGeneratedKeys);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatementColIndexesParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatementColIndexesParamMethod() throws SQLException {
         String SQL = "insert into users (name, email) values (?, ?)";
         int[] keyColumnIndexes = {1};
-        connectionProxy.prepareStatement(SQL, keyColumnIndexes);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL, keyColumnIndexes);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL, keyColumnIndexes);
     }
 
     @Test
-    void shouldNotifyTheSqlToListenerAndInvokeActualPrepareStatementColNamesParamMethod() throws SQLException {
+    void shouldReturnTimedProxyAndInvokeActualPrepareStatementColNamesParamMethod() throws SQLException {
         String SQL = "insert into users (name, email) values (?, ?)";
         String[] generatedColumns = {"id", "creation_timestamp"};
-        connectionProxy.prepareStatement(SQL, generatedColumns);
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        Object proxy = connectionProxy.prepareStatement(SQL, generatedColumns);
+        assertThat(proxy).isInstanceOf(PreparedStatementProxy.class);
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
         verify(connection, times(1)).prepareStatement(SQL, generatedColumns);
     }
 
@@ -0,0 +1,101 @@
+package com.sdlc.pro.txboard.proxy;
+
+import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
+import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PreparedStatementProxyTest {
+    private static final String SQL = "select * from product where id = ?";
+
+    private PreparedStatement preparedStatement;
+    private TransactionPhaseListener transactionPhaseListener;
+    private PreparedStatementProxy preparedStatementProxy;
+
+    @BeforeEach
+    void setup() {
+        preparedStatement = mock(PreparedStatement.class);
+        transactionPhaseListener = mock(TransactionPhaseListenerImpl.class);
+        preparedStatementProxy = new PreparedStatementProxy(preparedStatement, SQL, transactionPhaseListener);
+    }
+
+    @Test
+    void shouldNotifyTheTimedSqlAfterExecuteQuery() throws SQLException {
+        ResultSet mockResultSet = mock(ResultSet.class);
+        when(preparedStatement.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(2);
+            return mockResultSet;
+        });
+
+        long before = System.nanoTime();
+        ResultSet result = preparedStatementProxy.executeQuery();
+
+        assertThat(result).isSameAs(mockResultSet);
+        verify(transactionPhaseListener, times(1))
+                .executedQuery(eq(SQL), longThat(start -> start >= before), longThat(duration -> duration >= 2_000_000L));
+    }
+
+    @Test
+    void shouldNotifyTheSqlOncePerExecution() throws SQLException {
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        preparedStatementProxy.setLong(1, 10L);
+        preparedStatementProxy.executeUpdate();
+        preparedStatementProxy.setLong(1, 11L);
+        preparedStatementProxy.executeUpdate();
+
+        verify(preparedStatement, times(1)).setLong(1, 10L);
+        verify(preparedStatement, times(2)).executeUpdate();
+        verify(transactionPhaseListener, times(2)).executedQuery(eq(SQL), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldReportAddedRowsAsOneBatchRecord() throws SQLException {
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO, 1});
+
+        for (long id = 1; id <= 3; id++) {
+            preparedStatementProxy.setLong(1, id);
+            preparedStatementProxy.addBatch();
+        }
+        assertThat(preparedStatementProxy.executeBatch()).hasSize(3);
+
+        verify(preparedStatement, times(3)).addBatch();
+        verify(transactionPhaseListener, times(1))
+                .executedBatch(eq(SQL), eq(new BatchSummary(3, 2L, 1, 0)), anyLong(), anyLong());
+        verify(transactionPhaseListener, never()).executedQuery(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldStartANewBatchAfterExecuteOrClearBatch() throws SQLException {
+        when(preparedStatement.executeLargeBatch()).thenReturn(new long[]{1L});
+
+        preparedStatementProxy.addBatch();
+        preparedStatementProxy.clearBatch();
+        preparedStatementProxy.addBatch();
+        preparedStatementProxy.executeLargeBatch();
+        preparedStatementProxy.executeLargeBatch();
+
+        verify(transactionPhaseListener, times(1))
+                .executedBatch(eq(SQL), eq(new BatchSummary(1, 1L, 0, 0)), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldNotifyTheSqlWhenExecutionFails() throws SQLException {
+        SQLException expectedException = new SQLException("Table not found");
+        when(preparedStatement.executeQuery()).thenThrow(expectedException);
+
+        assertThatThrownBy(() -> preparedStatementProxy.executeQuery()).isSameAs(expectedException);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
+    }
+}
@@ -2,9 +2,12 @@ package com.sdlc.pro.txboard.proxy;
 
 import com.sdlc.pro.txboard.listener.TransactionPhaseListener;
 import com.sdlc.pro.txboard.listener.TransactionPhaseListenerImpl;
+import com.sdlc.pro.txboard.model.BatchSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -38,7 +41,7 @@ class StatementProxyTest {
         ResultSet result = statementProxy.executeQuery(sql);
 
         // Then
-        verify(transactionPhaseListener).executedQuery(sql);
+        verify(transactionPhaseListener).executedQuery(eq(sql), anyLong(), anyLong());
         verify(statement).executeQuery(sql);
         assertSame(mockResultSet, result);
     }
@@ -71,7 +74,7 @@ class StatementProxyTest {
 
         int result = statementProxy.executeUpdate(SQL);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).executeUpdate(SQL);
         assertThat(result).isEqualTo(expectedRows);
     }
@@ -85,7 +88,7 @@ class StatementProxyTest {
 
         boolean result = statementProxy.execute(SQL);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).execute(SQL);
         assertThat(result).isEqualTo(expectedResult);
     }
@@ -100,7 +103,7 @@ class StatementProxyTest {
 
         int result = statementProxy.executeUpdate(SQL, autoGeneratedKeys);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).executeUpdate(SQL, autoGeneratedKeys);
         assertThat(result).isEqualTo(expectedRows);
     }
@@ -115,7 +118,7 @@ class StatementProxyTest {
 
         int result = statementProxy.executeUpdate(SQL, columnIndexes);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).executeUpdate(SQL, columnIndexes);
         assertThat(result).isEqualTo(expectedRows);
     }
@@ -130,7 +133,7 @@ class StatementProxyTest {
 
         int result = statementProxy.executeUpdate(SQL, columnNames);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).executeUpdate(SQL, columnNames);
         assertThat(result).isEqualTo(expectedRows);
     }
@@ -145,7 +148,7 @@ class StatementProxyTest {
 
         boolean result = statementProxy.execute(SQL, autoGeneratedKeys);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).execute(SQL, autoGeneratedKeys);
         assertThat(result).isEqualTo(expectedResult);
     }
@@ -159,7 +162,7 @@ class StatementProxyTest {
 
         boolean result = statementProxy.execute(SQL, columnIndexes);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).execute(SQL, columnIndexes);
         assertThat(result).isEqualTo(expectedResult);
     }
@@ -174,11 +177,77 @@ class StatementProxyTest {
 
         boolean result = statementProxy.execute(SQL, columnNames);
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).execute(SQL, columnNames);
         assertThat(result).isEqualTo(expectedResult);
     }
 
+    @Test
+    void shouldAggregateBatchedSqlOfTheSameShapeIntoOneBatchRecord() throws SQLException {
+        String firstInsert = "insert into users (name) values ('alice')";
+        String secondInsert = "insert into users (name) values ('bob')";
+        String update = "update users set active = true";
+        when(statement.executeBatch()).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return new int[]{1, 1, 3};
+        });
+
+        statementProxy.addBatch(firstInsert);
+        statementProxy.addBatch(secondInsert);
+        statementProxy.addBatch(update);
+        verify(transactionPhaseListener, never()).executedBatch(anyString(), any(), anyLong(), anyLong());
+
+        long beforeNanos = System.nanoTime();
+        int[] result = statementProxy.executeBatch();
+        long batchNanos = System.nanoTime() - beforeNanos;
+
+        assertThat(result).containsExactly(1, 1, 3);
+        ArgumentCaptor<Long> insertStart = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> insertDuration = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> updateStart = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> updateDuration = ArgumentCaptor.forClass(Long.class);
+        verify(transactionPhaseListener, times(1)).executedBatch(eq(firstInsert), eq(new BatchSummary(2, 2L, 0, 0)),
+                insertStart.capture(), insertDuration.capture());
+        verify(transactionPhaseListener, times(1)).executedBatch(eq(update), eq(new BatchSummary(1, 3L, 0, 0)),
+                updateStart.capture(), updateDuration.capture());
+
+        // the records split the batch by their statement count, one after the other, instead of each taking it whole
+        long totalNanos = insertDuration.getValue() + updateDuration.getValue();
+        assertThat(totalNanos).isBetween(30_000_000L, batchNanos);
+        assertThat(insertStart.getValue()).isGreaterThanOrEqualTo(beforeNanos);
+        assertThat(insertDuration.getValue()).isEqualTo(totalNanos * 2 / 3);
+        assertThat(updateStart.getValue()).isEqualTo(insertStart.getValue() + insertDuration.getValue());
+
+        // the buffer is reset once the batch has been sent
+        statementProxy.executeBatch();
+        verify(transactionPhaseListener, times(2)).executedBatch(anyString(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldReportFailedRowsWhenBatchExecutionFails() throws SQLException {
+        String insert = "insert into users (name) values ('alice')";
+        BatchUpdateException exception = new BatchUpdateException(new int[]{1, Statement.EXECUTE_FAILED});
+        when(statement.executeBatch()).thenThrow(exception);
+
+        statementProxy.addBatch(insert);
+        statementProxy.addBatch(insert);
+        statementProxy.addBatch(insert);
+
+        assertThrows(BatchUpdateException.class, () -> statementProxy.executeBatch());
+        verify(transactionPhaseListener, times(1))
+                .executedBatch(eq(insert), eq(new BatchSummary(3, 1L, 0, 2)), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldDropBufferedSqlOnClearBatch() throws SQLException {
+        statementProxy.addBatch("delete from users");
+        statementProxy.clearBatch();
+        statementProxy.executeBatch();
+
+        verify(statement, times(1)).clearBatch();
+        verify(transactionPhaseListener, never()).executedBatch(anyString(), any(), anyLong(), anyLong());
+    }
+
     @Test
     void shouldDelegateToActualGetConnectionMethod() throws SQLException {
         Connection mockConnection = mock(Connection.class);
@@ -251,7 +320,7 @@ class StatementProxyTest {
                 () -> statementProxy.executeQuery(SQL)
         );
 
-        verify(transactionPhaseListener, times(1)).executedQuery(SQL);
+        verify(transactionPhaseListener, times(1)).executedQuery(eq(SQL), anyLong(), anyLong());
         verify(statement, times(1)).executeQuery(SQL);
         assertThat((Iterable<? extends Throwable>) thrownException).isEqualTo(expectedException);
     }
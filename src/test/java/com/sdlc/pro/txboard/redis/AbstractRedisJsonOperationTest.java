@@ -0,0 +1,203 @@
+package com.sdlc.pro.txboard.redis;
+
+import com.google.gson.Gson;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.RedisTransactionLog;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbstractRedisJsonOperationTest {
+    private final AbstractRedisJsonOperation redisJsonOperation = new JedisJsonOperation(null, new Gson());
+
+    @Test
+    void shouldIncrementAllTheCounterHashesInOneScriptCall() {
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+        increments.put("summary", orderedMap("COMMITTED", 1L, "duration", 0L, "durationMicros", 1_500L));
+        increments.put("empty", orderedMap("calls", 0L));
+        increments.put("methods", orderedMap("calls:OrderService.createOrder", 1L));
+
+        RedisCommand command = this.redisJsonOperation.buildIncrementCommand(increments, 60);
+
+        assertEquals(RedisInstruction.EVAL, command.instruction());
+        List<String> args = argsOf(command).subList(1, command.args().length);
+        assertEquals(List.of("2", "summary", "methods", "60", "2", "COMMITTED", "1", "durationMicros", "1500",
+                "1", "calls:OrderService.createOrder", "1"), args);
+    }
+
+    @Test
+    void shouldNotBuildAnIncrementCommandWithoutAnyIncrement() {
+        assertNull(this.redisJsonOperation.buildIncrementCommand(Map.of("summary", Map.of("COMMITTED", 0L)), 60));
+        assertNull(this.redisJsonOperation.buildIncrementCommand(Map.of(), 60));
+    }
+
+    @Test
+    void shouldExpireTheKeyInSeconds() {
+        RedisCommand command = this.redisJsonOperation.buildExpireCommand("SpringTxBoardQueryDictionary", 907_200);
+
+        assertEquals(RedisInstruction.EXPIRE, command.instruction());
+        assertEquals(List.of("SpringTxBoardQueryDictionary", "907200"), argsOf(command));
+    }
+
+    @Test
+    void shouldSumTheFieldOverTheFilteredEntitiesOnly() {
+        this.redisJsonOperation.registerRedisEntityClass(RedisTransactionLog.class);
+
+        List<String> all = argsOf(this.redisJsonOperation.buildAggregateSumCommand(
+                RedisTransactionLog.class, "duration", FilterNode.UNFILTERED));
+        List<String> measured = argsOf(this.redisJsonOperation.buildAggregateSumCommand(
+                RedisTransactionLog.class, "duration", Filter.of("durationMicros", 0L, Filter.Operator.GREATER_THAN)));
+
+        assertEquals("*", all.get(1));
+        assertEquals("@durationMicros:[(0 inf]", measured.get(1));
+        assertEquals(List.of("GROUPBY", "0", "REDUCE", "SUM", "1", "duration", "AS", "__sum__"),
+                measured.subList(2, measured.size()));
+    }
+
+    @Test
+    void shouldWalkAnUnsortedCursorPageByTheCursorKeyOfTheEntity() {
+        this.redisJsonOperation.registerRedisEntityClass(RedisTransactionLog.class);
+        PageRequest first = PageRequest.after(null, 2, Sort.UNSORTED, FilterNode.UNFILTERED);
+
+        List<String> args = argsOf(this.redisJsonOperation.buildPageableFetchCommand(RedisTransactionLog.class, first));
+        assertEquals(List.of("spring_tx_board_transaction_log_idx", "*", "SORTBY", "startTime", "ASC", "LIMIT", "0",
+                "3"), args);
+
+        // the last two logs of the page share their start time
+        List<RedisTransactionLog> content = new ArrayList<>();
+        for (long startTime : new long[]{100, 200, 200}) {
+            RedisTransactionLog transactionLog = new RedisTransactionLog();
+            transactionLog.setStartTime(startTime);
+            content.add(transactionLog);
+        }
+        PageResponse<RedisTransactionLog> page = this.redisJsonOperation.toPageResponse(RedisTransactionLog.class,
+                first, content, 3);
+        assertEquals(content.subList(0, 2), page.getContent());
+        Cursor cursor = Cursor.decode(page.getNextCursor());
+        assertTrue(cursor.belongsTo(Sort.UNSORTED));
+        assertEquals(200, cursor.getKey());
+        assertEquals(1, cursor.getPosition());
+
+        PageRequest next = PageRequest.after(cursor, 2, Sort.UNSORTED, FilterNode.UNFILTERED);
+        args = argsOf(this.redisJsonOperation.buildPageableFetchCommand(RedisTransactionLog.class, next));
+        assertEquals(List.of("spring_tx_board_transaction_log_idx", "@startTime:[200 inf]", "SORTBY", "startTime",
+                "ASC", "LIMIT", "1", "3"), args);
+    }
+
+    @Test
+    void shouldAddTheFieldsMissingFromAnExistingIndex() {
+        this.redisJsonOperation.registerRedisEntityClass(RedisTransactionLog.class);
+        List<String> attributes = new ArrayList<>(indexedPathsOf(RedisTransactionLog.class));
+        attributes.remove("nPlusOne");
+
+        List<RedisCommand> commands = this.redisJsonOperation.buildAlterIndexCommands(RedisTransactionLog.class,
+                indexInfoOf(attributes));
+
+        assertEquals(1, commands.size());
+        assertEquals(RedisInstruction.FT_ALTER, commands.get(0).instruction());
+        assertEquals(List.of("spring_tx_board_transaction_log_idx", "SCHEMA", "ADD", "$.nPlusOne", "AS", "nPlusOne",
+                "TAG"), argsOf(commands.get(0)));
+        assertTrue(this.redisJsonOperation.buildAlterIndexCommands(RedisTransactionLog.class,
+                indexInfoOf(indexedPathsOf(RedisTransactionLog.class))).isEmpty());
+    }
+
+    @Test
+    void shouldAddTheMicrosecondFieldsToAnIndexCreatedBeforeThem() {
+        this.redisJsonOperation.registerRedisEntityClass(RedisTransactionLog.class);
+        List<String> attributes = new ArrayList<>(indexedPathsOf(RedisTransactionLog.class));
+        attributes.removeAll(List.of("durationMicros", "connectionSummary.occupiedTimeMicros"));
+
+        Set<List<String>> commands = this.redisJsonOperation.buildAlterIndexCommands(RedisTransactionLog.class,
+                        resp3IndexInfoOf(attributes)).stream()
+                .map(AbstractRedisJsonOperationTest::argsOf)
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of(
+                List.of("spring_tx_board_transaction_log_idx", "SCHEMA", "ADD", "$.durationMicros", "AS",
+                        "durationMicros", "NUMERIC", "SORTABLE"),
+                List.of("spring_tx_board_transaction_log_idx", "SCHEMA", "ADD",
+                        "$.connectionSummary.occupiedTimeMicros", "AS", "connectionSummary.occupiedTimeMicros",
+                        "NUMERIC")), commands);
+    }
+
+    @Test
+    void shouldRecognizeTheFailureOfAnExistingIndex() {
+        RuntimeException failure = new RuntimeException("Redis command perform exception",
+                new RuntimeException(new RuntimeException("Index already exists")));
+
+        assertTrue(AbstractRedisJsonOperation.isIndexAlreadyExists(failure));
+        assertFalse(AbstractRedisJsonOperation.isIndexAlreadyExists(new RuntimeException("Unknown index name")));
+        assertFalse(AbstractRedisJsonOperation.isIndexAlreadyExists(new RuntimeException()));
+    }
+
+    private List<String> indexedPathsOf(Class<?> entityType) {
+        List<String> args = argsOf(this.redisJsonOperation.buildIndexCommand(entityType));
+        List<String> paths = new ArrayList<>();
+        for (int i = 1; i < args.size(); i++) {
+            if (args.get(i - 1).equals("AS")) {
+                paths.add(args.get(i));
+            }
+        }
+        return paths;
+    }
+
+    // the RESP2 reply of FT.INFO, its attributes being flat lists of option names and values
+    private static List<Object> indexInfoOf(List<String> attributes) {
+        List<Object> attributeInfos = new ArrayList<>();
+        for (String attribute : attributes) {
+            attributeInfos.add(List.of(bytes("identifier"), bytes("$." + attribute), bytes("attribute"),
+                    bytes(attribute), bytes("type"), bytes("NUMERIC")));
+        }
+        return List.of(bytes("index_name"), bytes("spring_tx_board_transaction_log_idx"), bytes("attributes"),
+                attributeInfos, bytes("num_docs"), 0L);
+    }
+
+    // the RESP3 reply of FT.INFO, its attributes being maps
+    private static Map<Object, Object> resp3IndexInfoOf(List<String> attributes) {
+        List<Object> attributeInfos = new ArrayList<>();
+        for (String attribute : attributes) {
+            Map<Object, Object> attributeInfo = new LinkedHashMap<>();
+            attributeInfo.put(bytes("identifier"), bytes("$." + attribute));
+            attributeInfo.put(bytes("attribute"), bytes(attribute));
+            attributeInfo.put(bytes("type"), bytes("NUMERIC"));
+            attributeInfos.add(attributeInfo);
+        }
+        Map<Object, Object> indexInfo = new LinkedHashMap<>();
+        indexInfo.put(bytes("index_name"), bytes("spring_tx_board_transaction_log_idx"));
+        indexInfo.put(bytes("attributes"), attributeInfos);
+        return indexInfo;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Long> orderedMap(Object... entries) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put((String) entries[i], (Long) entries[i + 1]);
+        }
+        return map;
+    }
+
+    private static List<String> argsOf(RedisCommand command) {
+        return Arrays.stream(command.args()).map(String::new).toList();
+    }
+}
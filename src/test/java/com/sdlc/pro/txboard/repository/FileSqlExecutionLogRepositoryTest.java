@@ -0,0 +1,91 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.SqlExecutionLog;
+import com.sdlc.pro.txboard.util.SqlLogUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.sdlc.pro.txboard.repository.InMemorySqlExecutionLogRepositoryTest.walkWithCursor;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSqlExecutionLogRepositoryTest {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    private TxBoardProperties properties() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getFile().setDirectory(this.directory.toString());
+        properties.getFile().setRetentionPeriod(Duration.ofDays(365_000));
+        return properties;
+    }
+
+    @Test
+    void testServesTheSameLogsAsInMemoryStorage() throws Exception {
+        InMemorySqlExecutionLogRepository inMemory = new InMemorySqlExecutionLogRepository();
+        FileSqlExecutionLogRepository file = new FileSqlExecutionLogRepository(this.properties());
+        for (SqlExecutionLog log : SqlLogUtils.createSqlExecutionLogs()) {
+            inMemory.save(log);
+            file.save(log);
+        }
+
+        List<FilterNode> filters = List.of(FilterNode.UNFILTERED, Filter.of("thread", "main", Filter.Operator.CONTAINS));
+        List<Sort> sorts = List.of(Sort.UNSORTED, Sort.by("conAcquiredTime", Sort.Direction.DESC),
+                Sort.by("conOccupiedTime", Sort.Direction.ASC));
+        for (FilterNode filter : filters) {
+            for (Sort sort : sorts) {
+                for (int page = 0; page < 3; page++) {
+                    PageRequest pageRequest = PageRequest.of(page, 2, sort, filter);
+                    assertEquals(this.mapper.writeValueAsString(inMemory.findAll(pageRequest)),
+                            this.mapper.writeValueAsString(file.findAll(pageRequest)));
+                }
+                assertEquals(this.mapper.writeValueAsString(walkWithCursor(inMemory, 2, sort, filter)),
+                        this.mapper.writeValueAsString(walkWithCursor(file, 2, sort, filter)));
+            }
+        }
+        file.destroy();
+    }
+
+    @Test
+    void testRestoresTheLogsWhenReopened() throws Exception {
+        FileSqlExecutionLogRepository file = new FileSqlExecutionLogRepository(this.properties());
+        SqlLogUtils.createSqlExecutionLogs().forEach(file::save);
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("conAcquiredTime", Sort.Direction.ASC));
+        String logs = this.mapper.writeValueAsString(file.findAll(pageRequest));
+        file.destroy();
+
+        FileSqlExecutionLogRepository reopened = new FileSqlExecutionLogRepository(this.properties());
+        assertEquals(logs, this.mapper.writeValueAsString(reopened.findAll(pageRequest)));
+        reopened.destroy();
+    }
+
+    @Test
+    void testRestoresTheConnectionTimePercentilesAfterACrash() {
+        InMemorySqlExecutionLogRepository inMemory = new InMemorySqlExecutionLogRepository();
+        FileSqlExecutionLogRepository file = new FileSqlExecutionLogRepository(this.properties());
+        SqlLogUtils.createSqlExecutionLogs().forEach(inMemory::save);
+        SqlLogUtils.createSqlExecutionLogs().forEach(file::save);
+        file.destroy();
+
+        // the logs saved after the checkpoint of the close are replayed by the reopened one
+        FileSqlExecutionLogRepository reopened = new FileSqlExecutionLogRepository(this.properties());
+        SqlLogUtils.createSqlExecutionLogs().forEach(inMemory::save);
+        SqlLogUtils.createSqlExecutionLogs().forEach(reopened::save);
+        FileSqlExecutionLogRepository recovered = new FileSqlExecutionLogRepository(this.properties());
+        assertEquals(inMemory.getConnectionTimePercentiles(), recovered.getConnectionTimePercentiles());
+        assertEquals(2L * SqlLogUtils.createSqlExecutionLogs().size(), recovered.getConnectionTimePercentiles().count());
+        recovered.destroy();
+    }
+}
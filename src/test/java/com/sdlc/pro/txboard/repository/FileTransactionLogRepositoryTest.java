@@ -0,0 +1,241 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.util.TxLogUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.sdlc.pro.txboard.repository.InMemoryTransactionLogRepositoryTest.walkWithCursor;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTransactionLogRepositoryTest {
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    private TxBoardProperties properties() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getFile().setDirectory(this.directory.toString());
+        properties.getFile().setSegmentSize(DataSize.ofKilobytes(4));
+        // the test logs start in the past, keep them regardless of their age
+        properties.getFile().setRetentionPeriod(Duration.ofDays(365_000));
+        return properties;
+    }
+
+    @Test
+    void testServesTheSameLogsAsInMemoryStorage() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        InMemoryTransactionLogRepository inMemory = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        FileTransactionLogRepository file = new FileTransactionLogRepository(this.properties());
+        for (int i = 0; i < 5; i++) {
+            transactionLogs.forEach(inMemory::save);
+            transactionLogs.forEach(file::save);
+        }
+
+        assertEquals(this.mapper.writeValueAsString(inMemory.findAll()), this.mapper.writeValueAsString(file.findAll()));
+        assertEquals(inMemory.count(), file.count());
+        assertEquals(inMemory.averageDuration(), file.averageDuration(), 1e-9);
+        assertEquals(inMemory.countByTransactionStatus(TransactionPhaseStatus.COMMITTED),
+                file.countByTransactionStatus(TransactionPhaseStatus.COMMITTED));
+        assertEquals(this.mapper.writeValueAsString(inMemory.getTransactionSummary()),
+                this.mapper.writeValueAsString(file.getTransactionSummary()));
+
+        Instant middle = transactionLogs.get(transactionLogs.size() / 2).getStartTime();
+        List<FilterNode> filters = List.of(
+                FilterNode.UNFILTERED,
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS),
+                        Filter.of("duration", 100L, Filter.Operator.GREATER_THAN),
+                        Filter.of("startTime", middle, Filter.Operator.LESS_THAN_OR_EQUALS)
+                ), FilterGroup.Logic.AND),
+                FilterGroup.of(List.of(
+                        Filter.of("method", "Service", Filter.Operator.CONTAINS),
+                        Filter.of("thread", "processor", Filter.Operator.CONTAINS)
+                ), FilterGroup.Logic.OR),
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.NOT_EQUALS),
+                        Filter.of("method", "OrderService.createOrder", Filter.Operator.NOT_EQUALS)
+                ), FilterGroup.Logic.AND)
+        );
+        List<Sort> sorts = List.of(Sort.UNSORTED, Sort.by("startTime", Sort.Direction.DESC),
+                Sort.by("duration", Sort.Direction.ASC), Sort.by("method", Sort.Direction.ASC));
+        for (FilterNode filter : filters) {
+            for (Sort sort : sorts) {
+                for (int page = 0; page < 3; page++) {
+                    PageRequest pageRequest = PageRequest.of(page, 7, sort, filter);
+                    assertEquals(this.mapper.writeValueAsString(inMemory.findAll(pageRequest)),
+                            this.mapper.writeValueAsString(file.findAll(pageRequest)));
+                }
+                if (!sort.isSortable() || !sort.getProperty().equals("method")) {
+                    assertEquals(this.mapper.writeValueAsString(walkWithCursor(inMemory, 7, sort, filter)),
+                            this.mapper.writeValueAsString(walkWithCursor(file, 7, sort, filter)));
+                }
+            }
+        }
+        file.destroy();
+    }
+
+    @Test
+    void testCursorWalksWithoutTotalServeTheOffsetPages() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FileTransactionLogRepository file = new FileTransactionLogRepository(this.properties());
+        for (int i = 0; i < 40; i++) {
+            transactionLogs.forEach(file::save);
+        }
+
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        FilterNode search = Filter.of("method", "Service", Filter.Operator.CONTAINS);
+        List<Sort> sorts = List.of(Sort.UNSORTED, Sort.by("startTime", Sort.Direction.ASC),
+                Sort.by("startTime", Sort.Direction.DESC));
+        for (FilterNode filter : List.of(FilterNode.UNFILTERED, committed, search)) {
+            for (Sort sort : sorts) {
+                PageResponse<TransactionLog> all = file.findAll(PageRequest.of(0, 1_000, sort, filter));
+                List<TransactionLog> walked = new ArrayList<>();
+                Cursor cursor = null;
+                do {
+                    PageResponse<TransactionLog> page = file.findAll(
+                            PageRequest.after(cursor, 9, sort, filter).withoutTotal());
+                    assertEquals(page.getContent().size(), page.getTotalElements());
+                    walked.addAll(page.getContent());
+                    cursor = page.hasNext() ? Cursor.decode(page.getNextCursor()) : null;
+                } while (cursor != null);
+                assertEquals(this.mapper.writeValueAsString(all.getContent()), this.mapper.writeValueAsString(walked));
+
+                PageResponse<TransactionLog> counted = file.findAll(PageRequest.after(null, 9, sort, filter));
+                assertEquals(all.getTotalElements(), counted.getTotalElements());
+            }
+        }
+        file.destroy();
+    }
+
+    @Test
+    void testReadsScanWhileLogsAreSavedAndDropped() throws Exception {
+        TxBoardProperties properties = this.properties();
+        properties.getFile().setRetentionSize(DataSize.ofKilobytes(16));
+        FileTransactionLogRepository file = new FileTransactionLogRepository(properties);
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FilterNode search = Filter.of("method", "Service", Filter.Operator.CONTAINS);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                transactionLogs.forEach(file::save);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            PageResponse<TransactionLog> page = file.findAll(PageRequest.of(0, 5, Sort.UNSORTED, search));
+            assertTrue(page.getContent().stream().allMatch(log -> log.getMethod().contains("Service")));
+            assertTrue(file.findAll().size() <= 200 * transactionLogs.size());
+        }
+        writer.join();
+
+        // a roll applies the retention size
+        assertTrue(file.count() < 200L * transactionLogs.size());
+        assertEquals(file.count(), file.findAll().size());
+        file.destroy();
+    }
+
+    @Test
+    void testRestoresTheLogsAndTheSummaryWhenReopened() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FileTransactionLogRepository file = new FileTransactionLogRepository(this.properties());
+        transactionLogs.forEach(file::save);
+        String logs = this.mapper.writeValueAsString(file.findAll());
+        String summary = this.mapper.writeValueAsString(file.getTransactionSummary());
+        String durations = this.mapper.writeValueAsString(file.getDurationDistributions());
+        file.destroy();
+
+        FileTransactionLogRepository reopened = new FileTransactionLogRepository(this.properties());
+        assertEquals(transactionLogs.size(), reopened.count());
+        assertEquals(logs, this.mapper.writeValueAsString(reopened.findAll()));
+        assertEquals(summary, this.mapper.writeValueAsString(reopened.getTransactionSummary()));
+        assertEquals(durations, this.mapper.writeValueAsString(reopened.getDurationDistributions()));
+        reopened.destroy();
+    }
+
+    @Test
+    void testDropsTheOldestLogsPastTheRetentionSize() {
+        TxBoardProperties properties = this.properties();
+        properties.getFile().setRetentionSize(DataSize.ofKilobytes(16));
+        FileTransactionLogRepository file = new FileTransactionLogRepository(properties);
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        for (int i = 0; i < 50; i++) {
+            transactionLogs.forEach(file::save);
+        }
+
+        assertTrue(file.count() < 50L * transactionLogs.size());
+        List<TransactionLog> retained = file.findAll();
+        assertEquals(file.count(), retained.size());
+        assertEquals(transactionLogs.get(transactionLogs.size() - 1).getTxId(),
+                retained.get(retained.size() - 1).getTxId());
+        // the summary keeps counting the dropped logs
+        TransactionSummary summary = file.getTransactionSummary();
+        assertEquals(50L * transactionLogs.size(),
+                summary.getCommittedCount() + summary.getRolledBackCount() + summary.getErroredCount());
+        file.destroy();
+    }
+    @Test
+    void testRestoresTheSummaryFromTheCheckpointAfterACrash() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FileTransactionLogRepository file = new FileTransactionLogRepository(this.properties());
+        transactionLogs.forEach(file::save);
+        // only the checkpoint knows about the sampled out logs, they are not stored
+        transactionLogs.forEach(file::recordSampledOut);
+        file.maintain();
+        transactionLogs.forEach(file::save);
+        String summary = this.mapper.writeValueAsString(file.getTransactionSummary());
+        String durations = this.mapper.writeValueAsString(file.getDurationDistributions());
+        String methods = this.mapper.writeValueAsString(sortedByMethod(file.getMethodSummaries()));
+
+        // opened again without closing the killed one, the logs after the checkpoint are replayed
+        FileTransactionLogRepository recovered = new FileTransactionLogRepository(this.properties());
+        assertEquals(2L * transactionLogs.size(), recovered.count());
+        assertEquals(summary, this.mapper.writeValueAsString(recovered.getTransactionSummary()));
+        assertEquals(durations, this.mapper.writeValueAsString(recovered.getDurationDistributions()));
+        assertEquals(methods, this.mapper.writeValueAsString(sortedByMethod(recovered.getMethodSummaries())));
+        recovered.destroy();
+    }
+
+    private static List<MethodSummary> sortedByMethod(List<MethodSummary> summaries) {
+        return summaries.stream().sorted(Comparator.comparing(MethodSummary::method)).toList();
+    }
+
+    @Test
+    void testRebuildsTheSummaryWhenTheBucketsChanged() throws Exception {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FileTransactionLogRepository file = new FileTransactionLogRepository(this.properties());
+        transactionLogs.forEach(file::save);
+        file.destroy();
+
+        TxBoardProperties properties = this.properties();
+        properties.setDurationBuckets(new ArrayList<>(List.of(50, 250)));
+        InMemoryTransactionLogRepository inMemory = new InMemoryTransactionLogRepository(properties);
+        transactionLogs.forEach(inMemory::save);
+        FileTransactionLogRepository reopened = new FileTransactionLogRepository(properties);
+        assertEquals(this.mapper.writeValueAsString(inMemory.getDurationDistributions()),
+                this.mapper.writeValueAsString(reopened.getDurationDistributions()));
+        reopened.destroy();
+    }
+}
@@ -1,15 +1,20 @@
 package com.sdlc.pro.txboard.repository;
 
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
 import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
 import com.sdlc.pro.txboard.domain.PageRequest;
 import com.sdlc.pro.txboard.domain.PageResponse;
 import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
 import com.sdlc.pro.txboard.model.SqlExecutionLog;
 import com.sdlc.pro.txboard.util.SqlLogUtils;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -70,4 +75,54 @@ class InMemorySqlExecutionLogRepositoryTest {
         assertEquals("main", executionLogs.get(0).getThread());
         assertEquals("main", executionLogs.get(1).getThread());
     }
+
+    static List<SqlExecutionLog> walkWithCursor(SqlExecutionLogRepository repository, int size, Sort sort,
+                                                FilterNode filter) {
+        List<SqlExecutionLog> content = new ArrayList<>();
+        Cursor cursor = null;
+        do {
+            PageResponse<SqlExecutionLog> response = repository.findAll(PageRequest.after(cursor, size, sort, filter));
+            content.addAll(response.getContent());
+            cursor = response.hasNext() ? Cursor.decode(response.getNextCursor()) : null;
+        } while (cursor != null);
+        return content;
+    }
+
+    @Test
+    void testCursorPagesMatchOffsetPages() {
+        List<FilterNode> filters = List.of(FilterNode.UNFILTERED, Filter.of("thread", "main", Filter.Operator.CONTAINS));
+        List<Sort> sorts = List.of(Sort.UNSORTED, Sort.by("conAcquiredTime", Sort.Direction.DESC),
+                Sort.by("conOccupiedTime", Sort.Direction.ASC), Sort.by("conReleaseTime", Sort.Direction.ASC));
+        for (FilterNode filter : filters) {
+            for (Sort sort : sorts) {
+                PageResponse<SqlExecutionLog> expected = logRepository.findAll(PageRequest.of(0, 10, sort, filter));
+                assertEquals(expected.getContent(), walkWithCursor(logRepository, 2, sort, filter));
+                assertEquals(expected.getTotalElements(),
+                        logRepository.findAll(PageRequest.after(null, 2, sort, filter)).getTotalElements());
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> logRepository.findAll(
+                PageRequest.after(null, 2, Sort.by("thread", Sort.Direction.ASC), FilterNode.UNFILTERED)));
+    }
+
+    @Test
+    void testConnectionTimePercentilesKeepCountingEvictedLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setSqlExecutionLogCapacity(10);
+        SqlExecutionLogRepository repository = new InMemorySqlExecutionLogRepository(properties);
+        assertEquals(LatencyPercentiles.EMPTY, repository.getConnectionTimePercentiles());
+
+        Instant acquired = Instant.now();
+        for (int millis = 1; millis <= 100; millis++) {
+            repository.save(new SqlExecutionLog(UUID.randomUUID(), acquired, acquired.plusMillis(millis), false,
+                    "main", List.of("select 1")));
+        }
+
+        LatencyPercentiles percentiles = repository.getConnectionTimePercentiles();
+        assertEquals(100L, percentiles.count());
+        assertEquals(50.0, percentiles.p50(), 50.0 / 128);
+        assertEquals(99.0, percentiles.p99(), 99.0 / 128);
+        assertEquals(100.0, percentiles.p999(), 100.0 / 128);
+    }
 }
@@ -1,14 +1,53 @@
 package com.sdlc.pro.txboard.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Cursor;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.domain.PageRequest;
+import com.sdlc.pro.txboard.domain.PageResponse;
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
 import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.BatchSizeDistribution;
+import com.sdlc.pro.txboard.model.BatchSizeRange;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.DurationDistribution;
+import com.sdlc.pro.txboard.model.DurationRange;
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import com.sdlc.pro.txboard.model.MethodSummary;
+import com.sdlc.pro.txboard.model.NPlusOneQuery;
 import com.sdlc.pro.txboard.model.TransactionLog;
 import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.storage.OffHeapBlobStore;
+import com.sdlc.pro.txboard.storage.QueryDictionary;
+import com.sdlc.pro.txboard.storage.QueryList;
+import com.sdlc.pro.txboard.util.FilterPredicateFactory;
+import com.sdlc.pro.txboard.util.SortUtils;
 import com.sdlc.pro.txboard.util.TxLogUtils;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryTransactionLogRepositoryTest {
     private static TransactionLogRepository logRepository;
@@ -55,4 +94,711 @@ class InMemoryTransactionLogRepositoryTest {
         assertEquals(1L, rolledBackCount);
         assertEquals(1L, erroredCount);
     }
+
+    @Test
+    void testOldestLogsAreEvictedWhenCapacityIsReached() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(4);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(repository::save);
+
+        assertEquals(4L, repository.count());
+        assertEquals(transactionLogs.subList(2, 6), repository.findAll());
+
+        PageResponse<TransactionLog> pageResponse = repository.findAll(PageRequest.of(0, 10));
+        assertEquals(4L, pageResponse.getTotalElements());
+        assertEquals(transactionLogs.subList(2, 6), pageResponse.getContent());
+
+        // the summary keeps counting every saved transaction even after eviction
+        assertEquals(6L, repository.getTransactionSummary().getTotalTransaction());
+    }
+
+    @Test
+    void testSampledOutLogsAreCountedButNotStored() {
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(repository::recordSampledOut);
+
+        assertEquals(0L, repository.count());
+        assertTrue(repository.findAll().isEmpty());
+        assertEquals(6L, repository.getTransactionSummary().getTotalTransaction());
+        assertEquals(5515L, repository.getTransactionSummary().getTotalDuration());
+        assertEquals(6L, repository.getDurationDistributions().stream().mapToLong(DurationDistribution::count).sum());
+    }
+
+    @Test
+    void testSubMillisecondDurationsAreKeptInSummaryAndDistribution() {
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+
+        Instant start = Instant.now();
+        for (long durationMicros : new long[]{400L, 100_500L}) {
+            repository.save(new TransactionLog(
+                    UUID.randomUUID(), "OrderService.findOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, start.plusNanos(durationMicros * 1_000L), durationMicros,
+                    ConnectionSummary.ofMicros(1, 0, 250L),
+                    TransactionPhaseStatus.COMMITTED, "reader-1",
+                    List.of(), List.of(), List.of(), 1000, null, null
+            ));
+        }
+
+        TransactionSummary summary = repository.getTransactionSummary();
+        assertEquals(100L, summary.getTotalDuration());
+        assertEquals(100_900L, summary.getTotalDurationMicros());
+        assertEquals(50.45, summary.getAverageDuration());
+        assertEquals(0.25, summary.getAverageConnectionOccupiedTime());
+
+        Map<DurationRange, Long> distribution = repository.getDurationDistributions()
+                .stream()
+                .collect(Collectors.toMap(DurationDistribution::range, DurationDistribution::count));
+        // 100.5ms exceeds the first bucket although its truncated millis would not
+        assertEquals(1L, distribution.get(DurationRange.of(0, 100)));
+        assertEquals(1L, distribution.get(DurationRange.of(101, 500)));
+    }
+
+    @Test
+    void testDurationDistributionIsBucketedByAnyBoundaries() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(10);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<Integer> buckets = List.of(1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000);
+
+        Random random = new Random(25);
+        List<Long> durations = new ArrayList<>();
+        Instant start = Instant.now();
+        while (durations.size() < 10_000) {
+            long durationMicros = (long) Math.exp(random.nextGaussian() * 2.5 + 10);
+            // the durations within a histogram bucket above a bound may be counted below it
+            if (buckets.stream().anyMatch(b -> durationMicros > b * 1_000L && durationMicros <= b * 1_008L)) {
+                continue;
+            }
+            durations.add(durationMicros);
+            repository.save(new TransactionLog(
+                    UUID.randomUUID(), "OrderService.findOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, start.plusNanos(durationMicros * 1_000L), durationMicros,
+                    ConnectionSummary.ofMicros(0, 0, 0L),
+                    TransactionPhaseStatus.COMMITTED, "reader-1",
+                    List.of(), List.of(), List.of(), 1000, null, null
+            ));
+        }
+
+        List<DurationDistribution> distributions = repository.getDurationDistributions(buckets);
+        int prev = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            DurationRange range = DurationRange.of(prev, buckets.get(i));
+            assertEquals(range, distributions.get(i).range());
+            assertEquals(durations.stream().filter(range::matchesMicros).count(), distributions.get(i).count());
+            prev = buckets.get(i) + 1;
+        }
+        assertEquals(durations.stream().filter(d -> d > 5_000_000L).count(),
+                distributions.size() > buckets.size() ? distributions.get(buckets.size()).count() : 0L);
+        // the configured buckets read the same histogram
+        assertEquals(10_000L, repository.getDurationDistributions().stream().mapToLong(DurationDistribution::count).sum());
+    }
+
+    @Test
+    void testSummaryCountsEveryTransactionOfConcurrentWriters() throws InterruptedException {
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        TransactionLogRepository sequential = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        transactionLogs.forEach(sequential::recordSampledOut);
+        TransactionSummary expected = sequential.getTransactionSummary();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread writer = new Thread(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    transactionLogs.forEach(repository::recordSampledOut);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        TransactionSummary summary = repository.getTransactionSummary();
+        assertEquals(8_000 * expected.getCommittedCount(), summary.getCommittedCount());
+        assertEquals(8_000 * expected.getRolledBackCount(), summary.getRolledBackCount());
+        assertEquals(8_000 * expected.getErroredCount(), summary.getErroredCount());
+        assertEquals(8_000 * expected.getTotalDurationMicros(), summary.getTotalDurationMicros());
+        assertEquals(8_000 * expected.getAlarmingCount(), summary.getAlarmingCount());
+        assertEquals(8_000 * expected.getConnectionAcquisitionCount(), summary.getConnectionAcquisitionCount());
+        assertEquals(8_000 * expected.getTotalConnectionOccupiedTimeMicros(),
+                summary.getTotalConnectionOccupiedTimeMicros());
+        assertEquals(expected.getAverageDuration(), summary.getAverageDuration(), 1e-9);
+    }
+
+    @Test
+    void testReadsSeeEveryLogSavedBeforeThemByConcurrentWriters() throws InterruptedException {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(1_000);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        int capacity = 1_000;
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread writer = new Thread(() -> {
+                for (int j = 1; j <= 100; j++) {
+                    transactionLogs.forEach(repository::save);
+                    // a read interleaved with the indexing of the other writers' logs sees the own ones
+                    PageResponse<TransactionLog> page = repository.findAll(PageRequest.of(0, 10,
+                            Sort.by("duration", Sort.Direction.DESC), FilterNode.UNFILTERED));
+                    assertTrue(page.getTotalElements() >= Math.min(capacity, j * transactionLogs.size()));
+                    assertEquals(Math.min(10, page.getTotalElements()), page.getContent().size());
+                }
+            });
+            writer.setUncaughtExceptionHandler((thread, failure) -> failures.add(failure));
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(List.of(), failures);
+        long saved = 400L * transactionLogs.size();
+        assertEquals(Math.min(capacity, saved), repository.count());
+        assertEquals(Math.min(capacity, saved), repository.findAll().size());
+        List<TransactionLog> committed = repository.findAll(PageRequest.of(0, capacity, Sort.UNSORTED,
+                Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS))).getContent();
+        assertEquals(repository.countByTransactionStatus(TransactionPhaseStatus.COMMITTED), committed.size());
+        assertTrue(committed.stream().allMatch(log -> log.getStatus() == TransactionPhaseStatus.COMMITTED));
+    }
+
+    @Test
+    void testAverageDurationCoversTheRetainedLogsOnly() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(10);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+
+        Instant start = Instant.now();
+        for (long millis = 1; millis <= 25; millis++) {
+            repository.save(new TransactionLog(
+                    UUID.randomUUID(), "OrderService.findOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, start.plusMillis(millis), millis * 1_000L, ConnectionSummary.ofMicros(0, 0, 0L),
+                    TransactionPhaseStatus.COMMITTED, "reader-1",
+                    List.of(), List.of(), List.of(), 1000, null, null
+            ));
+        }
+
+        // the logs of 16 to 25 ms are retained, the summary still averages all of them
+        assertEquals(20.5, repository.averageDuration(), 1e-9);
+        assertEquals(13.0, repository.getTransactionSummary().getAverageDuration(), 1e-9);
+    }
+
+    @Test
+    void testLatencyPercentilesKeepCountingEvictedLogs() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(10);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+
+        Instant start = Instant.now();
+        for (long millis = 1; millis <= 1_000; millis++) {
+            // every other transaction holds a connection for half of its duration
+            ConnectionSummary connectionSummary = millis % 2 == 0
+                    ? ConnectionSummary.ofMicros(1, 0, millis * 500L) : ConnectionSummary.ofMicros(0, 0, 0L);
+            repository.save(new TransactionLog(
+                    UUID.randomUUID(), "OrderService.findOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                    start, start.plusMillis(millis), millis * 1_000L, connectionSummary,
+                    TransactionPhaseStatus.COMMITTED, "reader-1",
+                    List.of(), List.of(), List.of(), 1000, null, null
+            ));
+        }
+
+        TransactionSummary summary = repository.getTransactionSummary();
+        LatencyPercentiles durations = summary.getDurationPercentiles();
+        assertEquals(1_000L, durations.count());
+        assertEquals(500.0, durations.p50(), 500.0 / 128);
+        assertEquals(950.0, durations.p95(), 950.0 / 128);
+        assertEquals(990.0, durations.p99(), 990.0 / 128);
+        assertEquals(999.0, durations.p999(), 999.0 / 128);
+
+        LatencyPercentiles connections = summary.getConnectionOccupiedTimePercentiles();
+        assertEquals(500L, connections.count());
+        assertEquals(250.0, connections.p50(), 250.0 / 128);
+        assertEquals(LatencyPercentiles.EMPTY, summary.getSqlConnectionTimePercentiles());
+    }
+
+    @Test
+    void testMethodSummariesCountEveryTransactionOfTheirMethod() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(4);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        for (int i = 0; i < 3; i++) {
+            transactionLogs.forEach(repository::save);
+        }
+
+        List<TransactionLog> flattened = new ArrayList<>();
+        for (TransactionLog transactionLog : transactionLogs) {
+            flatten(transactionLog, flattened);
+        }
+        Map<String, List<TransactionLog>> byMethod = flattened.stream()
+                .collect(Collectors.groupingBy(TransactionLog::getMethod));
+        Map<String, MethodSummary> summaries = repository.getMethodSummaries()
+                .stream()
+                .collect(Collectors.toMap(MethodSummary::method, summary -> summary));
+
+        assertEquals(byMethod.keySet(), summaries.keySet());
+        byMethod.forEach((method, logs) -> {
+            MethodSummary summary = summaries.get(method);
+            assertEquals(3L * logs.size(), summary.callCount());
+            assertEquals(3L * logs.stream().filter(log -> log.getStatus() == TransactionPhaseStatus.COMMITTED).count(),
+                    summary.committedCount());
+            assertEquals(summary.callCount(),
+                    summary.committedCount() + summary.rolledBackCount() + summary.erroredCount());
+            long totalMicros = logs.stream().mapToLong(TransactionLog::getDurationMicros).sum();
+            assertEquals(3 * totalMicros / 1_000.0, summary.totalDuration(), 1e-9);
+            assertEquals(logs.stream().mapToLong(TransactionLog::getDurationMicros).max().orElseThrow() / 1_000.0,
+                    summary.maxDuration());
+            assertEquals(logs.stream().mapToInt(log -> log.getExecutedQuires().size()).average().orElseThrow(),
+                    summary.averageQueryCount(), 1e-9);
+            assertEquals(logs.stream().mapToInt(MethodStatistics::connectionAcquisitionCountOf).average()
+                    .orElseThrow(), summary.averageConnectionAcquisitionCount(), 1e-9);
+            assertTrue(summary.p50() <= summary.p99() && summary.p99() >= summary.maxDuration()
+                    && summary.p99() <= summary.maxDuration() * 1.01);
+        });
+    }
+
+    private static void flatten(TransactionLog transactionLog, List<TransactionLog> flattened) {
+        flattened.add(transactionLog);
+        transactionLog.getChild().forEach(child -> flatten(child, flattened));
+    }
+
+    @Test
+    void testBatchSizeDistribution() {
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+
+        QueryList.Builder queries = new QueryList.Builder(new QueryDictionary(16), true);
+        queries.add("SELECT * FROM orders WHERE id = ?", 0L, 1_000L);
+        queries.add("INSERT INTO order_items VALUES (?, ?)", 2_000L, 5_000L, new BatchSummary(50, 50L, 0, 0));
+        queries.add("INSERT INTO audit VALUES (?)", 9_000L, 3_000L, new BatchSummary(1, 1L, 0, 0));
+        queries.add("INSERT INTO events VALUES (?)", 15_000L, 8_000L, new BatchSummary(5000, 0L, 5000, 0));
+
+        Instant start = Instant.now();
+        TransactionLog transactionLog = new TransactionLog(
+                UUID.randomUUID(), "OrderService.importOrders",
+                PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                start, start.plusMillis(30), new ConnectionSummary(1, 0, 30),
+                TransactionPhaseStatus.COMMITTED, "importer-1",
+                queries.build(), List.of(), List.of(), 1000
+        );
+        repository.save(transactionLog);
+
+        Map<BatchSizeRange, Long> distribution = repository.getBatchSizeDistributions()
+                .stream()
+                .collect(Collectors.toMap(BatchSizeDistribution::range, BatchSizeDistribution::count));
+        assertEquals(1L, distribution.get(BatchSizeRange.of(1, 1)));
+        assertEquals(1L, distribution.get(BatchSizeRange.of(26, 50)));
+        assertEquals(1L, distribution.get(BatchSizeRange.of(1001, Integer.MAX_VALUE)));
+        assertEquals(3L, distribution.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testFilterByNPlusOne() {
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(new TxBoardProperties());
+        TxLogUtils.createTestTransactionLogs().forEach(repository::save);
+
+        Instant start = Instant.now();
+        TransactionLog flaggedLog = new TransactionLog(
+                UUID.randomUUID(), "OrderService.listOrders",
+                PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT,
+                start, start.plusMillis(40), new ConnectionSummary(1, 0, 40),
+                TransactionPhaseStatus.COMMITTED, "main",
+                List.of(), List.of(), List.of(), 1000, List.of(),
+                new NPlusOneQuery("SELECT * FROM order_items WHERE order_id = ?", 12)
+        );
+        repository.save(flaggedLog);
+
+        PageResponse<TransactionLog> page = repository.findAll(
+                PageRequest.of(0, 10, Sort.UNSORTED, Filter.of("nPlusOne", true, Filter.Operator.EQUALS))
+        );
+        assertEquals(1L, page.getTotalElements());
+        assertEquals(flaggedLog, page.getContent().get(0));
+    }
+
+    @Test
+    void testIndexedFiltersMatchLinearScanAfterEviction() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(5);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(repository::save);
+        transactionLogs.subList(0, 3).forEach(repository::save);
+        List<TransactionLog> retained = repository.findAll();
+
+        FilterNode search = FilterGroup.of(List.of(
+                Filter.of("method", "service", Filter.Operator.CONTAINS),
+                Filter.of("thread", "service", Filter.Operator.CONTAINS)
+        ), FilterGroup.Logic.OR);
+        List<FilterNode> filters = List.of(
+                Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS),
+                Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.NOT_EQUALS),
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS),
+                        Filter.of("connectionOriented", true, Filter.Operator.EQUALS)
+                ), FilterGroup.Logic.AND),
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.ERRORED, Filter.Operator.EQUALS),
+                        Filter.of("status", TransactionPhaseStatus.ROLLED_BACK, Filter.Operator.EQUALS)
+                ), FilterGroup.Logic.OR),
+                FilterGroup.of(List.of(
+                        search, Filter.of("alarmingTransaction", false, Filter.Operator.EQUALS)
+                ), FilterGroup.Logic.AND)
+        );
+
+        for (FilterNode filter : filters) {
+            List<TransactionLog> expected = retained.stream()
+                    .filter(FilterPredicateFactory.compile(filter, TransactionLog.class))
+                    .toList();
+            PageResponse<TransactionLog> page = repository.findAll(PageRequest.of(0, 10, Sort.UNSORTED, filter));
+            assertEquals(expected.size(), page.getTotalElements());
+            assertEquals(expected, page.getContent());
+
+            if (expected.size() > 1) {
+                PageResponse<TransactionLog> secondPage = repository.findAll(PageRequest.of(1, 1, Sort.UNSORTED, filter));
+                assertEquals(List.of(expected.get(1)), secondPage.getContent());
+            }
+        }
+
+        assertEquals(retained.stream().filter(t -> t.getStatus() == TransactionPhaseStatus.COMMITTED).count(),
+                repository.countByTransactionStatus(TransactionPhaseStatus.COMMITTED));
+    }
+
+    @Test
+    void testTextSearchMatchesLinearScanAfterEviction() {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        List<FilterNode> filters = List.of(
+                Filter.of("executedQuires", "INSERT INTO", Filter.Operator.CONTAINS),
+                Filter.of("executedQuires", "inventory", Filter.Operator.CONTAINS),
+                Filter.of("executedQuires", "?", Filter.Operator.CONTAINS),
+                Filter.of("method", "Order", Filter.Operator.CONTAINS),
+                FilterGroup.of(List.of(
+                        Filter.of("method", "service", Filter.Operator.CONTAINS),
+                        Filter.of("thread", "service", Filter.Operator.CONTAINS)
+                ), FilterGroup.Logic.OR),
+                FilterGroup.of(List.of(
+                        Filter.of("executedQuires", "orders", Filter.Operator.CONTAINS),
+                        Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS)
+                ), FilterGroup.Logic.AND)
+        );
+
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            TxBoardProperties properties = new TxBoardProperties();
+            properties.getInMemory().setTransactionLogCapacity(5);
+            properties.getInMemory().setLayout(layout);
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+            transactionLogs.forEach(repository::save);
+            transactionLogs.subList(0, 3).forEach(repository::save);
+            List<TransactionLog> retained = repository.findAll();
+
+            for (FilterNode filter : filters) {
+                List<TransactionLog> expected = retained.stream()
+                        .filter(FilterPredicateFactory.compile(filter, TransactionLog.class))
+                        .toList();
+                PageResponse<TransactionLog> page = repository.findAll(PageRequest.of(0, 10, Sort.UNSORTED, filter));
+                assertEquals(expected.size(), page.getTotalElements());
+                assertEquals(expected.stream().map(TransactionLog::getTxId).toList(),
+                        page.getContent().stream().map(TransactionLog::getTxId).toList());
+            }
+        }
+    }
+
+    @Test
+    void testSortedPagesAreReadFromTheSortedIndexes() {
+        TxBoardProperties properties = new TxBoardProperties();
+        properties.getInMemory().setTransactionLogCapacity(7);
+        TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        transactionLogs.forEach(repository::save);
+        transactionLogs.forEach(repository::save);
+        List<TransactionLog> retained = repository.findAll();
+
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        FilterNode search = Filter.of("method", "service", Filter.Operator.CONTAINS);
+        List<Sort> sorts = List.of(
+                Sort.by("durationMicros", Sort.Direction.DESC),
+                Sort.by("durationMicros", Sort.Direction.ASC),
+                Sort.by("startTime", Sort.Direction.DESC),
+                Sort.by("startTime", Sort.Direction.ASC)
+        );
+
+        for (Sort sort : sorts) {
+            for (FilterNode filter : List.of(FilterNode.UNFILTERED, committed, search)) {
+                List<TransactionLog> matches = retained.stream()
+                        .filter(FilterPredicateFactory.compile(filter, TransactionLog.class))
+                        .toList();
+                List<TransactionLog> expected = SortUtils.sort(matches, sort);
+
+                for (int page = 0; page * 3 <= expected.size(); page++) {
+                    PageResponse<TransactionLog> response = repository.findAll(PageRequest.of(page, 3, sort, filter));
+                    assertEquals(expected.size(), response.getTotalElements());
+                    assertEquals(expected.subList(page * 3, Math.min(expected.size(), page * 3 + 3)),
+                            response.getContent());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testColumnarLayoutServesTheSameLogsAsObjectLayout() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        List<TransactionLogRepository> repositories = new ArrayList<>();
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            TxBoardProperties properties = new TxBoardProperties();
+            properties.getInMemory().setTransactionLogCapacity(7);
+            properties.getInMemory().setLayout(layout);
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+            transactionLogs.forEach(repository::save);
+            transactionLogs.subList(0, 4).forEach(repository::save);
+            repositories.add(repository);
+        }
+        TransactionLogRepository objects = repositories.get(0);
+        TransactionLogRepository columns = repositories.get(1);
+
+        assertEquals(mapper.writeValueAsString(objects.findAll()), mapper.writeValueAsString(columns.findAll()));
+        assertEquals(objects.count(), columns.count());
+        assertEquals(objects.averageDuration(), columns.averageDuration(), 1e-9);
+        assertEquals(objects.countByTransactionStatus(TransactionPhaseStatus.COMMITTED),
+                columns.countByTransactionStatus(TransactionPhaseStatus.COMMITTED));
+
+        List<FilterNode> filters = List.of(
+                FilterNode.UNFILTERED,
+                FilterGroup.of(List.of(
+                        Filter.of("method", "SERVICE", Filter.Operator.CONTAINS),
+                        Filter.of("thread", "processor", Filter.Operator.CONTAINS)
+                ), FilterGroup.Logic.OR),
+                FilterGroup.of(List.of(
+                        Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS),
+                        Filter.of("method", "OrderService.createOrder", Filter.Operator.NOT_EQUALS),
+                        Filter.of("duration", 100L, Filter.Operator.GREATER_THAN)
+                ), FilterGroup.Logic.AND)
+        );
+        for (FilterNode filter : filters) {
+            for (Sort sort : List.of(Sort.UNSORTED, Sort.by("startTime", Sort.Direction.DESC),
+                    Sort.by("method", Sort.Direction.ASC))) {
+                PageRequest pageRequest = PageRequest.of(0, 5, sort, filter);
+                assertEquals(mapper.writeValueAsString(objects.findAll(pageRequest)),
+                        mapper.writeValueAsString(columns.findAll(pageRequest)));
+            }
+        }
+    }
+
+    @Test
+    void testOffHeapStorageServesTheSameLogsAsObjectLayout() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        TxBoardProperties objectProperties = new TxBoardProperties();
+        objectProperties.getInMemory().setTransactionLogCapacity(7);
+        InMemoryTransactionLogRepository objects = new InMemoryTransactionLogRepository(objectProperties);
+        TxBoardProperties offHeapProperties = new TxBoardProperties();
+        offHeapProperties.getInMemory().setTransactionLogCapacity(7);
+        offHeapProperties.getInMemory().getOffHeap().setEnabled(true);
+        offHeapProperties.getInMemory().getOffHeap().setBudget(DataSize.ofKilobytes(64));
+        offHeapProperties.getInMemory().getOffHeap().setChunkSize(DataSize.ofKilobytes(8));
+        InMemoryTransactionLogRepository offHeap = new InMemoryTransactionLogRepository(offHeapProperties);
+        for (InMemoryTransactionLogRepository repository : List.of(objects, offHeap)) {
+            for (int i = 0; i < 10; i++) {
+                transactionLogs.forEach(repository::save);
+            }
+        }
+
+        assertEquals(mapper.writeValueAsString(objects.findAll()), mapper.writeValueAsString(offHeap.findAll()));
+        PageRequest pageRequest = PageRequest.of(1, 3, Sort.by("duration", Sort.Direction.DESC), FilterNode.UNFILTERED);
+        assertEquals(mapper.writeValueAsString(objects.findAll(pageRequest)),
+                mapper.writeValueAsString(offHeap.findAll(pageRequest)));
+
+        assertTrue(objects.getOffHeapStatistics().isEmpty());
+        OffHeapBlobStore.OffHeapStatistics statistics = offHeap.getOffHeapStatistics().orElseThrow();
+        assertTrue(statistics.usedBytes() > 0);
+        assertTrue(statistics.reservedBytes() <= DataSize.ofKilobytes(64).toBytes());
+        assertEquals(0, statistics.heapBlobs());
+    }
+
+    static List<TransactionLog> walkWithCursor(TransactionLogRepository repository, int size, Sort sort, FilterNode filter) {
+        List<TransactionLog> content = new ArrayList<>();
+        Cursor cursor = null;
+        do {
+            PageResponse<TransactionLog> response = repository.findAll(PageRequest.after(cursor, size, sort, filter));
+            content.addAll(response.getContent());
+            assertEquals(response.getNextCursor() != null, response.hasNext());
+            cursor = response.hasNext() ? Cursor.decode(response.getNextCursor()) : null;
+        } while (cursor != null);
+        return content;
+    }
+
+    @Test
+    void testCursorPagesMatchOffsetPages() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        FilterNode committed = Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS);
+        FilterNode search = Filter.of("method", "service", Filter.Operator.CONTAINS);
+        List<Sort> sorts = List.of(
+                Sort.UNSORTED,
+                Sort.by("duration", Sort.Direction.DESC),
+                Sort.by("durationMicros", Sort.Direction.ASC),
+                Sort.by("startTime", Sort.Direction.DESC),
+                Sort.by("startTime", Sort.Direction.ASC)
+        );
+
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            TxBoardProperties properties = new TxBoardProperties();
+            properties.getInMemory().setTransactionLogCapacity(7);
+            properties.getInMemory().setLayout(layout);
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+            transactionLogs.forEach(repository::save);
+            transactionLogs.forEach(repository::save);
+
+            for (Sort sort : sorts) {
+                for (FilterNode filter : List.of(FilterNode.UNFILTERED, committed, search)) {
+                    List<TransactionLog> expected = repository.findAll(PageRequest.of(0, 100, sort, filter)).getContent();
+                    assertEquals(mapper.writeValueAsString(expected),
+                            mapper.writeValueAsString(walkWithCursor(repository, 2, sort, filter)));
+
+                    PageResponse<TransactionLog> first = repository.findAll(PageRequest.after(null, 2, sort, filter));
+                    assertEquals(expected.size(), first.getTotalElements());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCursorPagesNeitherSkipNorRepeatLogsWhenLogsAreAppended() {
+        List<TransactionLog> transactionLogs = TxLogUtils.createTestTransactionLogs();
+        for (Sort sort : List.of(Sort.UNSORTED, Sort.by("duration", Sort.Direction.DESC))) {
+            TxBoardProperties properties = new TxBoardProperties();
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+            transactionLogs.forEach(repository::save);
+            List<TransactionLog> expected = repository.findAll(PageRequest.of(0, 100, sort, FilterNode.UNFILTERED))
+                    .getContent();
+            PageResponse<TransactionLog> first = repository.findAll(PageRequest.after(null, 3, sort, FilterNode.UNFILTERED));
+            Cursor cursor = Cursor.decode(first.getNextCursor());
+            // the copies follow the originals, in append order as well as among equal durations
+            transactionLogs.forEach(repository::save);
+            List<TransactionLog> walked = new ArrayList<>(first.getContent());
+            do {
+                PageResponse<TransactionLog> response = repository.findAll(
+                        PageRequest.after(cursor, 3, sort, FilterNode.UNFILTERED));
+                walked.addAll(response.getContent());
+                cursor = response.hasNext() ? Cursor.decode(response.getNextCursor()) : null;
+            } while (cursor != null);
+
+            // the walk continues right after the last log of the first page, the copies sorted before it are not seen
+            List<TransactionLog> all = repository.findAll(PageRequest.of(0, 100, sort, FilterNode.UNFILTERED)).getContent();
+            assertEquals(expected.subList(0, 3), walked.subList(0, 3));
+            assertEquals(all.subList(all.indexOf(walked.get(2)) + 1, all.size()), walked.subList(3, walked.size()));
+        }
+    }
+
+    @Test
+    void testCursorPagesWithAResidualFilterWalkPastSparseMatches() {
+        // only every 37th log lasts longer than 100ms, a range filter is only tested on the walked logs
+        List<TransactionLog> transactionLogs = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Instant start = Instant.parse("2025-08-20T10:00:00Z").plusSeconds(i);
+            transactionLogs.add(new TransactionLog(UUID.randomUUID(), "OrderService.shipOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT, start,
+                    start.plusMillis(i % 37 == 0 ? 200 + i : 5), new ConnectionSummary(1, 0, 5),
+                    TransactionPhaseStatus.COMMITTED, "worker-1", List.of(), List.of(), List.of(), 1000));
+        }
+        FilterNode filter = Filter.of("duration", 100L, Filter.Operator.GREATER_THAN);
+
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            TxBoardProperties properties = new TxBoardProperties();
+            properties.getInMemory().setLayout(layout);
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties);
+            transactionLogs.forEach(repository::save);
+
+            for (Sort sort : List.of(Sort.UNSORTED, Sort.by("duration", Sort.Direction.DESC))) {
+                List<UUID> expected = repository.findAll(PageRequest.of(0, 100, sort, filter)).getContent().stream()
+                        .map(TransactionLog::getTxId)
+                        .toList();
+                assertEquals(9, expected.size());
+                assertEquals(expected, walkWithCursor(repository, 2, sort, filter).stream()
+                        .map(TransactionLog::getTxId)
+                        .toList());
+
+                // the total is estimated by the candidates, at least the matches and at most the retained logs
+                PageResponse<TransactionLog> first = repository.findAll(PageRequest.after(null, 2, sort, filter));
+                assertTrue(first.getTotalElements() >= expected.size());
+                assertTrue(first.getTotalElements() <= transactionLogs.size());
+                assertTrue(first.hasNext());
+            }
+        }
+    }
+
+    @Test
+    void testCursorPagesRejectAnotherSortOrAnUnsupportedOne() {
+        PageResponse<TransactionLog> first = logRepository.findAll(
+                PageRequest.after(null, 2, Sort.by("duration", Sort.Direction.ASC), FilterNode.UNFILTERED));
+        Cursor cursor = Cursor.decode(first.getNextCursor());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PageRequest.after(cursor, 2, Sort.by("duration", Sort.Direction.DESC), FilterNode.UNFILTERED));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> logRepository.findAll(
+                PageRequest.after(null, 2, Sort.by("method", Sort.Direction.ASC), FilterNode.UNFILTERED)));
+
+        PageResponse<TransactionLog> offset = logRepository.findAll(PageRequest.of(0, 2));
+        assertTrue(offset.hasNext());
+        assertNull(offset.getNextCursor());
+        assertFalse(logRepository.findAll(PageRequest.after(null, 1000, Sort.UNSORTED, FilterNode.UNFILTERED)).hasNext());
+    }
+
+    @Test
+    void testStatementSearchMatchesTheRenderedStatementsOfTheTemplates() {
+        QueryDictionary dictionary = new QueryDictionary(16);
+        String[][] statements = {
+                {"SELECT * FROM orders WHERE id = 42", "UPDATE orders SET status = 'shipped' WHERE id = 42"},
+                {"SELECT * FROM orders WHERE id = 7"},
+                {"SELECT * FROM orders WHERE id = ?", "DELETE FROM carts WHERE user_id = ?"},
+                {"SELECT * FROM users WHERE id = 42"}
+        };
+        List<TransactionLog> transactionLogs = new ArrayList<>();
+        for (int i = 0; i < statements.length * 3; i++) {
+            // the second round of statements is captured without their literals
+            QueryList.Builder queries = new QueryList.Builder(dictionary, i / statements.length != 1);
+            for (String statement : statements[i % statements.length]) {
+                queries.add(statement);
+            }
+            Instant start = Instant.parse("2025-08-20T10:00:00Z").plusSeconds(i);
+            transactionLogs.add(new TransactionLog(UUID.randomUUID(), "OrderService.shipOrder",
+                    PropagationBehavior.REQUIRED, IsolationLevel.DEFAULT, start, start.plusMillis(5),
+                    new ConnectionSummary(1, 0, 5), TransactionPhaseStatus.COMMITTED, "worker-1",
+                    queries.build(), List.of(), List.of(), 1000));
+        }
+        List<String> values = List.of("id = 42", "id = ?", "orders where", "'shipped'", "= 7", "carts", "?", "4");
+
+        for (TxBoardProperties.InMemoryLayout layout : TxBoardProperties.InMemoryLayout.values()) {
+            TxBoardProperties properties = new TxBoardProperties();
+            properties.getInMemory().setTransactionLogCapacity(10);
+            properties.getInMemory().setLayout(layout);
+            TransactionLogRepository repository = new InMemoryTransactionLogRepository(properties, dictionary);
+            transactionLogs.forEach(repository::save);
+            List<TransactionLog> retained = repository.findAll();
+
+            for (String value : values) {
+                FilterNode filter = Filter.of("executedQuires", value, Filter.Operator.CONTAINS);
+                List<UUID> expected = retained.stream()
+                        .filter(FilterPredicateFactory.compile(filter, TransactionLog.class))
+                        .map(TransactionLog::getTxId)
+                        .toList();
+                PageResponse<TransactionLog> page = repository.findAll(PageRequest.of(0, 10, Sort.UNSORTED, filter));
+                assertEquals(expected, page.getContent().stream().map(TransactionLog::getTxId).toList(), value);
+            }
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RedisCounterWindowsTest {
+    private static final long TTL_SECONDS = 800;
+
+    @Test
+    void shouldCountTheLogsOfAWindowInOneHash() {
+        assertEquals("sketch:10", RedisCounterWindows.windowKey("sketch", TTL_SECONDS, 1_000));
+        assertEquals("sketch:10", RedisCounterWindows.windowKey("sketch", TTL_SECONDS, 1_099));
+        assertEquals("sketch:11", RedisCounterWindows.windowKey("sketch", TTL_SECONDS, 1_100));
+        assertEquals("sketch", RedisCounterWindows.windowKey("sketch", 0, 1_100));
+    }
+
+    @Test
+    void shouldReadTheWindowsOfTheLastTtl() {
+        assertEquals(List.of("sketch:2", "sketch:3", "sketch:4", "sketch:5", "sketch:6", "sketch:7", "sketch:8",
+                "sketch:9", "sketch:10"), RedisCounterWindows.windowKeys("sketch", TTL_SECONDS, 1_050));
+        assertEquals(List.of("sketch"), RedisCounterWindows.windowKeys("sketch", 0, 1_050));
+    }
+
+    @Test
+    void shouldSumTheCountersOfTheWindowsLeft() {
+        RedisJsonOperation redisJsonOperation = mock(RedisJsonOperation.class);
+        when(redisJsonOperation.getCounters(anyString())).thenReturn(Map.of());
+        // the older windows have expired with their logs
+        when(redisJsonOperation.getCounters("sketch:9")).thenReturn(Map.of("duration:3", 2L, "duration:7", 1L));
+        when(redisJsonOperation.getCounters("sketch:10")).thenReturn(Map.of("duration:3", 1L));
+
+        Map<String, Long> counters = RedisCounterWindows.read(redisJsonOperation, "sketch", TTL_SECONDS, 1_050);
+
+        assertEquals(Map.of("duration:3", 3L, "duration:7", 1L), counters);
+    }
+}
@@ -0,0 +1,114 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.model.RedisQueryReference;
+import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+import com.sdlc.pro.txboard.util.SqlNormalizer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisQueryDictionaryTest {
+    private static final Duration TTL = Duration.ofDays(7);
+
+    private final RedisJsonOperation redisJsonOperation = mock(RedisJsonOperation.class);
+    private final Clock clock = mock(Clock.class);
+
+    @Test
+    void shouldResolveATemplateMissingFromTheHashToAPlaceholder() {
+        RedisQueryDictionary dictionary = new RedisQueryDictionary(this.redisJsonOperation, 10, TTL, this.clock);
+        String id = RedisQueryDictionary.idOf("select * from users where id = ?");
+        when(this.redisJsonOperation.getHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY), anyList()))
+                .thenReturn(Map.of());
+
+        List<String> queries = dictionary.resolve(List.of(new RedisQueryReference(id, List.of("7"))));
+
+        assertEquals(List.of("/* unknown statement " + id + " */"), queries);
+    }
+
+    @Test
+    void shouldCacheTheTemplatesUpToTheCapacity() {
+        RedisQueryDictionary dictionary = new RedisQueryDictionary(this.redisJsonOperation, 1, TTL, this.clock);
+        List<String> queries = List.of("select * from users where id = 1", "select * from orders where id = 2");
+        Map<String, String> templates = new HashMap<>();
+        for (String query : queries) {
+            String template = SqlNormalizer.normalize(query).template();
+            templates.put(RedisQueryDictionary.idOf(template), template);
+        }
+
+        dictionary.toReferences(queries);
+        List<RedisQueryReference> references = dictionary.toReferences(queries);
+
+        // one of the templates is cached, the other one is written again
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, String>> written = ArgumentCaptor.forClass(Map.class);
+        verify(this.redisJsonOperation, times(2)).putHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY),
+                written.capture());
+        assertEquals(templates, written.getAllValues().get(0));
+        assertEquals(1, written.getAllValues().get(1).size());
+
+        when(this.redisJsonOperation.getHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY), anyList()))
+                .thenReturn(templates);
+        assertEquals(queries, dictionary.resolve(references));
+        verify(this.redisJsonOperation).getHashEntries(RedisQueryDictionary.DICTIONARY_KEY,
+                List.copyOf(written.getAllValues().get(1).keySet()));
+    }
+
+    @Test
+    void shouldExpireTheHashNoEarlierThanTheLogsReferencingIt() {
+        RedisQueryDictionary dictionary = new RedisQueryDictionary(this.redisJsonOperation, 10, TTL, this.clock);
+        List<String> queries = List.of("select * from users where id = 1");
+        when(this.clock.millis()).thenReturn(1_000L);
+
+        dictionary.toReferences(queries);
+
+        ArgumentCaptor<Long> expireSeconds = ArgumentCaptor.forClass(Long.class);
+        verify(this.redisJsonOperation).expire(eq(RedisQueryDictionary.DICTIONARY_KEY), expireSeconds.capture());
+        assertTrue(expireSeconds.getValue() >= TTL.toSeconds());
+
+        // cached within the refresh interval, neither written nor renewed
+        when(this.clock.millis()).thenReturn(1_000L + TTL.toMillis() / 2 - 1);
+        dictionary.toReferences(queries);
+        verify(this.redisJsonOperation).putHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY), anyMap());
+        verify(this.redisJsonOperation).expire(eq(RedisQueryDictionary.DICTIONARY_KEY), anyLong());
+
+        // renewed once the interval has passed, so the hash outlives the logs saved now
+        long renewedAt = 1_000L + TTL.toMillis() / 2;
+        when(this.clock.millis()).thenReturn(renewedAt);
+        dictionary.toReferences(queries);
+        verify(this.redisJsonOperation, times(2)).expire(RedisQueryDictionary.DICTIONARY_KEY, expireSeconds.getValue());
+        verify(this.redisJsonOperation).putHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY), anyMap());
+
+        // the hash may have expired unseen, the cached template is written again
+        when(this.clock.millis()).thenReturn(renewedAt + expireSeconds.getValue() * 1000);
+        dictionary.toReferences(queries);
+        verify(this.redisJsonOperation, times(2)).putHashEntries(eq(RedisQueryDictionary.DICTIONARY_KEY), anyMap());
+        verify(this.redisJsonOperation, times(3)).expire(RedisQueryDictionary.DICTIONARY_KEY, expireSeconds.getValue());
+    }
+
+    @Test
+    void shouldKeepTheHashWithoutExpiryForAZeroTtl() {
+        RedisQueryDictionary dictionary = new RedisQueryDictionary(this.redisJsonOperation, 10, Duration.ZERO,
+                this.clock);
+
+        dictionary.toReferences(List.of("select * from users where id = 1"));
+
+        verify(this.redisJsonOperation, never()).expire(eq(RedisQueryDictionary.DICTIONARY_KEY), anyLong());
+    }
+}
@@ -0,0 +1,57 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.config.TxBoardProperties;
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.RedisTransactionLog;
+import com.sdlc.pro.txboard.model.TransactionSummary;
+import com.sdlc.pro.txboard.redis.RedisJsonOperation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisTransactionLogSummaryTest {
+    private final RedisJsonOperation redisJsonOperation = mock(RedisJsonOperation.class);
+    private final TransactionLogRepository repository =
+            new RedisTransactionLogRepository(this.redisJsonOperation, new TxBoardProperties());
+
+    @Test
+    void shouldCountTheLegacyLogsByTheirMillisInTheMicrosTotals() {
+        // a legacy log of 12ms holding a 5ms connection, a new log of 3250us holding a 1200us connection
+        when(this.redisJsonOperation.countByFieldValue(RedisTransactionLog.class, "status", TransactionPhaseStatus.COMMITTED))
+                .thenReturn(2L);
+        this.stubSums("duration", 15, 3, "durationMicros", 3_250);
+        this.stubSums("connectionSummary.occupiedTime", 6, 1, "connectionSummary.occupiedTimeMicros", 1_200);
+        when(this.redisJsonOperation.sum(RedisTransactionLog.class, "connectionSummary.acquisitionCount"))
+                .thenReturn(2.0);
+
+        TransactionSummary summary = this.repository.getTransactionSummary();
+
+        assertEquals(15, summary.getTotalDuration());
+        assertEquals(15_250, summary.getTotalDurationMicros());
+        assertEquals(7.625, summary.getAverageDuration());
+        assertEquals(6_200, summary.getTotalConnectionOccupiedTimeMicros());
+        assertEquals(3.1, summary.getAverageConnectionOccupiedTime());
+
+        ArgumentCaptor<FilterNode> measured = ArgumentCaptor.forClass(FilterNode.class);
+        verify(this.redisJsonOperation).sum(eq(RedisTransactionLog.class), eq("duration"), measured.capture());
+        Filter filter = (Filter) measured.getValue();
+        assertEquals("durationMicros", filter.getProperty());
+        assertEquals(Filter.Operator.GREATER_THAN, filter.getOperator());
+        assertEquals(0L, filter.getValue());
+    }
+
+    private void stubSums(String millisField, double millis, double measuredMillis, String microsField, double micros) {
+        when(this.redisJsonOperation.sum(RedisTransactionLog.class, millisField)).thenReturn(millis);
+        when(this.redisJsonOperation.sum(eq(RedisTransactionLog.class), eq(millisField), any(FilterNode.class)))
+                .thenReturn(measuredMillis);
+        when(this.redisJsonOperation.sum(RedisTransactionLog.class, microsField)).thenReturn(micros);
+    }
+}
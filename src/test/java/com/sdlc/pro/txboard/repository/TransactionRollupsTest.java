@@ -0,0 +1,131 @@
+package com.sdlc.pro.txboard.repository;
+
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.RollupWindow;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.model.TransactionRollup;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionRollupsTest {
+    private static final Instant BASE_TIME = Instant.parse("2025-08-20T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock(BASE_TIME);
+    private final TransactionRollups rollups = new TransactionRollups(this.clock);
+
+    @Test
+    void shouldRollTheTransactionsUpPerSecondMinuteAndHour() {
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(5), 20, TransactionPhaseStatus.COMMITTED, 2, 10));
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(5), 40, TransactionPhaseStatus.ROLLED_BACK, 1, 30));
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(5), 60, TransactionPhaseStatus.ERRORED, 0, 0));
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(90), 10, TransactionPhaseStatus.COMMITTED, 1, 5));
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(90), 10, TransactionPhaseStatus.COMMITTED, 1, 5));
+        this.clock.set(BASE_TIME.plusSeconds(119));
+
+        List<TransactionRollup> seconds = this.rollups.getRollups(RollupWindow.SECOND);
+        assertEquals(RollupWindow.SECOND.retainedWindows(), seconds.size());
+        assertEquals(BASE_TIME, seconds.get(0).start());
+        assertEquals(BASE_TIME.plusSeconds(119), seconds.get(seconds.size() - 1).start());
+        TransactionRollup fifth = seconds.get(5);
+        assertEquals(3, fifth.transactionCount());
+        assertEquals(2, fifth.failedCount());
+        assertEquals(3, fifth.connectionAcquisitionCount());
+        assertEquals(40.0 / 3, fifth.connectionHoldTime(), 1e-9);
+        assertEquals(60.0, fifth.p95(), 60.0 / 32);
+        assertEquals(2, seconds.get(90).transactionCount());
+        assertEquals(5, seconds.stream().mapToLong(TransactionRollup::transactionCount).sum());
+
+        List<TransactionRollup> minutes = this.rollups.getRollups(RollupWindow.MINUTE);
+        assertEquals(RollupWindow.MINUTE.retainedWindows(), minutes.size());
+        assertEquals(BASE_TIME.plusSeconds(60), minutes.get(minutes.size() - 1).start());
+        assertEquals(3, minutes.get(minutes.size() - 2).transactionCount());
+        assertEquals(2, minutes.get(minutes.size() - 1).transactionCount());
+        assertEquals(60.0, minutes.get(minutes.size() - 2).p95(), 60.0 / 32);
+
+        List<TransactionRollup> hours = this.rollups.getRollups(RollupWindow.HOUR);
+        assertEquals(RollupWindow.HOUR.retainedWindows(), hours.size());
+        assertEquals(BASE_TIME, hours.get(hours.size() - 1).start());
+        assertEquals(5, hours.get(hours.size() - 1).transactionCount());
+        assertEquals(2, hours.get(hours.size() - 1).failedCount());
+        assertEquals(0, hours.get(0).transactionCount());
+    }
+
+    @Test
+    void shouldFoldTheReplacedWindowsIntoTheCoarserOnes() {
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(5), 20, TransactionPhaseStatus.COMMITTED, 1, 10));
+        // the same second slot two minutes later, the earlier second is folded into its minute
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(125), 20, TransactionPhaseStatus.COMMITTED, 1, 10));
+        // a late transaction of the replaced second is counted in its minute
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(5), 80, TransactionPhaseStatus.ERRORED, 1, 30));
+        this.clock.set(BASE_TIME.plusSeconds(125));
+
+        List<TransactionRollup> seconds = this.rollups.getRollups(RollupWindow.SECOND);
+        assertEquals(1, seconds.stream().mapToLong(TransactionRollup::transactionCount).sum());
+
+        List<TransactionRollup> minutes = this.rollups.getRollups(RollupWindow.MINUTE);
+        TransactionRollup first = minutes.get(minutes.size() - 3);
+        assertEquals(BASE_TIME, first.start());
+        assertEquals(2, first.transactionCount());
+        assertEquals(1, first.failedCount());
+        assertEquals(20.0, first.connectionHoldTime(), 1e-9);
+        assertEquals(80.0, first.p95(), 80.0 / 32);
+        assertEquals(0, minutes.get(minutes.size() - 2).transactionCount());
+        assertEquals(1, minutes.get(minutes.size() - 1).transactionCount());
+
+        // two hours later the first minute is replaced as well, its hour still counts it
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(7_205), 20, TransactionPhaseStatus.COMMITTED, 1, 10));
+        this.rollups.record(transactionLog(BASE_TIME.plusSeconds(7_325), 20, TransactionPhaseStatus.COMMITTED, 1, 10));
+        this.clock.set(BASE_TIME.plusSeconds(7_325));
+        List<TransactionRollup> hours = this.rollups.getRollups(RollupWindow.HOUR);
+        assertEquals(3, hours.get(hours.size() - 3).transactionCount());
+        assertEquals(1, hours.get(hours.size() - 3).failedCount());
+        assertEquals(0, hours.get(hours.size() - 2).transactionCount());
+        assertEquals(2, hours.get(hours.size() - 1).transactionCount());
+        assertEquals(5, hours.stream().mapToLong(TransactionRollup::transactionCount).sum());
+    }
+
+    private static TransactionLog transactionLog(Instant endTime, long durationMillis, TransactionPhaseStatus status,
+                                                 int acquisitionCount, long occupiedTime) {
+        return new TransactionLog(null, "OrderService.createOrder", PropagationBehavior.REQUIRED,
+                IsolationLevel.READ_COMMITTED, endTime.minusMillis(durationMillis), endTime,
+                new ConnectionSummary(acquisitionCount, 0, occupiedTime), status, "worker-1", List.of(), List.of(),
+                List.of(), 1000L);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
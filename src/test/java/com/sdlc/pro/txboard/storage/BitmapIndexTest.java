@@ -0,0 +1,52 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapIndexTest {
+
+    private static BitSet bits(int... slots) {
+        BitSet bitSet = new BitSet();
+        for (int slot : slots) {
+            bitSet.set(slot);
+        }
+        return bitSet;
+    }
+
+    @Test
+    void shouldMoveSlotToTheValueOfTheNewElement() {
+        BitmapIndex<TransactionPhaseStatus> index = new BitmapIndex<>();
+        index.update(0, null, TransactionPhaseStatus.COMMITTED);
+        index.update(1, null, TransactionPhaseStatus.ROLLED_BACK);
+        index.update(2, null, TransactionPhaseStatus.COMMITTED);
+        index.update(0, TransactionPhaseStatus.COMMITTED, TransactionPhaseStatus.ERRORED);
+
+        assertEquals(bits(2), index.equalTo(TransactionPhaseStatus.COMMITTED));
+        assertEquals(bits(0, 1), index.notEqualTo(TransactionPhaseStatus.COMMITTED));
+        assertEquals(1, index.count(TransactionPhaseStatus.ERRORED));
+    }
+
+    @Test
+    void shouldNotIndexNullValues() {
+        BitmapIndex<Boolean> index = new BitmapIndex<>();
+        index.update(0, null, null);
+        index.update(1, null, true);
+
+        assertEquals(bits(1), index.notEqualTo(false));
+        assertTrue(index.equalTo(false).isEmpty());
+        assertTrue(index.equalTo("not a boolean").isEmpty());
+    }
+
+    @Test
+    void shouldReturnCopiesOfTheBitmaps() {
+        BitmapIndex<Boolean> index = new BitmapIndex<>();
+        index.update(3, null, true);
+
+        index.equalTo(true).clear();
+        assertEquals(bits(3), index.equalTo(true));
+    }
+}
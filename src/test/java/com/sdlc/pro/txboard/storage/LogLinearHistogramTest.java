@@ -0,0 +1,151 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.sdlc.pro.txboard.model.LatencyPercentiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+
+    @Test
+    void shouldCoverTheTrackableValuesWithAdjacentBuckets() {
+        assertEquals(0, LogLinearHistogram.bucketOf(-5));
+        assertEquals(255, LogLinearHistogram.bucketOf(255));
+        assertEquals(LogLinearHistogram.BUCKET_COUNT - 1, LogLinearHistogram.bucketOf(Long.MAX_VALUE));
+
+        for (int bucket = 0; bucket < LogLinearHistogram.BUCKET_COUNT; bucket++) {
+            long lowest = LogLinearHistogram.lowestValueAt(bucket);
+            long highest = LogLinearHistogram.highestValueAt(bucket);
+            assertEquals(bucket, LogLinearHistogram.bucketOf(lowest));
+            assertEquals(bucket, LogLinearHistogram.bucketOf(highest));
+            assertTrue(highest - lowest <= lowest / 128, "bucket " + bucket + " is too wide");
+            if (bucket > 0) {
+                assertEquals(LogLinearHistogram.highestValueAt(bucket - 1) + 1, lowest);
+            }
+        }
+        assertEquals(LogLinearHistogram.MAX_TRACKABLE_VALUE,
+                LogLinearHistogram.highestValueAt(LogLinearHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    void shouldKeepThePercentilesWithinTheBucketError() {
+        Random random = new Random(21);
+        long[] values = new long[100_000];
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // a long tailed latency distribution from a few microseconds up to minutes
+            values[i] = (long) Math.exp(random.nextGaussian() * 2.5 + 8);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.totalCount());
+        for (double percentile : new double[]{1.0, 50.0, 95.0, 99.0, 99.9, 100.0}) {
+            long exact = values[(int) Math.round(percentile / 100.0 * values.length) - 1];
+            long estimated = histogram.valueAtPercentile(percentile);
+            assertTrue(estimated >= exact && estimated <= exact + exact / 128,
+                    percentile + ": " + estimated + " estimates " + exact);
+        }
+    }
+
+    @Test
+    void shouldMergeHistogramsByTheirBucketCounts() {
+        LogLinearHistogram fast = new LogLinearHistogram();
+        LogLinearHistogram slow = new LogLinearHistogram();
+        LogLinearHistogram all = new LogLinearHistogram();
+        for (int i = 1; i <= 1_000; i++) {
+            fast.record(i);
+            slow.record(i * 1_000L);
+            all.record(i);
+            all.record(i * 1_000L);
+        }
+
+        LogLinearHistogram merged = new LogLinearHistogram();
+        merged.add(fast);
+        merged.add(slow);
+        assertEquals(all.percentiles(), merged.percentiles());
+
+        LogLinearHistogram counted = new LogLinearHistogram();
+        for (int bucket = 0; bucket < LogLinearHistogram.BUCKET_COUNT; bucket++) {
+            if (all.countAt(bucket) != 0) {
+                counted.add(bucket, all.countAt(bucket));
+            }
+        }
+        assertEquals(all.percentiles(), counted.percentiles());
+        assertThrows(IllegalArgumentException.class, () -> counted.add(LogLinearHistogram.BUCKET_COUNT, 1));
+    }
+
+    @Test
+    void shouldCountAdjacentBucketsTogetherInACoarserHistogram() {
+        Random random = new Random(23);
+        LogLinearHistogram fine = new LogLinearHistogram();
+        LogLinearHistogram coarse = new LogLinearHistogram(2);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (long) Math.exp(random.nextGaussian() * 2.5 + 8);
+            fine.record(value);
+            coarse.record(value);
+        }
+
+        assertEquals(fine.totalCount(), coarse.totalCount());
+        for (double percentile : new double[]{1.0, 50.0, 95.0, 99.0, 99.9, 100.0}) {
+            long exact = fine.valueAtPercentile(percentile);
+            long estimated = coarse.valueAtPercentile(percentile);
+            // the values below 256 are counted by four instead of one by one
+            assertTrue(estimated >= exact && estimated <= exact + Math.max(3, exact / 32),
+                    percentile + ": " + estimated + " estimates " + exact);
+        }
+
+        LogLinearHistogram downsampled = new LogLinearHistogram(2);
+        downsampled.add(fine);
+        assertEquals(coarse.percentiles(), downsampled.percentiles());
+        assertThrows(IllegalArgumentException.class, () -> fine.add(coarse));
+        assertThrows(IllegalArgumentException.class, () -> new LogLinearHistogram(8));
+    }
+
+    @Test
+    void shouldReportThePercentilesInMillis() {
+        assertEquals(LatencyPercentiles.EMPTY, new LogLinearHistogram().percentiles());
+
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < 999; i++) {
+            histogram.record(100);
+        }
+        histogram.record(2_000_000);
+
+        LatencyPercentiles percentiles = histogram.percentiles();
+        assertEquals(1_000, percentiles.count());
+        assertEquals(0.1, percentiles.p50());
+        assertEquals(0.1, percentiles.p99());
+        assertEquals(0.1, percentiles.p999());
+        histogram.record(2_000_000);
+        assertEquals(2_000.0, histogram.percentiles().p999(), 2_000.0 / 128);
+    }
+
+    @Test
+    void shouldReadTheWrittenBuckets() throws Exception {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long value = 1; value < LogLinearHistogram.MAX_TRACKABLE_VALUE; value *= 3) {
+            histogram.record(value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo(new DataOutputStream(bytes));
+        LogLinearHistogram read = LogLinearHistogram.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int bucket = 0; bucket < LogLinearHistogram.BUCKET_COUNT; bucket++) {
+            assertEquals(histogram.countAt(bucket), read.countAt(bucket));
+        }
+        LogLinearHistogram replaced = new LogLinearHistogram();
+        replaced.record(42);
+        replaced.set(read);
+        assertEquals(histogram.percentiles(), replaced.percentiles());
+    }
+}
@@ -0,0 +1,80 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBlobStoreTest {
+
+    private static byte[] blob(int length, int seed) {
+        byte[] blob = new byte[length];
+        for (int i = 0; i < length; i++) {
+            blob[i] = (byte) (seed + i);
+        }
+        return blob;
+    }
+
+    @Test
+    void shouldReadBackTheWrittenBlobs() {
+        OffHeapBlobStore store = new OffHeapBlobStore(4, 64, 16);
+        store.put(0, blob(10, 1));
+        store.put(1, blob(10, 2));
+        store.put(2, new byte[0]);
+
+        assertArrayEquals(blob(10, 1), store.get(0));
+        assertArrayEquals(blob(10, 2), store.get(1));
+        assertArrayEquals(new byte[0], store.get(2));
+        assertNull(store.get(3));
+
+        OffHeapBlobStore.OffHeapStatistics statistics = store.getStatistics();
+        assertEquals(20, statistics.usedBytes());
+        assertEquals(32, statistics.reservedBytes());
+        assertEquals(2, statistics.chunks());
+    }
+
+    @Test
+    void shouldReuseTheChunksOfTheEvictedBlobs() {
+        OffHeapBlobStore store = new OffHeapBlobStore(4, 48, 16);
+        for (int i = 0; i < 100; i++) {
+            store.put(i % 4, blob(8, i));
+        }
+
+        for (int i = 96; i < 100; i++) {
+            assertArrayEquals(blob(8, i), store.get(i % 4));
+        }
+        OffHeapBlobStore.OffHeapStatistics statistics = store.getStatistics();
+        assertEquals(32, statistics.usedBytes());
+        assertEquals(48, statistics.reservedBytes());
+        assertEquals(1, statistics.pooledChunks());
+        assertEquals(0, statistics.heapFallbackCount());
+    }
+
+    @Test
+    void shouldKeepTheBlobsOnHeapPastTheBudget() {
+        OffHeapBlobStore store = new OffHeapBlobStore(4, 16, 16);
+        store.put(0, blob(12, 1));
+        store.put(1, blob(12, 2));
+        store.put(2, blob(20, 3));
+
+        assertArrayEquals(blob(12, 1), store.get(0));
+        assertArrayEquals(blob(12, 2), store.get(1));
+        assertArrayEquals(blob(20, 3), store.get(2));
+        assertEquals(2, store.getStatistics().heapBlobs());
+
+        store.put(1, blob(4, 4));
+        store.put(2, null);
+
+        assertArrayEquals(blob(4, 4), store.get(1));
+        assertNull(store.get(2));
+        OffHeapBlobStore.OffHeapStatistics statistics = store.getStatistics();
+        assertEquals(0, statistics.heapBlobs());
+        assertEquals(2, statistics.heapFallbackCount());
+        assertEquals(16, statistics.usedBytes());
+        assertEquals(16, statistics.budgetBytes());
+    }
+
+    @Test
+    void shouldRejectBudgetSmallerThanChunk() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBlobStore(4, 8, 16));
+    }
+}
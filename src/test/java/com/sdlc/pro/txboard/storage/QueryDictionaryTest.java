@@ -0,0 +1,104 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryDictionaryTest {
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryDictionary(0));
+    }
+
+    @Test
+    void shouldReturnSameIdForSameTemplate() {
+        QueryDictionary dictionary = new QueryDictionary(10);
+        int first = dictionary.intern("SELECT * FROM users WHERE id = ?");
+        int second = dictionary.intern("SELECT * FROM orders WHERE id = ?");
+
+        assertNotEquals(first, second);
+        assertEquals(first, dictionary.intern("SELECT * FROM users WHERE id = ?"));
+        assertEquals("SELECT * FROM orders WHERE id = ?", dictionary.templateOf(second));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void shouldShareFingerprintIdBetweenTemplatesOfTheSameShape() {
+        QueryDictionary dictionary = new QueryDictionary(10);
+        int twoIds = dictionary.intern("SELECT * FROM users WHERE id IN (\uE000, \uE000)");
+        int threeIds = dictionary.intern("SELECT * FROM users WHERE id IN (\uE000, \uE000, \uE000)");
+        int other = dictionary.intern("SELECT * FROM orders WHERE id = \uE000");
+
+        assertNotEquals(twoIds, threeIds);
+        assertEquals(dictionary.entryOf(twoIds).fingerprintId(), dictionary.entryOf(threeIds).fingerprintId());
+        assertNotEquals(dictionary.entryOf(twoIds).fingerprintId(), dictionary.entryOf(other).fingerprintId());
+    }
+
+    @Test
+    void shouldStopInterningWhenCapacityIsReached() {
+        QueryDictionary dictionary = new QueryDictionary(1);
+        dictionary.intern("SELECT 1");
+
+        assertEquals(QueryDictionary.NOT_INTERNED, dictionary.intern("SELECT 2"));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void shouldBuildQueryListResolvingTextOnAccess() {
+        QueryDictionary dictionary = new QueryDictionary(1);
+        QueryList.Builder builder = new QueryList.Builder(dictionary, true);
+        builder.add("SELECT * FROM users WHERE id = 1");
+        builder.add("SELECT * FROM users WHERE id = 2");
+        builder.add("DELETE FROM orders");
+
+        QueryList queryList = builder.build();
+        assertEquals(List.of("SELECT * FROM users WHERE id = 1", "SELECT * FROM users WHERE id = 2", "DELETE FROM orders"), queryList);
+        assertEquals(queryList.idAt(0), queryList.idAt(1));
+        assertEquals(QueryDictionary.NOT_INTERNED, queryList.idAt(2));
+
+        builder.clear();
+        assertTrue(builder.build().isEmpty());
+        assertEquals(3, queryList.size());
+    }
+
+    @Test
+    void shouldDropParametersWhenCapturingIsDisabled() {
+        QueryList.Builder builder = new QueryList.Builder(new QueryDictionary(10), false);
+        builder.add("SELECT * FROM users WHERE id = 1");
+
+        assertEquals(List.of("SELECT * FROM users WHERE id = ?"), builder.build());
+    }
+
+    @Test
+    void shouldAssignUniqueIdsConcurrently() throws InterruptedException {
+        QueryDictionary dictionary = new QueryDictionary(1_000);
+        int threads = 8;
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    int id = dictionary.intern("SELECT * FROM t" + i);
+                    ids.add(id);
+                    assertEquals("SELECT * FROM t" + i, dictionary.templateOf(id));
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(500, dictionary.size());
+        assertEquals(500, ids.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(-1));
+    }
+
+    @Test
+    void shouldKeepInsertionOrderUntilCapacityIsReached() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(5);
+        for (int i = 0; i < 3; i++) {
+            assertNull(ringBuffer.append(i));
+        }
+
+        assertEquals(3, ringBuffer.size());
+        assertEquals(List.of(0, 1, 2), ringBuffer.snapshot());
+    }
+
+    @Test
+    void shouldExposeSlotsOfRetainedElements() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+        assertEquals(0, ringBuffer.nextIndex());
+        assertEquals(0, ringBuffer.oldestIndex());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i % 3, ringBuffer.nextIndex());
+            ringBuffer.append(i);
+        }
+
+        assertEquals(1, ringBuffer.oldestIndex());
+        assertEquals(3, ringBuffer.elementAt(0));
+        assertEquals(1, ringBuffer.elementAt(1));
+        assertEquals(2, ringBuffer.elementAt(2));
+    }
+
+    @Test
+    void shouldEvictOldestElementFirst() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+        for (int i = 0; i < 3; i++) {
+            ringBuffer.append(i);
+        }
+
+        assertEquals(0, ringBuffer.append(3));
+        assertEquals(1, ringBuffer.append(4));
+        assertEquals(3, ringBuffer.size());
+        assertEquals(List.of(2, 3, 4), ringBuffer.snapshot());
+    }
+
+    @Test
+    void shouldRetainOnlyLatestElementsUnderConcurrentAppend() throws InterruptedException {
+        int capacity = 1000;
+        int writers = 8;
+        int appendsPerWriter = 10_000;
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(capacity);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch latch = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            executor.execute(() -> {
+                for (int i = 0; i < appendsPerWriter; i++) {
+                    ringBuffer.append(i);
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(capacity, ringBuffer.size());
+        assertEquals(capacity, ringBuffer.snapshot().size());
+    }
+
+    @Test
+    void shouldVisitRetainedElementsFromTheGivenSequence() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(3);
+        for (int i = 0; i < 5; i++) {
+            ringBuffer.append(i * 10);
+        }
+
+        List<Long> sequences = new ArrayList<>();
+        List<Integer> elements = new ArrayList<>();
+        ringBuffer.forEachFrom(0, (sequence, element) -> {
+            sequences.add(sequence);
+            return elements.add(element);
+        });
+        assertEquals(List.of(2L, 3L, 4L), sequences);
+        assertEquals(List.of(20, 30, 40), elements);
+
+        elements.clear();
+        ringBuffer.forEachFrom(3, (sequence, element) -> elements.add(element) && elements.size() < 1);
+        assertEquals(List.of(30), elements);
+
+        elements.clear();
+        ringBuffer.forEachFrom(5, (sequence, element) -> elements.add(element));
+        assertTrue(elements.isEmpty());
+    }
+}
@@ -0,0 +1,411 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLogTest {
+    private static final Duration ROLL_INTERVAL = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private static byte[] payload(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> scan(SegmentedLog log, long fromKey, long toKey) {
+        List<String> payloads = new ArrayList<>();
+        log.scan(fromKey, toKey, (address, key, buffer, offset, length) -> {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            payloads.add(new String(bytes, StandardCharsets.UTF_8));
+            return true;
+        });
+        return payloads;
+    }
+
+    @Test
+    void shouldReadBackAppendedRecords() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            List<Long> addresses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                addresses.add(log.append(i, payload(i)));
+            }
+
+            assertEquals(100, log.recordCount());
+            assertTrue(log.segmentCount() > 1);
+            for (int i = 0; i < 100; i++) {
+                assertArrayEquals(payload(i), log.read(addresses.get(i), 0));
+            }
+            assertEquals("cord-7", new String(log.read(addresses.get(7), 2), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldRecoverRecordsWhenReopened() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            for (int i = 0; i < 50; i++) {
+                log.append(i, payload(i));
+            }
+        }
+
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            assertEquals(50, log.recordCount());
+            log.append(50, payload(50));
+            List<String> payloads = scan(log, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(51, payloads.size());
+            assertEquals("record-0", payloads.get(0));
+            assertEquals("record-50", payloads.get(50));
+        }
+    }
+
+    @Test
+    void shouldScanOnlyTheRecordsInTheKeyRange() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                // nearly ordered keys, like the start times of transactions completing out of order
+                long key = i % 2 == 0 ? i : i - 3;
+                log.append(key, payload(i));
+                if (key >= 500 && key <= 509) {
+                    expected.add("record-" + i);
+                }
+            }
+
+            assertEquals(expected, scan(log, 500, 509));
+            assertTrue(scan(log, 5000, 6000).isEmpty());
+        }
+    }
+
+    @Test
+    void shouldScanFromTheGivenIndex() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 512, ROLL_INTERVAL)) {
+            for (int i = 0; i < 300; i++) {
+                log.append(i, payload(i));
+            }
+
+            List<String> payloads = new ArrayList<>();
+            log.scanFrom(137, (address, key, buffer, offset, length) -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                payloads.add(new String(bytes, StandardCharsets.UTF_8));
+                return payloads.size() < 3;
+            });
+            assertEquals(List.of("record-137", "record-138", "record-139"), payloads);
+        }
+    }
+
+    @Test
+    void shouldScanTheRecordsInTheKeyRangeAfterTheGivenAddress() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            List<Long> addresses = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                addresses.add(log.append(i % 2 == 0 ? i : i - 3, payload(i)));
+            }
+
+            List<String> payloads = new ArrayList<>();
+            log.scanAfter(addresses.get(300) + 1, 600, 700, (address, key, buffer, offset, length) -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                payloads.add(new String(bytes, StandardCharsets.UTF_8));
+                return payloads.size() < 3;
+            });
+            assertEquals(List.of("record-600", "record-602", "record-603"), payloads);
+        }
+    }
+
+    @Test
+    void shouldStepOverTheRunsRuledOutByTheKeyRangeFilter() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            for (int i = 0; i < 1000; i++) {
+                log.append(i, payload(i));
+            }
+
+            long[] visited = new long[1];
+            log.scan(Long.MIN_VALUE, Long.MAX_VALUE, (minKey, maxKey) -> minKey < 100,
+                    (address, key, buffer, offset, length) -> {
+                        visited[0]++;
+                        return true;
+                    });
+            // the runs of the records 0 to 127
+            assertEquals(2L * SegmentedLog.INDEX_INTERVAL, visited[0]);
+        }
+    }
+
+    @Test
+    void shouldReadASnapshotAsItWasCaptured() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            List<Long> addresses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                addresses.add(log.append(i, payload(i)));
+            }
+            SegmentedLog.Snapshot snapshot = log.snapshot();
+            List<String> captured = scan(log, Long.MIN_VALUE, Long.MAX_VALUE);
+
+            // appended, dropped and compacted after the capture
+            for (int i = 100; i < 150; i++) {
+                log.append(i, payload(i));
+            }
+            log.retain(0, Long.MIN_VALUE);
+            log.compact(Long.MAX_VALUE);
+
+            List<String> payloads = new ArrayList<>();
+            snapshot.scan(Long.MIN_VALUE, Long.MAX_VALUE, (address, key, buffer, offset, length) -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                payloads.add(new String(bytes, StandardCharsets.UTF_8));
+                return true;
+            });
+            assertEquals(captured, payloads);
+            assertEquals(100, snapshot.recordCount());
+            assertArrayEquals(payload(3), snapshot.read(addresses.get(3), 0));
+        }
+    }
+
+    @Test
+    void shouldDropTheOldestSegmentsPastTheRetention() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(i, payload(i));
+            }
+            int segments = log.segmentCount();
+
+            long deleted = log.retain(Long.MAX_VALUE, 40);
+            assertTrue(deleted > 0 && deleted <= 40);
+            assertEquals(100 - deleted, log.recordCount());
+            assertTrue(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-40"));
+
+            log.retain(0, Long.MIN_VALUE);
+            assertEquals(1, log.segmentCount());
+            assertTrue(log.segmentCount() < segments);
+            assertTrue(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-99"));
+        }
+    }
+
+    @Test
+    void shouldCountTheDeletedSegmentsStillMappedAgainstTheRetention() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            List<Long> addresses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                addresses.add(log.append(i, payload(i)));
+            }
+            SegmentedLog.Snapshot snapshot = log.snapshot();
+            long sizeBytes = log.sizeBytes();
+
+            log.retain(Long.MAX_VALUE, 40);
+            // the snapshot keeps the mappings of the deleted segments alive
+            long unreleasedBytes = log.unreleasedBytes();
+            assertEquals(sizeBytes - log.sizeBytes(), unreleasedBytes);
+
+            int segments = log.segmentCount();
+            assertEquals(0, log.retain(sizeBytes, Long.MIN_VALUE));
+            assertTrue(log.retain(sizeBytes - unreleasedBytes / 2, Long.MIN_VALUE) > 0);
+            assertTrue(log.segmentCount() < segments);
+            assertTrue(log.sizeBytes() + log.unreleasedBytes() <= sizeBytes);
+            assertArrayEquals(payload(3), snapshot.read(addresses.get(3), 0));
+        }
+    }
+
+    @Test
+    void shouldRollTheActiveSegmentAfterTheRollInterval() throws InterruptedException {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, Duration.ofMillis(1))) {
+            log.append(0, payload(0));
+            Thread.sleep(5);
+            log.append(1, payload(1));
+
+            assertEquals(2, log.segmentCount());
+        }
+    }
+
+    @Test
+    void shouldKeepARecordLargerThanTheSegmentSize() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 64, ROLL_INTERVAL)) {
+            byte[] large = new byte[1000];
+            large[999] = 7;
+            long address = log.append(0, large);
+
+            assertArrayEquals(large, log.read(address, 0));
+        }
+    }
+    @Test
+    void shouldTruncateATornTail() throws IOException {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(i, payload(i));
+            }
+        }
+        Path segment = this.segmentFiles().get(0);
+        long end;
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            end = log.sizeBytes();
+        }
+        // a record whose payload has not been completely written when the process was killed
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(24).putInt(40).putInt(7).putLong(10).putLong(42).flip(), end);
+        }
+
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            assertEquals(1, log.truncatedSegments());
+            assertEquals(10, log.recordCount());
+            log.append(10, payload(10));
+        }
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            assertEquals(0, log.truncatedSegments());
+            List<String> payloads = scan(log, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(11, payloads.size());
+            assertEquals("record-10", payloads.get(10));
+        }
+    }
+
+    @Test
+    void shouldDropTheRecordsFromACorruptedOneOn() throws IOException {
+        long corrupted = 0;
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            for (int i = 0; i < 10; i++) {
+                long address = log.append(i, payload(i));
+                if (i == 6) {
+                    corrupted = address;
+                }
+            }
+        }
+        // a flipped byte in the payload of the seventh record
+        try (FileChannel channel = FileChannel.open(this.segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), (int) corrupted + 16);
+        }
+
+        try (SegmentedLog log = new SegmentedLog(this.directory, 4096, ROLL_INTERVAL)) {
+            assertEquals(1, log.truncatedSegments());
+            assertEquals(List.of("record-0", "record-1", "record-2", "record-3", "record-4", "record-5"),
+                    scan(log, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void shouldOpenTheSealedSegmentsFromTheirIndexOrByAScan() throws IOException {
+        List<String> expected;
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(i, payload(i));
+            }
+            expected = scan(log, 20, 60);
+        }
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            assertEquals(100, log.recordCount());
+            assertEquals(expected, scan(log, 20, 60));
+        }
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path index : files.filter(file -> file.toString().endsWith(".idx")).toList()) {
+                Files.delete(index);
+            }
+        }
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            assertEquals(100, log.recordCount());
+            assertEquals(expected, scan(log, 20, 60));
+        }
+    }
+
+    @Test
+    void shouldCompactTheMostlyExpiredSegments() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 512, ROLL_INTERVAL)) {
+            for (int i = 0; i < 100; i++) {
+                // the keys of the first records are interleaved with late ones
+                log.append(i % 3 == 0 && i < 60 ? 1000 + i : i, payload(i));
+            }
+            long size = log.sizeBytes();
+            List<String> expected = scan(log, 50, Long.MAX_VALUE);
+
+            long dropped = log.compact(50);
+            assertTrue(dropped > 0);
+            assertEquals(100 - dropped, log.recordCount());
+            assertTrue(log.sizeBytes() < size);
+            assertEquals(expected, scan(log, 50, Long.MAX_VALUE));
+            assertTrue(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-3"));
+        }
+        try (SegmentedLog log = new SegmentedLog(this.directory, 512, ROLL_INTERVAL)) {
+            assertTrue(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-3"));
+            assertFalse(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-1"));
+        }
+    }
+
+    @Test
+    void shouldApplyACompactionRewrittenWhileTheLogWentOn() throws IOException {
+        List<String> expected;
+        try (SegmentedLog log = new SegmentedLog(this.directory, 512, ROLL_INTERVAL)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(i % 3 == 0 && i < 60 ? 1000 + i : i, payload(i));
+            }
+            SegmentedLog.Compaction compaction = log.planCompaction(50);
+            compaction.rewrite();
+
+            // appended and retained before the rewrites are swapped in, the rewrite of the dropped segment is discarded
+            for (int i = 100; i < 120; i++) {
+                log.append(i, payload(i));
+            }
+            log.retain(log.sizeBytes() - 1, Long.MIN_VALUE);
+            long recordCount = log.recordCount();
+            expected = scan(log, 50, Long.MAX_VALUE);
+
+            long dropped = log.applyCompaction(compaction);
+            assertTrue(dropped > 0);
+            assertEquals(recordCount - dropped, log.recordCount());
+            assertEquals(expected, scan(log, 50, Long.MAX_VALUE));
+            assertTrue(scan(log, Long.MIN_VALUE, Long.MAX_VALUE).contains("record-119"));
+            try (Stream<Path> files = Files.list(this.directory)) {
+                assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+            }
+        }
+        try (SegmentedLog log = new SegmentedLog(this.directory, 512, ROLL_INTERVAL)) {
+            assertEquals(expected, scan(log, 50, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void shouldScanTheRecordsAfterTheLastCheckpoint() {
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            assertTrue(log.lastCheckpoint().isEmpty());
+            for (int i = 0; i < 30; i++) {
+                log.append(i, payload(i));
+            }
+            log.checkpoint(new byte[]{1, 2, 3});
+            for (int i = 30; i < 40; i++) {
+                log.append(i, payload(i));
+            }
+        }
+
+        try (SegmentedLog log = new SegmentedLog(this.directory, 256, ROLL_INTERVAL)) {
+            SegmentedLog.Checkpoint checkpoint = log.lastCheckpoint().orElseThrow();
+            assertArrayEquals(new byte[]{1, 2, 3}, checkpoint.state());
+
+            List<String> payloads = new ArrayList<>();
+            log.scanAfter(checkpoint.address(), (address, key, buffer, offset, length) -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                payloads.add(new String(bytes, StandardCharsets.UTF_8));
+                return true;
+            });
+            assertEquals(10, payloads.size());
+            assertEquals("record-30", payloads.get(0));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedLongIndexTest {
+
+    private static List<Long> valuesOf(SortedLongIndex index, boolean ascending, int skip) {
+        List<Long> values = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = index.values(ascending, skip);
+        while (iterator.hasNext()) {
+            values.add(iterator.nextLong());
+        }
+        return values;
+    }
+
+    @Test
+    void shouldWalkPairsInKeyOrderWithEqualKeysInValueOrder() {
+        SortedLongIndex index = new SortedLongIndex();
+        index.add(20, 1);
+        index.add(10, 2);
+        index.add(20, 3);
+        index.add(30, 4);
+        index.add(20, 0);
+
+        assertEquals(List.of(2L, 0L, 1L, 3L, 4L), valuesOf(index, true, 0));
+        assertEquals(List.of(4L, 0L, 1L, 3L, 2L), valuesOf(index, false, 0));
+        assertEquals(List.of(1L, 3L, 2L), valuesOf(index, false, 2));
+        assertEquals(List.of(3L, 4L), valuesOf(index, true, 3));
+        assertTrue(valuesOf(index, false, 5).isEmpty());
+    }
+
+    private static List<Long> valuesAfter(SortedLongIndex index, boolean ascending, long key, long value) {
+        List<Long> values = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = index.valuesAfter(ascending, key, value);
+        while (iterator.hasNext()) {
+            values.add(iterator.nextLong());
+        }
+        return values;
+    }
+
+    @Test
+    void shouldWalkPairsFollowingAGivenPair() {
+        SortedLongIndex index = new SortedLongIndex();
+        index.add(20, 1);
+        index.add(10, 2);
+        index.add(20, 3);
+        index.add(30, 4);
+        index.add(20, 0);
+
+        assertEquals(List.of(3L, 4L), valuesAfter(index, true, 20, 1));
+        assertEquals(List.of(3L, 2L), valuesAfter(index, false, 20, 1));
+        assertEquals(List.of(0L, 1L, 3L, 4L), valuesAfter(index, true, 10, 2));
+        assertEquals(List.of(2L), valuesAfter(index, false, 20, 3));
+        assertTrue(valuesAfter(index, true, 30, 4).isEmpty());
+        assertTrue(valuesAfter(index, false, 10, 2).isEmpty());
+
+        // the pair of the cursor was removed meanwhile
+        assertTrue(index.remove(20, 1));
+        assertEquals(List.of(3L, 4L), valuesAfter(index, true, 20, 1));
+        assertEquals(List.of(3L, 2L), valuesAfter(index, false, 20, 1));
+        assertEquals(List.of(4L), valuesAfter(index, true, 25, 0));
+        assertEquals(List.of(0L, 3L, 2L), valuesAfter(index, false, 25, 0));
+    }
+
+    @Test
+    void shouldRemoveOnlyPresentPairs() {
+        SortedLongIndex index = new SortedLongIndex();
+        index.add(5, 1);
+
+        assertFalse(index.remove(5, 2));
+        assertTrue(index.remove(5, 1));
+        assertFalse(index.remove(5, 1));
+        assertEquals(0, index.size());
+        assertFalse(index.values(true, 0).hasNext());
+    }
+
+    @Test
+    void shouldMatchSortedSetUnderEvictingUpdates() {
+        Random random = new Random(11);
+        int capacity = 5_000;
+        long[] keys = new long[20_000];
+        SortedLongIndex index = new SortedLongIndex();
+        Comparator<long[]> byKeyAndValue = Comparator.<long[]>comparingLong(pair -> pair[0]).thenComparingLong(pair -> pair[1]);
+        TreeSet<long[]> expected = new TreeSet<>(byKeyAndValue);
+
+        for (int sequence = 0; sequence < keys.length; sequence++) {
+            keys[sequence] = random.nextInt(2_000);
+            if (sequence >= capacity) {
+                assertTrue(index.remove(keys[sequence - capacity], sequence - capacity));
+                expected.remove(new long[]{keys[sequence - capacity], sequence - capacity});
+            }
+            index.add(keys[sequence], sequence);
+            expected.add(new long[]{keys[sequence], sequence});
+        }
+
+        List<Long> ascending = expected.stream().map(pair -> pair[1]).toList();
+        List<Long> descending = expected.stream()
+                .sorted(Comparator.<long[]>comparingLong(pair -> -pair[0]).thenComparingLong(pair -> pair[1]))
+                .map(pair -> pair[1])
+                .toList();
+
+        assertEquals(capacity, index.size());
+        assertEquals(ascending, valuesOf(index, true, 0));
+        assertEquals(descending, valuesOf(index, false, 0));
+        for (int skip : new int[]{1, 511, 512, 1_000, 2_500, 4_999}) {
+            assertEquals(ascending.subList(skip, capacity), valuesOf(index, true, skip));
+            assertEquals(descending.subList(skip, capacity), valuesOf(index, false, skip));
+        }
+
+        List<long[]> ascendingPairs = new ArrayList<>(expected);
+        List<long[]> descendingPairs = expected.stream()
+                .sorted(Comparator.<long[]>comparingLong(pair -> -pair[0]).thenComparingLong(pair -> pair[1]))
+                .toList();
+        for (int position : new int[]{0, 511, 512, 1_000, 2_500, 4_999}) {
+            long[] pair = ascendingPairs.get(position);
+            assertEquals(ascending.subList(position + 1, capacity), valuesAfter(index, true, pair[0], pair[1]));
+            pair = descendingPairs.get(position);
+            assertEquals(descending.subList(position + 1, capacity), valuesAfter(index, false, pair[0], pair[1]));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sdlc.pro.txboard.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private static BitSet bits(int... slots) {
+        BitSet bitSet = new BitSet();
+        for (int slot : slots) {
+            bitSet.set(slot);
+        }
+        return bitSet;
+    }
+
+    @Test
+    void shouldFindSlotsContainingTheValueIgnoringTheCase() {
+        TextIndex index = new TextIndex(4);
+        index.update(0, List.of("OrderService.createOrder"));
+        index.update(1, List.of("PaymentService.processPayment"));
+        index.update(2, List.of("OrderService.cancelOrder"));
+
+        assertEquals(bits(0, 2), index.contains("orderservice"));
+        assertEquals(bits(1), index.contains("PROCESS"));
+        assertEquals(bits(0, 1, 2), index.contains("Service."));
+        assertTrue(index.contains("refund").isEmpty());
+        // every trigram is present, the verification drops the false positive
+        assertTrue(index.contains("orderorder").isEmpty());
+    }
+
+    @Test
+    void shouldMatchAnyTextOfAMultiValuedSlot() {
+        TextIndex index = new TextIndex(3);
+        index.update(0, List.of("SELECT * FROM orders WHERE id = ?", "UPDATE inventory SET quantity = ?"));
+        index.update(1, List.of("SELECT * FROM users"));
+        index.update(2, List.of());
+
+        assertEquals(bits(0), index.contains("inventory"));
+        assertEquals(bits(0, 1), index.contains("select * from"));
+        assertEquals(3, index.textCount());
+    }
+
+    @Test
+    void shouldDropTheTextsNoSlotHoldsAnymore() {
+        TextIndex index = new TextIndex(3);
+        index.update(0, List.of("OrderService.createOrder"));
+        index.update(1, List.of("OrderService.createOrder"));
+        index.update(2, List.of("PaymentService.processPayment"));
+        assertEquals(2, index.textCount());
+
+        index.clear(0);
+        assertEquals(bits(1), index.contains("create"));
+        index.update(1, List.of("RefundService.refund"));
+        assertTrue(index.contains("create").isEmpty());
+        assertEquals(bits(1), index.contains("refund"));
+        assertEquals(2, index.textCount());
+
+        index.clear(1);
+        index.clear(2);
+        assertEquals(0, index.textCount());
+        assertTrue(index.contains("service").isEmpty());
+    }
+
+    @Test
+    void shouldVerifyShortAndNonAsciiValuesOnAllTexts() {
+        TextIndex index = new TextIndex(3);
+        index.update(0, List.of("tx-worker-1"));
+        index.update(1, List.of("Überweisung"));
+        index.update(2, Arrays.asList(null, "main"));
+
+        assertEquals(bits(1, 2), index.contains("I"));
+        assertEquals(bits(0), index.contains("-1"));
+        assertEquals(bits(1), index.contains("über"));
+        assertEquals(bits(0, 1, 2), index.contains(""));
+    }
+
+    @Test
+    void shouldSearchTheTextsByTheirSearchText() {
+        TextIndex index = new TextIndex(2, text -> text.replace('#', '?'));
+        index.update(0, List.of("SELECT * FROM orders WHERE id = #"));
+        index.update(1, List.of("SELECT * FROM orders WHERE id = #", "DELETE FROM carts"));
+
+        assertEquals(bits(0, 1), index.contains("id = ?"));
+        assertTrue(index.contains("#").isEmpty());
+        assertEquals(bits(1), index.contains("carts"));
+        assertEquals(2, index.textCount());
+    }
+
+    @Test
+    void shouldReuseTheIdsOfDroppedTextsOnceTheirPostingsAreRemoved() {
+        TextIndex index = new TextIndex(2);
+        index.update(0, List.of("OrderService.createOrder"));
+        assertEquals(bits(0), index.contains("create"));
+
+        // the dropped text and the text interned in its place are posted by the next search
+        index.update(0, List.of("PaymentService.processPayment"));
+        index.update(1, List.of("OrderService.createOrder"));
+        index.update(1, List.of("RefundService.refund"));
+        assertTrue(index.contains("create").isEmpty());
+        assertEquals(bits(0), index.contains("payment"));
+        assertEquals(bits(1), index.contains("refund"));
+
+        for (int i = 0; i < 5_000; i++) {
+            index.update(i % 2, List.of("Service" + i));
+        }
+        assertEquals(2, index.textCount());
+        assertEquals(bits(1), index.contains("service4999"));
+        assertEquals(bits(0, 1), index.contains("service"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.sdlc.pro.txboard.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sdlc.pro.txboard.enums.IsolationLevel;
+import com.sdlc.pro.txboard.enums.PropagationBehavior;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.BatchSummary;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.NPlusOneQuery;
+import com.sdlc.pro.txboard.model.TransactionEvent;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import com.sdlc.pro.txboard.util.TxLogUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogCodecTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static String json(Object value) throws Exception {
+        return MAPPER.writeValueAsString(value);
+    }
+
+    private static TransactionLog capturedLog(QueryDictionary dictionary) {
+        QueryList.Builder builder = new QueryList.Builder(dictionary, true);
+        builder.add("SELECT * FROM orders WHERE id = 42", 1_000L, 250_000L);
+        builder.add("INSERT INTO audit (action) VALUES ('CREATE')", 300_000L, 80_000L, BatchSummary.of(3, new int[]{1, 1, -3}));
+        QueryList queries = builder.build();
+
+        Instant start = Instant.parse("2025-08-20T10:45:00.123456789Z");
+        TransactionLog inner = new TransactionLog(null, "InventoryService.reserve", PropagationBehavior.REQUIRES_NEW,
+                IsolationLevel.SERIALIZABLE, start.plusMillis(1), start.plusMillis(5), 4_321L, null,
+                TransactionPhaseStatus.ROLLED_BACK, "worker-1", List.of("SELECT 1"), List.of(), null, 1000L, null,
+                new NPlusOneQuery("SELECT * FROM items WHERE id = ?", 12));
+
+        return new TransactionLog(UUID.randomUUID(), "OrderService.createOrder", PropagationBehavior.REQUIRED,
+                IsolationLevel.READ_COMMITTED, start, start.plusMillis(1_500), 1_499_876L,
+                ConnectionSummary.ofMicros(2, 1, 1_234_567L), TransactionPhaseStatus.COMMITTED, "http-nio-8080-exec-1",
+                queries, List.of(inner), List.of(
+                        TransactionEvent.of(TransactionEvent.Type.TRANSACTION_START, start, "OrderService.createOrder"),
+                        new TransactionEvent(TransactionEvent.Type.CONNECTION_ACQUIRED, start, "Connection Acquired [1]")
+                ), 1000L, List.of("UPDATE stats SET count = count + 1"), null);
+    }
+
+    @Test
+    void shouldRoundTripLogWithDictionaryIds() throws Exception {
+        QueryDictionary dictionary = new QueryDictionary(16);
+        TransactionLogCodec codec = new TransactionLogCodec(dictionary);
+        TransactionLog transactionLog = capturedLog(dictionary);
+
+        TransactionLog decoded = codec.decode(codec.encode(transactionLog));
+
+        assertEquals(json(transactionLog), json(decoded));
+        assertTrue(decoded.isNPlusOne());
+        assertTrue(decoded.isAlarmingTransaction());
+        assertEquals(transactionLog.getBatches(), decoded.getBatches());
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void shouldWriteTemplatesWhenBytesOutliveTheDictionary() throws Exception {
+        TransactionLog transactionLog = capturedLog(new QueryDictionary(16));
+        QueryDictionary otherDictionary = new QueryDictionary(16);
+        otherDictionary.intern("SELECT now()");
+
+        TransactionLogCodec codec = new TransactionLogCodec(otherDictionary, false);
+        TransactionLog decoded = codec.decode(codec.encode(transactionLog));
+
+        assertEquals(json(transactionLog), json(decoded));
+        assertEquals(3, otherDictionary.size());
+    }
+
+    @Test
+    void shouldRoundTripPlainLogsAndDetails() throws Exception {
+        QueryDictionary dictionary = new QueryDictionary(16);
+        TransactionLogCodec codec = new TransactionLogCodec(dictionary);
+
+        for (TransactionLog transactionLog : TxLogUtils.createTestTransactionLogs()) {
+            assertEquals(json(transactionLog), json(codec.decode(codec.encode(transactionLog))));
+
+            TransactionLogCodec.Details details = codec.decodeDetails(codec.encodeDetails(transactionLog));
+            assertEquals(json(transactionLog.getEvents()), json(details.events()));
+            assertEquals(transactionLog.getExecutedQuires(), details.executedQuires() == null ? List.of()
+                    : details.executedQuires());
+            assertEquals(transactionLog.getChild().size(), details.child().size());
+        }
+    }
+
+    @Test
+    void shouldRestoreAlarmingFlagRegardlessOfThreshold() {
+        for (long micros : new long[]{0L, 1L, 999L, 1_000L, 1_001L, 1_500_000L}) {
+            for (boolean alarming : new boolean[]{true, false}) {
+                long threshold = TransactionLogCodec.alarmingThresholdOf(micros, alarming);
+                assertEquals(alarming, micros > threshold * 1_000L);
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownFormatVersion() {
+        TransactionLogCodec codec = new TransactionLogCodec(new QueryDictionary(16));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[]{42}));
+    }
+}
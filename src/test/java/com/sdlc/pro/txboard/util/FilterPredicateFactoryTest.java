@@ -0,0 +1,108 @@
+package com.sdlc.pro.txboard.util;
+
+import com.sdlc.pro.txboard.domain.Filter;
+import com.sdlc.pro.txboard.domain.FilterGroup;
+import com.sdlc.pro.txboard.domain.FilterNode;
+import com.sdlc.pro.txboard.enums.TransactionPhaseStatus;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterPredicateFactoryTest {
+    private static final List<TransactionLog> LOGS = TxLogUtils.createTestTransactionLogs();
+
+    private static long count(FilterNode filter) {
+        Predicate<TransactionLog> predicate = FilterPredicateFactory.compile(filter, TransactionLog.class);
+        return LOGS.stream().filter(predicate).count();
+    }
+
+    @Test
+    void shouldMatchStringsCaseInsensitively() {
+        assertEquals(LOGS.stream().filter(log -> log.getMethod().startsWith("OrderService")).count(),
+                count(Filter.of("method", "orderservice", Filter.Operator.STARTS_WITH)));
+        assertEquals(LOGS.stream().filter(log -> log.getMethod().toLowerCase().contains("payment")).count(),
+                count(Filter.of("method", "PAYMENT", Filter.Operator.CONTAINS)));
+        assertEquals(LOGS.stream().filter(log -> log.getMethod().endsWith("Order")).count(),
+                count(Filter.of("method", "oRdEr", Filter.Operator.ENDS_WITH)));
+        assertEquals(0L, count(Filter.of("method", "payment", Filter.Operator.EQUALS)));
+    }
+
+    @Test
+    void shouldMatchStringsContainedInACollectionField() {
+        assertEquals(LOGS.stream().filter(log -> log.getExecutedQuires().stream()
+                        .anyMatch(query -> query.toLowerCase().contains("inventory"))).count(),
+                count(Filter.of("executedQuires", "INVENTORY", Filter.Operator.CONTAINS)));
+        String query = LOGS.get(0).getExecutedQuires().get(0);
+        assertTrue(count(Filter.of("executedQuires", query, Filter.Operator.CONTAINS)) >= 1L);
+        assertEquals(0L, count(Filter.of("executedQuires", "no_such_table", Filter.Operator.CONTAINS)));
+    }
+
+    @Test
+    void shouldCompareLongFieldsWithoutBoxing() {
+        assertEquals(LOGS.stream().filter(log -> log.getDuration() > 1000L).count(),
+                count(Filter.of("duration", 1000L, Filter.Operator.GREATER_THAN)));
+        assertEquals(LOGS.stream().filter(log -> log.getDuration() <= 150L).count(),
+                count(Filter.of("duration", 150L, Filter.Operator.LESS_THAN_OR_EQUALS)));
+    }
+
+    @Test
+    void shouldNotMatchValueOfDifferentTypeThanTheField() {
+        // same as the boxed comparison, an Integer never equals a long field
+        assertEquals(0L, count(Filter.of("duration", 150, Filter.Operator.EQUALS)));
+        assertEquals(0L, count(Filter.of("duration", 150, Filter.Operator.GREATER_THAN)));
+        assertEquals(0L, count(Filter.of("status", "COMMITTED", Filter.Operator.EQUALS)));
+    }
+
+    @Test
+    void shouldMatchEnumAndBooleanFields() {
+        assertEquals(4L, count(Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS)));
+        assertEquals(2L, count(Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.NOT_EQUALS)));
+        assertEquals(LOGS.stream().filter(TransactionLog::isAlarmingTransaction).count(),
+                count(Filter.of("alarmingTransaction", true, Filter.Operator.EQUALS)));
+        assertEquals(LOGS.stream().filter(log -> Boolean.TRUE.equals(log.getConnectionOriented())).count(),
+                count(Filter.of("connectionOriented", true, Filter.Operator.EQUALS)));
+    }
+
+    @Test
+    void shouldNeverMatchUnknownField() {
+        assertEquals(0L, count(Filter.of("unknown", "value", Filter.Operator.EQUALS)));
+        assertEquals(0L, count(Filter.of("unknown", "value", Filter.Operator.NOT_EQUALS)));
+    }
+
+    @Test
+    void shouldCombineGroups() {
+        FilterNode search = FilterGroup.of(List.of(
+                Filter.of("method", "payment", Filter.Operator.CONTAINS),
+                Filter.of("thread", "payment", Filter.Operator.CONTAINS)
+        ), FilterGroup.Logic.OR);
+        FilterNode filter = FilterGroup.of(List.of(
+                search, Filter.of("status", TransactionPhaseStatus.COMMITTED, Filter.Operator.EQUALS)
+        ), FilterGroup.Logic.AND);
+
+        long expected = LOGS.stream()
+                .filter(log -> log.getMethod().toLowerCase().contains("payment")
+                        || log.getThread().toLowerCase().contains("payment"))
+                .filter(log -> log.getStatus() == TransactionPhaseStatus.COMMITTED)
+                .count();
+        assertEquals(expected, count(filter));
+        assertEquals(LOGS.size(), count(FilterGroup.of(List.of(), FilterGroup.Logic.AND)));
+        assertEquals(0L, count(FilterGroup.of(List.of(), FilterGroup.Logic.OR)));
+        assertEquals(LOGS.size(), count(FilterNode.UNFILTERED));
+    }
+
+    @Test
+    void shouldCompileLazilyForTheClassOfTheItems() {
+        Predicate<Object> predicate = FilterPredicateFactory.buildPredicate(
+                Filter.of("method", "service", Filter.Operator.CONTAINS)
+        );
+
+        assertTrue(predicate.test(LOGS.get(0)));
+        assertFalse(predicate.test("a string has no method field"));
+        assertFalse(predicate.test(null));
+        assertTrue(predicate.test(LOGS.get(1)));
+    }
+}
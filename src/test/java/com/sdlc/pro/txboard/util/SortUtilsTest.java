@@ -0,0 +1,82 @@
+package com.sdlc.pro.txboard.util;
+
+import com.sdlc.pro.txboard.domain.Sort;
+import com.sdlc.pro.txboard.model.ConnectionSummary;
+import com.sdlc.pro.txboard.model.TransactionLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortUtilsTest {
+    private static final List<TransactionLog> LOGS = TxLogUtils.createTestTransactionLogs();
+
+    @Test
+    void shouldSortByPrimitiveProperty() {
+        List<TransactionLog> ascending = SortUtils.sort(LOGS, Sort.by("duration", Sort.Direction.ASC));
+        assertEquals(LOGS.stream().sorted(Comparator.comparingLong(TransactionLog::getDuration)).toList(), ascending);
+
+        List<TransactionLog> descending = SortUtils.sort(LOGS, Sort.by("duration", Sort.Direction.DESC));
+        assertEquals(LOGS.stream().sorted(Comparator.comparingLong(TransactionLog::getDuration).reversed()).toList(),
+                descending);
+    }
+
+    @Test
+    void shouldSortByInstantAndStringProperty() {
+        assertEquals(LOGS.stream().sorted(Comparator.comparing(TransactionLog::getStartTime).reversed()).toList(),
+                SortUtils.sort(LOGS, Sort.by("startTime", Sort.Direction.DESC)));
+        assertEquals(LOGS.stream().sorted(Comparator.comparing(TransactionLog::getMethod)).toList(),
+                SortUtils.sort(LOGS, Sort.by("method", Sort.Direction.ASC)));
+    }
+
+    @Test
+    void shouldPlaceNullsFirstInAscendingAndLastInDescendingOrder() {
+        Comparator<TransactionLog> nullsFirst = Comparator.comparing(TransactionLog::getConnectionOriented,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        assertEquals(LOGS.stream().sorted(nullsFirst).toList(),
+                SortUtils.sort(LOGS, Sort.by("connectionOriented", Sort.Direction.ASC)));
+        assertEquals(LOGS.stream().sorted(nullsFirst.reversed()).toList(),
+                SortUtils.sort(LOGS, Sort.by("connectionOriented", Sort.Direction.DESC)));
+    }
+
+    @Test
+    void shouldKeepOriginalOrderOfEqualKeys() {
+        List<ConnectionSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            summaries.add(new ConnectionSummary(i, 0, i % 3));
+        }
+
+        List<ConnectionSummary> sorted = SortUtils.sort(summaries, Sort.by("occupiedTime", Sort.Direction.DESC));
+        assertEquals(summaries.stream().sorted(Comparator.comparingLong(ConnectionSummary::occupiedTime).reversed()).toList(),
+                sorted);
+    }
+
+    @Test
+    void shouldSelectRequestedPageOnly() {
+        Random random = new Random(7);
+        List<ConnectionSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            summaries.add(new ConnectionSummary(i, 0, random.nextInt(50)));
+        }
+        Sort sort = Sort.by("occupiedTime", Sort.Direction.ASC);
+        List<ConnectionSummary> sorted = summaries.stream()
+                .sorted(Comparator.comparingLong(ConnectionSummary::occupiedTime))
+                .toList();
+
+        assertEquals(sorted.subList(0, 10), SortUtils.sortPage(summaries, sort, 0, 10));
+        assertEquals(sorted.subList(40, 60), SortUtils.sortPage(summaries, sort, 40, 20));
+        assertEquals(sorted.subList(990, 1000), SortUtils.sortPage(summaries, sort, 990, 20));
+        assertTrue(SortUtils.sortPage(summaries, sort, 1000, 20).isEmpty());
+    }
+
+    @Test
+    void shouldLeaveItemsUnsortedForUnknownProperty() {
+        assertEquals(LOGS, SortUtils.sort(LOGS, Sort.by("unknown", Sort.Direction.ASC)));
+        assertEquals(LOGS.subList(1, 3), SortUtils.sortPage(LOGS, Sort.UNSORTED, 1, 2));
+    }
+}
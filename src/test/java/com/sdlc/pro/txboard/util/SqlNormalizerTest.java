@@ -0,0 +1,57 @@
+package com.sdlc.pro.txboard.util;
+
+import org.junit.jupiter.api.Test;
+
+import static com.sdlc.pro.txboard.util.SqlNormalizer.LITERAL_MARKER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlNormalizerTest {
+
+    @Test
+    void shouldKeepStatementWithoutLiteralsAsIs() {
+        String sql = "select u1_0.id, u1_0.name from users u1_0 where u1_0.id=?";
+        SqlNormalizer.NormalizedSql normalizedSql = SqlNormalizer.normalize(sql);
+
+        assertSame(sql, normalizedSql.template());
+        assertEquals(0, normalizedSql.parameters().length);
+    }
+
+    @Test
+    void shouldStripStringAndNumericLiterals() {
+        SqlNormalizer.NormalizedSql normalizedSql = SqlNormalizer.normalize(
+                "SELECT * FROM table2 t1 WHERE t1.name = 'O''Brien' AND t1.age > 42 AND t1.score < 1.5e3"
+        );
+
+        assertEquals("SELECT * FROM table2 t1 WHERE t1.name = " + LITERAL_MARKER + " AND t1.age > " + LITERAL_MARKER
+                + " AND t1.score < " + LITERAL_MARKER, normalizedSql.template());
+        assertArrayEquals(new String[]{"'O''Brien'", "42", "1.5e3"}, normalizedSql.parameters());
+    }
+
+    @Test
+    void shouldNotTreatQuotedIdentifiersAndCommentsAsLiterals() {
+        String sql = "SELECT \"col 1\" FROM t /* limit 10 */ -- 'comment'\nWHERE x = ?";
+        SqlNormalizer.NormalizedSql normalizedSql = SqlNormalizer.normalize(sql);
+
+        assertEquals(sql, normalizedSql.template());
+        assertEquals(0, normalizedSql.parameters().length);
+    }
+
+    @Test
+    void shouldRenderTemplateBackToOriginalStatement() {
+        String sql = "UPDATE users SET name = 'John', age = 30 WHERE id IN (1, 2, 3)";
+        SqlNormalizer.NormalizedSql normalizedSql = SqlNormalizer.normalize(sql);
+
+        assertEquals(sql, SqlNormalizer.render(normalizedSql.template(), normalizedSql.parameters()));
+        assertEquals("UPDATE users SET name = ?, age = ? WHERE id IN (?, ?, ?)",
+                SqlNormalizer.render(normalizedSql.template(), null));
+    }
+
+    @Test
+    void shouldCollapseInListArityAndWhitespaceInFingerprint() {
+        String first = SqlNormalizer.normalize("SELECT * FROM users WHERE id IN (1, 2, 3)").template();
+        String second = SqlNormalizer.normalize("SELECT *  FROM users\nWHERE id in (?,?)").template();
+
+        assertEquals("SELECT * FROM users WHERE id IN (...)", SqlNormalizer.fingerprint(first));
+        assertEquals(SqlNormalizer.fingerprint(first), SqlNormalizer.fingerprint(second));
+    }
+}
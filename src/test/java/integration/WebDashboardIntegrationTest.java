@@ -218,6 +218,14 @@ public class WebDashboardIntegrationTest {
 
             assertThat(durationDist.get(4).path("range").path("minMillis").asInt()).isEqualTo(2001);
             assertThat(durationDist.get(4).path("range").path("maxMillis").asInt()).isEqualTo(5000);
+
+            JsonNode batchSizeDist = json.get("batchSizeDistribution");
+            assertThat(batchSizeDist.isArray()).isTrue();
+            assertThat(batchSizeDist.size()).isEqualTo(7);
+            assertThat(batchSizeDist.get(0).path("range").path("minSize").asInt()).isEqualTo(1);
+            assertThat(batchSizeDist.get(0).path("range").path("maxSize").asInt()).isEqualTo(1);
+            assertThat(batchSizeDist.get(1).path("range").path("minSize").asInt()).isEqualTo(2);
+            assertThat(batchSizeDist.get(1).path("range").path("maxSize").asInt()).isEqualTo(10);
         }
 
         @Test